@@ -5,16 +5,26 @@ import com.google.inject.AbstractModule;
 import ar.edu.itba.protos.config.ConfigurationLoader;
 import ar.edu.itba.protos.protocol.admin.AdminProtocolParser;
 import ar.edu.itba.protos.protocol.admin.CommandExecutor;
+import ar.edu.itba.protos.transport.buffer.BufferPool;
 import ar.edu.itba.protos.transport.handler.AcceptHandler;
-import ar.edu.itba.protos.transport.handler.ConnectHandler;
 import ar.edu.itba.protos.transport.handler.ReadHandler;
 import ar.edu.itba.protos.transport.handler.WriteHandler;
 import ar.edu.itba.protos.transport.metrics.Metrics;
 import ar.edu.itba.protos.transport.reactor.Reactor;
+import ar.edu.itba.protos.transport.support.Admission;
+import ar.edu.itba.protos.transport.support.Balancer;
+import ar.edu.itba.protos.transport.support.CircuitBreaker;
+import ar.edu.itba.protos.transport.support.Connector;
+import ar.edu.itba.protos.transport.support.EventLoopGroup;
+import ar.edu.itba.protos.transport.support.HealthProber;
+import ar.edu.itba.protos.transport.support.ReadBudget;
+import ar.edu.itba.protos.transport.support.Resolver;
 import ar.edu.itba.protos.transport.support.Server;
 import ar.edu.itba.protos.transport.support.Synchronizer;
 import ar.edu.itba.protos.transport.support.ThreadingCore;
+import ar.edu.itba.protos.transport.support.UpstreamPool;
 import ar.edu.itba.protos.transport.support.WatchdogTimer;
+import ar.edu.itba.protos.transport.support.Watermarks;
 
 /**
  * Injector config object. We use a single, app-wide config because the project
@@ -26,7 +36,18 @@ public class DIModule extends AbstractModule {
     protected void configure() {
         bind(POP3Server.class);
         bind(Server.class);
+        bind(EventLoopGroup.class);
         bind(Metrics.class);
+        bind(BufferPool.class);
+        bind(Watermarks.class);
+        bind(ReadBudget.class);
+        bind(Admission.class);
+        bind(UpstreamPool.class);
+        bind(Resolver.class);
+        bind(Connector.class);
+        bind(Balancer.class);
+        bind(CircuitBreaker.class);
+        bind(HealthProber.class);
         bind(Reactor.class);
         bind(AdminProtocolParser.class);
         bind(CommandExecutor.class);
@@ -36,7 +57,6 @@ public class DIModule extends AbstractModule {
         bind(AcceptHandler.class);
         bind(ReadHandler.class);
         bind(WriteHandler.class);
-        bind(ConnectHandler.class);
         requestStaticInjection(CommandExecutor.class);
 
         bind(ConfigurationLoader.class);
@@ -14,13 +14,23 @@ import ar.edu.itba.protos.transport.concrete.AdminAttachmentFactory;
 import ar.edu.itba.protos.transport.concrete.ForwardAttachmentFactory;
 import ar.edu.itba.protos.transport.concrete.TestAttachmentFactory;
 import ar.edu.itba.protos.transport.handler.AcceptHandler;
-import ar.edu.itba.protos.transport.handler.ConnectHandler;
 import ar.edu.itba.protos.transport.handler.ReadHandler;
 import ar.edu.itba.protos.transport.handler.WriteHandler;
+import ar.edu.itba.protos.transport.idle.IdleStrategy;
 import ar.edu.itba.protos.transport.reactor.Event;
 import ar.edu.itba.protos.transport.reactor.Reactor;
+import ar.edu.itba.protos.transport.support.Admission;
+import ar.edu.itba.protos.transport.support.CircuitBreaker;
+import ar.edu.itba.protos.transport.support.Connector;
+import ar.edu.itba.protos.transport.support.ExecutionMode;
+import ar.edu.itba.protos.transport.support.HealthProber;
 import ar.edu.itba.protos.transport.support.Message;
+import ar.edu.itba.protos.transport.support.ReadBudget;
+import ar.edu.itba.protos.transport.support.Resolver;
 import ar.edu.itba.protos.transport.support.Server;
+import ar.edu.itba.protos.transport.support.ThreadingCore;
+import ar.edu.itba.protos.transport.support.UpstreamPool;
+import ar.edu.itba.protos.transport.support.Watermarks;
 
 /**
  * Ciclo principal de ejecución (master thread). Su función es levantar el
@@ -42,7 +52,31 @@ public final class POP3Server {
     @Inject private AcceptHandler acceptHandler;
     @Inject private ReadHandler readHandler;
     @Inject private WriteHandler writeHandler;
-    @Inject private ConnectHandler connectHandler;
+
+    // Núcleo de procesamiento de los handlers:
+    @Inject private ThreadingCore core;
+
+    // Control de flujo entre los extremos de cada circuito:
+    @Inject private Watermarks watermarks;
+
+    // Lecturas permitidas en cada evento:
+    @Inject private ReadBudget budget;
+
+    // Límites de sesiones concurrentes:
+    @Inject private Admission admission;
+
+    // Conexiones precalentadas hacia los servidores origen:
+    @Inject private UpstreamPool upstreams;
+
+    // Resolución de nombres de los servidores origen:
+    @Inject private Resolver resolver;
+
+    // Conexión en paralelo a las direcciones de cada servidor origen:
+    @Inject private Connector connector;
+    @Inject private CircuitBreaker breaker;
+
+    // Sondeo periódico de los servidores origen:
+    @Inject private HealthProber prober;
 
     @Inject
     private POP3Server(final Reactor demultiplexor, final Server pop3, final ConfigurationLoader configurator,
@@ -65,15 +99,37 @@ public final class POP3Server {
          */
         demultiplexor.add(acceptHandler, Event.ACCEPT)
         .add(readHandler, Event.READ)
-        .add(writeHandler, Event.WRITE)
-        .add(connectHandler, Event.CONNECT);
+        .add(writeHandler, Event.WRITE);
+
+        // Dónde se ejecutan los handlers:
+        core.setExecutionMode(getExecutionMode(config));
+
+        // Capacidad de los buffers de cada sesión:
+        setBufferSizes(config);
+        setWatermarks(config);
+        setReadBudget(config);
+        setAcceptBatch(config);
+        setAdmission(config);
+        setSocketOptions(config);
+        setUpstreamPool(config);
+        setResolver(config);
+        setConnector(config);
+        setCircuitBreaker(config);
+        setHealthProber(config);
+
+        // Estrategia de espera y cantidad de bucles de selección:
+        pop3.setIdleStrategy(() -> getIdleStrategy(config))
+        .setSubReactors(Math.max(0, config.getEventLoops()));
 
         /*
          ** Se instancia un nuevo servidor y se aplica un 'binding' en cada
          * dirección especificada:
          */
-        pop3.addListener(config.getListenAddr(), config.getListenPort(), forwardFactory)
-        .addListener(config.getAdminListenAddr(), config.getAdminListenPort(), adminFactory)
+        pop3.setBacklog(Math.max(0, config.getAcceptBacklog()))
+        .addListener(config.getListenAddr(), config.getListenPort(), forwardFactory,
+                Math.max(0, config.getMaxPop3Sessions()))
+        .addListener(config.getAdminListenAddr(), config.getAdminListenPort(), adminFactory,
+                Math.max(0, config.getMaxAdminSessions()))
         .addListener("0.0.0.0", 60000, testFactory);
 
         try {
@@ -87,6 +143,13 @@ public final class POP3Server {
             logger.error(Message.CANNOT_RAISE.getMessage());
         }
 
+        // Cerrar las conexiones precalentadas:
+        upstreams.shutdown();
+        resolver.shutdown();
+        connector.shutdown();
+        breaker.shutdown();
+        prober.shutdown();
+
         // Quitar todos los manejadores del demultiplexor global:
         demultiplexor.unplug();
 
@@ -95,4 +158,126 @@ public final class POP3Server {
 
         logger.info(Message.SHUTDOWN_COMPLETE.getMessage());
     }
+
+    private static ExecutionMode getExecutionMode(final ProxyConfiguration config) {
+        try {
+            return ExecutionMode.forName(config.getExecutionMode());
+        } catch (final IllegalArgumentException exception) {
+            logger.error(Message.INVALID_EXECUTION_MODE.getMessage(), config.getExecutionMode());
+            return ExecutionMode.POOLED;
+        }
+    }
+
+    private void setBufferSizes(final ProxyConfiguration config) {
+        try {
+            forwardFactory.setBufferSizes(config.getBufferSize(), config.getMaxBufferSize());
+        } catch (final IllegalArgumentException exception) {
+            logger.error(Message.INVALID_BUFFER_SIZES.getMessage(),
+                    config.getBufferSize(), config.getMaxBufferSize());
+        }
+    }
+
+    private void setWatermarks(final ProxyConfiguration config) {
+        try {
+            watermarks.set(config.getHighWatermark(), config.getLowWatermark());
+        } catch (final IllegalArgumentException exception) {
+            logger.error(Message.INVALID_WATERMARKS.getMessage(),
+                    config.getHighWatermark(), config.getLowWatermark());
+        }
+    }
+
+    private void setReadBudget(final ProxyConfiguration config) {
+        try {
+            budget.set(config.getReadBudget(), config.getReadBudgetBytes());
+        } catch (final IllegalArgumentException exception) {
+            logger.error(Message.INVALID_READ_BUDGET.getMessage(),
+                    config.getReadBudget(), config.getReadBudgetBytes());
+        }
+    }
+
+    private void setAcceptBatch(final ProxyConfiguration config) {
+        try {
+            acceptHandler.setBatch(config.getAcceptBatch());
+        } catch (final IllegalArgumentException exception) {
+            logger.error(Message.INVALID_ACCEPT_BATCH.getMessage(), config.getAcceptBatch());
+        }
+    }
+
+    private void setAdmission(final ProxyConfiguration config) {
+        try {
+            admission.set(config.getMaxSessions(), config.getAdmissionLowWatermark());
+        } catch (final IllegalArgumentException exception) {
+            logger.error(Message.INVALID_ADMISSION.getMessage(),
+                    config.getMaxSessions(), config.getAdmissionLowWatermark());
+        }
+    }
+
+    private void setUpstreamPool(final ProxyConfiguration config) {
+        try {
+            upstreams.set(config.getUpstreamPoolSize(), config.getUpstreamPoolTtl());
+        } catch (final IllegalArgumentException exception) {
+            logger.error(Message.INVALID_UPSTREAM_POOL.getMessage(),
+                    config.getUpstreamPoolSize(), config.getUpstreamPoolTtl());
+        }
+    }
+
+    private void setResolver(final ProxyConfiguration config) {
+        try {
+            resolver.set(config.getDnsCacheTtl(), config.getDnsNegativeTtl());
+        } catch (final IllegalArgumentException exception) {
+            logger.error(Message.INVALID_RESOLVER.getMessage(),
+                    config.getDnsCacheTtl(), config.getDnsNegativeTtl());
+        }
+    }
+
+    private void setConnector(final ProxyConfiguration config) {
+        try {
+            connector.set(config.getConnectStagger(), config.getConnectTimeout());
+        } catch (final IllegalArgumentException exception) {
+            logger.error(Message.INVALID_CONNECTOR.getMessage(),
+                    config.getConnectStagger(), config.getConnectTimeout());
+        }
+    }
+
+    private void setCircuitBreaker(final ProxyConfiguration config) {
+        try {
+            breaker.set(config.getBreakerThreshold(), config.getBreakerOpenTime(),
+                    config.getGreetingTimeout());
+        } catch (final IllegalArgumentException exception) {
+            logger.error(Message.INVALID_CIRCUIT_BREAKER.getMessage(), config.getBreakerThreshold(),
+                    config.getBreakerOpenTime(), config.getGreetingTimeout());
+        }
+    }
+
+    private void setHealthProber(final ProxyConfiguration config) {
+        try {
+            prober.set(config.getHealthCheckInterval(), config.getHealthCheckTimeout());
+        } catch (final IllegalArgumentException exception) {
+            logger.error(Message.INVALID_HEALTH_PROBER.getMessage(),
+                    config.getHealthCheckInterval(), config.getHealthCheckTimeout());
+        }
+        prober.setTargets(forwardFactory::getUpstreams);
+    }
+
+    private void setSocketOptions(final ProxyConfiguration config) {
+        try {
+            forwardFactory.setSocketOptions(config.getClientSocket().toSocketOptions(),
+                    config.getUpstreamSocket().toSocketOptions());
+            adminFactory.setSocketOptions(config.getAdminSocket().toSocketOptions());
+        } catch (final IllegalArgumentException exception) {
+            logger.error(Message.INVALID_SOCKET_OPTIONS.getMessage(),
+                    String.join(", ", String.valueOf(config.getClientSocket()),
+                            String.valueOf(config.getAdminSocket()),
+                            String.valueOf(config.getUpstreamSocket())));
+        }
+    }
+
+    private static IdleStrategy getIdleStrategy(final ProxyConfiguration config) {
+        try {
+            return IdleStrategy.forName(config.getIdleStrategy(), config.getSelectTimeout());
+        } catch (final IllegalArgumentException exception) {
+            logger.error(Message.INVALID_IDLE_STRATEGY.getMessage(), config.getIdleStrategy());
+            return IdleStrategy.forName(IdleStrategy.BLOCKING, config.getSelectTimeout());
+        }
+    }
 }
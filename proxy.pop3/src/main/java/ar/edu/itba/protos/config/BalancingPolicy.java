@@ -0,0 +1,69 @@
+package ar.edu.itba.protos.config;
+
+import javax.xml.bind.annotation.XmlEnum;
+import javax.xml.bind.annotation.XmlEnumValue;
+
+/**
+ * <p>Define cómo se elige la réplica de un pool de servidores origen
+ * (ver <b>UpstreamGroup</b>) para cada nueva sesión.</p>
+ *
+ * <ul>
+ *	<li><b>LEAST_SESSIONS</b>: la réplica con menos sesiones activas
+ *	en relación a su peso.</li>
+ *	<li><b>LATENCY</b>: la réplica con menor latencia de conexión y
+ *	<i>greeting</i> (promedio exponencial), ponderada por sus
+ *	sesiones activas y su peso.</li>
+ * </ul>
+ */
+
+@XmlEnum
+public enum BalancingPolicy {
+
+    @XmlEnumValue("least-sessions")
+    LEAST_SESSIONS("least-sessions"),
+
+    @XmlEnumValue("latency")
+    LATENCY("latency");
+
+    // El nombre utilizado por configuración:
+    private final String name;
+
+    private BalancingPolicy(final String name) {
+
+        this.name = name;
+    }
+
+    /**
+     * <p>Devuelve el nombre de la política, tal cual se especifica
+     * por configuración.</p>
+     *
+     * @return El nombre de la política.
+     */
+
+    public String getName() {
+
+        return name;
+    }
+
+    /**
+     * <p>Obtiene la política a partir de su nombre.</p>
+     *
+     * @param name
+     *	El nombre de la política (sin importar mayúsculas).
+     *
+     * @return La política solicitada.
+     *
+     * @throws IllegalArgumentException
+     *	Si el nombre no se corresponde con ninguna política.
+     */
+
+    public static BalancingPolicy forName(final String name) {
+
+        for (final BalancingPolicy policy : values()) {
+            if (policy.name.equalsIgnoreCase(name)) {
+                return policy;
+            }
+        }
+        throw new IllegalArgumentException(name);
+    }
+}
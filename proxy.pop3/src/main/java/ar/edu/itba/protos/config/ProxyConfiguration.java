@@ -9,6 +9,36 @@ public final class ProxyConfiguration {
     private String adminListenAddr = "127.0.0.1";
     private int listenPort = 1110;
     private int adminListenPort = 1666;
+    private String idleStrategy = "blocking";
+    private long selectTimeout = 1000;
+    private int eventLoops = Runtime.getRuntime().availableProcessors();
+    private String executionMode = "pooled";
+    private int bufferSize = 2048;
+    private int maxBufferSize = 32768;
+    private int highWatermark = 75;
+    private int lowWatermark = 25;
+    private int readBudget = 16;
+    private int readBudgetBytes = 262144;
+    private int acceptBatch = 64;
+    private int maxSessions = 0;
+    private int maxPop3Sessions = 0;
+    private int maxAdminSessions = 0;
+    private int admissionLowWatermark = 90;
+    private int acceptBacklog = 128;
+    private int upstreamPoolSize = 2;
+    private long upstreamPoolTtl = 30000;
+    private long dnsCacheTtl = 60000;
+    private long dnsNegativeTtl = 5000;
+    private long connectStagger = 250;
+    private long connectTimeout = 10000;
+    private int breakerThreshold = 5;
+    private long breakerOpenTime = 10000;
+    private long greetingTimeout = 5000;
+    private long healthCheckInterval = 5000;
+    private long healthCheckTimeout = 2000;
+    private SocketConfiguration clientSocket = new SocketConfiguration(true, null, 0, 0);
+    private SocketConfiguration adminSocket = new SocketConfiguration(true, null, 0, 0);
+    private SocketConfiguration upstreamSocket = new SocketConfiguration(true, null, 0, 0);
 
     public String getListenAddr() {
         return listenAddr;
@@ -46,4 +76,274 @@ public final class ProxyConfiguration {
         this.adminListenPort = adminListenPort;
     }
 
+    public String getIdleStrategy() {
+        return idleStrategy;
+    }
+
+    @XmlElement
+    public void setIdleStrategy(final String idleStrategy) {
+        this.idleStrategy = idleStrategy;
+    }
+
+    public long getSelectTimeout() {
+        return selectTimeout;
+    }
+
+    @XmlElement
+    public void setSelectTimeout(final long selectTimeout) {
+        this.selectTimeout = selectTimeout;
+    }
+
+    public int getEventLoops() {
+        return eventLoops;
+    }
+
+    @XmlElement
+    public void setEventLoops(final int eventLoops) {
+        this.eventLoops = eventLoops;
+    }
+
+    public String getExecutionMode() {
+        return executionMode;
+    }
+
+    @XmlElement
+    public void setExecutionMode(final String executionMode) {
+        this.executionMode = executionMode;
+    }
+
+    public int getBufferSize() {
+        return bufferSize;
+    }
+
+    @XmlElement
+    public void setBufferSize(final int bufferSize) {
+        this.bufferSize = bufferSize;
+    }
+
+    public int getMaxBufferSize() {
+        return maxBufferSize;
+    }
+
+    @XmlElement
+    public void setMaxBufferSize(final int maxBufferSize) {
+        this.maxBufferSize = maxBufferSize;
+    }
+
+    public int getHighWatermark() {
+        return highWatermark;
+    }
+
+    @XmlElement
+    public void setHighWatermark(final int highWatermark) {
+        this.highWatermark = highWatermark;
+    }
+
+    public int getLowWatermark() {
+        return lowWatermark;
+    }
+
+    @XmlElement
+    public void setLowWatermark(final int lowWatermark) {
+        this.lowWatermark = lowWatermark;
+    }
+
+    public int getReadBudget() {
+        return readBudget;
+    }
+
+    @XmlElement
+    public void setReadBudget(final int readBudget) {
+        this.readBudget = readBudget;
+    }
+
+    public int getReadBudgetBytes() {
+        return readBudgetBytes;
+    }
+
+    @XmlElement
+    public void setReadBudgetBytes(final int readBudgetBytes) {
+        this.readBudgetBytes = readBudgetBytes;
+    }
+
+    public int getAcceptBatch() {
+        return acceptBatch;
+    }
+
+    @XmlElement
+    public void setAcceptBatch(final int acceptBatch) {
+        this.acceptBatch = acceptBatch;
+    }
+
+    public int getMaxSessions() {
+        return maxSessions;
+    }
+
+    @XmlElement
+    public void setMaxSessions(final int maxSessions) {
+        this.maxSessions = maxSessions;
+    }
+
+    public int getMaxPop3Sessions() {
+        return maxPop3Sessions;
+    }
+
+    @XmlElement
+    public void setMaxPop3Sessions(final int maxPop3Sessions) {
+        this.maxPop3Sessions = maxPop3Sessions;
+    }
+
+    public int getMaxAdminSessions() {
+        return maxAdminSessions;
+    }
+
+    @XmlElement
+    public void setMaxAdminSessions(final int maxAdminSessions) {
+        this.maxAdminSessions = maxAdminSessions;
+    }
+
+    public int getAdmissionLowWatermark() {
+        return admissionLowWatermark;
+    }
+
+    @XmlElement
+    public void setAdmissionLowWatermark(final int admissionLowWatermark) {
+        this.admissionLowWatermark = admissionLowWatermark;
+    }
+
+    public int getAcceptBacklog() {
+        return acceptBacklog;
+    }
+
+    @XmlElement
+    public void setAcceptBacklog(final int acceptBacklog) {
+        this.acceptBacklog = acceptBacklog;
+    }
+
+    public int getUpstreamPoolSize() {
+        return upstreamPoolSize;
+    }
+
+    @XmlElement
+    public void setUpstreamPoolSize(final int upstreamPoolSize) {
+        this.upstreamPoolSize = upstreamPoolSize;
+    }
+
+    public long getUpstreamPoolTtl() {
+        return upstreamPoolTtl;
+    }
+
+    @XmlElement
+    public void setUpstreamPoolTtl(final long upstreamPoolTtl) {
+        this.upstreamPoolTtl = upstreamPoolTtl;
+    }
+
+    public long getDnsCacheTtl() {
+        return dnsCacheTtl;
+    }
+
+    @XmlElement
+    public void setDnsCacheTtl(final long dnsCacheTtl) {
+        this.dnsCacheTtl = dnsCacheTtl;
+    }
+
+    public long getDnsNegativeTtl() {
+        return dnsNegativeTtl;
+    }
+
+    @XmlElement
+    public void setDnsNegativeTtl(final long dnsNegativeTtl) {
+        this.dnsNegativeTtl = dnsNegativeTtl;
+    }
+
+    public long getConnectStagger() {
+        return connectStagger;
+    }
+
+    @XmlElement
+    public void setConnectStagger(final long connectStagger) {
+        this.connectStagger = connectStagger;
+    }
+
+    public long getConnectTimeout() {
+        return connectTimeout;
+    }
+
+    @XmlElement
+    public void setConnectTimeout(final long connectTimeout) {
+        this.connectTimeout = connectTimeout;
+    }
+
+    public int getBreakerThreshold() {
+        return breakerThreshold;
+    }
+
+    @XmlElement
+    public void setBreakerThreshold(final int breakerThreshold) {
+        this.breakerThreshold = breakerThreshold;
+    }
+
+    public long getBreakerOpenTime() {
+        return breakerOpenTime;
+    }
+
+    @XmlElement
+    public void setBreakerOpenTime(final long breakerOpenTime) {
+        this.breakerOpenTime = breakerOpenTime;
+    }
+
+    public long getGreetingTimeout() {
+        return greetingTimeout;
+    }
+
+    @XmlElement
+    public void setGreetingTimeout(final long greetingTimeout) {
+        this.greetingTimeout = greetingTimeout;
+    }
+
+    public long getHealthCheckInterval() {
+        return healthCheckInterval;
+    }
+
+    @XmlElement
+    public void setHealthCheckInterval(final long healthCheckInterval) {
+        this.healthCheckInterval = healthCheckInterval;
+    }
+
+    public long getHealthCheckTimeout() {
+        return healthCheckTimeout;
+    }
+
+    @XmlElement
+    public void setHealthCheckTimeout(final long healthCheckTimeout) {
+        this.healthCheckTimeout = healthCheckTimeout;
+    }
+
+    public SocketConfiguration getClientSocket() {
+        return clientSocket;
+    }
+
+    @XmlElement
+    public void setClientSocket(final SocketConfiguration clientSocket) {
+        this.clientSocket = clientSocket;
+    }
+
+    public SocketConfiguration getAdminSocket() {
+        return adminSocket;
+    }
+
+    @XmlElement
+    public void setAdminSocket(final SocketConfiguration adminSocket) {
+        this.adminSocket = adminSocket;
+    }
+
+    public SocketConfiguration getUpstreamSocket() {
+        return upstreamSocket;
+    }
+
+    @XmlElement
+    public void setUpstreamSocket(final SocketConfiguration upstreamSocket) {
+        this.upstreamSocket = upstreamSocket;
+    }
+
 }
@@ -0,0 +1,76 @@
+package ar.edu.itba.protos.config;
+
+import javax.xml.bind.annotation.XmlAccessType;
+import javax.xml.bind.annotation.XmlAccessorType;
+import javax.xml.bind.annotation.XmlAttribute;
+
+import ar.edu.itba.protos.transport.support.SocketOptions;
+
+@XmlAccessorType(XmlAccessType.FIELD)
+public class SocketConfiguration {
+
+    @XmlAttribute(name = "no-delay")
+    private Boolean noDelay;
+
+    @XmlAttribute(name = "keep-alive")
+    private Boolean keepAlive;
+
+    @XmlAttribute(name = "receive-buffer")
+    private int receiveBuffer = 0;
+
+    @XmlAttribute(name = "send-buffer")
+    private int sendBuffer = 0;
+
+    public SocketConfiguration(final Boolean noDelay, final Boolean keepAlive,
+            final int receiveBuffer, final int sendBuffer) {
+        this.noDelay = noDelay;
+        this.keepAlive = keepAlive;
+        this.receiveBuffer = receiveBuffer;
+        this.sendBuffer = sendBuffer;
+    }
+
+    public SocketConfiguration() {
+    }
+
+    public Boolean getNoDelay() {
+        return noDelay;
+    }
+
+    public void setNoDelay(final Boolean noDelay) {
+        this.noDelay = noDelay;
+    }
+
+    public Boolean getKeepAlive() {
+        return keepAlive;
+    }
+
+    public void setKeepAlive(final Boolean keepAlive) {
+        this.keepAlive = keepAlive;
+    }
+
+    public int getReceiveBuffer() {
+        return receiveBuffer;
+    }
+
+    public void setReceiveBuffer(final int receiveBuffer) {
+        this.receiveBuffer = receiveBuffer;
+    }
+
+    public int getSendBuffer() {
+        return sendBuffer;
+    }
+
+    public void setSendBuffer(final int sendBuffer) {
+        this.sendBuffer = sendBuffer;
+    }
+
+    public SocketOptions toSocketOptions() {
+        return new SocketOptions(noDelay, keepAlive, receiveBuffer, sendBuffer);
+    }
+
+    @Override
+    public String toString() {
+        return String.format("no-delay=%s, keep-alive=%s, receive-buffer=%d, send-buffer=%d",
+                noDelay, keepAlive, receiveBuffer, sendBuffer);
+    }
+}
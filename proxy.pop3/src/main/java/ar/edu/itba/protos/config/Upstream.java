@@ -5,6 +5,8 @@ import javax.xml.bind.annotation.XmlAccessorType;
 import javax.xml.bind.annotation.XmlAttribute;
 import javax.xml.bind.annotation.XmlValue;
 
+import ar.edu.itba.protos.transport.support.SocketOptions;
+
 @XmlAccessorType(XmlAccessType.FIELD)
 public class Upstream {
     public String getHost() {
@@ -29,6 +31,45 @@ public class Upstream {
     @XmlAttribute(name = "port")
     private int port = 110;
 
+    // Peso relativo dentro de un pool de réplicas (ver UpstreamGroup):
+    @XmlAttribute(name = "weight")
+    private int weight = 1;
+
+    // Opciones de socket propias de este servidor (opcionales):
+    @XmlAttribute(name = "no-delay")
+    private Boolean noDelay;
+
+    @XmlAttribute(name = "keep-alive")
+    private Boolean keepAlive;
+
+    @XmlAttribute(name = "receive-buffer")
+    private int receiveBuffer = 0;
+
+    @XmlAttribute(name = "send-buffer")
+    private int sendBuffer = 0;
+
+    public int getWeight() {
+        return weight;
+    }
+
+    public void setWeight(final int weight) {
+        if (weight <= 0) {
+            throw new IllegalArgumentException("Invalid weight: " + weight);
+        }
+        this.weight = weight;
+    }
+
+    public SocketOptions getSocketOptions() {
+        return new SocketOptions(noDelay, keepAlive, receiveBuffer, sendBuffer);
+    }
+
+    public void setSocketOptions(final SocketOptions options) {
+        noDelay = options.getNoDelay();
+        keepAlive = options.getKeepAlive();
+        receiveBuffer = options.getReceiveBuffer();
+        sendBuffer = options.getSendBuffer();
+    }
+
     public Upstream(final String host, final int port) {
         this.host = host;
         this.port = port;
@@ -37,6 +78,37 @@ public class Upstream {
     public Upstream() {
     }
 
+    /**
+     * Interpreta una réplica con el formato <i>host:port[@weight]</i>
+     * (las direcciones IPv6 se escriben entre corchetes).
+     *
+     * @throws IllegalArgumentException
+     *  Si el puerto o el peso son inválidos.
+     */
+    public static Upstream parse(final String replica) {
+        final int at = replica.lastIndexOf('@');
+        final String address = at < 0 ? replica : replica.substring(0, at);
+        final int colon = address.lastIndexOf(':');
+        if (colon <= 0 || address.endsWith("]") || colon == address.length() - 1) {
+            throw new IllegalArgumentException("Invalid replica: " + replica);
+        }
+
+        String host = address.substring(0, colon);
+        if (host.startsWith("[") && host.endsWith("]")) {
+            host = host.substring(1, host.length() - 1);
+        }
+        final int port = Integer.parseInt(address.substring(colon + 1));
+        if (port <= 0 || 65535 < port) {
+            throw new IllegalArgumentException("Invalid port: " + port);
+        }
+
+        final Upstream upstream = new Upstream(host, port);
+        if (0 <= at) {
+            upstream.setWeight(Integer.parseInt(replica.substring(at + 1)));
+        }
+        return upstream;
+    }
+
     @Override
     public String toString() {
         return String.format("%s:%d", getHost(), getPort());
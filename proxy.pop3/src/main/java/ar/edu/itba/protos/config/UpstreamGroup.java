@@ -0,0 +1,86 @@
+package ar.edu.itba.protos.config;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import javax.xml.bind.annotation.XmlAccessType;
+import javax.xml.bind.annotation.XmlAccessorType;
+import javax.xml.bind.annotation.XmlAttribute;
+import javax.xml.bind.annotation.XmlElement;
+
+/**
+ * Un pool de réplicas equivalentes de un servidor origen, cada una con
+ * su peso, y la política con la cual se reparten las nuevas sesiones
+ * (ver <b>Balancer</b>). Un servidor único es un pool de una réplica.
+ */
+@XmlAccessorType(XmlAccessType.FIELD)
+public class UpstreamGroup {
+
+    public static final BalancingPolicy POLICY = BalancingPolicy.LATENCY;
+
+    @XmlAttribute(name = "policy")
+    private BalancingPolicy policy = POLICY;
+
+    @XmlElement(name = "upstream")
+    private List<Upstream> replicas = new ArrayList<>();
+
+    public UpstreamGroup(final BalancingPolicy policy, final List<Upstream> replicas) {
+        if (replicas.isEmpty()) {
+            throw new IllegalArgumentException("Empty upstream pool");
+        }
+        this.policy = policy;
+        this.replicas = new ArrayList<>(replicas);
+    }
+
+    public UpstreamGroup() {
+    }
+
+    public static UpstreamGroup of(final Upstream... replicas) {
+        return new UpstreamGroup(POLICY, Arrays.asList(replicas));
+    }
+
+    /**
+     * Interpreta una lista de réplicas con el formato
+     * <i>host:port[@weight]</i>, seguida opcionalmente del nombre de
+     * la política (ver <b>BalancingPolicy</b>).
+     *
+     * @throws IllegalArgumentException
+     *  Si alguna réplica es inválida, o si no hay réplicas.
+     */
+    public static UpstreamGroup parse(final String... tokens) {
+        BalancingPolicy policy = POLICY;
+        int count = tokens.length;
+        if (0 < count && tokens[count - 1].indexOf(':') < 0) {
+            policy = BalancingPolicy.forName(tokens[--count]);
+        }
+
+        final List<Upstream> replicas = new ArrayList<>();
+        for (int i = 0; i < count; ++i) {
+            replicas.add(Upstream.parse(tokens[i]));
+        }
+        return new UpstreamGroup(policy, replicas);
+    }
+
+    public BalancingPolicy getPolicy() {
+        return policy;
+    }
+
+    public List<Upstream> getReplicas() {
+        return Collections.unmodifiableList(replicas);
+    }
+
+    public boolean isSingle() {
+        return replicas.size() == 1;
+    }
+
+    @Override
+    public String toString() {
+        final String pool = replicas.stream()
+                .map(r -> r.getWeight() == 1 ? r.toString() : r + "@" + r.getWeight())
+                .collect(Collectors.joining(", "));
+        return isSingle() ? pool : String.format("%s (%s)", pool, policy.getName());
+    }
+}
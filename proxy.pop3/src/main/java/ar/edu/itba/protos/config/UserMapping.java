@@ -9,6 +9,7 @@ import javax.xml.bind.annotation.XmlAccessType;
 import javax.xml.bind.annotation.XmlAccessorType;
 import javax.xml.bind.annotation.XmlElement;
 import javax.xml.bind.annotation.XmlRootElement;
+import javax.xml.bind.annotation.XmlTransient;
 import javax.xml.bind.annotation.adapters.XmlJavaTypeAdapter;
 
 @XmlAccessorType(XmlAccessType.FIELD)
@@ -17,25 +18,30 @@ public class UserMapping {
 
     @XmlElement(name = "mappings")
     @XmlJavaTypeAdapter(UserMappingAdapter.class)
-    private final Map<String, Upstream> userMappings = new ConcurrentHashMap<>();
+    private final Map<String, UpstreamGroup> userMappings = new ConcurrentHashMap<>();
 
-    @XmlElement(name = "default-upstream")
-    private Upstream defaultUpstream;
+    // Se reemplaza atómicamente (los workers lo leen sin sincronizar):
+    @XmlTransient
+    private volatile UpstreamGroup defaultUpstream;
 
-    public Upstream getMappingForUsername(final String username) {
-        final Upstream mapping = userMappings.get(username);
+    public UpstreamGroup getMappingForUsername(final String username) {
+        final UpstreamGroup mapping = userMappings.get(username);
         if (mapping == null) {
-            return defaultUpstream;
+            return getDefaultUpstream();
         }
         return mapping;
     }
 
     public void mapUserToUpstream(final String username, final Upstream upstream) {
-        userMappings.put(username, upstream);
+        userMappings.put(username, UpstreamGroup.of(upstream));
+    }
+
+    public void mapUserToUpstream(final String username, final UpstreamGroup group) {
+        userMappings.put(username, group);
     }
 
     public void mapUserToUpstream(final String username, final String host, final int port) {
-        userMappings.put(username, new Upstream(host, port));
+        mapUserToUpstream(username, new Upstream(host, port));
     }
 
     public void unmapUser(final String username) {
@@ -49,13 +55,38 @@ public class UserMapping {
     }
 
     public void setDefaultUpstream(final String host, final int port) {
-        defaultUpstream = new Upstream(host, port);
+        setDefaultUpstream(UpstreamGroup.of(new Upstream(host, port)));
     }
 
-    public Upstream getDefaultUpstream() {
+    public void setDefaultUpstream(final UpstreamGroup group) {
+        defaultUpstream = group;
+    }
+
+    public UpstreamGroup getDefaultUpstream() {
         return defaultUpstream;
     }
 
+    // En XML, el default es un único servidor, o bien un pool de réplicas:
+    @XmlElement(name = "default-upstream")
+    private Upstream getDefaultServer() {
+        final UpstreamGroup group = defaultUpstream;
+        return group != null && group.isSingle() ? group.getReplicas().get(0) : null;
+    }
+
+    private void setDefaultServer(final Upstream upstream) {
+        defaultUpstream = upstream == null ? null : UpstreamGroup.of(upstream);
+    }
+
+    @XmlElement(name = "default-pool")
+    private UpstreamGroup getDefaultPool() {
+        final UpstreamGroup group = defaultUpstream;
+        return group != null && !group.isSingle() ? group : null;
+    }
+
+    private void setDefaultPool(final UpstreamGroup group) {
+        defaultUpstream = group;
+    }
+
     @Override
     public String toString() {
         return String.format("(default) %s", getDefaultUpstream()) +
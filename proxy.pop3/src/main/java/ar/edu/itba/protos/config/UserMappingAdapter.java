@@ -6,22 +6,22 @@ import java.util.concurrent.ConcurrentHashMap;
 
 import javax.xml.bind.annotation.adapters.XmlAdapter;
 
-public final class UserMappingAdapter extends XmlAdapter<UserUpstreamMap, Map<String, Upstream>> {
+public final class UserMappingAdapter extends XmlAdapter<UserUpstreamMap, Map<String, UpstreamGroup>> {
 
     @Override
-    public Map<String, Upstream> unmarshal(final UserUpstreamMap v) throws Exception {
-        final Map<String, Upstream> map = new ConcurrentHashMap<>();
+    public Map<String, UpstreamGroup> unmarshal(final UserUpstreamMap v) throws Exception {
+        final Map<String, UpstreamGroup> map = new ConcurrentHashMap<>();
         for (final UserUpstreamPair mapping : v.mapping) {
             if (map.containsKey(mapping.user)) {
                 throw new KeyException("key exists " + mapping.user);
             }
-            map.put(mapping.user, mapping.upstream);
+            map.put(mapping.user, mapping.getGroup());
         }
         return map;
     }
 
     @Override
-    public UserUpstreamMap marshal(final Map<String, Upstream> v) throws Exception {
+    public UserUpstreamMap marshal(final Map<String, UpstreamGroup> v) throws Exception {
         return new UserUpstreamMap(v);
     }
 
@@ -15,7 +15,7 @@ final class UserUpstreamMap {
     @XmlElement(name = "map")
     public List<UserUpstreamPair> mapping = new ArrayList<>();
 
-    public UserUpstreamMap(final Map<String, Upstream> map) {
+    public UserUpstreamMap(final Map<String, UpstreamGroup> map) {
         mapping = map.entrySet().stream()
                 .map(e -> new UserUpstreamPair(e.getKey(), e.getValue()))
                 .collect(Collectors.toList());
@@ -11,6 +11,9 @@ final public class UserUpstreamPair {
     public String user;
     @XmlElement
     public Upstream upstream;
+    // Un pool de réplicas (en lugar de un único 'upstream'):
+    @XmlElement
+    public UpstreamGroup pool;
 
     public UserUpstreamPair() {
     }
@@ -20,4 +23,17 @@ final public class UserUpstreamPair {
         this.upstream = upstream;
     }
 
+    public UserUpstreamPair(final String user, final UpstreamGroup group) {
+        this.user = user;
+        if (group.isSingle()) {
+            upstream = group.getReplicas().get(0);
+        } else {
+            pool = group;
+        }
+    }
+
+    public UpstreamGroup getGroup() {
+        return pool != null ? pool : UpstreamGroup.of(upstream);
+    }
+
 }
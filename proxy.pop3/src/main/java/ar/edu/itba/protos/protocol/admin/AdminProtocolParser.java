@@ -2,7 +2,6 @@ package ar.edu.itba.protos.protocol.admin;
 
 import java.nio.ByteBuffer;
 import java.util.ArrayList;
-import java.util.Arrays;
 import java.util.List;
 
 public class AdminProtocolParser {
@@ -41,7 +40,7 @@ public class AdminProtocolParser {
 
                 case IN_TOKEN:
                     if (current == '\r' || current == '\n' || Character.isWhitespace(current)) {
-                        tokens.add(new String(Arrays.copyOfRange(buffer.array(), tokenStart, position)));
+                        tokens.add(new String(copyOfRange(buffer, tokenStart, position)));
                         tokenStart = position;
 
                         if (current == '\r') {
@@ -84,6 +83,18 @@ public class AdminProtocolParser {
         return tokens;
     }
 
+    /**
+     * Copy a range of the buffer without touching its position. Works for
+     * direct buffers too (which have no backing array).
+     */
+    private static byte[] copyOfRange(final ByteBuffer buffer, final int from, final int to) {
+        final byte[] bytes = new byte[to - from];
+        for (int i = 0; i < bytes.length; i++) {
+            bytes[i] = buffer.get(from + i);
+        }
+        return bytes;
+    }
+
     /**
      * Parse a ByteBuffer and return a Command with all the tokens filled in or
      * empty if we still need more information.
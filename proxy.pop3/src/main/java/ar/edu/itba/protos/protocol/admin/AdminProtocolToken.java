@@ -7,10 +7,11 @@ public enum AdminProtocolToken {
     SET_FILTER("set-filter", "filter-name"), UNSET_FILTER("unset-filter", "filter-name"),
     GET_ACTIVE_FILTERS("filters?"),
     SHOW_STATS_REPORT("report"),
+    GET_SOCKET_OPTIONS("sockets?"),
     SHUTDOWN("shutdown"),
-    MAP_USER("map", "user", "host", "port"), UNMAP_USER("unmap", "user"), GET_MAPPING_FOR_USER("map?", "user"),
+    MAP_USER("map", 2, "user", "host", "port"), UNMAP_USER("unmap", "user"), GET_MAPPING_FOR_USER("map?", "user"),
     GET_DEFAULT_MAPPING("map-default?"),
-    SET_DEFAULT_MAPPING("map-default", "host", "port"),
+    SET_DEFAULT_MAPPING("map-default", 1, "host", "port"),
     GET_ALL_MAPPINGS("map-all?"),
     QUIT("quit"),
     HELP("help"),
@@ -19,9 +20,16 @@ public enum AdminProtocolToken {
 
     private final String token;
     private final String[] params;
+    // Cantidad mínima de parámetros (negativa si debe ser exacta):
+    private final int minimum;
 
     private AdminProtocolToken(final String token, final String... params) {
+        this(token, -1, params);
+    }
+
+    private AdminProtocolToken(final String token, final int minimum, final String... params) {
         this.token = token;
+        this.minimum = minimum;
         this.params = params;
     }
 
@@ -29,6 +37,14 @@ public enum AdminProtocolToken {
         return Arrays.copyOf(params, params.length);
     }
 
+    /**
+     * Los comandos con una cantidad mínima de parámetros aceptan, además
+     * de la forma documentada, una lista de réplicas (ver UpstreamGroup).
+     */
+    public boolean accepts(final int count) {
+        return minimum < 0 ? count == params.length : count >= minimum;
+    }
+
     public static AdminProtocolToken isCommand(final String needle) {
         return Arrays.stream(AdminProtocolToken.values())
                 .filter(c -> c.token.equalsIgnoreCase(needle))
@@ -15,6 +15,7 @@ import ar.edu.itba.protos.protocol.admin.command.CommandResult;
 import ar.edu.itba.protos.protocol.admin.command.GetAllMappingsCommand;
 import ar.edu.itba.protos.protocol.admin.command.GetDefaultMappingCommand;
 import ar.edu.itba.protos.protocol.admin.command.GetFiltersStatusCommand;
+import ar.edu.itba.protos.protocol.admin.command.GetSocketOptionsCommand;
 import ar.edu.itba.protos.protocol.admin.command.GetUserMappingCommand;
 import ar.edu.itba.protos.protocol.admin.command.HelpCommand;
 import ar.edu.itba.protos.protocol.admin.command.MapDefaultCommand;
@@ -42,7 +43,8 @@ public class CommandExecutor {
             final MapDefaultCommand setDefaultMapping, final GetUserMappingCommand getMappingForUser,
             final SaveMappingsCommand saveMappings, final ReportCommand report,
             final HelpCommand help, final ShutdownCommand shutdown, final SetFilterCommand setFilter,
-            final UnsetFilterCommand unsetFilter, final GetFiltersStatusCommand filterStatus) {
+            final UnsetFilterCommand unsetFilter, final GetFiltersStatusCommand filterStatus,
+            final GetSocketOptionsCommand socketOptions) {
 
         bindCommand(AdminProtocolToken.MAP_USER, mapUser);
         bindCommand(AdminProtocolToken.UNMAP_USER, unmapUser);
@@ -57,6 +59,7 @@ public class CommandExecutor {
         bindCommand(AdminProtocolToken.SET_FILTER, setFilter);
         bindCommand(AdminProtocolToken.UNSET_FILTER, unsetFilter);
         bindCommand(AdminProtocolToken.GET_ACTIVE_FILTERS, filterStatus);
+        bindCommand(AdminProtocolToken.GET_SOCKET_OPTIONS, socketOptions);
     }
 
     public void bindCommand(final AdminProtocolToken symbol, final Command cmd) {
@@ -75,7 +78,7 @@ public class CommandExecutor {
         final AdminProtocolToken symbol = AdminProtocolToken.isCommand(line[0]);
         final String[] params = line.length > 1 ? Arrays.copyOfRange(line, 1, line.length) : new String[] {};
 
-        if (params.length != symbol.getParams().length) {
+        if (!symbol.accepts(params.length)) {
             final String msg = String.format("Invalid number of parameters:\n" +
                     "Expected: %s\n" +
                     "Got:      %s", String.join(", ", symbol.getParams()), String.join(", ", params));
@@ -23,7 +23,7 @@ public class GetAllMappingsCommand implements Command {
     public String execute(final String... params) throws CommandException {
         final UserMapping mapping = configurator.getUserMapping();
         return Arrays.stream(mapping.getAllMappings())
-                .map(m -> String.format("- %s -> %s:%d", m.user, m.upstream.getHost(), m.upstream.getPort()))
+                .map(m -> String.format("- %s -> %s", m.user, m.getGroup()))
                 .collect(Collectors.joining("\r\n"));
     }
 
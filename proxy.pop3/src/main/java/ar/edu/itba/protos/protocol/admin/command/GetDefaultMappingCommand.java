@@ -4,7 +4,7 @@ import javax.inject.Inject;
 import javax.inject.Singleton;
 
 import ar.edu.itba.protos.config.ConfigurationLoader;
-import ar.edu.itba.protos.config.Upstream;
+import ar.edu.itba.protos.config.UpstreamGroup;
 import ar.edu.itba.protos.config.UserMapping;
 import ar.edu.itba.protos.protocol.admin.CommandException;
 
@@ -20,11 +20,11 @@ public class GetDefaultMappingCommand implements Command {
     @Override
     public String execute(final String... params) throws CommandException {
         final UserMapping mapping = configurator.getUserMapping();
-        final Upstream u = mapping.getDefaultUpstream();
+        final UpstreamGroup u = mapping.getDefaultUpstream();
         if (u == null) {
             throw new CommandException("Default mapping not set.");
         }
-        return String.format("%s:%s", u.getHost(), u.getPort());
+        return u.toString();
     }
 
 }
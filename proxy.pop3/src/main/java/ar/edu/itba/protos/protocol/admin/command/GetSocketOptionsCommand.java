@@ -0,0 +1,26 @@
+package ar.edu.itba.protos.protocol.admin.command;
+
+import javax.inject.Inject;
+
+import ar.edu.itba.protos.protocol.admin.CommandException;
+import ar.edu.itba.protos.transport.concrete.ForwardAttachmentFactory;
+import ar.edu.itba.protos.transport.support.Server;
+
+public class GetSocketOptionsCommand implements Command {
+
+    private final Server server;
+    private final ForwardAttachmentFactory forwardFactory;
+
+    @Inject
+    public GetSocketOptionsCommand(final Server server, final ForwardAttachmentFactory forwardFactory) {
+        this.server = server;
+        this.forwardFactory = forwardFactory;
+    }
+
+    @Override
+    public String execute(final String... params) throws CommandException {
+        return String.join("\r\n", server.summarizeListeners(), "",
+                "Upstreams:", "", "  - " + forwardFactory.getUpstreamOptions() + ".");
+    }
+
+}
@@ -4,7 +4,7 @@ import javax.inject.Inject;
 import javax.inject.Singleton;
 
 import ar.edu.itba.protos.config.ConfigurationLoader;
-import ar.edu.itba.protos.config.Upstream;
+import ar.edu.itba.protos.config.UpstreamGroup;
 import ar.edu.itba.protos.config.UserMapping;
 import ar.edu.itba.protos.protocol.admin.CommandException;
 
@@ -22,11 +22,11 @@ public class GetUserMappingCommand implements Command {
     public String execute(final String... params) throws CommandException {
         final UserMapping mapping = configurator.getUserMapping();
 
-        final Upstream u = mapping.getMappingForUsername(params[0]);
+        final UpstreamGroup u = mapping.getMappingForUsername(params[0]);
         if (u == null) {
             throw new CommandException("No default user mapping set.");
         }
-        return String.format("%s -> %s:%s", params[0], u.getHost(), u.getPort());
+        return String.format("%s -> %s", params[0], u);
     }
 
 }
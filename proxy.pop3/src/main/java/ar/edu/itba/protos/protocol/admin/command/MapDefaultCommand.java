@@ -4,9 +4,14 @@ import javax.inject.Inject;
 import javax.inject.Singleton;
 
 import ar.edu.itba.protos.config.ConfigurationLoader;
+import ar.edu.itba.protos.config.UpstreamGroup;
 import ar.edu.itba.protos.config.UserMapping;
 import ar.edu.itba.protos.protocol.admin.CommandException;
 
+/**
+ * Define el servidor por defecto (<i>map-default host port</i>), o un pool
+ * de réplicas (<i>map-default host:port[@weight]... [policy]</i>).
+ */
 @Singleton
 public class MapDefaultCommand implements Command {
 
@@ -19,11 +24,22 @@ public class MapDefaultCommand implements Command {
     @Override
     public String execute(final String... params) throws CommandException {
         final UserMapping mapping = configurator.getUserMapping();
-        if (params.length != 2) {
+        if (params.length < 1) {
             throw new CommandException("Invalid number of arguments: " + params.length);
         }
-        mapping.setDefaultUpstream(params[0], Integer.parseInt(params[1]));
-        return String.format("%s:%s", params[0], params[1]);
+        if (params.length == 2 && params[0].indexOf(':') < 0) {
+            mapping.setDefaultUpstream(params[0], Integer.parseInt(params[1]));
+            return String.format("%s:%s", params[0], params[1]);
+        }
+
+        final UpstreamGroup group;
+        try {
+            group = UpstreamGroup.parse(params);
+        } catch (final IllegalArgumentException e) {
+            throw new CommandException("Invalid upstream pool: " + e.getMessage());
+        }
+        mapping.setDefaultUpstream(group);
+        return group.toString();
     }
 
 }
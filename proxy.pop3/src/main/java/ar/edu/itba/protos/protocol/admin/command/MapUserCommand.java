@@ -1,12 +1,19 @@
 package ar.edu.itba.protos.protocol.admin.command;
 
+import java.util.Arrays;
+
 import javax.inject.Inject;
 import javax.inject.Singleton;
 
 import ar.edu.itba.protos.config.ConfigurationLoader;
+import ar.edu.itba.protos.config.UpstreamGroup;
 import ar.edu.itba.protos.config.UserMapping;
 import ar.edu.itba.protos.protocol.admin.CommandException;
 
+/**
+ * Asocia un usuario a un servidor (<i>map user host port</i>), o a un pool
+ * de réplicas (<i>map user host:port[@weight]... [policy]</i>).
+ */
 @Singleton
 public class MapUserCommand implements Command {
 
@@ -19,14 +26,25 @@ public class MapUserCommand implements Command {
 
     @Override
     public String execute(final String... params) throws CommandException {
-        if (params.length != 3) {
+        if (params.length < 2) {
             throw new CommandException("Invalid number of parameters: " + params.length);
         }
 
         final UserMapping mapping = configurator.getUserMapping();
 
-        mapping.mapUserToUpstream(params[0], params[1], Integer.parseInt(params[2]));
-        return String.format("%s -> %s:%s", params[0], params[1], params[2]);
+        if (params.length == 3 && params[1].indexOf(':') < 0) {
+            mapping.mapUserToUpstream(params[0], params[1], Integer.parseInt(params[2]));
+            return String.format("%s -> %s:%s", params[0], params[1], params[2]);
+        }
+
+        final UpstreamGroup group;
+        try {
+            group = UpstreamGroup.parse(Arrays.copyOfRange(params, 1, params.length));
+        } catch (final IllegalArgumentException e) {
+            throw new CommandException("Invalid upstream pool: " + e.getMessage());
+        }
+        mapping.mapUserToUpstream(params[0], group);
+        return String.format("%s -> %s", params[0], group);
     }
 
 }
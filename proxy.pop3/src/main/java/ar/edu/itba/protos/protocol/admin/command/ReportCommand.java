@@ -3,20 +3,56 @@ package ar.edu.itba.protos.protocol.admin.command;
 import javax.inject.Inject;
 
 import ar.edu.itba.protos.protocol.admin.CommandException;
+import ar.edu.itba.protos.transport.buffer.BufferPool;
 import ar.edu.itba.protos.transport.metrics.Metrics;
+import ar.edu.itba.protos.transport.support.Admission;
+import ar.edu.itba.protos.transport.support.Balancer;
+import ar.edu.itba.protos.transport.support.CircuitBreaker;
+import ar.edu.itba.protos.transport.support.Connector;
+import ar.edu.itba.protos.transport.support.HealthProber;
+import ar.edu.itba.protos.transport.support.ReadBudget;
+import ar.edu.itba.protos.transport.support.Resolver;
+import ar.edu.itba.protos.transport.support.UpstreamPool;
+import ar.edu.itba.protos.transport.support.Watermarks;
 
 public class ReportCommand implements Command {
 
     Metrics metrics;
+    BufferPool pool;
+    Watermarks watermarks;
+    ReadBudget budget;
+    Admission admission;
+    UpstreamPool upstreams;
+    Resolver resolver;
+    Connector connector;
+    Balancer balancer;
+    CircuitBreaker breaker;
+    HealthProber prober;
 
     @Inject
-    public ReportCommand(final Metrics metrics) {
+    public ReportCommand(final Metrics metrics, final BufferPool pool, final Watermarks watermarks,
+            final ReadBudget budget, final Admission admission, final UpstreamPool upstreams,
+            final Resolver resolver, final Connector connector, final Balancer balancer,
+            final CircuitBreaker breaker, final HealthProber prober) {
         this.metrics = metrics;
+        this.pool = pool;
+        this.watermarks = watermarks;
+        this.budget = budget;
+        this.admission = admission;
+        this.upstreams = upstreams;
+        this.resolver = resolver;
+        this.connector = connector;
+        this.balancer = balancer;
+        this.breaker = breaker;
+        this.prober = prober;
     }
 
     @Override
     public String execute(final String... params) throws CommandException {
-        return metrics.summarize();
+        return String.join("\r\n\r\n", metrics.summarize(), pool.summarize(), watermarks.summarize(),
+                budget.summarize(), admission.summarize(), upstreams.summarize(),
+                resolver.summarize(), connector.summarize(), balancer.summarize(),
+                breaker.summarize(), prober.summarize());
     }
 
 }
@@ -4,7 +4,7 @@ import javax.inject.Inject;
 import javax.inject.Singleton;
 
 import ar.edu.itba.protos.config.ConfigurationLoader;
-import ar.edu.itba.protos.config.Upstream;
+import ar.edu.itba.protos.config.UpstreamGroup;
 import ar.edu.itba.protos.config.UserMapping;
 import ar.edu.itba.protos.protocol.admin.CommandException;
 
@@ -27,8 +27,8 @@ public class UnMapUserCommand implements Command {
         final UserMapping mapping = configurator.getUserMapping();
 
         mapping.unmapUser(params[0]);
-        final Upstream u = mapping.getDefaultUpstream();
-        return String.format("%s -> %s:%s", params[0], u.getHost(), u.getPort());
+        final UpstreamGroup u = mapping.getDefaultUpstream();
+        return String.format("%s -> %s", params[0], u);
     }
 
 }
@@ -26,7 +26,7 @@ public class Top implements Pop3CommandFilter {
 				b = buff.get();
 				if (b == ' ') {
 					result.skipParams(buff); // al proxy no le interesan
-					result.setCommand(Pop3Command.PASS);
+					result.setCommand(Pop3Command.TOP);
 				}
 			}
 		}
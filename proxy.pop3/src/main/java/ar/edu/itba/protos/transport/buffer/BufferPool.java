@@ -0,0 +1,360 @@
+package ar.edu.itba.protos.transport.buffer;
+
+import java.lang.ref.PhantomReference;
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.google.inject.Inject;
+import com.google.inject.Singleton;
+
+import ar.edu.itba.protos.transport.support.Message;
+
+/**
+ * <p>Pool de buffers directos (fuera del <i>heap</i>), organizado
+ * en clases de tamaño. Cada clase reserva bloques grandes de
+ * memoria (<i>slabs</i>), los cuales se dividen en buffers de igual
+ * capacidad. Los buffers devueltos se reutilizan, por lo que la
+ * memoria residente depende de la cantidad de datos en tránsito, y
+ * no de la cantidad de conexiones.</p>
+ *
+ * <p>Debido a que los buffers son directos, los canales no necesitan
+ * copiar la información a través de un buffer temporal en cada
+ * operación de I/O.</p>
+ *
+ * <p>Las solicitudes que superan la clase más grande se resuelven
+ * con buffers directos fuera del pool.</p>
+ *
+ * <p>Esta clase es <b>thread-safe</b>.</p>
+ */
+
+@Singleton
+public final class BufferPool {
+
+    // Logger:
+    private static final Logger logger
+    = LoggerFactory.getLogger(BufferPool.class);
+
+    // Clases de tamaño por defecto (en bytes):
+    private static final int[] SIZES = {512, 2048, 8192, 32768};
+
+    // Tamaño de cada 'slab' (en bytes):
+    private static final int SLAB_SIZE = 256 * 1024;
+
+    // Las clases de tamaño (en orden creciente):
+    private final SizeClass[] classes;
+
+    // Sesiones recolectadas (para detectar pérdidas):
+    private final ReferenceQueue<PooledBuffer> collected = new ReferenceQueue<>();
+
+    // Referencias vigiladas (deben permanecer alcanzables):
+    private final Set<Lease> leases = ConcurrentHashMap.newKeySet();
+
+    // Buffers fuera del pool (demasiado grandes):
+    private final LongAdder oversized = new LongAdder();
+
+    // Buffers recuperados por el detector de pérdidas:
+    private final LongAdder leaked = new LongAdder();
+
+    @Inject
+    private BufferPool() {
+
+        this(SIZES, SLAB_SIZE);
+    }
+
+    BufferPool(final int[] sizes, final int slabSize) {
+
+        classes = new SizeClass[sizes.length];
+        for (int i = 0; i < sizes.length; ++i) {
+
+            if (sizes[i] <= 0 || (0 < i && sizes[i] <= sizes[i - 1])) {
+                throw new IllegalArgumentException();
+            }
+            classes[i] = new SizeClass(sizes[i], Math.max(1, slabSize / sizes[i]));
+        }
+    }
+
+    /**
+     * <p>Crea un nuevo buffer de sesión, respaldado por este pool.
+     * El buffer no reserva memoria hasta que se utiliza.</p>
+     *
+     * @param size
+     *	La capacidad mínima del buffer, en bytes.
+     *
+     * @return Un nuevo buffer de sesión.
+     *
+     * @throws IllegalArgumentException
+     *	Si la capacidad no es positiva.
+     */
+
+    public PooledBuffer newBuffer(final int size) {
+
+        return newBuffer(size, size);
+    }
+
+    /**
+     * <p>Crea un nuevo buffer de sesión, cuya capacidad se adapta al
+     * tráfico entre los límites especificados (ver
+     * <b>PooledBuffer.adapt</b>).</p>
+     *
+     * @param minimum
+     *	La capacidad inicial (y mínima) del buffer, en bytes.
+     * @param maximum
+     *	La capacidad máxima del buffer, en bytes.
+     *
+     * @return Un nuevo buffer de sesión.
+     *
+     * @throws IllegalArgumentException
+     *	Si la capacidad no es positiva, o si el máximo es menor
+     *	que el mínimo.
+     */
+
+    public PooledBuffer newBuffer(final int minimum, final int maximum) {
+
+        if (minimum <= 0 || maximum < minimum) {
+            throw new IllegalArgumentException();
+        }
+        return new PooledBuffer(this, minimum, maximum);
+    }
+
+    /**
+     * <p>Devuelve la cantidad de buffers prestados en este
+     * momento (sin contar los buffers fuera del pool).</p>
+     *
+     * @return La cantidad de buffers en uso.
+     */
+
+    public int getBorrowed() {
+
+        int borrowed = 0;
+        for (final SizeClass sizeClass : classes) {
+            synchronized (sizeClass) {
+                borrowed += sizeClass.borrowed;
+            }
+        }
+        return borrowed;
+    }
+
+    /**
+     * <p>Devuelve la cantidad de buffers recuperados por el detector
+     * de pérdidas, es decir, buffers cuyas sesiones fueron
+     * descartadas sin devolverlos.</p>
+     *
+     * @return La cantidad de pérdidas detectadas.
+     */
+
+    public long getLeaks() {
+
+        reclaim();
+        return leaked.sum();
+    }
+
+    /**
+     * <p>Genera un reporte con las estadísticas del pool, con el
+     * mismo formato que el reporte de métricas.</p>
+     *
+     * @return El reporte del estado del pool.
+     */
+
+    public String summarize() {
+
+        reclaim();
+
+        final List<String> lines = new ArrayList<>();
+        lines.add("Buffers:");
+        lines.add("");
+
+        for (final SizeClass sizeClass : classes) {
+            synchronized (sizeClass) {
+                lines.add(String.format(
+                        "  - %6d bytes: %6d borrowed, %6d free, %4d slabs",
+                        sizeClass.size, sizeClass.borrowed,
+                        sizeClass.top, sizeClass.slabs));
+            }
+        }
+
+        lines.add("  - oversized:    " + oversized.sum() + " (out of the pool).");
+        lines.add("  - leaks:        " + leaked.sum() + " (reclaimed).");
+        return String.join("\r\n", lines);
+    }
+
+    /**
+     * <p>Registra una nueva sesión en el detector de pérdidas.</p>
+     */
+
+    Lease lease(final PooledBuffer owner) {
+
+        final Lease lease = new Lease(owner, collected);
+        leases.add(lease);
+        return lease;
+    }
+
+    /**
+     * <p>Obtiene un buffer vacío, de la clase más pequeña que pueda
+     * contener la capacidad solicitada.</p>
+     */
+
+    ByteBuffer acquire(final int size) {
+
+        reclaim();
+
+        final SizeClass sizeClass = classFor(size);
+        if (sizeClass == null) {
+
+            oversized.increment();
+            return ByteBuffer.allocateDirect(size);
+        }
+        return sizeClass.acquire();
+    }
+
+    /**
+     * <p>Devuelve un buffer al pool. Los buffers que no pertenecen a
+     * ninguna clase se descartan.</p>
+     */
+
+    void release(final ByteBuffer buffer) {
+
+        final SizeClass sizeClass = classFor(buffer.capacity());
+        if (sizeClass != null && sizeClass.size == buffer.capacity()) {
+            sizeClass.release(buffer);
+        }
+    }
+
+    /**
+     * <p>Recupera los buffers de las sesiones recolectadas que no
+     * los devolvieron.</p>
+     */
+
+    private void reclaim() {
+
+        Reference<? extends PooledBuffer> reference;
+        while ((reference = collected.poll()) != null) {
+
+            final Lease lease = (Lease) reference;
+            leases.remove(lease);
+
+            final ByteBuffer buffer = lease.buffer;
+            if (buffer != null) {
+
+                lease.buffer = null;
+                leaked.increment();
+
+                logger.debug(
+                        Message.BUFFER_LEAK.getMessage(),
+                        buffer.capacity());
+
+                release(buffer);
+            }
+        }
+    }
+
+    private SizeClass classFor(final int size) {
+
+        for (final SizeClass sizeClass : classes) {
+            if (size <= sizeClass.size) {
+                return sizeClass;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * <p>Referencia vigilada hacia una sesión, la cual conserva el
+     * buffer prestado. Si la sesión es recolectada sin devolverlo,
+     * el buffer sigue siendo alcanzable a través de esta
+     * referencia, y puede recuperarse.</p>
+     */
+
+    static final class Lease extends PhantomReference<PooledBuffer> {
+
+        // El buffer prestado (o null):
+        volatile ByteBuffer buffer = null;
+
+        Lease(final PooledBuffer owner, final ReferenceQueue<PooledBuffer> queue) {
+
+            super(owner, queue);
+        }
+    }
+
+    /**
+     * <p>Una clase de tamaño: una pila de buffers libres de igual
+     * capacidad, y los <i>slabs</i> de los cuales se obtuvieron.</p>
+     */
+
+    private static final class SizeClass {
+
+        // Capacidad de cada buffer:
+        private final int size;
+
+        // Cantidad de buffers por 'slab':
+        private final int perSlab;
+
+        // Buffers libres (pila):
+        private ByteBuffer[] free = new ByteBuffer[0];
+        private int top = 0;
+
+        // Estadísticas:
+        private int borrowed = 0;
+        private int slabs = 0;
+
+        public SizeClass(final int size, final int perSlab) {
+
+            this.size = size;
+            this.perSlab = perSlab;
+        }
+
+        public synchronized ByteBuffer acquire() {
+
+            if (top == 0) {
+                grow();
+            }
+
+            final ByteBuffer buffer = free[--top];
+            free[top] = null;
+            ++borrowed;
+            return buffer;
+        }
+
+        public synchronized void release(final ByteBuffer buffer) {
+
+            // Un buffer ajeno (o devuelto dos veces) se descarta:
+            if (top == free.length) {
+                return;
+            }
+
+            buffer.clear();
+            free[top++] = buffer;
+            --borrowed;
+        }
+
+        /**
+         * <p>Reserva un nuevo 'slab', y lo divide en buffers.</p>
+         */
+
+        private void grow() {
+
+            final ByteBuffer slab = ByteBuffer.allocateDirect(size * perSlab);
+            final int capacity = (slabs + 1) * perSlab;
+
+            final ByteBuffer[] free = new ByteBuffer[capacity];
+            System.arraycopy(this.free, 0, free, 0, top);
+            this.free = free;
+
+            for (int i = 0; i < perSlab; ++i) {
+
+                slab.limit((i + 1) * size);
+                slab.position(i * size);
+                free[top++] = slab.slice();
+            }
+            ++slabs;
+        }
+    }
+}
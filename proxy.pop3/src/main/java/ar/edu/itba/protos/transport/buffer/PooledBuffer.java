@@ -0,0 +1,163 @@
+package ar.edu.itba.protos.transport.buffer;
+
+import java.nio.ByteBuffer;
+
+/**
+ * <p>Un buffer de sesión, respaldado por el pool de buffers. El
+ * buffer subyacente solo se reserva mientras contiene información
+ * (es decir, mientras hay datos en tránsito), y se devuelve al
+ * pool cuando se vacía (ver <b>release</b>).</p>
+ *
+ * <p>La capacidad se adapta al tráfico de la sesión (ver
+ * <b>adapt</b>): crece mientras las lecturas llenan el buffer, hasta
+ * un máximo, y se reduce cuando la sesión vuelve a estar tranquila.
+ * El cambio se aplica la próxima vez que el buffer se obtiene del
+ * pool.</p>
+ *
+ * <p>Si la sesión se descarta sin devolver su buffer, el pool lo
+ * recupera automáticamente cuando esta instancia es recolectada,
+ * y lo contabiliza como una pérdida (<i>leak</i>).</p>
+ *
+ * <p>Esta clase no es <b>thread-safe</b>: cada sesión debe
+ * acceder a sus buffers desde un único thread a la vez.</p>
+ */
+
+public final class PooledBuffer {
+
+    // El pool que respalda este buffer:
+    private final BufferPool pool;
+
+    // Lecturas escasas antes de reducir la capacidad:
+    private static final int QUIET_READS = 4;
+
+    // Límites de la capacidad:
+    private final int minimum;
+    private final int maximum;
+
+    // La capacidad solicitada (se adapta al tráfico):
+    private int size;
+
+    // Lecturas escasas consecutivas:
+    private int quiet = 0;
+
+    // Referencia al buffer prestado (vigilada por el pool):
+    private final BufferPool.Lease lease;
+
+    PooledBuffer(final BufferPool pool, final int minimum, final int maximum) {
+
+        this.pool = pool;
+        this.minimum = minimum;
+        this.maximum = maximum;
+        this.size = minimum;
+        this.lease = pool.lease(this);
+    }
+
+    /**
+     * <p>Devuelve el buffer subyacente. Si el buffer no se
+     * encontraba reservado, se obtiene uno vacío del pool.</p>
+     *
+     * @return El buffer de la sesión.
+     */
+
+    public ByteBuffer get() {
+
+        ByteBuffer buffer = lease.buffer;
+        if (buffer == null) {
+            buffer = lease.buffer = pool.acquire(size);
+        }
+        return buffer;
+    }
+
+    /**
+     * <p>Devuelve la capacidad que se solicitará al pool la
+     * próxima vez que se obtenga un buffer.</p>
+     *
+     * @return La capacidad actual de la sesión, en bytes.
+     */
+
+    public int getSize() {
+
+        return size;
+    }
+
+    /**
+     * <p>Adapta la capacidad según el resultado de una lectura. Si la
+     * lectura llenó todo el espacio disponible, probablemente quedan
+     * más datos en el kernel, por lo que la capacidad se duplica
+     * (hasta el máximo). Si varias lecturas consecutivas ocupan menos
+     * de un cuarto de la capacidad, esta se reduce a la mitad (hasta
+     * el mínimo).</p>
+     *
+     * @param read
+     *	La cantidad de bytes leídos.
+     * @param space
+     *	El espacio disponible en el buffer antes de la lectura.
+     */
+
+    public void adapt(final int read, final int space) {
+
+        if (0 < space && read == space) {
+
+            final ByteBuffer buffer = lease.buffer;
+            final int capacity = buffer != null ? buffer.capacity() : size;
+
+            quiet = 0;
+            size = Math.min(maximum, Math.max(size, capacity) << 1);
+        }
+        else if (read < size >> 2) {
+
+            if (++quiet == QUIET_READS) {
+
+                quiet = 0;
+                size = Math.max(minimum, size >> 1);
+            }
+        }
+        else quiet = 0;
+    }
+
+    /**
+     * <p>Indica si el buffer subyacente se encuentra reservado.</p>
+     *
+     * @return Devuelve <i>true</i> si la sesión posee un buffer.
+     */
+
+    public boolean isHeld() {
+
+        return lease.buffer != null;
+    }
+
+    /**
+     * <p>Devuelve el buffer al pool, solo si no contiene información
+     * (es decir, si se encuentra vacío en modo escritura: posición
+     * cero y límite igual a la capacidad).</p>
+     *
+     * @return Devuelve <i>true</i> si el buffer se devolvió.
+     */
+
+    public boolean release() {
+
+        final ByteBuffer buffer = lease.buffer;
+        if (buffer != null && buffer.position() == 0
+                && buffer.limit() == buffer.capacity()) {
+
+            dispose();
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * <p>Devuelve el buffer al pool, sin importar su contenido. La
+     * información almacenada se descarta.</p>
+     */
+
+    public void dispose() {
+
+        final ByteBuffer buffer = lease.buffer;
+        if (buffer != null) {
+
+            lease.buffer = null;
+            pool.release(buffer);
+        }
+    }
+}
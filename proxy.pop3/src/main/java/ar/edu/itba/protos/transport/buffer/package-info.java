@@ -0,0 +1 @@
+package ar.edu.itba.protos.transport.buffer;
\ No newline at end of file
@@ -7,7 +7,6 @@ import java.nio.charset.StandardCharsets;
 import java.util.Deque;
 import java.util.LinkedList;
 import java.util.List;
-import java.util.NoSuchElementException;
 import java.util.stream.Collectors;
 
 import javax.inject.Inject;
@@ -19,6 +18,8 @@ import ar.edu.itba.protos.protocol.admin.AdminProtocolParser;
 import ar.edu.itba.protos.protocol.admin.AdminProtocolToken;
 import ar.edu.itba.protos.protocol.admin.CommandExecutor;
 import ar.edu.itba.protos.protocol.admin.command.CommandResult;
+import ar.edu.itba.protos.transport.buffer.BufferPool;
+import ar.edu.itba.protos.transport.buffer.PooledBuffer;
 import ar.edu.itba.protos.transport.metrics.Metrics;
 import ar.edu.itba.protos.transport.reactor.Event;
 import ar.edu.itba.protos.transport.support.Attachment;
@@ -35,7 +36,7 @@ public final class AdminAttachment extends Attachment implements Interceptor {
     private static final Logger logger = LoggerFactory.getLogger(AdminAttachment.class);
 
     // El buffer de entrada y salida:
-    private final ByteBuffer inboundBuffer = ByteBuffer.allocate(AdminAttachmentFactory.BUFFER_SIZE);
+    private final PooledBuffer inboundBuffer;
     private final CommandExecutor executor;
     private final AdminProtocolParser parser;
     private final Deque<ByteBuffer> outboundResults = new LinkedList<>();
@@ -45,32 +46,40 @@ public final class AdminAttachment extends Attachment implements Interceptor {
     private boolean unplugged = false;
 
     @Inject
-    public AdminAttachment(final CommandExecutor executor, final AdminProtocolParser parser, final Metrics metrics) {
+    public AdminAttachment(final CommandExecutor executor, final AdminProtocolParser parser, final Metrics metrics,
+            final BufferPool pool) {
         this.executor = executor;
         this.parser = parser;
         this.metrics = metrics;
+        this.inboundBuffer = pool.newBuffer(AdminAttachmentFactory.BUFFER_SIZE);
     }
 
     @Override
     public ByteBuffer getInboundBuffer() {
-        return inboundBuffer;
+        return inboundBuffer.get();
+    }
+
+    @Override
+    public void releaseBuffers() {
+        // Solo se devuelve si no quedan comandos parciales:
+        if (isClosed()) {
+            inboundBuffer.dispose();
+        } else if (starterPosition == 0) {
+            inboundBuffer.release();
+        }
     }
 
     private ByteBuffer getFirstOutboundBuffer() {
+        // Descarta las respuestas que ya se enviaron:
         ByteBuffer outbound = outboundResults.peek();
+        while (outbound != null && outbound.remaining() == 0) {
+            outboundResults.pop();
+            outbound = outboundResults.peek();
+        }
 
         if (outbound == null) {
             return ByteBuffer.wrap(new byte[] {});
         }
-
-        while (outbound != null && outbound.remaining() == 0) {
-            try {
-                outbound = outboundResults.pop();
-            } catch (final NoSuchElementException e) {
-                return ByteBuffer.wrap(new byte[] {});
-            }
-        }
-
         return outbound;
     }
 
@@ -81,6 +90,7 @@ public final class AdminAttachment extends Attachment implements Interceptor {
             return false;
         }
         final ByteBuffer outbound = getFirstOutboundBuffer();
+        final ByteBuffer inboundBuffer = getInboundBuffer();
 
         final int tempPosition = inboundBuffer.position();
         inboundBuffer.limit(inboundBuffer.position());
@@ -101,6 +111,13 @@ public final class AdminAttachment extends Attachment implements Interceptor {
         return outbound;
     }
 
+    @Override
+    public ByteBuffer[] getOutboundBuffers() {
+        // Todas las respuestas encoladas se envían en una sola escritura:
+        getFirstOutboundBuffer();
+        return outboundResults.toArray(new ByteBuffer[outboundResults.size()]);
+    }
+
     @Override
     public Interceptor getInterceptor() {
         return this;
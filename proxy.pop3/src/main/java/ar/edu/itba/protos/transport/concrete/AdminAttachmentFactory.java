@@ -6,9 +6,11 @@ import javax.inject.Singleton;
 
 import ar.edu.itba.protos.protocol.admin.AdminProtocolParser;
 import ar.edu.itba.protos.protocol.admin.CommandExecutor;
+import ar.edu.itba.protos.transport.buffer.BufferPool;
 import ar.edu.itba.protos.transport.metrics.Metrics;
 import ar.edu.itba.protos.transport.support.Attachment;
 import ar.edu.itba.protos.transport.support.AttachmentFactory;
+import ar.edu.itba.protos.transport.support.SocketOptions;
 
 /**
  * <p>El objetivo de esta fábrica es generar los <b>attachment</b>
@@ -25,11 +27,24 @@ public final class AdminAttachmentFactory implements AttachmentFactory {
     public static final int BUFFER_SIZE = 8192;
     private final CommandExecutor executor;
     private final Metrics metrics;
+    private final BufferPool pool;
+    private volatile SocketOptions options = SocketOptions.DEFAULT;
 
     @Inject
-    public AdminAttachmentFactory(final CommandExecutor executor, final Metrics metrics) {
+    public AdminAttachmentFactory(final CommandExecutor executor, final Metrics metrics, final BufferPool pool) {
         this.executor = executor;
         this.metrics = metrics;
+        this.pool = pool;
+    }
+
+    public AdminAttachmentFactory setSocketOptions(final SocketOptions options) {
+        this.options = options;
+        return this;
+    }
+
+    @Override
+    public SocketOptions getSocketOptions() {
+        return options;
     }
 
     /**
@@ -41,6 +56,6 @@ public final class AdminAttachmentFactory implements AttachmentFactory {
      */
     @Override
     public Attachment create() {
-        return new AdminAttachment(executor, new AdminProtocolParser(), metrics);
+        return new AdminAttachment(executor, new AdminProtocolParser(), metrics, pool);
     }
 }
@@ -1,23 +1,56 @@
 
 package ar.edu.itba.protos.transport.concrete;
 
+import java.io.IOException;
+import java.net.InetAddress;
 import java.net.InetSocketAddress;
-import java.net.SocketAddress;
 import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import ar.edu.itba.protos.config.Upstream;
+import ar.edu.itba.protos.config.UpstreamGroup;
+import ar.edu.itba.protos.protocol.pop3.CommandStatus;
+import ar.edu.itba.protos.protocol.pop3.ParsedCommand;
+import ar.edu.itba.protos.protocol.pop3.Pop3Command;
+import ar.edu.itba.protos.protocol.pop3.Pop3FilterManager;
+import ar.edu.itba.protos.transport.buffer.BufferPool;
+import ar.edu.itba.protos.transport.buffer.PooledBuffer;
 import ar.edu.itba.protos.transport.reactor.Event;
 import ar.edu.itba.protos.transport.support.Attachment;
+import ar.edu.itba.protos.transport.support.Balancer;
+import ar.edu.itba.protos.transport.support.CircuitBreaker;
+import ar.edu.itba.protos.transport.support.Connector;
 import ar.edu.itba.protos.transport.support.Interceptor;
 import ar.edu.itba.protos.transport.support.Message;
+import ar.edu.itba.protos.transport.support.Resolver;
+import ar.edu.itba.protos.transport.support.SocketOptions;
+import ar.edu.itba.protos.transport.support.UpstreamPool;
 
 /**
  * Este 'attachment' se crea cada vez que un cliente establece efectivamente la
  * conexión con un servidor de origen real. Bajo estas circustancias, el
  * circuito virtual a través del proxy estará completo, y el flujo de bytes será
  * forwardeado efectivamente en las dos direcciones.
+ *
+ * <p>La conexión con el 'origin-server' se difiere hasta que el cliente se
+ * identifica con USER: hasta entonces, el proxy responde localmente (CAPA,
+ * QUIT, y un error para cualquier otro comando). APOP no se admite, ya que
+ * el digest depende del <i>timestamp</i> del 'greeting' del servidor, y el
+ * cliente solo recibe el del proxy. Luego elige el pool
+ * del usuario (ver <b>UserMapping</b>), se conecta, descarta el 'greeting'
+ * del servidor (el cliente ya recibió el del proxy), y le reenvía el
+ * comando.</p>
  */
 
 public final class ClientAttachment extends Attachment implements Interceptor {
@@ -26,32 +59,189 @@ public final class ClientAttachment extends Attachment implements Interceptor {
 		= LoggerFactory.getLogger(ClientAttachment.class);
 
 	// El buffer de entrada (lectura):
-	private ByteBuffer inbound
-		= ByteBuffer.allocate(ForwardAttachmentFactory.BUFFER_SIZE);
+	private final PooledBuffer inbound;
 
 	// El buffer de salida (escritura):
-	private ByteBuffer outbound
-		= ByteBuffer.allocate(ForwardAttachmentFactory.BUFFER_SIZE);
+	private final PooledBuffer outbound;
 
-	public ClientAttachment() {
+	// Parser de comandos POP3 (sin estado, compartido):
+	private final Pop3FilterManager commands;
+
+	// Comandos reenviados, a la espera de su respuesta (en orden):
+	private final Queue<Pop3Command> awaiting = new ConcurrentLinkedQueue<>();
+
+	// El servidor aceptó la autenticación:
+	private volatile boolean authenticated = false;
+
+	// Opciones de socket del 'origin-server':
+	private final SocketOptions upstreamOptions;
+
+	// Conexiones precalentadas hacia los 'origin-servers':
+	private final UpstreamPool upstreams;
+
+	// Resolución de nombres de los 'origin-servers':
+	private final Resolver resolver;
+
+	// Conexión (en paralelo) a las direcciones de los 'origin-servers':
+	private final Connector connector;
+
+	// Reparto de sesiones entre las réplicas de cada pool:
+	private final Balancer balancer;
+
+	// Timeouts del 'greeting' de cada réplica:
+	private final CircuitBreaker breaker;
+
+	// Respuesta (pre-codificada) si ninguna réplica está disponible:
+	private static final byte[] UNAVAILABLE
+		= "-ERR [SYS/TEMP] Origin server unavailable\r\n".getBytes();
+
+	// Respuestas locales (pre-codificadas) antes de la identificación:
+	private static final byte[] CAPABILITIES
+		= "+OK Capability list follows\r\nUSER\r\n.\r\n".getBytes();
+	private static final byte[] AUTHENTICATE
+		= "-ERR Authenticate first (USER)\r\n".getBytes();
+	private static final byte[] UNSUPPORTED
+		= "-ERR APOP not supported (use USER)\r\n".getBytes();
+	private static final byte[] BYE
+		= "+OK Bye\r\n".getBytes();
+
+	// Longitud máxima de un comando (RFC 2449), incluyendo CRLF:
+	private static final int MAX_COMMAND = 255;
+
+	// Origen de los 'origin-servers' configurados:
+	private final ForwardAttachmentFactory factory;
+
+	// La réplica elegida para esta sesión (origin-server):
+	private volatile Upstream origin = null;
+
+	// Inicio de la conexión, hasta recibir el 'greeting' (en ns):
+	private final AtomicLong connecting = new AtomicLong();
+
+	// El timeout del 'greeting' (ver CircuitBreaker):
+	private volatile ScheduledFuture<?> greetingTimeout = null;
+
+	// Estados de la resolución del 'origin-server':
+	private static final int IDLE = 0;		// Sin resolución en curso.
+	private static final int RESOLVING = 1;	// El handler sigue ejecutando.
+	private static final int PARKED = 2;	// El handler finalizó.
+	private static final int RESOLVED = 3;	// Resuelto durante el handler.
+
+	private final AtomicInteger resolution = new AtomicInteger(IDLE);
+
+	// Todavía no se recibió USER (el proxy responde):
+	private boolean authorizing = true;
+
+	// Un comando incompleto, a la espera de la siguiente lectura:
+	private byte[] partial = null;
+
+	// El comando actual excede MAX_COMMAND (se descarta hasta su fin):
+	private boolean overflow = false;
+
+	// Estado de las respuestas (ver 'onReplies'):
+	private int column = 0;
+	private boolean multiline = false;
+	private boolean terminator = false;
+
+	// El 'greeting' del 'origin-server' todavía no se descartó:
+	private volatile boolean greeting = false;
+
+	// La sesión se cierra una vez enviadas las respuestas pendientes:
+	private volatile boolean closing = false;
+
+	public ClientAttachment(BufferPool pool,
+		int bufferSize, int maxBufferSize, ForwardAttachmentFactory factory) {
+
+		this.factory = factory;
+		this.commands = factory.getCommands();
+		this.upstreamOptions = factory.getUpstreamOptions();
+		this.upstreams = factory.getUpstreamPool();
+		this.resolver = factory.getResolver();
+		this.connector = factory.getConnector();
+		this.balancer = factory.getBalancer();
+		this.breaker = factory.getCircuitBreaker();
+
+		inbound = pool.newBuffer(bufferSize, maxBufferSize);
+		outbound = pool.newBuffer(bufferSize, maxBufferSize);
 
 		// Este es el 'greeting-banner' (client-side):
 		byte[] greetingBanner
 			= Message.GREETING_BANNER.getMessage().getBytes();
 
 		// Se lo envío al cliente (MUA):
-		if (greetingBanner.length <= outbound.remaining())
-			outbound.put(greetingBanner);
+		if (greetingBanner.length <= outbound.get().remaining())
+			outbound.get().put(greetingBanner);
 	}
 
 	@Override
 	public ByteBuffer getInboundBuffer() {
-		return inbound;
+		return inbound.get();
 	}
 
 	@Override
 	public ByteBuffer getOutboundBuffer() {
-		return outbound;
+		return outbound.get();
+	}
+
+	/**
+	* <p>Los buffers pertenecen a la sesión del cliente: solo el handler
+	* de su clave los devuelve al pool (el del 'origin-server' puede
+	* ejecutarse al mismo tiempo, en otro worker).</p>
+	*/
+
+	@Override
+	public void releaseBuffers() {
+
+		// El handler que inició la resolución finalizó:
+		if (!resolution.compareAndSet(RESOLVING, PARKED))
+			resolution.compareAndSet(RESOLVED, IDLE);
+
+		if (isClosed()) {
+
+			inbound.dispose();
+			outbound.dispose();
+		}
+		else {
+
+			inbound.release();
+			outbound.release();
+		}
+	}
+
+	@Override
+	public boolean hasOutboundData() {
+
+		// Luego de cada envío, el buffer vuelve a modo escritura:
+		ByteBuffer buffer = outbound.get();
+		boolean hasData = buffer.hasRemaining();
+		buffer.compact();
+
+		// La última respuesta ya se envió (ver 'dismiss'):
+		if (!hasData && closing) closeDownstream();
+		return hasData;
+	}
+
+	@Override
+	public void onRead(int read, int space) {
+		inbound.adapt(read, space);
+	}
+
+	/**
+	* <p>Adapta el buffer de salida, en el cual lee el
+	* <b>ServerAttachment</b> (ver <b>onRead</b>).</p>
+	*/
+
+	public void onUpstreamRead(int read, int space) {
+		outbound.adapt(read, space);
+	}
+
+	/**
+	* <p>El proxy envía su propio <i>greeting</i> apenas se acepta la
+	* conexión, sin esperar al 'origin-server' (ver <b>route</b>).</p>
+	*/
+
+	@Override
+	public int getInitialOptions() {
+		return Event.READ.getOptions() | Event.WRITE.getOptions();
 	}
 
 	@Override
@@ -59,6 +249,71 @@ public final class ClientAttachment extends Attachment implements Interceptor {
 		return this;
 	}
 
+	/**
+	* <p>Luego de una autenticación exitosa, el proxy no necesita
+	* analizar el flujo de la sesión (en ninguna dirección), por lo
+	* cual el mismo se reenvía sin interceptarlo.</p>
+	*/
+
+	@Override
+	public boolean isPassThrough() {
+		return authenticated;
+	}
+
+	/**
+	* <p>Registra la respuesta del servidor a la autenticación. Si
+	* fue exitosa, la sesión pasa a modo <i>pass-through</i>.</p>
+	*
+	* @param success
+	*	Indica si el servidor respondió con <b>+OK</b>.
+	*/
+
+	private void onAuthentication(boolean success) {
+		authenticated = success;
+	}
+
+	/**
+	* <p>Asocia cada respuesta del 'origin-server' con el comando que
+	* la espera (en orden, ya que POP3 no reordena respuestas), y
+	* registra el resultado de la autenticación al recibir la respuesta
+	* de PASS o APOP. Las líneas de una respuesta multi-línea (CAPA)
+	* no se cuentan como respuestas.</p>
+	*
+	* @param buffer
+	*	El flujo recibido desde el 'origin-server'.
+	*/
+
+	public void onReplies(ByteBuffer buffer) {
+
+		for (int i = buffer.position(); i < buffer.limit(); ++i) {
+
+			if (authenticated) return;
+			byte current = buffer.get(i);
+
+			if (column == 0 && !multiline
+				&& (current == '+' || current == '-')) {
+
+				Pop3Command command = awaiting.poll();
+				boolean success = current == '+';
+
+				if (command == Pop3Command.PASS || command == Pop3Command.APOP)
+					onAuthentication(success);
+				else if (command == Pop3Command.CAPA && success)
+					multiline = true;
+			}
+
+			// El terminador de una respuesta multi-línea (".\r\n"):
+			if (multiline) {
+
+				if (column == 0) terminator = current == '.';
+				else if (current != '\r' && current != '\n') terminator = false;
+				if (current == '\n' && terminator && column <= 2) multiline = false;
+			}
+
+			column = current == '\n'? 0 : column + 1;
+		}
+	}
+
 	@Override
 	public void onUnplug(Event event) {
 
@@ -70,39 +325,409 @@ public final class ClientAttachment extends Attachment implements Interceptor {
 		// Un mensaje de despedida:
 		getInboundBuffer().put("(Client) Bye!\n".getBytes());
 
-		// Fuerza el cierre del 'upstream':
+		// Fuerza el cierre del 'upstream', y libera su réplica:
+		Balancer.leave(this);
 		closeUpstream();
 	}
 
-	// Esta cosa no debería existir:
-	private boolean first = true;
+	/**
+	* <p>Analiza los comandos del cliente, línea por línea (un comando
+	* partido espera la siguiente lectura). Mientras el cliente no se
+	* identifique, el proxy responde localmente, y no se reenvía nada
+	* (el buffer se vacía). Al recibir USER, el comando (y lo
+	* que le sigue) se conserva en el buffer, y se reenvía una vez
+	* conectado el 'origin-server' (ver <b>route</b>). A partir de
+	* entonces, cada comando reenviado espera su respuesta (ver
+	* <b>onReplies</b>).</p>
+	*/
 
-	// El buffer consumido siempre es el 'inbound':
 	public void consume(ByteBuffer buffer) {
 
-		if (first) {
+		int start = buffer.position();
+		ByteBuffer input = buffer.duplicate();
+
+		// Antepongo el comando que quedó incompleto (una copia, ya que
+		// 'route' reescribe el buffer):
+		if (partial != null || authorizing) {
+
+			byte[] prefix = partial != null? partial : new byte[0];
+			input = ByteBuffer.allocate(prefix.length + buffer.remaining());
+			input.put(prefix).put(buffer.duplicate()).flip();
+			partial = null;
+		}
+
+		// Vacío el buffer (todavía no hay un 'origin-server'):
+		if (authorizing) {
+
+			buffer.limit(start);
+			buffer.position(start);
+		}
+
+		while (input.hasRemaining()) {
+
+			int position = input.position();
+			int end = position;
+			while (end < input.limit() && input.get(end) != '\n') ++end;
+
+			if (end == input.limit()) {
+
+				// Un comando partido espera la próxima lectura:
+				if (!overflow && input.remaining() < MAX_COMMAND) {
+
+					partial = new byte[input.remaining()];
+					input.get(partial);
+				}
+				else overflow = true;
+				return;
+			}
+
+			// El parser solo recibe comandos completos:
+			ByteBuffer line = input.duplicate();
+			line.limit(end + 1);
+			input.position(end + 1);
+
+			// Un comando demasiado largo es inválido:
+			ParsedCommand command = overflow? null : commands.filter(line);
+			Pop3Command type = overflow? Pop3Command.ERR : command.getCommand();
+			overflow = false;
+
+			if (authorizing) {
+
+				if (type == Pop3Command.USER
+					&& command.getStatus() == CommandStatus.COMPLETE
+					&& command.getParams() != null) {
+
+					ByteBuffer replay = input.duplicate();
+					replay.position(position);
+					route(command.getParams(), replay, buffer);
+				}
+				else if (type == Pop3Command.QUIT) {
+
+					dismiss(BYE);
+					return;
+				}
+				else if (type == Pop3Command.APOP) respond(UNSUPPORTED);
+				else respond(type == Pop3Command.CAPA? CAPABILITIES : AUTHENTICATE);
+
+				// El resto de las líneas se reenvían:
+				if (authorizing) continue;
+			}
+
+			if (!authenticated) awaiting.offer(type);
+		}
+	}
+
+	/**
+	* <p>Encola una respuesta local hacia el cliente.</p>
+	*/
+
+	private void respond(byte[] response) {
+
+		ByteBuffer buffer = outbound.get();
+		if (response.length <= buffer.remaining()) {
+
+			buffer.put(response);
+			sync.enable(downstream, Event.WRITE);
+		}
+	}
+
+	/**
+	* <p>Finaliza la sesión: deja de leer del cliente, encola la última
+	* respuesta detrás de las pendientes, y cierra la conexión una vez
+	* que el <b>WriteHandler</b> las envió (ver <b>hasOutboundData</b>).
+	* </p>
+	*/
+
+	private void dismiss(byte[] response) {
+
+		closing = true;
+		sync.disable(downstream, Event.READ);
+		respond(response);
+		sync.enable(downstream, Event.WRITE);
+	}
+
+	/**
+	* <p>Elige el pool del usuario recién identificado, y comienza la
+	* conexión con una de sus réplicas. El comando recibido (y lo que
+	* le sigue) queda en el buffer de entrada, hasta conectarse.</p>
+	*
+	* @param params
+	*	Los argumentos del comando USER.
+	* @param input
+	*	El flujo a reenviar, a partir del comando.
+	* @param buffer
+	*	El buffer de entrada, vacío.
+	*/
+
+	private void route(String params, ByteBuffer input, ByteBuffer buffer) {
+
+		// El comando se reenvía tal cual se recibió:
+		byte[] replay = new byte[input.remaining()];
+		input.get(replay);
+
+		int start = buffer.position();
+		if (buffer.capacity() - start < replay.length) {
+
+			respond(AUTHENTICATE);
+			return;
+		}
+
+		authorizing = false;
+		buffer.limit(start + replay.length);
+		buffer.put(replay);
+		buffer.position(start);
+
+		// Estaciono la sesión hasta conectarme al 'origin-server':
+		resolution.set(RESOLVING);
+		sync.disable(downstream, Event.READ);
+
+		// Elijo la réplica del usuario (la sesión la ocupa hasta cerrarse):
+		String username = params.trim().split(" ", 2)[0];
+		UpstreamGroup group = factory.getOrigin(username);
+		origin = balancer.acquire(group, this);
+
+		if (origin == null) {
+
+			// Todos los circuitos están abiertos, falla rápido:
+			logger.warn(Message.NO_UPSTREAM_AVAILABLE.getMessage(), group);
+			dismiss(UNAVAILABLE);
+			return;
+		}
+
+		// Resuelvo el 'origin-server' sin bloquear al worker:
+		resolver.resolve(origin.getHost()).whenComplete(this::onResolved);
+	}
+
+	/**
+	* <p>Registra la llegada de la primera respuesta del 'origin-server'
+	* (su <i>greeting</i>), con la cual se mide la latencia de la
+	* réplica (ver <b>Balancer</b>), y descarta el <i>greeting</i> del
+	* flujo hacia el cliente, el cual ya recibió el del proxy. Recién
+	* entonces se reenvía el comando que identificó al usuario. Ante un
+	* <i>greeting</i> negativo, la réplica registra un fallo, y la
+	* sesión se rechaza (sin reenviar nada).</p>
+	*
+	* @param buffer
+	*	El flujo recibido desde el 'origin-server'.
+	*/
+
+	public void onUpstreamData(ByteBuffer buffer) {
+
+		long start = connecting.getAndSet(0);
+		int position = buffer.position();
+
+		if (start != 0) {
+
+			ScheduledFuture<?> timeout = greetingTimeout;
+			if (timeout != null) timeout.cancel(false);
+
+			if (buffer.get(position) != '+') {
+
+				// La réplica no atiende (el cliente recibe un error local):
+				logger.warn(Message.NEGATIVE_GREETING.getMessage(), origin);
+				balancer.fail(this);
+				Balancer.leave(this);
+				closeUpstream();
+				reject(buffer, position);
+				return;
+			}
+			balancer.record(this, (System.nanoTime() - start) / 1000);
+		}
+
+		if (!greeting) return;
+
+		int end = position;
+		while (end < buffer.limit() && buffer.get(end) != '\n') ++end;
+
+		if (end == buffer.limit()) {
+
+			// El 'greeting' continúa en la próxima lectura:
+			buffer.limit(position);
+			return;
+		}
+		greeting = false;
+
+		// Desplazo el resto del flujo sobre el 'greeting':
+		int length = buffer.limit() - end - 1;
+		for (int i = 0; i < length; ++i)
+			buffer.put(position + i, buffer.get(end + 1 + i));
+		buffer.limit(position + length);
+
+		// Reenvío el comando que identificó al usuario:
+		sync.enable(upstream, Event.WRITE);
+	}
+
+	/**
+	* <p>Si el 'origin-server' no envió su <i>greeting</i> a tiempo, la
+	* réplica registra un fallo (ver <b>CircuitBreaker</b>), y la sesión
+	* se cierra desde el bucle de selección del cliente (como lo hace el
+	* <b>WatchdogTimer</b>), y no desde el thread del <i>breaker</i>.</p>
+	*/
+
+	private void onGreetingTimeout() {
 
-			// Vacío el buffer antes de conectarme al 'origin-server':
-			buffer.limit(buffer.position());
+		if (connecting.getAndSet(0) == 0) return;
 
-			// El 'attachment' de tipo 'server-side':
-			Attachment attachment = new ServerAttachment(downstream);
+		logger.warn(Message.GREETING_TIMEOUT.getMessage(), origin);
+		balancer.fail(this);
 
-			// El servidor remoto (origin-server):
-			SocketAddress address
-				= new InetSocketAddress("pop.speedy.com.ar", 110);
+		sync.execute(downstream.selector(), () -> {
 
-			// Creo el stream 'server-side':
-			upstream = addStream(address, attachment);
+			Balancer.leave(this);
+			closeUpstream();
+			closeDownstream();
+		});
+	}
+
+	/**
+	* <p>Rechaza la sesión desde el flujo del 'origin-server': reemplaza
+	* su <i>greeting</i> por el error, el cual se envía al cliente como
+	* cualquier respuesta (el buffer es el de salida de esta sesión), y
+	* la conexión se cierra luego de enviarlo (ver <b>dismiss</b>).</p>
+	*
+	* @param buffer
+	*	El flujo recibido desde el 'origin-server'.
+	* @param position
+	*	El comienzo de lo recibido en este evento.
+	*/
+
+	private void reject(ByteBuffer buffer, int position) {
+
+		closing = true;
+		sync.disable(downstream, Event.READ);
+		buffer.limit(position);
+
+		if (UNAVAILABLE.length <= buffer.capacity() - position) {
+
+			buffer.limit(position + UNAVAILABLE.length);
+			buffer.put(UNAVAILABLE);
+			buffer.position(position);
+		}
+		sync.enable(downstream, Event.WRITE);
+	}
+
+	/**
+	* <p>Una vez resuelto el 'origin-server' (en el mismo handler, si
+	* las direcciones estaban en el caché, o desde un thread del
+	* <b>Resolver</b>), obtiene una conexión precalentada hacia la
+	* dirección más rápida, o compite por conectarse a todas ellas
+	* (ver <b>Connector</b>).</p>
+	*/
+
+	private void onResolved(List<InetAddress> origins, Throwable exception) {
+
+		// El cliente se desconectó mientras tanto:
+		if (!downstream.isValid()) return;
+
+		if (origins == null) {
+
+			logger.error(
+				Message.UNRESOLVED_ADDRESS.getMessage(), origin.getHost());
+
+			balancer.fail(this);
+			closeDownstream();
+			return;
+		}
+
+		List<InetSocketAddress> addresses = new ArrayList<>();
+		for (InetAddress address : origins)
+			addresses.add(new InetSocketAddress(address, origin.getPort()));
+
+		addresses = connector.order(addresses);
+
+		// Las opciones propias de la réplica tienen prioridad:
+		SocketOptions options = upstreamOptions.with(origin.getSocketOptions());
+
+		UpstreamPool.Connection connection
+			= upstreams.acquire(addresses.get(0), options);
+
+		if (connection != null) {
+
+			// El 'greeting' ya se leyó (el cliente recibió el del proxy):
+			balancer.record(this, connection.getLatency());
+			attach(connection.getSocket(), null);
+		}
+		else {
+
+			greeting = true;
+			connecting.set(System.nanoTime());
+			connector
+				.connect(addresses, options)
+				.whenComplete(this::attach);
+		}
+	}
+
+	/**
+	* <p>Recibe el canal ya conectado (desde un thread del
+	* <b>Connector</b> o del <b>Resolver</b>), y delega su registración
+	* al bucle de selección del cliente.</p>
+	*/
+
+	private void attach(SocketChannel socket, Throwable exception) {
+
+		if (socket == null) {
+
+			logger.error(
+				Message.CANNOT_FORWARD.getMessage(), origin.getHost());
+
+			balancer.fail(this);
+			closeDownstream();
+			return;
+		}
+
+		sync.execute(downstream.selector(), () -> register(socket));
+	}
+
+	/**
+	* <p>Crea el stream 'server-side' sobre el canal ya conectado, y
+	* reanuda la sesión. Se ejecuta en el thread del bucle de selección
+	* del cliente. Si el handler que estacionó la sesión sigue
+	* ejecutando, el mismo reanuda ambos extremos al finalizar (ver
+	* <b>ReadHandler.onResume</b>); en otro caso, se reanudan desde
+	* aquí.</p>
+	*/
+
+	private void register(SocketChannel socket) {
 
-			if (upstream == null) {
+		// El cliente se desconectó mientras tanto:
+		if (!downstream.isValid()) {
 
-				// No se pudo resolver el 'origin-server':
-				closeDownstream();
+			try {
+
+				socket.close();
 			}
+			catch (IOException spurious) {}
+			return;
+		}
+
+		// El 'attachment' de tipo 'server-side':
+		Attachment attachment = new ServerAttachment(downstream);
+
+		// Creo el stream 'server-side':
+		SelectionKey key = addConnectedStream(socket, attachment);
+
+		if (key == null) {
+
+			// No se pudo registrar el 'origin-server':
+			closeDownstream();
+			return;
+		}
+
+		upstream = key;
+
+		// El 'greeting' de una nueva conexión tiene un tiempo límite:
+		if (connecting.get() != 0)
+			greetingTimeout = breaker.expectGreeting(this::onGreetingTimeout);
+
+		// Reenvío el comando que identificó al usuario (en una nueva
+		// conexión, luego de su 'greeting'):
+		sync.enable(downstream, Event.READ);
+		if (!greeting) sync.enable(upstream, Event.WRITE);
+
+		if (!resolution.compareAndSet(RESOLVING, RESOLVED)) {
 
-			// Sólo una vez:
-			first = false;
+			resolution.set(IDLE);
+			sync.restore(downstream, upstream);
 		}
 	}
 }
@@ -1,24 +1,243 @@
 
 	package ar.edu.itba.protos.transport.concrete;
 
+	import java.util.ArrayList;
+	import java.util.List;
+
+	import com.google.inject.Inject;
+	import com.google.inject.Singleton;
+
+	import ar.edu.itba.protos.config.ConfigurationLoader;
+	import ar.edu.itba.protos.config.Upstream;
+	import ar.edu.itba.protos.config.UpstreamGroup;
+	import ar.edu.itba.protos.config.UserUpstreamPair;
+	import ar.edu.itba.protos.protocol.pop3.Pop3FilterManager;
+	import ar.edu.itba.protos.transport.buffer.BufferPool;
 	import ar.edu.itba.protos.transport.support.Attachment;
 	import ar.edu.itba.protos.transport.support.AttachmentFactory;
+	import ar.edu.itba.protos.transport.support.Balancer;
+	import ar.edu.itba.protos.transport.support.CircuitBreaker;
+	import ar.edu.itba.protos.transport.support.Connector;
+	import ar.edu.itba.protos.transport.support.Resolver;
+	import ar.edu.itba.protos.transport.support.SocketOptions;
+	import ar.edu.itba.protos.transport.support.UpstreamPool;
 
 		/**
 		* <p>Esta implementación de <b>AttachmentFactory</b>, genera
-		* instancias que poseen un buffer de tamaño fijo. En
-		* este caso, el buffer es de 8 Kb. El buffer posee el
-		* mismo tamaño, tanto para entrada como para salida.</p>
+		* instancias cuyos buffers comienzan con una capacidad
+		* pequeña (2 Kb, por defecto), y crecen hasta un máximo
+		* (32 Kb, por defecto) en las sesiones que los llenan, como
+		* durante la descarga de un mensaje extenso. Los buffers se
+		* obtienen del pool solo mientras son necesarios.</p>
 		*
 		* <p>El objetivo de esta fábrica es generar <i>forwarders</i>,
 		* es decir, circuitos que conectan clientes con servidores
 		* especificados dentro del interceptor.</p>
 		*/
 
+	@Singleton
 	public final class ForwardAttachmentFactory implements AttachmentFactory {
 
-		// TODO: Debería obtenerse por configuración:
-		public static final int BUFFER_SIZE = 8192;
+		// Capacidades por defecto de los buffers (en bytes):
+		public static final int BUFFER_SIZE = 2048;
+		public static final int MAX_BUFFER_SIZE = 32768;
+
+		// El servidor remoto (origin-server), si no hay un mapping:
+		private static final String ORIGIN_HOST = "pop.speedy.com.ar";
+		private static final int ORIGIN_PORT = 110;
+
+		// El pool de buffers de las sesiones:
+		private final BufferPool pool;
+
+		// Capacidades de los buffers de cada sesión:
+		private volatile int bufferSize = BUFFER_SIZE;
+		private volatile int maxBufferSize = MAX_BUFFER_SIZE;
+
+		// El parser de comandos (compartido por las sesiones):
+		private final Pop3FilterManager commands = new Pop3FilterManager();
+
+		// Opciones de socket de los clientes y de los 'origin-servers':
+		private volatile SocketOptions clientOptions = SocketOptions.DEFAULT;
+		private volatile SocketOptions upstreamOptions = SocketOptions.DEFAULT;
+
+		// Conexiones precalentadas hacia los 'origin-servers':
+		private final UpstreamPool upstreams;
+
+		// Resolución de nombres de los 'origin-servers':
+		private final Resolver resolver;
+
+		// Conexión (en paralelo) a las direcciones de los 'origin-servers':
+		private final Connector connector;
+
+		// Reparto de sesiones entre las réplicas de cada pool:
+		private final Balancer balancer;
+
+		// Timeouts del 'greeting' de cada réplica:
+		private final CircuitBreaker breaker;
+
+		// Los 'origin-servers' configurados (ver UserMapping):
+		private final ConfigurationLoader configurator;
+
+		@Inject
+		public ForwardAttachmentFactory(final BufferPool pool,
+			final UpstreamPool upstreams, final Resolver resolver,
+			final Connector connector, final Balancer balancer,
+			final CircuitBreaker breaker, final ConfigurationLoader configurator) {
+
+			this.pool = pool;
+			this.upstreams = upstreams;
+			this.resolver = resolver;
+			this.connector = connector;
+			this.balancer = balancer;
+			this.breaker = breaker;
+			this.configurator = configurator;
+		}
+
+		/**
+		* <p>Especifica la capacidad inicial y máxima de los buffers
+		* de las nuevas sesiones.</p>
+		*
+		* @param bufferSize
+		*	La capacidad inicial, en bytes.
+		* @param maxBufferSize
+		*	La capacidad máxima, en bytes.
+		*
+		* @return Esta misma fábrica.
+		*
+		* @throws IllegalArgumentException
+		*	Si la capacidad inicial no es positiva, o si es mayor
+		*	que la capacidad máxima.
+		*/
+
+		public ForwardAttachmentFactory setBufferSizes(
+			int bufferSize, int maxBufferSize) {
+
+			if (bufferSize <= 0 || maxBufferSize < bufferSize)
+				throw new IllegalArgumentException();
+
+			this.bufferSize = bufferSize;
+			this.maxBufferSize = maxBufferSize;
+			return this;
+		}
+
+		/**
+		* <p>Especifica las opciones de socket de cada extremo de
+		* las nuevas sesiones.</p>
+		*
+		* @param clientOptions
+		*	Las opciones de los clientes aceptados.
+		* @param upstreamOptions
+		*	Las opciones de las conexiones hacia el 'origin-server'.
+		*
+		* @return Esta misma fábrica.
+		*/
+
+		public ForwardAttachmentFactory setSocketOptions(
+			SocketOptions clientOptions, SocketOptions upstreamOptions) {
+
+			this.clientOptions = clientOptions;
+			this.upstreamOptions = upstreamOptions;
+			return this;
+		}
+
+		@Override
+		public SocketOptions getSocketOptions() {
+
+			return clientOptions;
+		}
+
+		public SocketOptions getUpstreamOptions() {
+
+			return upstreamOptions;
+		}
+
+		public Pop3FilterManager getCommands() {
+
+			return commands;
+		}
+
+		public UpstreamPool getUpstreamPool() {
+
+			return upstreams;
+		}
+
+		public Resolver getResolver() {
+
+			return resolver;
+		}
+
+		public Connector getConnector() {
+
+			return connector;
+		}
+
+		public Balancer getBalancer() {
+
+			return balancer;
+		}
+
+		public CircuitBreaker getCircuitBreaker() {
+
+			return breaker;
+		}
+
+		/**
+		* <p>Devuelve el pool de 'origin-servers' por defecto (ver
+		* <b>UserMapping</b>), o el servidor predefinido si no se
+		* configuró ninguno.</p>
+		*
+		* @return El pool de réplicas hacia el cual se conectan las
+		*	nuevas sesiones.
+		*/
+
+		public UpstreamGroup getOrigin() {
+
+			UpstreamGroup origin
+				= configurator.getUserMapping().getDefaultUpstream();
+
+			if (origin == null || origin.getReplicas().isEmpty())
+				origin = UpstreamGroup.of(new Upstream(ORIGIN_HOST, ORIGIN_PORT));
+			return origin;
+		}
+
+		/**
+		* <p>Devuelve el pool de un usuario (ver <b>UserMapping</b>), o
+		* el pool por defecto, si el usuario no posee uno propio.</p>
+		*
+		* @param username
+		*	El usuario recibido en el comando USER.
+		*
+		* @return El pool de réplicas del usuario.
+		*/
+
+		public UpstreamGroup getOrigin(String username) {
+
+			UpstreamGroup origin
+				= configurator.getUserMapping().getMappingForUsername(username);
+
+			if (origin == null || origin.getReplicas().isEmpty())
+				return getOrigin();
+			return origin;
+		}
+
+		/**
+		* <p>Devuelve todas las réplicas configuradas: las del pool por
+		* defecto (o el servidor predefinido), y las de cada usuario
+		* (ver <b>HealthProber</b>).</p>
+		*
+		* @return Las réplicas, posiblemente repetidas.
+		*/
+
+		public List<Upstream> getUpstreams() {
+
+			List<Upstream> upstreams
+				= new ArrayList<>(getOrigin().getReplicas());
+
+			for (UserUpstreamPair pair
+				: configurator.getUserMapping().getAllMappings())
+				upstreams.addAll(pair.getGroup().getReplicas());
+			return upstreams;
+		}
 
 		/**
 		* <p>Genera un nuevo <i>attachment</i> de forwarding.</p>
@@ -30,6 +249,7 @@
 
 		public Attachment create() {
 
-			return new ClientAttachment();
+			return new ClientAttachment(
+				pool, bufferSize, maxBufferSize, this);
 		}
 	}
@@ -6,6 +6,7 @@
 
 	import ar.edu.itba.protos.transport.reactor.Event;
 	import ar.edu.itba.protos.transport.support.Attachment;
+	import ar.edu.itba.protos.transport.support.Balancer;
 	import ar.edu.itba.protos.transport.support.Interceptor;
 
 		/**
@@ -43,12 +44,38 @@
 			return upstreamAttachment.getInboundBuffer();
 		}
 
+		@Override
+		public boolean hasOutboundData() {
+
+			// Luego de cada envío, el buffer vuelve a modo escritura:
+			ByteBuffer buffer = getOutboundBuffer();
+			boolean hasData = buffer.hasRemaining();
+			buffer.compact();
+			return hasData;
+		}
+
 		@Override
 		public Interceptor getInterceptor() {
 
 			return this;
 		}
 
+		@Override
+		public void onRead(int read, int space) {
+
+			// El buffer de entrada es el de salida del cliente:
+			if (upstreamAttachment instanceof ClientAttachment)
+				((ClientAttachment) upstreamAttachment)
+					.onUpstreamRead(read, space);
+		}
+
+		@Override
+		public boolean isPassThrough() {
+
+			// La sesión se autentica del lado del cliente:
+			return upstreamAttachment.isPassThrough();
+		}
+
 		@Override
 		public void onUnplug(Event event) {
 
@@ -60,12 +87,26 @@
 			// Un mensaje de despedida:
 			getInboundBuffer().put("(Server) Bye!".getBytes());
 
-			// Fuerzo el cierre del cliente:
+			// Fuerzo el cierre del cliente, y libero la réplica:
+			Balancer.leave(upstreamAttachment);
 			closeUpstream();
 		}
 
 		public void consume(ByteBuffer buffer) {
 
+			// Cada respuesta corresponde a un comando del cliente:
+			if (upstreamAttachment instanceof ClientAttachment) {
+
+				ClientAttachment client
+					= (ClientAttachment) upstreamAttachment;
+
+				// La primera respuesta mide la latencia de la réplica (y
+				// el 'greeting' se descarta):
+				if (buffer.hasRemaining()) client.onUpstreamData(buffer);
+
+				if (buffer.hasRemaining()) client.onReplies(buffer);
+			}
+
 			// Esto no va, hay que hacer algo con el buffer:
 			super.getInterceptor().consume(buffer);
 		}
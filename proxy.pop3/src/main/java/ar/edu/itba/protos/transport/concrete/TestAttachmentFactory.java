@@ -7,6 +7,11 @@
 	import org.slf4j.Logger;
 	import org.slf4j.LoggerFactory;
 
+	import com.google.inject.Inject;
+	import com.google.inject.Singleton;
+
+	import ar.edu.itba.protos.transport.buffer.BufferPool;
+	import ar.edu.itba.protos.transport.buffer.PooledBuffer;
 	import ar.edu.itba.protos.transport.reactor.Event;
 	import ar.edu.itba.protos.transport.support.Attachment;
 	import ar.edu.itba.protos.transport.support.AttachmentFactory;
@@ -21,14 +26,16 @@
 		* mismos.</p>
 		*/
 
+	@Singleton
 	public final class TestAttachmentFactory implements AttachmentFactory {
 
 		// El logger utilizado:
 		private static final Logger logger
 			= LoggerFactory.getLogger(TestAttachmentFactory.class);
 
-		// Tamaño del buffer de testeo:
-		private static final int BUFFER_SIZE = 8192;
+		// Tamaño del buffer de testeo (inicial y máximo):
+		private static final int BUFFER_SIZE = 2048;
+		private static final int MAX_BUFFER_SIZE = 32768;
 
 		// Habilita el servidor de descarte:
 		private static boolean DISCARD_MODE = false;
@@ -40,6 +47,15 @@
 		private static final String greetingBanner
 			= ">> Test Server\n";
 
+		// El pool de buffers de las sesiones:
+		private final BufferPool pool;
+
+		@Inject
+		public TestAttachmentFactory(final BufferPool pool) {
+
+			this.pool = pool;
+		}
+
 		@Override
 		public Attachment create() {
 
@@ -49,31 +65,43 @@
 		private class TestAttachment extends Attachment {
 
 			// El buffer utilizado:
-			private ByteBuffer buffer
-				= ByteBuffer.allocate(BUFFER_SIZE);
+			private final PooledBuffer buffer
+				= pool.newBuffer(BUFFER_SIZE, MAX_BUFFER_SIZE);
 
 			// Indica si se activó la señal de cierre:
 			private boolean signalUnplug = false;
 
 			public TestAttachment() {
 
-				buffer.clear();
 				if (!DISCARD_MODE)
 					if (SEND_GREETING)
-						buffer.put(greetingBanner.getBytes());
+						buffer.get().put(greetingBanner.getBytes());
 			}
 
 			@Override
 			public ByteBuffer getInboundBuffer() {
 
-				if (DISCARD_MODE) buffer.clear();
-				return buffer;
+				if (DISCARD_MODE) buffer.get().clear();
+				return buffer.get();
 			}
 
 			@Override
 			public ByteBuffer getOutboundBuffer() {
 
-				return buffer;
+				return buffer.get();
+			}
+
+			@Override
+			public void releaseBuffers() {
+
+				if (isClosed()) buffer.dispose();
+				else buffer.release();
+			}
+
+			@Override
+			public void onRead(int read, int space) {
+
+				buffer.adapt(read, space);
 			}
 
 			@Override
@@ -118,8 +146,9 @@
 						closeDownstream();
 						return false;
 					}
+					// Siempre vuelve a modo escritura (aún vacío):
 					boolean hasData = super.hasOutboundData();
-					if (0 < buffer.position()) buffer.compact();
+					buffer.get().compact();
 					return hasData;
 				}
 			}
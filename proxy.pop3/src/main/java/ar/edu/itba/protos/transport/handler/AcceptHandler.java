@@ -5,8 +5,13 @@ import java.io.IOException;
 import java.nio.channels.CancelledKeyException;
 import java.nio.channels.ClosedChannelException;
 import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
 import java.nio.channels.ServerSocketChannel;
 import java.nio.channels.SocketChannel;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -16,8 +21,11 @@ import com.google.inject.Singleton;
 
 import ar.edu.itba.protos.transport.metrics.Metrics;
 import ar.edu.itba.protos.transport.reactor.Handler;
+import ar.edu.itba.protos.transport.support.Admission;
 import ar.edu.itba.protos.transport.support.Attachment;
 import ar.edu.itba.protos.transport.support.AttachmentFactory;
+import ar.edu.itba.protos.transport.support.EventLoop;
+import ar.edu.itba.protos.transport.support.EventLoopGroup;
 import ar.edu.itba.protos.transport.support.Message;
 import ar.edu.itba.protos.transport.support.Server;
 import ar.edu.itba.protos.transport.support.Synchronizer;
@@ -48,15 +56,29 @@ public final class AcceptHandler implements Handler {
 
     private final Metrics metrics;
 
+    // Bucles de selección secundarios:
+    private final EventLoopGroup loops;
+
+    // Límites de sesiones concurrentes:
+    private final Admission admission;
+
+    // Conexiones aceptadas por evento (como máximo):
+    public static final int BATCH = 64;
+    private volatile int batch = BATCH;
+
     @Inject
     private AcceptHandler(
             final Synchronizer sync,
             final WatchdogTimer watchdog,
-            final Metrics metrics) {
+            final Metrics metrics,
+            final EventLoopGroup loops,
+            final Admission admission) {
 
         this.metrics = metrics;
         this.sync = sync;
         this.watchdog = watchdog;
+        this.loops = loops;
+        this.admission = admission;
     }
 
     /*
@@ -73,11 +95,45 @@ public final class AcceptHandler implements Handler {
     public void onResume(final SelectionKey key) {}
 
     /**
-     * <p>Se encarga de aceptar una nueva conexión entrante,
-     * de registrar el nuevo canal y de instalar su <i>attachment</i>
-     * correspondiente, obtenido gracias a la fábrica asociada a la
-     * clave manipulada. Además, configura el estado inicial del canal
-     * y subscribe la misma al monitor de inactividad.</p>
+     * <p>Especifica la cantidad máxima de conexiones a aceptar
+     * durante un mismo evento <b>ACCEPT</b>.</p>
+     *
+     * @param batch
+     *	La cantidad de conexiones por evento (al menos una).
+     *
+     * @return Este mismo <i>handler</i>.
+     *
+     * @throws IllegalArgumentException
+     *	Si la cantidad no es positiva.
+     */
+
+    public AcceptHandler setBatch(final int batch) {
+
+        if (batch <= 0) {
+            throw new IllegalArgumentException();
+        }
+        this.batch = batch;
+        return this;
+    }
+
+    /**
+     * <p>Se encarga de aceptar las nuevas conexiones entrantes,
+     * de registrar los nuevos canales y de instalar sus <i>attachments</i>
+     * correspondientes, obtenidos gracias a la fábrica asociada a la
+     * clave manipulada. Además, configura el estado inicial de cada
+     * canal y los subscribe al monitor de inactividad.</p>
+     *
+     * <p>Durante un mismo evento se aceptan conexiones hasta vaciar
+     * la cola de conexiones pendientes del <i>listener</i>, o hasta
+     * completar el lote (ver <b>setBatch</b>), o hasta alcanzar el
+     * límite de sesiones (ver <b>Admission</b>). Este <i>handler</i> se
+     * ejecuta en el thread del bucle de selección principal (ver
+     * <b>ThreadingCore</b>).</p>
+     *
+     * <p>Si el servidor posee bucles de selección secundarios, los
+     * nuevos canales se reparten entre ellos, y la registración de
+     * cada lote se realiza en el thread de cada bucle, con una sola
+     * tarea por bucle.</p>
      *
      * <p>El repositorio de claves no se utiliza para modificar el
      * estado de la clave generada debido a que no es posible que otro
@@ -92,8 +148,8 @@ public final class AcceptHandler implements Handler {
     @Override
     public void handle(final SelectionKey key) {
 
-        // La clave del nuevo cliente:
-        SelectionKey downstream = null;
+        // Las conexiones aceptadas, agrupadas por bucle de selección:
+        final Map<EventLoop, List<Accepted>> batches = new IdentityHashMap<>();
 
         try {
 
@@ -101,50 +157,58 @@ public final class AcceptHandler implements Handler {
             final ServerSocketChannel server =
                     (ServerSocketChannel) key.channel();
 
-            // Establecemos la nueva conexión entrante:
-            final SocketChannel socket = server.accept();
+            // Obtengo la fábrica para este servicio:
+            final AttachmentFactory factory
+            = (AttachmentFactory) key.attachment();
 
-            if (socket != null) {
+            for (int i = 0; i < batch; ++i) {
 
-                logger.info(
-                        Message.INCOMING_CONNECTION.getMessage(),
-                        socket.getRemoteAddress(),
-                        server.getLocalAddress());
+                // Si se alcanzó el límite, el 'listener' se suspende:
+                if (!admission.admits(key)) {
+                    break;
+                }
 
-                // Obtengo la fábrica para este servicio:
-                final AttachmentFactory factory
-                = (AttachmentFactory) key.attachment();
+                // Establecemos la nueva conexión entrante:
+                final SocketChannel socket = server.accept();
+
+                // No quedan conexiones pendientes:
+                if (socket == null) {
+                    break;
+                }
 
-                // Fabrico un nuevo 'attachment':
-                final Attachment attachment = factory.create();
+                try {
 
-                // Registro el nuevo cliente y sus datos:
-                downstream = socket
-                        .configureBlocking(false)
-                        .register(key.selector(), 0, attachment);
+                    logger.info(
+                            Message.INCOMING_CONNECTION.getMessage(),
+                            socket.getRemoteAddress(),
+                            server.getLocalAddress());
 
-                // Almacenar el estado de la nueva clave:
-                sync.save(downstream);
+                    socket.configureBlocking(false);
+                    factory.getSocketOptions().apply(socket);
 
-                if (attachment != null) {
-                    metrics.logAccess(attachment);
+                    // Fabrico un nuevo 'attachment', y cuento la sesión:
+                    final Attachment attachment = factory.create();
+                    admission.enter(key, attachment);
 
-                    // Especifico el flujo que identifica este canal:
-                    attachment.setDownstream(downstream);
+                    // Elijo el bucle de selección del nuevo cliente:
+                    batches.computeIfAbsent(loops.next(), loop -> new ArrayList<>())
+                    .add(new Accepted(socket, attachment));
+                }
+                catch (final IOException
+                        | RuntimeException exception) {
 
-                    // Setea el repositorio de claves:
-                    attachment.setSynchronizer(sync);
+                    // Solo se descarta este cliente, el lote continúa:
+                    logger.error(
+                            Message.UNKNOWN.getMessage(),
+                            this.getClass().getSimpleName());
 
-                    // Configura los eventos iniciales para este canal:
-                    sync.enable(
-                            downstream,
-                            attachment.getInitialOptions());
+                    try {
 
-                    // Monitoreo el nuevo canal:
-                    watchdog.update(downstream);
+                        socket.close();
+                    }
+                    catch (final IOException spurious) {}
+                    continue;
                 }
-            } else {
-                throw new IOException();
             }
         }
         catch (final ClosedChannelException exception) {
@@ -153,12 +217,6 @@ public final class AcceptHandler implements Handler {
                     Message.INTERFACE_DOWN.getMessage(),
                     Server.tryToResolveAddress(key));
         }
-        catch (final CancelledKeyException exception) {
-
-            logger.error(
-                    Message.CLIENT_UNPLUGGED.getMessage(),
-                    Server.tryToResolveAddress(downstream));
-        }
         catch (final IOException exception) {
 
             logger.error(
@@ -166,11 +224,126 @@ public final class AcceptHandler implements Handler {
                     this.getClass().getSimpleName());
         }
 
-        // Repone el estado de las claves:
-        if (downstream != null) {
-            sync.restore(key, downstream);
-        } else {
-            sync.restore(key);
+        // Registro cada lote en su bucle de selección:
+        batches.forEach((loop, accepted) -> {
+            if (loop == null) {
+                register(key.selector(), accepted);
+            } else {
+                loop.execute(() -> register(loop.getSelector(), accepted));
+            }
+        });
+
+        // Repone el estado del 'listener':
+        sync.restore(key);
+    }
+
+    /**
+     * <p>Registra un lote de canales nuevos en el selector
+     * especificado, despertándolo una única vez. En modo
+     * <i>main/sub-reactor</i>, este método se ejecuta en el thread
+     * del bucle de selección dueño del selector.</p>
+     *
+     * @param selector
+     *	El selector en el cual registrar los canales.
+     * @param batch
+     *	Los canales aceptados, con sus <i>attachments</i>.
+     */
+
+    private void register(final Selector selector, final List<Accepted> batch) {
+
+        // El selector no debe bloquear la registración:
+        sync.wakeup(selector);
+
+        for (final Accepted accepted : batch) {
+
+            if (accepted.attachment != null) {
+                metrics.logAccess(accepted.attachment);
+            }
+            register(selector, accepted.socket, accepted.attachment);
+        }
+    }
+
+    /**
+     * <p>Registra el nuevo canal en el selector especificado,
+     * instala su <i>attachment</i>, configura el estado inicial
+     * del canal y lo subscribe al monitor de inactividad.</p>
+     *
+     * @param selector
+     *	El selector en el cual registrar el canal.
+     * @param socket
+     *	El canal del nuevo cliente.
+     * @param attachment
+     *	El <i>attachment</i> a instalar en el canal.
+     */
+
+    private void register(
+            final Selector selector,
+            final SocketChannel socket,
+            final Attachment attachment) {
+
+        // La clave del nuevo cliente:
+        SelectionKey downstream = null;
+
+        try {
+
+            // Registro el nuevo cliente y sus datos:
+            downstream = socket.register(selector, 0, attachment);
+
+            // Almacenar el estado de la nueva clave:
+            sync.save(downstream);
+
+            if (attachment != null) {
+
+                // Especifico el flujo que identifica este canal:
+                attachment.setDownstream(downstream);
+
+                // Setea el repositorio de claves:
+                attachment.setSynchronizer(sync);
+
+                // Configura los eventos iniciales para este canal:
+                sync.enable(
+                        downstream,
+                        attachment.getInitialOptions());
+
+                // Monitoreo el nuevo canal:
+                watchdog.update(downstream);
+            }
+
+            // Repone el estado de la nueva clave:
+            sync.restore(downstream);
+        }
+        catch (final ClosedChannelException
+                | CancelledKeyException exception) {
+
+            logger.error(
+                    Message.CLIENT_UNPLUGGED.getMessage(),
+                    Server.tryToResolveAddress(downstream));
+
+            try {
+
+                socket.close();
+            }
+            catch (final IOException spurious) {}
+
+            // La sesión nunca comenzó:
+            if (attachment != null) {
+                Admission.leave(attachment);
+            }
+        }
+    }
+
+    /**
+     * <p>Una conexión aceptada, pendiente de registración.</p>
+     */
+
+    private static final class Accepted {
+
+        private final SocketChannel socket;
+        private final Attachment attachment;
+
+        public Accepted(final SocketChannel socket, final Attachment attachment) {
+            this.socket = socket;
+            this.attachment = attachment;
         }
     }
 }
@@ -13,7 +13,9 @@ import ar.edu.itba.protos.transport.metrics.Metrics;
 import ar.edu.itba.protos.transport.reactor.Event;
 import ar.edu.itba.protos.transport.reactor.Handler;
 import ar.edu.itba.protos.transport.support.Attachment;
+import ar.edu.itba.protos.transport.support.ReadBudget;
 import ar.edu.itba.protos.transport.support.Synchronizer;
+import ar.edu.itba.protos.transport.support.Watermarks;
 
 /**
  * <p>Se encarga de procesar los eventos de lectura.
@@ -34,10 +36,24 @@ public final class ReadHandler implements Handler {
     private final Synchronizer sync;
     private final Metrics metrics;
 
+    // Para reenviar la información sin esperar un evento WRITE:
+    private final WriteHandler writer;
+
+    // Control de flujo (marcas alta y baja):
+    private final Watermarks watermarks;
+
+    // Lecturas permitidas en cada evento:
+    private final ReadBudget budget;
+
     @Inject
-    private ReadHandler(final Synchronizer sync, final Metrics metrics) {
+    private ReadHandler(final Synchronizer sync, final Metrics metrics,
+            final WriteHandler writer, final Watermarks watermarks,
+            final ReadBudget budget) {
         this.metrics = metrics;
         this.sync = sync;
+        this.writer = writer;
+        this.watermarks = watermarks;
+        this.budget = budget;
     }
 
     /**
@@ -90,6 +106,17 @@ public final class ReadHandler implements Handler {
      * verifica y modifica los eventos para los cuales responde
      * este canal en función del estado de los buffers internos.</p>
      *
+     * <p>Si hay algo nuevo para enviar, se intenta escribir en el
+     * <i>upstream</i> durante esta misma tarea (ver <b>writeThrough</b>),
+     * y solo se espera un evento <b>WRITE</b> si el envío fue
+     * parcial. Si el <i>attachment</i> se encuentra en modo
+     * <i>pass-through</i>, el flujo se reenvía sin interceptarlo.</p>
+     *
+     * <p>Mientras el socket entregue información (es decir, mientras
+     * cada lectura llene el espacio disponible), se vuelve a leer
+     * durante este mismo evento, hasta vaciarlo o agotar el
+     * presupuesto de lectura (ver <b>ReadBudget</b>).</p>
+     *
      * @param key
      *	La clave a procesar, en la cual se activó el
      *	evento <b>READ</b>.
@@ -99,41 +126,59 @@ public final class ReadHandler implements Handler {
     public void handle(final SelectionKey key) {
 
         final Attachment attachment = (Attachment) key.attachment();
-        final ByteBuffer buffer = attachment.getInboundBuffer();
         final SocketChannel socket = attachment.getSocket();
 
+        // Lecturas y bytes leídos durante este evento:
+        int reads = 0;
+        long total = 0;
+        boolean drained = false;
+        boolean exhausted = false;
+
         try {
 
-            // Recuerdo donde estaba antes de leer:
-            final int position = buffer.position();
-            final int read = socket.read(buffer);
+            while (!drained) {
 
-            if (BROKEN_PIPE < read) {
-                metrics.logBytesReceived(attachment, (long) read);
-                // Realiza un 'flip' acotado al nuevo flujo:
-                buffer.limit(buffer.position());
-                buffer.position(position);
+                final ByteBuffer buffer = attachment.getInboundBuffer();
+
+                // Recuerdo donde estaba antes de leer:
+                final int position = buffer.position();
+                final int space = buffer.remaining();
+                final int read = socket.read(buffer);
 
-                // Consumo el flujo de bytes entrante:
-                attachment.getInterceptor().consume(buffer);
+                if (read <= BROKEN_PIPE) {
+                    throw new IOException();
+                }
 
-                // Backtracking (no recuerda el límite):
-                buffer.position(position);
+                ++reads;
+                total += read;
+                metrics.logBytesReceived(attachment, (long) read);
+                attachment.onRead(read, space);
 
-                // Abrir el 'upstream' si hay algo nuevo:
-                detectInbound(attachment);
+                if (attachment.isPassThrough()) {
 
-                // Habilito más espacio para lectura:
-                buffer.position(buffer.limit());
-                buffer.limit(buffer.capacity());
+                    // No hay nada que interceptar, solo reenviar:
+                    if (0 < read) {
+                        writeThrough(attachment);
+                    }
+                }
+                else intercept(attachment, buffer, position);
 
-                // Si el buffer se llenó, ya no se puede leer:
-                if (attachment.hasFullInbound()) {
+                // Demasiado pendiente (marca alta), dejo de leer:
+                if (watermarks.pause(attachment)) {
                     sync.disable(key, Event.READ);
+                    break;
+                }
+
+                // Una lectura parcial vació el socket:
+                drained = read < space || read == 0 || !key.isValid();
+
+                // Si se agotó el presupuesto, cedo el núcleo:
+                exhausted = !drained && !budget.allows(reads, total);
+                if (exhausted) {
+                    break;
                 }
-            } else {
-                throw new IOException();
             }
+            budget.log(reads, exhausted);
         }
         catch (final IOException exception) {
 
@@ -146,6 +191,84 @@ public final class ReadHandler implements Handler {
             // Si hay información para enviar, abro el 'upstream':
             detectInbound(attachment);
         }
+
+        // Los buffers vacíos vuelven al pool:
+        attachment.releaseBuffers();
+    }
+
+    /**
+     * <p>Entrega el flujo recién leído al interceptor del
+     * <i>attachment</i>, y luego lo reenvía si el interceptor dejó
+     * algo para el <i>upstream</i>.</p>
+     *
+     * @param attachment
+     *	El <i>attachment</i> asociado a la clave procesada.
+     * @param buffer
+     *	El buffer de entrada, en modo escritura.
+     * @param position
+     *	La posición del buffer antes de la lectura.
+     */
+
+    private void intercept(
+            final Attachment attachment, final ByteBuffer buffer, final int position) {
+
+        // Realiza un 'flip' acotado al nuevo flujo:
+        buffer.limit(buffer.position());
+        buffer.position(position);
+
+        // Consumo el flujo de bytes entrante:
+        attachment.getInterceptor().consume(buffer);
+
+        // Backtracking (no recuerda el límite):
+        buffer.position(position);
+
+        // Hay algo nuevo para el 'upstream'?
+        final boolean inbound = attachment.hasInboundData();
+
+        // Habilito más espacio para lectura:
+        buffer.position(buffer.limit());
+        buffer.limit(buffer.capacity());
+
+        // Lo envío sin esperar otra selección:
+        if (inbound) {
+            writeThrough(attachment);
+        }
+    }
+
+    /**
+     * <p>Intenta enviar la información recibida directamente por el
+     * <i>upstream</i>, evitando una nueva selección y un nuevo
+     * despacho hacia el núcleo de procesamiento. El <i>upstream</i> se
+     * encuentra suspendido durante este evento (ver <b>onSubmit</b>),
+     * por lo que ningún otro thread escribe en él. Si el envío es
+     * parcial (o el canal todavía no está conectado), se habilita
+     * la escritura, y el <b>WriteHandler</b> envía el resto.</p>
+     *
+     * @param attachment
+     *	El <i>attachment</i> asociado a la clave procesada.
+     */
+
+    private void writeThrough(final Attachment attachment) {
+
+        final SelectionKey upstream = attachment.getUpstream();
+
+        if (upstream != null) {
+
+            final Attachment peer = (Attachment) upstream.attachment();
+
+            try {
+
+                if (upstream.isValid() && peer.isOnline()
+                        && writer.flush(upstream)) {
+                    return;
+                }
+            }
+            catch (final IOException exception) {
+
+                // El 'WriteHandler' se encarga del error.
+            }
+            sync.enable(upstream, Event.WRITE);
+        }
     }
 
     /**
@@ -14,6 +14,7 @@ import ar.edu.itba.protos.transport.reactor.Event;
 import ar.edu.itba.protos.transport.reactor.Handler;
 import ar.edu.itba.protos.transport.support.Attachment;
 import ar.edu.itba.protos.transport.support.Synchronizer;
+import ar.edu.itba.protos.transport.support.Watermarks;
 
 /**
  * <p>Este <i>handler</i> es el encargado de forwardear la información
@@ -33,10 +34,15 @@ public final class WriteHandler implements Handler {
     private final Synchronizer sync;
     private final Metrics metrics;
 
+    // Control de flujo (marcas alta y baja):
+    private final Watermarks watermarks;
+
     @Inject
-    private WriteHandler(final Synchronizer sync, final Metrics metrics) {
+    private WriteHandler(final Synchronizer sync, final Metrics metrics,
+            final Watermarks watermarks) {
         this.metrics = metrics;
         this.sync = sync;
+        this.watermarks = watermarks;
     }
 
     /**
@@ -98,35 +104,10 @@ public final class WriteHandler implements Handler {
     public void handle(final SelectionKey key) {
 
         final Attachment attachment = (Attachment) key.attachment();
-        final ByteBuffer buffer = attachment.getOutboundBuffer();
-        final SocketChannel socket = attachment.getSocket();
-
-        // El buffer estaba lleno?
-        boolean full = false;
 
         try {
 
-            // Si no hay espacio, hay que rehabilitar la lectura:
-            if (buffer.position() == buffer.limit()) {
-                full = true;
-            }
-
-            // Veo qué hay para enviar:
-            buffer.flip();
-
-            // Enviar un flujo de datos:
-            final int written = socket.write(buffer);
-            metrics.logBytesSent(attachment, (long) written);
-
-            // Si se envió todo el flujo, deshabilitar escritura:
-            if (!attachment.hasOutboundData()) {
-                sync.disable(key, Event.WRITE);
-            }
-
-            // Si logró enviar datos y estaba lleno, habilito lectura:
-            if (0 < written && full) {
-                sync.enable(key, Event.READ);
-            }
+            flush(key);
         }
         catch (final IOException exception) {
 
@@ -139,6 +120,71 @@ public final class WriteHandler implements Handler {
             // Si hay información para enviar, abro el 'upstream':
             detectInbound(attachment);
         }
+
+        // Los buffers vacíos vuelven al pool:
+        attachment.releaseBuffers();
+    }
+
+    /**
+     * <p>Envía por el canal especificado todo lo que el kernel
+     * acepte del buffer de salida, sin bloquear, y actualiza el
+     * estado de las claves: si se envió todo el flujo deshabilita la
+     * escritura, y si el extremo que llena el buffer estaba
+     * suspendido, reanuda su lectura al alcanzar la marca baja
+     * (ver <b>Watermarks</b>). Si el <i>attachment</i> encola varios
+     * buffers de salida, se envían todos en una única escritura.
+     * Además de utilizarse durante un evento <b>WRITE</b>, el
+     * <b>ReadHandler</b> lo utiliza para reenviar la información
+     * en el mismo instante en el cual la recibe.</p>
+     *
+     * <p>La clave debe estar suspendida (o pertenecer al thread
+     * actual), debido a que no se sincroniza el acceso al
+     * buffer.</p>
+     *
+     * @param key
+     *	La clave del canal por el cual se debe escribir.
+     *
+     * @return Devuelve <i>true</i> si se envió todo el flujo, o
+     *	<i>false</i> si quedó información pendiente.
+     *
+     * @throws IOException
+     *	Si el canal no admite la escritura.
+     */
+
+    boolean flush(final SelectionKey key) throws IOException {
+
+        final Attachment attachment = (Attachment) key.attachment();
+        final ByteBuffer [] buffers = attachment.getOutboundBuffers();
+        final SocketChannel socket = attachment.getSocket();
+
+        // Enviar un flujo de datos (o varios, en una sola escritura):
+        final long written;
+        if (buffers != null) {
+            written = socket.write(buffers);
+        } else {
+            final ByteBuffer buffer = attachment.getOutboundBuffer();
+
+            // Veo qué hay para enviar:
+            buffer.flip();
+            written = socket.write(buffer);
+        }
+        metrics.logBytesSent(attachment, written);
+
+        // Si se envió todo el flujo, deshabilitar escritura:
+        final boolean sent = !attachment.hasOutboundData();
+        if (sent) {
+            sync.disable(key, Event.WRITE);
+        }
+
+        // El extremo que llena este buffer (o este mismo canal):
+        final SelectionKey upstream = attachment.getUpstream();
+        final SelectionKey reader = upstream != null ? upstream : key;
+
+        // Si logró enviar datos hasta la marca baja, habilito lectura:
+        if (0 < written && watermarks.resume((Attachment) reader.attachment())) {
+            sync.enable(reader, Event.READ);
+        }
+        return sent;
     }
 
     /**
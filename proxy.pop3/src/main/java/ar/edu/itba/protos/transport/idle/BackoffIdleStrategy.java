@@ -0,0 +1,83 @@
+package ar.edu.itba.protos.transport.idle;
+
+import java.io.IOException;
+import java.nio.channels.Selector;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * <p>Aplica un <i>backoff</i> progresivo: primero gira en vacío,
+ * luego cede el procesador, y finalmente duerme el thread por
+ * períodos que se duplican hasta alcanzar un máximo. Apenas se
+ * detecta una clave lista, vuelve a girar.</p>
+ *
+ * <p>El thread nunca se despierta anticipadamente, por lo que la
+ * latencia adicional queda acotada por el período máximo de
+ * espera.</p>
+ */
+
+public final class BackoffIdleStrategy implements IdleStrategy {
+
+    // Parámetros por defecto:
+    private static final int DEFAULT_SPINS = 100;
+    private static final int DEFAULT_YIELDS = 10;
+    private static final long DEFAULT_MIN_PARK = 1000;
+    private static final long DEFAULT_MAX_PARK = 1000000;
+
+    private final int maxSpins;
+    private final int maxYields;
+    private final long minParkNanos;
+    private final long maxParkNanos;
+
+    // Estado actual del 'backoff':
+    private int spins = 0;
+    private int yields = 0;
+    private long parkNanos;
+
+    public BackoffIdleStrategy() {
+
+        this(DEFAULT_SPINS, DEFAULT_YIELDS, DEFAULT_MIN_PARK, DEFAULT_MAX_PARK);
+    }
+
+    public BackoffIdleStrategy(
+            final int maxSpins, final int maxYields,
+            final long minParkNanos, final long maxParkNanos) {
+
+        if (maxSpins < 0 || maxYields < 0
+                || minParkNanos < 1 || maxParkNanos < minParkNanos) {
+            throw new IllegalArgumentException();
+        }
+
+        this.maxSpins = maxSpins;
+        this.maxYields = maxYields;
+        this.minParkNanos = minParkNanos;
+        this.maxParkNanos = maxParkNanos;
+        this.parkNanos = minParkNanos;
+    }
+
+    @Override
+    public int select(final Selector selector) throws IOException {
+
+        final int selected = selector.selectNow();
+
+        if (0 < selected) {
+
+            spins = 0;
+            yields = 0;
+            parkNanos = minParkNanos;
+        } else if (spins < maxSpins) {
+            ++spins;
+        } else if (yields < maxYields) {
+
+            ++yields;
+            Thread.yield();
+        } else {
+
+            LockSupport.parkNanos(parkNanos);
+            parkNanos = Math.min(parkNanos << 1, maxParkNanos);
+        }
+        return selected;
+    }
+
+    @Override
+    public void wakeup(final Selector selector) {}
+}
@@ -0,0 +1,54 @@
+package ar.edu.itba.protos.transport.idle;
+
+import java.io.IOException;
+import java.nio.channels.Selector;
+
+/**
+ * <p>Se bloquea sobre el selector hasta que alguna clave esté
+ * lista, o hasta que expire el <i>timeout</i>. Un servidor
+ * inactivo no consume procesador, pero cada modificación de
+ * claves realizada desde otro thread debe despertar al selector
+ * (a través de <b>wakeup</b>).</p>
+ */
+
+public final class BlockingIdleStrategy implements IdleStrategy {
+
+    // Tiempo máximo de bloqueo (en milisegundos):
+    private final long timeout;
+
+    public BlockingIdleStrategy(final long timeout) {
+
+        if (timeout < 0) {
+            throw new IllegalArgumentException();
+        }
+        this.timeout = timeout;
+    }
+
+    @Override
+    public int select(final Selector selector) throws IOException {
+
+        return selector.select(timeout);
+    }
+
+    @Override
+    public int select(final Selector selector, final long timeout)
+            throws IOException {
+
+        // Un 'timeout' nulo bloquea indefinidamente:
+        final long limit = this.timeout == 0 ? timeout : Math.min(this.timeout, timeout);
+
+        if (limit <= 0) {
+            return selector.selectNow();
+        }
+        if (limit == Long.MAX_VALUE) {
+            return selector.select();
+        }
+        return selector.select(limit);
+    }
+
+    @Override
+    public void wakeup(final Selector selector) {
+
+        selector.wakeup();
+    }
+}
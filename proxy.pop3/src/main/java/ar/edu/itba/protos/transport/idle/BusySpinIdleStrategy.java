@@ -0,0 +1,27 @@
+package ar.edu.itba.protos.transport.idle;
+
+import java.io.IOException;
+import java.nio.channels.Selector;
+
+/**
+ * <p>Nunca cede el procesador: cada iteración realiza una
+ * selección no-bloqueante. Ofrece la menor latencia posible,
+ * a costa de consumir un núcleo completo aún sin tráfico.</p>
+ */
+
+public final class BusySpinIdleStrategy implements IdleStrategy {
+
+    @Override
+    public int select(final Selector selector) throws IOException {
+
+        return selector.selectNow();
+    }
+
+    /*
+     ** No es necesario despertar al selector, ya que
+     ** nunca se bloquea sobre él.
+     */
+
+    @Override
+    public void wakeup(final Selector selector) {}
+}
@@ -0,0 +1,119 @@
+package ar.edu.itba.protos.transport.idle;
+
+import java.io.IOException;
+import java.nio.channels.Selector;
+
+/**
+ * <p>Define la política de espera del bucle de selección. Cada
+ * iteración del bucle le solicita a la estrategia que seleccione
+ * las claves listas, y es la estrategia quien decide qué hacer
+ * cuando no hay trabajo disponible: girar en vacío, ceder el
+ * procesador, dormir el thread o bloquearse sobre el selector.</p>
+ *
+ * <p>Las implementaciones pueden mantener estado (por ejemplo,
+ * la cantidad de iteraciones vacías consecutivas), por lo cual
+ * cada bucle de selección debe poseer su propia instancia.</p>
+ */
+
+public interface IdleStrategy {
+
+    // Nombres de las estrategias disponibles (por configuración):
+    public static final String BUSY_SPIN = "busy-spin";
+    public static final String YIELD = "yield";
+    public static final String BACKOFF = "backoff";
+    public static final String BLOCKING = "blocking";
+
+    /**
+     * <p>Selecciona las claves listas del selector especificado,
+     * aplicando la política de espera en caso de que no haya
+     * ninguna disponible.</p>
+     *
+     * @param selector
+     *	El selector sobre el cual realizar la selección.
+     *
+     * @return La cantidad de claves seleccionadas (puede ser cero).
+     *
+     * @throws IOException
+     *	Si ocurre algún error de I/O sobre el selector.
+     */
+
+    public int select(Selector selector) throws IOException;
+
+    /**
+     * <p>Igual que <b>select</b>, pero sin esperar más allá del
+     * tiempo especificado (por ejemplo, hasta la próxima expiración
+     * por inactividad). Solo las estrategias que se bloquean sobre
+     * el selector necesitan redefinir este método, ya que las demás
+     * retornan inmediatamente.</p>
+     *
+     * @param selector
+     *	El selector sobre el cual realizar la selección.
+     * @param timeout
+     *	El tiempo máximo de espera, en milisegundos.
+     *	<i>Long.MAX_VALUE</i> indica que no hay límite.
+     *
+     * @return La cantidad de claves seleccionadas (puede ser cero).
+     *
+     * @throws IOException
+     *	Si ocurre algún error de I/O sobre el selector.
+     */
+
+    public default int select(final Selector selector, final long timeout)
+            throws IOException {
+
+        return select(selector);
+    }
+
+    /**
+     * <p>Se ejecuta cada vez que un thread distinto al del bucle
+     * de selección modifica las opciones de interés de alguna
+     * clave, o registra un nuevo canal. Las estrategias que se
+     * bloquean sobre el selector deben despertarlo, para que el
+     * cambio tenga efecto de inmediato.</p>
+     *
+     * @param selector
+     *	El selector cuyas claves fueron modificadas.
+     */
+
+    public void wakeup(Selector selector);
+
+    /**
+     * <p>Construye una nueva estrategia a partir de su nombre.</p>
+     *
+     * @param name
+     *	El nombre de la estrategia (ver constantes de esta interfaz).
+     * @param timeout
+     *	El tiempo máximo de bloqueo sobre el selector, en milisegundos.
+     *	Solo aplica a la estrategia bloqueante.
+     *
+     * @return Una nueva instancia de la estrategia solicitada.
+     *
+     * @throws IllegalArgumentException
+     *	Si el nombre no se corresponde con ninguna estrategia.
+     */
+
+    public static IdleStrategy forName(final String name, final long timeout) {
+
+        if (name == null) {
+            return new BlockingIdleStrategy(timeout);
+        }
+
+        switch (name.toLowerCase()) {
+
+            case BUSY_SPIN:
+                return new BusySpinIdleStrategy();
+
+            case YIELD:
+                return new YieldingIdleStrategy();
+
+            case BACKOFF:
+                return new BackoffIdleStrategy();
+
+            case BLOCKING:
+                return new BlockingIdleStrategy(timeout);
+
+            default:
+                throw new IllegalArgumentException(name);
+        }
+    }
+}
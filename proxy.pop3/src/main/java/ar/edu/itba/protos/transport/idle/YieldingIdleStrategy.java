@@ -0,0 +1,52 @@
+package ar.edu.itba.protos.transport.idle;
+
+import java.io.IOException;
+import java.nio.channels.Selector;
+
+/**
+ * <p>Gira en vacío durante una cantidad fija de iteraciones
+ * sin trabajo, y luego cede el procesador en cada iteración
+ * vacía, hasta que vuelva a aparecer una clave lista.</p>
+ */
+
+public final class YieldingIdleStrategy implements IdleStrategy {
+
+    // Iteraciones vacías antes de comenzar a ceder el procesador:
+    private static final int DEFAULT_SPINS = 100;
+
+    private final int maxSpins;
+
+    // Iteraciones vacías consecutivas:
+    private int spins = 0;
+
+    public YieldingIdleStrategy() {
+
+        this(DEFAULT_SPINS);
+    }
+
+    public YieldingIdleStrategy(final int maxSpins) {
+
+        if (maxSpins < 0) {
+            throw new IllegalArgumentException();
+        }
+        this.maxSpins = maxSpins;
+    }
+
+    @Override
+    public int select(final Selector selector) throws IOException {
+
+        final int selected = selector.selectNow();
+
+        if (0 < selected) {
+            spins = 0;
+        } else if (spins < maxSpins) {
+            ++spins;
+        } else {
+            Thread.yield();
+        }
+        return selected;
+    }
+
+    @Override
+    public void wakeup(final Selector selector) {}
+}
@@ -0,0 +1 @@
+package ar.edu.itba.protos.transport.idle;
\ No newline at end of file
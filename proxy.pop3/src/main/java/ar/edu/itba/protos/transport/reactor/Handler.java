@@ -17,7 +17,9 @@
 		* la clave recibida. Este procedimiento se ejecuta en un
 		* thread particular, y por lo tanto no se garantiza que las
 		* operaciones que realice sean seguras frente a la
-		* concurrencia de múltiples procesos.</p>
+		* concurrencia de múltiples procesos. En modo <i>pinned</i>
+		* (ver <b>ExecutionMode</b>), se ejecuta directamente en el
+		* thread del bucle de selección que generó el evento.</p>
 		*
 		* <p>El reactor garantiza que durante toda la ejecución de
 		* este método, no se procesarán eventos adicionales sobre la
@@ -42,6 +44,9 @@
 		* tanto, este método se ejecuta en un entorno
 		* <b>thread-safe</b>.</p>
 		*
+		* <p>En modo <i>pinned</i> este método no se ejecuta, ya que
+		* la clave no se suspende.</p>
+		*
 		* @param key
 		*	La clave asociada al evento para el cual este handler
 		*	está subscripto y fué despachado.
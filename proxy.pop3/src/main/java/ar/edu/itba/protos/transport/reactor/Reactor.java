@@ -47,9 +47,25 @@
 		private static final Logger logger
 			= LoggerFactory.getLogger(Reactor.class);
 
+		// Los eventos soportados (evita clonar 'Event.values()'):
+		private static final Event[] EVENTS = Event.values();
+
+		// Máscara de todos los eventos posibles (OP_ACCEPT es el bit 4):
+		private static final int READY_MASK = (1 << 5) - 1;
+
+		// Handler vacío (para eventos sin subscriptores):
+		private static final Handler[] NONE = new Handler[0];
+
 		// Mapa de entidades que pueden procesar eventos:
 		private final Map<Event, Set<Handler>> handlers;
 
+		/* Tabla de despacho compilada a partir del mapa anterior: para
+		** cada valor posible de 'readyOps', los manejadores del primer
+		** evento activo. Se reconstruye ante cada (des)subscripción,
+		** por lo que despachar una clave no requiere reservar memoria.
+		*/
+		private volatile Handler[][] table;
+
 		// El núcleo de ejecución:
 		private final ThreadingCore core;
 
@@ -63,8 +79,10 @@
 			handlers = new HashMap<>();
 
 			// Para cada evento, se dispone un conjunto de manejadores:
-			for (Event event : Event.values())
+			for (Event event : EVENTS)
 				handlers.put(event, new HashSet<>());
+
+			compile();
 		}
 
 		/**
@@ -140,7 +158,7 @@
 		public Reactor add(Handler handler, Event event) {
 
 			Set<Handler> set = handlers.get(event);
-			if (set != null) set.add(handler);
+			if (set != null && set.add(handler)) compile();
 			return this;
 		}
 
@@ -162,7 +180,7 @@
 
 		public Reactor add(Handler handler, int options) {
 
-			for (Event event : Event.values())
+			for (Event event : EVENTS)
 				if (0 != (options & event.getOptions()))
 					add(handler, event);
 
@@ -185,6 +203,10 @@
 		* mediante una clave), ejecuta todos los manejadores
 		* registrados para ese evento.</p>
 		*
+		* <p>Los manejadores se obtienen de una tabla indexada por
+		* las opciones listas de la clave (<i>readyOps</i>), por lo que
+		* este método no reserva memoria.</p>
+		*
 		* @param key
 		*	La clave seleccionada a despachar en sus respectivos
 		*	manejadores subscriptos.
@@ -194,24 +216,16 @@
 
 			try {
 
-				for (Event event : Event.values()) {
+				/* Solo un evento por vez, debido a que
+				** las claves pueden responder simultáneamente
+				** a varios eventos, y esto puede causar una
+				** condición de carrera durante la registración
+				** en el repositorio de claves.
+				*/
+				Handler[] set = table[key.readyOps() & READY_MASK];
 
-					Set<Handler> set = handlers.get(event);
-
-					if (set != null && isOn(event, key)) {
-
-						for (Handler handler : set)
-							core.submit(handler, key);
-
-						/* Solo un evento por vez, debido a que
-						** las claves pueden responder simultáneamente
-						** a varios eventos, y esto puede causar una
-						** condición de carrera durante la registración
-						** en el repositorio de claves.
-						*/
-						return;
-					}
-				}
+				for (Handler handler : set)
+					core.submit(handler, key);
 			}
 			catch (CancelledKeyException exception) {
 
@@ -240,7 +254,7 @@
 		public Reactor remove(Handler handler, Event event) {
 
 			Set<Handler> set = handlers.get(event);
-			if (set != null) set.remove(handler);
+			if (set != null && set.remove(handler)) compile();
 			return this;
 		}
 
@@ -258,7 +272,7 @@
 
 		public Reactor remove(Handler handler) {
 
-			for (Event event : Event.values())
+			for (Event event : EVENTS)
 				remove(handler, event);
 
 			return this;
@@ -276,10 +290,38 @@
 
 		public void unplug() {
 
-			for (Event event : Event.values()) {
+			for (Event event : EVENTS) {
 
 				Set<Handler> set = handlers.get(event);
 				if (set != null) set.clear();
 			}
+			compile();
+		}
+
+		/**
+		* <p>Reconstruye la tabla de despacho. Para cada combinación
+		* posible de eventos listos, se selecciona el primer evento
+		* (en el orden declarado en <b>Event</b>) que posea al menos un
+		* manejador subscripto.</p>
+		*/
+
+		private void compile() {
+
+			Handler[][] table = new Handler[READY_MASK + 1][];
+
+			for (int ready = 0; ready <= READY_MASK; ++ready) {
+
+				table[ready] = NONE;
+				for (Event event : EVENTS) {
+
+					Set<Handler> set = handlers.get(event);
+					if (0 != (ready & event.getOptions()) && !set.isEmpty()) {
+
+						table[ready] = set.toArray(new Handler[set.size()]);
+						break;
+					}
+				}
+			}
+			this.table = table;
 		}
 	}
@@ -0,0 +1,291 @@
+	package ar.edu.itba.protos.transport.support;
+
+	import java.nio.channels.CancelledKeyException;
+	import java.nio.channels.SelectionKey;
+	import java.util.ArrayList;
+	import java.util.List;
+	import java.util.concurrent.ConcurrentHashMap;
+	import java.util.concurrent.ConcurrentMap;
+	import java.util.concurrent.atomic.AtomicBoolean;
+	import java.util.concurrent.atomic.AtomicInteger;
+	import java.util.concurrent.atomic.LongAdder;
+
+	import com.google.inject.Inject;
+	import com.google.inject.Singleton;
+
+		/**
+		* <p>Control de admisión de conexiones entrantes. Limita la
+		* cantidad de sesiones concurrentes, tanto en forma global
+		* como para cada <i>listener</i>. Al alcanzar alguno de los
+		* límites, el <i>listener</i> deja de aceptar conexiones (se
+		* deshabilita el evento <b>ACCEPT</b>), y las nuevas conexiones
+		* esperan en la cola del kernel (ver <b>Server.setBacklog</b>),
+		* sin que se reserven buffers ni se conecte con el servidor
+		* origen. Recién se vuelve a aceptar cuando la cantidad de
+		* sesiones baja hasta la marca baja.</p>
+		*
+		* <p>Las sesiones se cuentan en el thread del bucle principal
+		* (<i>acceptor</i>), y se descuentan al cerrar su canal (ver
+		* <b>Server.close</b>), desde cualquier thread.</p>
+		*
+		* <p>Esta clase es <b>thread-safe</b>.</p>
+		*/
+
+	@Singleton
+	public final class Admission {
+
+		// Marca baja por defecto (porcentaje de cada límite):
+		public static final int LOW = 90;
+
+		// Límite global (cero indica que no hay límite):
+		private volatile int maxSessions = 0;
+		private volatile int low = LOW;
+
+		// Sesiones activas (en total):
+		private final AtomicInteger sessions = new AtomicInteger();
+
+		// Compuertas de cada 'listener':
+		private final ConcurrentMap<SelectionKey, Gate> gates
+			= new ConcurrentHashMap<>();
+
+		// El bucle que atiende los 'listeners':
+		private volatile EventLoop acceptor = null;
+
+		// Estadísticas:
+		private final LongAdder pauses = new LongAdder();
+		private final LongAdder resumes = new LongAdder();
+
+		@Inject
+		private Admission() {}
+
+		/**
+		* <p>Especifica el límite global de sesiones, y la marca baja
+		* a partir de la cual se vuelve a aceptar.</p>
+		*
+		* @param maxSessions
+		*	La cantidad máxima de sesiones concurrentes, o cero si no
+		*	hay límite.
+		* @param low
+		*	La marca baja, como porcentaje de cada límite (entre 1 y
+		*	100).
+		*
+		* @return Esta misma instancia.
+		*
+		* @throws IllegalArgumentException
+		*	Si alguno de los valores está fuera de rango.
+		*/
+
+		public Admission set(final int maxSessions, final int low) {
+
+			if (maxSessions < 0 || low <= 0 || 100 < low)
+				throw new IllegalArgumentException();
+
+			this.maxSessions = maxSessions;
+			this.low = low;
+			return this;
+		}
+
+		/**
+		* <p>Asocia una compuerta al <i>listener</i> especificado.</p>
+		*
+		* @param key
+		*	La clave del <i>listener</i>.
+		* @param maxSessions
+		*	La cantidad máxima de sesiones concurrentes en ese
+		*	<i>listener</i>, o cero si no hay límite.
+		*
+		* @throws IllegalArgumentException
+		*	Si el límite es negativo.
+		*/
+
+		public void addListener(final SelectionKey key, final int maxSessions) {
+
+			if (maxSessions < 0)
+				throw new IllegalArgumentException();
+
+			gates.put(key, new Gate(key, maxSessions));
+		}
+
+		/**
+		* <p>Especifica el bucle de selección que atiende los
+		* <i>listeners</i>, en el cual se vuelve a habilitar la
+		* aceptación de conexiones.</p>
+		*
+		* @param acceptor
+		*	El bucle de selección principal.
+		*/
+
+		public void bind(final EventLoop acceptor) {
+
+			this.acceptor = acceptor;
+		}
+
+		/**
+		* <p>Determina si el <i>listener</i> puede aceptar una nueva
+		* conexión. En caso contrario, deshabilita el evento
+		* <b>ACCEPT</b> del mismo. Solo debe ejecutarse en el thread
+		* del bucle principal.</p>
+		*
+		* @param key
+		*	La clave del <i>listener</i>.
+		*
+		* @return Devuelve <i>true</i> si se puede aceptar otra
+		*	conexión.
+		*/
+
+		public boolean admits(final SelectionKey key) {
+
+			final Gate gate = gates.get(key);
+			if (gate == null || gate.admits()) return true;
+
+			if (gate.paused.compareAndSet(false, true)) {
+
+				pauses.increment();
+				key.interestOps(0);
+
+				// Alguna sesión pudo cerrarse mientras tanto:
+				gate.resume();
+			}
+			return false;
+		}
+
+		/**
+		* <p>Registra una nueva sesión aceptada en el <i>listener</i>,
+		* la cual se descuenta al cerrar su canal. Solo debe
+		* ejecutarse en el thread del bucle principal.</p>
+		*
+		* @param key
+		*	La clave del <i>listener</i>.
+		* @param attachment
+		*	El <i>attachment</i> de la nueva sesión.
+		*/
+
+		public void enter(final SelectionKey key, final Attachment attachment) {
+
+			final Gate gate = gates.get(key);
+			if (gate != null && attachment != null) {
+
+				gate.sessions.incrementAndGet();
+				sessions.incrementAndGet();
+				attachment.gate.set(gate);
+			}
+		}
+
+		/**
+		* <p>Descuenta la sesión del <i>attachment</i>, si es que fue
+		* admitida y todavía no se descontó, y reanuda la aceptación
+		* en los <i>listeners</i> que alcanzaron la marca baja.</p>
+		*
+		* @param attachment
+		*	El <i>attachment</i> de la sesión finalizada.
+		*/
+
+		public static void leave(final Attachment attachment) {
+
+			final Gate gate = attachment.gate.getAndSet(null);
+			if (gate != null) gate.leave();
+		}
+
+		public int getSessions() {
+
+			return sessions.get();
+		}
+
+		/**
+		* <p>Genera un reporte con las sesiones activas y los límites
+		* de cada <i>listener</i>, con el mismo formato que el reporte
+		* de métricas.</p>
+		*
+		* @return El reporte de admisión.
+		*/
+
+		public String summarize() {
+
+			final List<String> lines = new ArrayList<>();
+			lines.add("Admission:");
+			lines.add("");
+			lines.add("  - sessions:    " + sessions.get() + " of " + limit(maxSessions)
+				+ " (resume at " + low + "%).");
+
+			for (final Gate gate : gates.values())
+				lines.add("  - listener:    " + Server.tryToResolveAddress(gate.key)
+					+ ", " + gate.sessions.get() + " of " + limit(gate.maxSessions)
+					+ (gate.paused.get()? " (paused)." : "."));
+
+			lines.add("  - paused:      " + pauses.sum() + " (session limit reached).");
+			lines.add("  - resumed:     " + resumes.sum() + " (low watermark reached).");
+			return String.join("\r\n", lines);
+		}
+
+		private static String limit(final int max) {
+
+			return 0 < max? String.valueOf(max) : "unlimited";
+		}
+
+		/**
+		* <p>Verifica si una cantidad de sesiones alcanzó la marca baja
+		* de un límite.</p>
+		*/
+
+		private boolean belowLow(final int sessions, final int max) {
+
+			return max == 0 || 100L * sessions <= (long) low * max;
+		}
+
+		/**
+		* <p>La compuerta de un <i>listener</i>: su límite, sus
+		* sesiones activas, y si se encuentra suspendido.</p>
+		*/
+
+		final class Gate {
+
+			private final SelectionKey key;
+			private final int maxSessions;
+			private final AtomicInteger sessions = new AtomicInteger();
+			private final AtomicBoolean paused = new AtomicBoolean();
+
+			private Gate(final SelectionKey key, final int maxSessions) {
+
+				this.key = key;
+				this.maxSessions = maxSessions;
+			}
+
+			private boolean admits() {
+
+				final int global = Admission.this.maxSessions;
+				return (maxSessions == 0 || sessions.get() < maxSessions)
+					&& (global == 0 || Admission.this.sessions.get() < global);
+			}
+
+			private void leave() {
+
+				sessions.decrementAndGet();
+				Admission.this.sessions.decrementAndGet();
+
+				// Al liberar una sesión, cualquier 'listener' puede reanudar:
+				for (final Gate gate : gates.values())
+					gate.resume();
+			}
+
+			private void resume() {
+
+				final EventLoop loop = acceptor;
+				if (!paused.get() || loop == null
+					|| !belowLow(sessions.get(), maxSessions)
+					|| !belowLow(Admission.this.sessions.get(), Admission.this.maxSessions))
+					return;
+
+				if (paused.compareAndSet(true, false)) {
+
+					resumes.increment();
+					loop.execute(() -> {
+						try {
+
+							key.interestOps(SelectionKey.OP_ACCEPT);
+						}
+						catch (final CancelledKeyException exception) {}
+					});
+				}
+			}
+		}
+	}
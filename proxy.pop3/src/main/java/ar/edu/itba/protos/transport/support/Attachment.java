@@ -3,12 +3,11 @@
 
 	import java.io.IOException;
 	import java.net.InetSocketAddress;
-	import java.net.SocketAddress;
 	import java.nio.ByteBuffer;
 	import java.nio.channels.CancelledKeyException;
 	import java.nio.channels.SelectionKey;
 	import java.nio.channels.SocketChannel;
-	import java.nio.channels.UnresolvedAddressException;
+	import java.util.concurrent.atomic.AtomicReference;
 
 	import org.slf4j.Logger;
 	import org.slf4j.LoggerFactory;
@@ -36,6 +35,24 @@
 		// Repositorio global de claves:
 		protected Synchronizer sync = null;
 
+		// Estado de la clave de este canal (ver Synchronizer):
+		final Interest interest = new Interest();
+
+		// Tarea reutilizada para despachar eventos (ver ThreadingCore):
+		final DispatchTask task = new DispatchTask();
+
+		// Expiración por inactividad de este canal (ver WatchdogTimer):
+		final Deadline deadline = new Deadline(this);
+
+		// Lectura suspendida por contrapresión (ver Watermarks):
+		volatile boolean throttled = false;
+
+		// Compuerta por la cual se admitió esta sesión (ver Admission):
+		final AtomicReference<Admission.Gate> gate = new AtomicReference<>();
+
+		// Réplica del 'origin-server' que ocupa esta sesión (ver Balancer):
+		final AtomicReference<Balancer.Replica> replica = new AtomicReference<>();
+
 		/**
 		* <p>Devuelve el buffer interno que se usa para realizar IO
 		* sobre el stream de bytes de entrada (inbound). Es
@@ -62,6 +79,24 @@
 
 		public abstract ByteBuffer getOutboundBuffer();
 
+		/**
+		* <p>Si este <i>attachment</i> encola varios buffers de salida,
+		* puede entregarlos todos juntos, para que el <b>WriteHandler</b>
+		* los envíe en una única escritura (<i>gathering write</i>). A
+		* diferencia de <b>getOutboundBuffer</b>, estos buffers se
+		* entregan en modo lectura, listos para enviar. Por defecto
+		* devuelve <b>null</b>, en cuyo caso se utiliza el buffer de
+		* salida.</p>
+		*
+		* @return Los buffers de salida pendientes (en orden), o
+		*	<b>null</b> si este <i>attachment</i> no los encola.
+		*/
+
+		public ByteBuffer[] getOutboundBuffers() {
+
+			return null;
+		}
+
 		/**
 		* <p>Este método es llamado cada vez que el canal asociado a
 		* este <i>attachment</i> se cierra y permite aplicar un post-proceso
@@ -75,6 +110,60 @@
 
 		public abstract void onUnplug(Event event);
 
+		/**
+		* <p>Devuelve al pool los buffers que ya no contienen
+		* información (si es que este <i>attachment</i> utiliza buffers
+		* del pool), o todos ellos, si el canal ya fue cerrado. Los
+		* <i>handlers</i> ejecutan este método al finalizar cada evento,
+		* momento en el cual ningún otro thread accede a los buffers.
+		* Por defecto no hace nada.</p>
+		*/
+
+		public void releaseBuffers() {}
+
+		/**
+		* <p>El <b>ReadHandler</b> notifica el resultado de cada lectura,
+		* lo que permite adaptar la capacidad de los buffers al tráfico
+		* del canal. Este método no debe reemplazar el buffer en uso.
+		* Por defecto no hace nada.</p>
+		*
+		* @param read
+		*	La cantidad de bytes leídos.
+		* @param space
+		*	El espacio disponible en el buffer antes de la lectura.
+		*/
+
+		public void onRead(int read, int space) {}
+
+		/**
+		* <p>Indica si el canal de este <i>attachment</i> ya fue cerrado
+		* (o su clave cancelada).</p>
+		*
+		* @return Devuelve <i>true</i> si el <b>downstream</b> ya no es
+		*	válido.
+		*/
+
+		public boolean isClosed() {
+
+			return downstream != null && !downstream.isValid();
+		}
+
+		/**
+		* <p>Indica si el flujo entrante de este canal se puede reenviar
+		* tal cual hacia el <i>upstream</i>, sin atravesar el interceptor
+		* (modo <i>pass-through</i>). En ese caso, el <b>ReadHandler</b>
+		* omite el procesamiento del flujo. Por defecto, todo flujo se
+		* intercepta.</p>
+		*
+		* @return Devuelve <i>true</i> si no es necesario interceptar el
+		*	flujo de entrada.
+		*/
+
+		public boolean isPassThrough() {
+
+			return false;
+		}
+
 		/**
 		* <p>Intenta determinar la dirección remota a la cual este canal
 		* está asociado.</p>
@@ -319,74 +408,49 @@
 		}
 
 		/**
-		* <p>Permite establecer una nueva conexión remota, en
-		* la dirección especificada, seleccionando además el
-		* <i>attachment</i> que este canal debe tener asociado.</p>
+		* <p>Incorpora un canal ya conectado (por el <b>Connector</b>, o
+		* una conexión precalentada del <b>UpstreamPool</b>) como un nuevo
+		* stream, y habilita directamente las opciones iniciales del
+		* <i>attachment</i>. Este método debe
+		* ejecutarse en el thread del bucle de selección del
+		* <b>downstream</b> (ver <b>Synchronizer.execute</b>).</p>
 		*
-		* @param address
-		*	La dirección remota a la cual conectarse.
+		* @param socket
+		*	El canal conectado, en modo no-bloqueante.
 		* @param attachment
 		*	El <i>attachment</i> a instalar en la nueva conexión.
 		*
-		* @return El método devuelve la clave si pudo crear el canal, o
-		*	<i>null</i>, si no pudo.
+		* @return El método devuelve la clave si pudo registrar el
+		*	canal, o <i>null</i>, si no pudo.
 		*/
 
-		public SelectionKey addStream(
-			SocketAddress address, Attachment attachment) {
+		public SelectionKey addConnectedStream(
+			SocketChannel socket, Attachment attachment) {
 
 			try {
 
-				SocketChannel socket = SocketChannel.open();
-
-				// Registro el canal en el selector:
 				SelectionKey key = socket
-					.configureBlocking(false)
 					.register(getDownstream().selector(), 0, attachment);
 
-				// Especifico la clave del nuevo stream:
 				attachment.setDownstream(key);
-
-				// El repositorio de claves usado:
 				attachment.setSynchronizer(sync);
 
-				// Almaceno el nuevo canal (y lo configuro):
 				sync.save(key);
-				sync.enable(key, Event.CONNECT);
-
-				// NO TOCAR!!!!
-				if (socket.connect(address)) {
-
-					/* En este caso la conexión se efectuó
-					** instantáneamente, y todavía no fue testeado
-					** que sucede en este caso con las claves
-					** seleccionadas.
-					*/
-				}
-				else {
-
-					/* Este es el caso que en general se espera,
-					** en el cual se requiere una resolución por
-					** DNS, lo cual es más lento. Luego se procesa
-					** a través de ConnectHandler.
-					*/
-				}
-
-				// SIEMPRE!!! devolver la clave...
+				sync.enable(key, attachment.getInitialOptions());
 				return key;
 			}
-			catch (UnresolvedAddressException exception) {
-
-				logger.error(
-					Message.UNRESOLVED_ADDRESS.getMessage(),
-					address);
-			}
 			catch (CancelledKeyException
 				| IOException exception) {
 
 				logger.error(
 					Message.UNKNOWN.getMessage(),
 					this.getClass().getSimpleName());
+
+				try {
+
+					socket.close();
+				}
+				catch (IOException spurious) {}
 			}
 			return null;
 		}
@@ -20,4 +20,15 @@ public interface AttachmentFactory {
      * @return Devuelve un nuevo <i>attachment</i>.
      */
     public Attachment create();
+
+    /**
+     * <p>Las opciones de socket de los canales aceptados en las
+     * interfaces que utilizan esta fábrica. Por defecto, se
+     * utilizan las opciones de la plataforma.</p>
+     *
+     * @return Las opciones a aplicar en cada canal aceptado.
+     */
+    public default SocketOptions getSocketOptions() {
+        return SocketOptions.DEFAULT;
+    }
 }
@@ -0,0 +1,265 @@
+	package ar.edu.itba.protos.transport.support;
+
+	import java.util.ArrayList;
+	import java.util.List;
+	import java.util.Map;
+	import java.util.TreeMap;
+	import java.util.concurrent.ConcurrentHashMap;
+	import java.util.concurrent.ConcurrentMap;
+	import java.util.concurrent.ThreadLocalRandom;
+	import java.util.concurrent.atomic.AtomicInteger;
+	import java.util.concurrent.atomic.AtomicLong;
+	import java.util.concurrent.atomic.LongAdder;
+
+	import com.google.inject.Inject;
+	import com.google.inject.Singleton;
+
+	import ar.edu.itba.protos.config.BalancingPolicy;
+	import ar.edu.itba.protos.config.Upstream;
+	import ar.edu.itba.protos.config.UpstreamGroup;
+
+		/**
+		* <p>Reparte las nuevas sesiones entre las réplicas de un pool
+		* de servidores origen (ver <b>UpstreamGroup</b>), según la
+		* política del pool:</p>
+		*
+		* <ul>
+		*	<li><b>LEAST_SESSIONS</b>: la réplica con menos sesiones
+		*	activas por unidad de peso.</li>
+		*	<li><b>LATENCY</b>: la réplica con menor latencia de conexión
+		*	y <i>greeting</i> (un promedio exponencial), multiplicada
+		*	por sus sesiones activas y dividida por su peso. Una réplica
+		*	sin mediciones se elige antes que las demás, de forma que se
+		*	mida cuanto antes.</li>
+		* </ul>
+		*
+		* <p>Las réplicas cuyo circuito está abierto (ver
+		* <b>CircuitBreaker</b>), o cuyos sondeos fallan (ver
+		* <b>HealthProber</b>), no reciben sesiones. Si ninguna réplica
+		* del pool está disponible, la sesión se rechaza. Mientras una
+		* réplica no tenga mediciones propias, se utiliza la latencia
+		* de sus sondeos.</p>
+		*
+		* <p>Los contadores de cada réplica (identificada por su
+		* <i>host:port</i>) se comparten entre todos los pools que la
+		* contienen. Cada sesión ocupa su réplica hasta que alguno de
+		* sus extremos se desconecta, o hasta que se cierra su canal
+		* (ver <b>Server.close</b>), desde cualquier thread.</p>
+		*
+		* <p>Esta clase es <b>thread-safe</b>.</p>
+		*/
+
+	@Singleton
+	public final class Balancer {
+
+		// Estado de cada réplica:
+		private final ConcurrentMap<String, Replica> replicas
+			= new ConcurrentHashMap<>();
+
+		// El circuito de cada réplica:
+		private final CircuitBreaker breaker;
+
+		// Disponibilidad y latencia sondeadas de cada réplica:
+		private final HealthProber prober;
+
+		// Su tiempo máximo de conexión penaliza a las réplicas fallidas:
+		private final Connector connector;
+
+		@Inject
+		private Balancer(
+			final CircuitBreaker breaker,
+			final HealthProber prober,
+			final Connector connector) {
+
+			this.breaker = breaker;
+			this.prober = prober;
+			this.connector = connector;
+		}
+
+		/**
+		* <p>Elige la réplica del pool para una nueva sesión, y la
+		* ocupa hasta que el canal de la sesión se cierre.</p>
+		*
+		* @param group
+		*	El pool de réplicas.
+		* @param attachment
+		*	El <i>attachment</i> de la nueva sesión.
+		*
+		* @return La réplica elegida, o <i>null</i> si ninguna réplica
+		*	del pool se encuentra disponible.
+		*/
+
+		public Upstream acquire(
+			final UpstreamGroup group, final Attachment attachment) {
+
+			final List<Upstream> candidates = new ArrayList<>();
+			for (final Upstream candidate : group.getReplicas()) {
+
+				final String name = candidate.toString();
+				if (breaker.isAvailable(name) && prober.isHealthy(name))
+					candidates.add(candidate);
+			}
+
+			while (!candidates.isEmpty()) {
+
+				// Los empates se rompen a partir de una réplica al azar:
+				final int offset = ThreadLocalRandom.current().nextInt(candidates.size());
+				Upstream best = null;
+				Replica chosen = null;
+				double lowest = Double.MAX_VALUE;
+
+				for (int i = 0; i < candidates.size(); ++i) {
+
+					final Upstream candidate
+						= candidates.get((offset + i) % candidates.size());
+					final Replica replica = replicas
+						.computeIfAbsent(candidate.toString(), Replica::new);
+					final double score = replica.score(group.getPolicy(),
+						prober.getLatency(replica.name)) / Math.max(1, candidate.getWeight());
+
+					if (score < lowest) {
+
+						lowest = score;
+						best = candidate;
+						chosen = replica;
+					}
+				}
+
+				// Otra sesión ya es la de prueba de un circuito semi-abierto:
+				if (!breaker.allow(chosen.name)) {
+
+					candidates.remove(best);
+					continue;
+				}
+
+				chosen.active.incrementAndGet();
+				chosen.sessions.increment();
+				leave(attachment);
+				attachment.replica.set(chosen);
+				return best;
+			}
+
+			breaker.reject();
+			return null;
+		}
+
+		/**
+		* <p>Registra la latencia de conexión y <i>greeting</i> de la
+		* réplica ocupada por la sesión.</p>
+		*
+		* @param attachment
+		*	El <i>attachment</i> de la sesión.
+		* @param micros
+		*	La latencia medida, en microsegundos.
+		*/
+
+		public void record(final Attachment attachment, final long micros) {
+
+			final Replica replica = attachment.replica.get();
+			if (replica != null) {
+
+				replica.record(micros);
+				breaker.success(replica.name);
+			}
+		}
+
+		/**
+		* <p>Registra que no se pudo conectar con la réplica ocupada
+		* por la sesión (o que no envió su <i>greeting</i> a tiempo),
+		* la cual se penaliza con la latencia máxima (ver
+		* <b>Connector</b>), y puede abrir su circuito.</p>
+		*
+		* @param attachment
+		*	El <i>attachment</i> de la sesión.
+		*/
+
+		public void fail(final Attachment attachment) {
+
+			final Replica replica = attachment.replica.get();
+			if (replica != null) {
+
+				replica.failures.increment();
+				replica.record(1000 * connector.getTimeout());
+				breaker.failure(replica.name);
+			}
+		}
+
+		/**
+		* <p>Libera la réplica ocupada por la sesión, si es que todavía
+		* no se liberó.</p>
+		*
+		* @param attachment
+		*	El <i>attachment</i> de la sesión finalizada.
+		*/
+
+		public static void leave(final Attachment attachment) {
+
+			final Replica replica = attachment.replica.getAndSet(null);
+			if (replica != null) replica.active.decrementAndGet();
+		}
+
+		/**
+		* <p>Genera un reporte con los contadores de cada réplica, con
+		* el mismo formato que el reporte de métricas.</p>
+		*
+		* @return El reporte del balanceador.
+		*/
+
+		public String summarize() {
+
+			final List<String> lines = new ArrayList<>();
+			lines.add("Balancer:");
+			lines.add("");
+
+			final Map<String, Replica> sorted = new TreeMap<>(replicas);
+			if (sorted.isEmpty())
+				lines.add("  - replicas:    none yet.");
+
+			for (final Replica replica : sorted.values()) {
+
+				final long latency = replica.latency.get();
+				lines.add("  - replica:     " + replica.name + ", "
+					+ replica.active.get() + " active, "
+					+ replica.sessions.sum() + " sessions, "
+					+ replica.failures.sum() + " failed, "
+					+ (latency < 0? "unknown latency." : latency + " us."));
+			}
+			return String.join("\r\n", lines);
+		}
+
+		/**
+		* <p>Los contadores de una réplica.</p>
+		*/
+
+		static final class Replica {
+
+			private final String name;
+			private final AtomicInteger active = new AtomicInteger();
+			private final LongAdder sessions = new LongAdder();
+			private final LongAdder failures = new LongAdder();
+
+			// Promedio exponencial (negativo si no hay mediciones):
+			private final AtomicLong latency = new AtomicLong(-1);
+
+			private Replica(final String name) {
+
+				this.name = name;
+			}
+
+			private double score(final BalancingPolicy policy, final long probed) {
+
+				final double load = active.get() + 1;
+				if (policy == BalancingPolicy.LEAST_SESSIONS) return load;
+
+				long latency = this.latency.get();
+				if (latency < 0) latency = probed;
+				return latency < 0? load - 1 : load * (latency + 1);
+			}
+
+			private void record(final long micros) {
+
+				latency.updateAndGet(old ->
+					old < 0? micros : (7 * old + micros) / 8);
+			}
+		}
+	}
@@ -0,0 +1,339 @@
+	package ar.edu.itba.protos.transport.support;
+
+	import java.util.ArrayList;
+	import java.util.List;
+	import java.util.Map;
+	import java.util.TreeMap;
+	import java.util.concurrent.ConcurrentHashMap;
+	import java.util.concurrent.ConcurrentMap;
+	import java.util.concurrent.RejectedExecutionException;
+	import java.util.concurrent.ScheduledFuture;
+	import java.util.concurrent.ScheduledThreadPoolExecutor;
+	import java.util.concurrent.TimeUnit;
+	import java.util.concurrent.atomic.LongAdder;
+
+	import org.slf4j.Logger;
+	import org.slf4j.LoggerFactory;
+
+	import com.google.inject.Inject;
+	import com.google.inject.Singleton;
+
+		/**
+		* <p>Un <i>circuit breaker</i> por cada réplica de los servidores
+		* origen (identificada por su <i>host:port</i>). Luego de varios
+		* fallos consecutivos (conexiones fallidas, o <i>greetings</i>
+		* que no llegan a tiempo), el circuito se abre, y la réplica deja
+		* de recibir sesiones: el <b>Balancer</b> elige otra réplica del
+		* pool, o la sesión se rechaza de inmediato, sin ocupar un
+		* <i>worker</i> ni un socket hasta que venza la conexión.</p>
+		*
+		* <p>Una vez transcurrido el tiempo de apertura, el circuito pasa
+		* a estar semi-abierto, y admite una única sesión de prueba: si
+		* la misma recibe el <i>greeting</i>, el circuito se cierra; en
+		* otro caso, vuelve a abrirse.</p>
+		*
+		* <p>Esta clase es <b>thread-safe</b>.</p>
+		*/
+
+	@Singleton
+	public final class CircuitBreaker {
+
+		// Logger:
+		private static final Logger logger
+			= LoggerFactory.getLogger(CircuitBreaker.class);
+
+		// Configuración por defecto:
+		public static final int THRESHOLD = 5;
+		public static final long OPEN_TIME = 10000;
+		public static final long GREETING_TIMEOUT = 5000;
+
+		// Estados de cada circuito:
+		public enum State {
+
+			CLOSED("closed"),
+			OPEN("open"),
+			HALF_OPEN("half-open");
+
+			private final String name;
+
+			private State(final String name) {
+
+				this.name = name;
+			}
+
+			public String getName() {
+
+				return name;
+			}
+		}
+
+		// Fallos consecutivos, tiempo de apertura y timeout del 'greeting':
+		private volatile int threshold = THRESHOLD;
+		private volatile long openTime = OPEN_TIME;
+		private volatile long greetingTimeout = GREETING_TIMEOUT;
+
+		// El circuito de cada réplica:
+		private final ConcurrentMap<String, Circuit> circuits
+			= new ConcurrentHashMap<>();
+
+		// Timeouts de los 'greetings' pendientes:
+		private final ScheduledThreadPoolExecutor timer;
+
+		// Estadísticas:
+		private final LongAdder rejected = new LongAdder();
+
+		@Inject
+		private CircuitBreaker() {
+
+			timer = new ScheduledThreadPoolExecutor(1, task -> {
+
+				final Thread thread = new Thread(task, "circuit-breaker");
+				thread.setDaemon(true);
+				return thread;
+			});
+			timer.setRemoveOnCancelPolicy(true);
+		}
+
+		/**
+		* <p>Especifica cuándo se abre un circuito, y por cuánto
+		* tiempo.</p>
+		*
+		* @param threshold
+		*	La cantidad de fallos consecutivos que abren el circuito.
+		* @param openTime
+		*	El tiempo que el circuito permanece abierto antes de
+		*	admitir una sesión de prueba (en milisegundos).
+		* @param greetingTimeout
+		*	El tiempo máximo entre la conexión y la llegada del
+		*	<i>greeting</i> (en milisegundos).
+		*
+		* @return Esta misma instancia.
+		*
+		* @throws IllegalArgumentException
+		*	Si el umbral o alguno de los tiempos no es positivo.
+		*/
+
+		public CircuitBreaker set(
+			final int threshold, final long openTime, final long greetingTimeout) {
+
+			if (threshold <= 0 || openTime <= 0 || greetingTimeout <= 0)
+				throw new IllegalArgumentException();
+
+			this.threshold = threshold;
+			this.openTime = openTime;
+			this.greetingTimeout = greetingTimeout;
+			return this;
+		}
+
+		/**
+		* <p>Indica si la réplica puede recibir una nueva sesión. Un
+		* circuito abierto cuyo tiempo de apertura ya venció se
+		* considera disponible (ver <b>allow</b>).</p>
+		*
+		* @param replica
+		*	La réplica (<i>host:port</i>).
+		*
+		* @return Devuelve <i>true</i> si la réplica está disponible.
+		*/
+
+		public boolean isAvailable(final String replica) {
+
+			final Circuit circuit = circuits.get(replica);
+			return circuit == null || circuit.isAvailable(System.currentTimeMillis());
+		}
+
+		/**
+		* <p>Admite una nueva sesión hacia la réplica. Si el circuito
+		* estaba abierto y ya venció, pasa a semi-abierto, y esta
+		* sesión es la única de prueba.</p>
+		*
+		* @param replica
+		*	La réplica (<i>host:port</i>).
+		*
+		* @return Devuelve <i>false</i> si la réplica no admite la
+		*	sesión (otra sesión ya es la de prueba).
+		*/
+
+		public boolean allow(final String replica) {
+
+			final Circuit circuit = circuits.get(replica);
+			return circuit == null || circuit.allow(System.currentTimeMillis());
+		}
+
+		/**
+		* <p>Registra que la réplica envió su <i>greeting</i>, lo cual
+		* cierra su circuito.</p>
+		*
+		* @param replica
+		*	La réplica (<i>host:port</i>).
+		*/
+
+		public void success(final String replica) {
+
+			final Circuit circuit = circuits.get(replica);
+			if (circuit != null) circuit.success();
+		}
+
+		/**
+		* <p>Registra un fallo de la réplica, el cual puede abrir su
+		* circuito.</p>
+		*
+		* @param replica
+		*	La réplica (<i>host:port</i>).
+		*/
+
+		public void failure(final String replica) {
+
+			circuits.computeIfAbsent(replica, Circuit::new)
+				.failure(System.currentTimeMillis());
+		}
+
+		/**
+		* <p>Registra una sesión rechazada, debido a que ninguna réplica
+		* de su pool se encontraba disponible.</p>
+		*/
+
+		public void reject() {
+
+			rejected.increment();
+		}
+
+		/**
+		* <p>Programa el timeout del <i>greeting</i> de una nueva
+		* conexión.</p>
+		*
+		* @param timeout
+		*	La tarea a ejecutar si el <i>greeting</i> no llega a tiempo
+		*	(desde el thread del <i>circuit breaker</i>).
+		*
+		* @return El timeout, el cual debe cancelarse al recibir el
+		*	<i>greeting</i>, o <i>null</i> si no pudo programarse.
+		*/
+
+		public ScheduledFuture<?> expectGreeting(final Runnable timeout) {
+
+			try {
+
+				return timer.schedule(timeout, greetingTimeout, TimeUnit.MILLISECONDS);
+			}
+			catch (final RejectedExecutionException exception) {
+
+				return null;
+			}
+		}
+
+		/**
+		* <p>Devuelve el estado del circuito de la réplica.</p>
+		*
+		* @param replica
+		*	La réplica (<i>host:port</i>).
+		*
+		* @return El estado actual del circuito.
+		*/
+
+		public State getState(final String replica) {
+
+			final Circuit circuit = circuits.get(replica);
+			return circuit == null? State.CLOSED : circuit.state;
+		}
+
+		/**
+		* <p>Detiene el thread de los timeouts.</p>
+		*/
+
+		public void shutdown() {
+
+			timer.shutdownNow();
+		}
+
+		/**
+		* <p>Genera un reporte con el estado y las aperturas de cada
+		* circuito, con el mismo formato que el reporte de
+		* métricas.</p>
+		*
+		* @return El reporte del <i>circuit breaker</i>.
+		*/
+
+		public String summarize() {
+
+			final List<String> lines = new ArrayList<>();
+			lines.add("Circuit breaker:");
+			lines.add("");
+			lines.add("  - policy:      open after " + threshold + " failures, for "
+				+ openTime + " ms (greeting timeout: " + greetingTimeout + " ms).");
+			lines.add("  - rejected:    " + rejected.sum() + " (no replica available).");
+
+			final Map<String, Circuit> sorted = new TreeMap<>(circuits);
+			for (final Circuit circuit : sorted.values())
+				lines.add("  - circuit:     " + circuit.replica + ", "
+					+ circuit.state.getName() + " (" + circuit.trips.sum() + " trips).");
+
+			return String.join("\r\n", lines);
+		}
+
+		/**
+		* <p>El circuito de una réplica. Las transiciones se sincronizan
+		* sobre el circuito (son poco frecuentes).</p>
+		*/
+
+		private final class Circuit {
+
+			private final String replica;
+			private final LongAdder trips = new LongAdder();
+			private volatile State state = State.CLOSED;
+			private int failures = 0;
+			private long openedAt = 0;
+			private boolean probing = false;
+
+			private Circuit(final String replica) {
+
+				this.replica = replica;
+			}
+
+			private synchronized boolean isAvailable(final long now) {
+
+				switch (state) {
+
+					case CLOSED: return true;
+					case OPEN: return openTime <= now - openedAt;
+
+					// Una prueba abandonada también vence:
+					default: return !probing || openTime <= now - openedAt;
+				}
+			}
+
+			private synchronized boolean allow(final long now) {
+
+				if (!isAvailable(now)) return false;
+				if (state != State.CLOSED) {
+
+					// La única sesión de prueba:
+					state = State.HALF_OPEN;
+					openedAt = now;
+					probing = true;
+				}
+				return true;
+			}
+
+			private synchronized void success() {
+
+				state = State.CLOSED;
+				failures = 0;
+				probing = false;
+			}
+
+			private synchronized void failure(final long now) {
+
+				++failures;
+				if (state == State.HALF_OPEN
+					|| (state == State.CLOSED && threshold <= failures)) {
+
+					state = State.OPEN;
+					openedAt = now;
+					probing = false;
+					trips.increment();
+					logger.warn(Message.CIRCUIT_OPEN.getMessage(), replica, failures);
+				}
+			}
+		}
+	}
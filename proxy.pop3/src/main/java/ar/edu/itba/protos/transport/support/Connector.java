@@ -0,0 +1,591 @@
+	package ar.edu.itba.protos.transport.support;
+
+	import java.io.IOException;
+	import java.net.ConnectException;
+	import java.net.Inet6Address;
+	import java.net.InetSocketAddress;
+	import java.nio.channels.ClosedSelectorException;
+	import java.nio.channels.SelectionKey;
+	import java.nio.channels.Selector;
+	import java.nio.channels.SocketChannel;
+	import java.nio.channels.UnresolvedAddressException;
+	import java.nio.channels.UnsupportedAddressTypeException;
+	import java.util.ArrayList;
+	import java.util.Comparator;
+	import java.util.Iterator;
+	import java.util.LinkedList;
+	import java.util.List;
+	import java.util.Map;
+	import java.util.Queue;
+	import java.util.TreeMap;
+	import java.util.concurrent.CompletableFuture;
+	import java.util.concurrent.ConcurrentHashMap;
+	import java.util.concurrent.ConcurrentLinkedQueue;
+	import java.util.concurrent.ConcurrentMap;
+	import java.util.concurrent.atomic.LongAdder;
+
+	import org.slf4j.Logger;
+	import org.slf4j.LoggerFactory;
+
+	import com.google.inject.Inject;
+	import com.google.inject.Singleton;
+
+		/**
+		* <p>Establece conexiones hacia los servidores origen compitiendo
+		* entre todas sus direcciones (al estilo <i>Happy Eyeballs</i>,
+		* RFC 8305): se conecta a la primera dirección, y si no responde
+		* luego de un breve intervalo (<i>stagger</i>), se intenta la
+		* siguiente sin abandonar la anterior. La primera conexión
+		* establecida gana, y las demás se cancelan. Una dirección que
+		* rechaza la conexión da paso inmediatamente a la siguiente.</p>
+		*
+		* <p>Se recuerda la latencia de conexión de cada dirección (un
+		* promedio exponencial), de forma que las sesiones siguientes
+		* intenten primero la dirección más rápida. Las conexiones
+		* fallidas se contabilizan con la latencia máxima
+		* (<i>timeout</i>). Una latencia que no se actualiza durante
+		* cierto tiempo (<i>memory</i>) se olvida, ya que la dirección
+		* pudo dejar de resolverse.</p>
+		*
+		* <p>Las conexiones se establecen en un thread propio, con su
+		* propio selector, y el canal ganador se entrega (en modo
+		* no-bloqueante) a través de la resolución devuelta.</p>
+		*
+		* <p>Esta clase es <b>thread-safe</b>.</p>
+		*/
+
+	@Singleton
+	public final class Connector {
+
+		// Logger:
+		private static final Logger logger
+			= LoggerFactory.getLogger(Connector.class);
+
+		// Configuración por defecto (en milisegundos):
+		public static final long STAGGER = 250;
+		public static final long TIMEOUT = 10000;
+		public static final long MEMORY = 600000;
+
+		// Intervalo entre intentos, y tiempo máximo de cada carrera:
+		private volatile long stagger = STAGGER;
+		private volatile long timeout = TIMEOUT;
+
+		// Tiempo durante el cual se recuerda cada latencia:
+		private volatile long memory = MEMORY;
+
+		// Latencia de conexión de cada dirección:
+		private final ConcurrentMap<InetSocketAddress, Latency> latencies
+			= new ConcurrentHashMap<>();
+
+		// Carreras nuevas (las inicia el thread del conector):
+		private final Queue<Race> submitted = new ConcurrentLinkedQueue<>();
+
+		// Selector y thread del conector (se crean bajo demanda):
+		private Selector selector = null;
+		private Thread thread = null;
+		private volatile boolean running = true;
+
+		// Estadísticas:
+		private final LongAdder races = new LongAdder();
+		private final LongAdder fallbacks = new LongAdder();
+		private final LongAdder failures = new LongAdder();
+
+		@Inject
+		private Connector() {}
+
+		/**
+		* <p>Especifica el intervalo entre intentos, y el tiempo máximo
+		* de cada carrera.</p>
+		*
+		* @param stagger
+		*	El intervalo antes de intentar la siguiente dirección (en
+		*	milisegundos).
+		* @param timeout
+		*	El tiempo máximo para conectarse (en milisegundos).
+		*
+		* @return Esta misma instancia.
+		*
+		* @throws IllegalArgumentException
+		*	Si el intervalo es negativo, o si el tiempo máximo no es
+		*	positivo.
+		*/
+
+		public Connector set(final long stagger, final long timeout) {
+
+			return set(stagger, timeout, memory);
+		}
+
+		/**
+		* <p>Especifica el intervalo entre intentos, el tiempo máximo
+		* de cada carrera, y el tiempo durante el cual se recuerda la
+		* latencia de una dirección.</p>
+		*
+		* @param stagger
+		*	El intervalo antes de intentar la siguiente dirección (en
+		*	milisegundos).
+		* @param timeout
+		*	El tiempo máximo para conectarse (en milisegundos).
+		* @param memory
+		*	El tiempo luego del cual se olvida la latencia de una
+		*	dirección sin conexiones nuevas (en milisegundos).
+		*
+		* @return Esta misma instancia.
+		*
+		* @throws IllegalArgumentException
+		*	Si el intervalo o la memoria son negativos, o si el tiempo
+		*	máximo no es positivo.
+		*/
+
+		public Connector set(final long stagger, final long timeout, final long memory) {
+
+			if (stagger < 0 || timeout <= 0 || memory < 0)
+				throw new IllegalArgumentException();
+
+			this.stagger = stagger;
+			this.timeout = timeout;
+			this.memory = memory;
+			return this;
+		}
+
+		public long getTimeout() {
+
+			return timeout;
+		}
+
+		/**
+		* <p>Ordena las direcciones según su latencia, de la más rápida
+		* a la más lenta. Las direcciones sin latencia conocida (o con
+		* una latencia vencida) se
+		* consideran tan lentas como el intervalo entre intentos, y se
+		* alternan entre IPv6 e IPv4, respetando el orden original
+		* dentro de cada familia.</p>
+		*
+		* @param addresses
+		*	Las direcciones resueltas de un servidor origen.
+		*
+		* @return Una nueva lista, en el orden en el cual deben
+		*	intentarse.
+		*/
+
+		public List<InetSocketAddress> order(final List<InetSocketAddress> addresses) {
+
+			final LinkedList<InetSocketAddress> ipv6 = new LinkedList<>();
+			final LinkedList<InetSocketAddress> ipv4 = new LinkedList<>();
+
+			for (final InetSocketAddress address : addresses)
+				if (address.getAddress() instanceof Inet6Address) ipv6.add(address);
+				else ipv4.add(address);
+
+			// La primera familia (según el resolver) comienza:
+			final boolean first6 = !addresses.isEmpty()
+				&& addresses.get(0).getAddress() instanceof Inet6Address;
+
+			final List<InetSocketAddress> ordered = new ArrayList<>();
+			while (!ipv6.isEmpty() || !ipv4.isEmpty()) {
+
+				final LinkedList<InetSocketAddress> a = first6? ipv6 : ipv4;
+				final LinkedList<InetSocketAddress> b = first6? ipv4 : ipv6;
+				if (!a.isEmpty()) ordered.add(a.poll());
+				if (!b.isEmpty()) ordered.add(b.poll());
+			}
+
+			// Un ordenamiento estable conserva la alternancia:
+			final long unknown = stagger * 1000;
+			final long now = System.currentTimeMillis();
+			ordered.sort(Comparator.comparingLong(address -> {
+
+				final Latency latency = latencies.get(address);
+				if (latency == null) return unknown;
+				if (latency.expiration <= now) {
+
+					latencies.remove(address, latency);
+					return unknown;
+				}
+				return latency.average;
+			}));
+			return ordered;
+		}
+
+		/**
+		* <p>Inicia una carrera de conexiones hacia las direcciones
+		* especificadas, en el orden dado (ver <b>order</b>).</p>
+		*
+		* @param addresses
+		*	Las direcciones a intentar.
+		* @param options
+		*	Las opciones de socket de las nuevas conexiones.
+		*
+		* @return La resolución, la cual se completa (desde el thread
+		*	del conector) con el canal ganador, o en forma excepcional
+		*	si ninguna dirección respondió a tiempo.
+		*/
+
+		public CompletableFuture<SocketChannel> connect(
+			final List<InetSocketAddress> addresses, final SocketOptions options) {
+
+			final Race race = new Race(new ArrayList<>(addresses), options);
+			if (addresses.isEmpty() || !running)
+				race.result.completeExceptionally(new ConnectException());
+			else {
+
+				races.increment();
+				submitted.offer(race);
+				start();
+			}
+			return race.result;
+		}
+
+		/**
+		* <p>Cierra las conexiones en curso, y detiene el thread del
+		* conector.</p>
+		*/
+
+		public synchronized void shutdown() {
+
+			running = false;
+			if (selector != null) selector.wakeup();
+		}
+
+		/**
+		* <p>Genera un reporte con las carreras realizadas y la
+		* latencia de cada dirección, con el mismo formato que el
+		* reporte de métricas.</p>
+		*
+		* @return El reporte del conector.
+		*/
+
+		public String summarize() {
+
+			final List<String> lines = new ArrayList<>();
+			lines.add("Connector:");
+			lines.add("");
+			lines.add("  - races:       " + races.sum() + " (stagger: " + stagger
+				+ " ms, timeout: " + timeout + " ms).");
+			lines.add("  - fallbacks:   " + fallbacks.sum() + " (won by a later address).");
+			lines.add("  - failures:    " + failures.sum() + " (no address answered).");
+
+			final long now = System.currentTimeMillis();
+			final Map<String, Long> sorted = new TreeMap<>();
+			latencies.forEach((address, latency) -> {
+
+				if (now < latency.expiration)
+					sorted.put(address.toString(), latency.average);
+			});
+			sorted.forEach((address, latency) -> lines.add(
+				"  - address:     " + address + ", " + latency + " us."));
+
+			return String.join("\r\n", lines);
+		}
+
+		/**
+		* <p>Registra la latencia de una conexión (o de un fallo), como
+		* un promedio exponencial con peso 1/8. Una latencia vencida se
+		* reemplaza por la nueva muestra. Además, descarta las
+		* latencias vencidas de las demás direcciones (incluso las que
+		* no vuelven a intentarse), desde el thread del conector.</p>
+		*/
+
+		private void record(final InetSocketAddress address, final long latency) {
+
+			final long now = System.currentTimeMillis();
+			latencies.values().removeIf(old -> old.expiration <= now);
+			latencies.merge(address, new Latency(latency, now + memory),
+				(old, sample) -> new Latency(
+					(7 * old.average + sample.average) / 8, sample.expiration));
+		}
+
+		/**
+		* <p>Levanta el thread del conector, si todavía no existe.</p>
+		*/
+
+		private synchronized void start() {
+
+			if (thread != null) {
+
+				selector.wakeup();
+				return;
+			}
+
+			try {
+
+				selector = Selector.open();
+				thread = new Thread(this::run, "connector");
+				thread.setDaemon(true);
+				thread.start();
+			}
+			catch (final IOException exception) {
+
+				logger.error(Message.CANNOT_RAISE.getMessage());
+				running = false;
+			}
+		}
+
+		/**
+		* <p>El bucle del conector: inicia las carreras nuevas, lanza
+		* los intentos escalonados, cancela las carreras vencidas, y
+		* procesa las conexiones finalizadas.</p>
+		*/
+
+		private void run() {
+
+			final List<Race> active = new ArrayList<>();
+			try {
+
+				while (running) {
+
+					Race race;
+					while ((race = submitted.poll()) != null) {
+
+						active.add(race);
+						attempt(race);
+					}
+
+					long wait = timeout;
+					final long now = System.nanoTime();
+					final Iterator<Race> iterator = active.iterator();
+
+					while (iterator.hasNext()) {
+
+						race = iterator.next();
+						if (race.result.isDone()) iterator.remove();
+						else if (race.deadline <= now) {
+
+							fail(race);
+							iterator.remove();
+						}
+						else {
+
+							if (race.next <= now) attempt(race);
+							if (race.result.isDone()) iterator.remove();
+							else wait = Math.min(wait, 1 + (Math.min(
+								race.next, race.deadline) - now) / 1000000);
+						}
+					}
+
+					selector.select(Math.max(1, wait));
+
+					final Iterator<SelectionKey> keys
+						= selector.selectedKeys().iterator();
+
+					while (keys.hasNext()) {
+
+						final SelectionKey key = keys.next();
+						keys.remove();
+						if (key.isValid()) finish((Attempt) key.attachment());
+					}
+				}
+			}
+			catch (final IOException
+				| ClosedSelectorException exception) {
+
+				logger.error(Message.UNKNOWN.getMessage(), "Connector");
+			}
+			finally {
+
+				for (final Race race : active) fail(race);
+				for (final Race race : submitted) fail(race);
+
+				try {
+
+					selector.close();
+				}
+				catch (final IOException spurious) {}
+			}
+		}
+
+		/**
+		* <p>Lanza el intento sobre la siguiente dirección de la
+		* carrera (si queda alguna), y programa el siguiente.</p>
+		*/
+
+		private void attempt(final Race race) {
+
+			final long now = System.nanoTime();
+			if (race.deadline == 0)
+				race.deadline = now + timeout * 1000000;
+
+			while (race.index < race.addresses.size()) {
+
+				final InetSocketAddress address = race.addresses.get(race.index++);
+				race.next = now + stagger * 1000000;
+
+				SocketChannel socket = null;
+				Attempt attempt = null;
+				try {
+
+					socket = SocketChannel.open();
+					race.options.apply(socket);
+					socket.configureBlocking(false);
+
+					attempt = new Attempt(race, address, socket, now);
+					race.attempts.add(attempt);
+
+					if (socket.connect(address)) {
+
+						win(attempt);
+						return;
+					}
+
+					attempt.key = socket.register(
+						selector, SelectionKey.OP_CONNECT, attempt);
+					return;
+				}
+				catch (final IOException
+					| UnresolvedAddressException
+					| UnsupportedAddressTypeException exception) {
+
+					// Una dirección inalcanzable da paso a la siguiente:
+					record(address, timeout * 1000);
+					race.attempts.remove(attempt);
+					if (socket != null) close(socket);
+				}
+			}
+
+			// No quedan direcciones, y tampoco intentos en curso:
+			if (race.attempts.isEmpty()) fail(race);
+			else race.next = Long.MAX_VALUE;
+		}
+
+		/**
+		* <p>Finaliza la conexión de un intento. Si fue exitosa, el
+		* intento gana la carrera; en otro caso, se intenta la
+		* siguiente dirección sin esperar el intervalo.</p>
+		*/
+
+		private void finish(final Attempt attempt) {
+
+			final Race race = attempt.race;
+			if (race.result.isDone()) return;
+
+			try {
+
+				if (attempt.socket.finishConnect()) win(attempt);
+			}
+			catch (final IOException exception) {
+
+				record(attempt.address, timeout * 1000);
+				attempt.key.cancel();
+				close(attempt.socket);
+				race.attempts.remove(attempt);
+				attempt(race);
+			}
+		}
+
+		/**
+		* <p>Entrega el canal ganador, y cancela los demás intentos.</p>
+		*/
+
+		private void win(final Attempt winner) {
+
+			final Race race = winner.race;
+			record(winner.address, (System.nanoTime() - winner.start) / 1000);
+			if (!winner.address.equals(race.addresses.get(0))) fallbacks.increment();
+
+			for (final Attempt attempt : race.attempts) {
+
+				if (attempt.key != null) attempt.key.cancel();
+				if (attempt != winner) close(attempt.socket);
+			}
+			race.attempts.clear();
+
+			if (!race.result.complete(winner.socket))
+				close(winner.socket);
+		}
+
+		/**
+		* <p>Cancela todos los intentos de una carrera, la cual no
+		* logró conectarse. Las direcciones que no respondieron se
+		* contabilizan con la latencia máxima.</p>
+		*/
+
+		private void fail(final Race race) {
+
+			for (final Attempt attempt : race.attempts) {
+
+				record(attempt.address, timeout * 1000);
+				if (attempt.key != null) attempt.key.cancel();
+				close(attempt.socket);
+			}
+			race.attempts.clear();
+
+			if (!race.result.isDone()) {
+
+				failures.increment();
+				race.result.completeExceptionally(new ConnectException());
+			}
+		}
+
+		private static void close(final SocketChannel socket) {
+
+			try {
+
+				socket.close();
+			}
+			catch (final IOException spurious) {}
+		}
+
+		/**
+		* <p>Una carrera: las direcciones a intentar, los intentos en
+		* curso, y los instantes (en nanosegundos) del próximo intento
+		* y del vencimiento.</p>
+		*/
+
+		private static final class Race {
+
+			private final List<InetSocketAddress> addresses;
+			private final SocketOptions options;
+			private final List<Attempt> attempts = new ArrayList<>();
+			private final CompletableFuture<SocketChannel> result
+				= new CompletableFuture<>();
+
+			private int index = 0;
+			private long next = 0;
+			private long deadline = 0;
+
+			private Race(
+				final List<InetSocketAddress> addresses, final SocketOptions options) {
+
+				this.addresses = addresses;
+				this.options = options;
+			}
+		}
+
+		/**
+		* <p>La latencia de una dirección (en microsegundos), y el
+		* instante (en milisegundos) en el cual se olvida.</p>
+		*/
+
+		private static final class Latency {
+
+			private final long average;
+			private final long expiration;
+
+			private Latency(final long average, final long expiration) {
+
+				this.average = average;
+				this.expiration = expiration;
+			}
+		}
+
+		/**
+		* <p>Un intento de conexión hacia una de las direcciones.</p>
+		*/
+
+		private static final class Attempt {
+
+			private final Race race;
+			private final InetSocketAddress address;
+			private final SocketChannel socket;
+			private final long start;
+			private SelectionKey key = null;
+
+			private Attempt(final Race race, final InetSocketAddress address,
+				final SocketChannel socket, final long start) {
+
+				this.race = race;
+				this.address = address;
+				this.socket = socket;
+				this.start = start;
+			}
+		}
+	}
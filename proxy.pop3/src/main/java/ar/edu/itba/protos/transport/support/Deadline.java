@@ -0,0 +1,34 @@
+	package ar.edu.itba.protos.transport.support;
+
+		/**
+		* <p>El instante de expiración por inactividad de un canal, y
+		* su posición dentro de una rueda de tiempo (ver
+		* <b>TimingWheel</b>). Cada <i>attachment</i> posee su propio
+		* nodo, el cual se enlaza directamente en las ranuras de la
+		* rueda, por lo que actualizar la expiración de un canal no
+		* requiere reservar memoria.</p>
+		*/
+
+	final class Deadline {
+
+		// El 'attachment' al cual pertenece este nodo:
+		final Attachment owner;
+
+		// Instante de expiración (en milisegundos):
+		volatile long expiration = Long.MAX_VALUE;
+
+		// Indica si el nodo se encuentra en alguna rueda:
+		volatile boolean scheduled = false;
+
+		// Enlaces dentro de la ranura (protegidos por la rueda):
+		Deadline prev = null;
+		Deadline next = null;
+
+		// La ranura en la cual se encuentra el nodo (o -1):
+		int bucket = -1;
+
+		public Deadline(final Attachment owner) {
+
+			this.owner = owner;
+		}
+	}
@@ -0,0 +1,91 @@
+	package ar.edu.itba.protos.transport.support;
+
+	import java.nio.channels.SelectionKey;
+	import java.util.Queue;
+	import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
+
+	import ar.edu.itba.protos.transport.reactor.Handler;
+
+		/**
+		* <p>Tarea reutilizable que ejecuta un <i>handler</i> sobre una
+		* clave en algún worker del núcleo de procesamiento. Cada
+		* <i>attachment</i> posee su propia tarea, lo que evita reservar
+		* un nuevo <i>Runnable</i> por cada evento despachado.</p>
+		*
+		* <p>Mientras una clave se encuentra en proceso, la misma está
+		* suspendida (ver <b>Synchronizer</b>), por lo que en general
+		* nunca existen dos despachos simultáneos sobre una misma tarea.
+		* De todas formas, si la tarea se encuentra ocupada, el núcleo
+		* utiliza una tarea de repuesto, la cual vuelve a su cola
+		* luego de ser despachada.</p>
+		*/
+
+	final class DispatchTask implements Runnable {
+
+		private static final AtomicIntegerFieldUpdater<DispatchTask> BUSY
+			= AtomicIntegerFieldUpdater.newUpdater(DispatchTask.class, "busy");
+
+		// Indica si la tarea se encuentra asignada (1) o libre (0):
+		private volatile int busy = 0;
+
+		// El manejador a ejecutar:
+		private Handler handler = null;
+
+		// La clave a procesar:
+		private SelectionKey key = null;
+
+		// La cola de repuestos de esta tarea (o null, si es propia):
+		private final Queue<DispatchTask> spares;
+
+		DispatchTask() {
+
+			this(null);
+		}
+
+		DispatchTask(Queue<DispatchTask> spares) {
+
+			this.spares = spares;
+		}
+
+		/**
+		* <p>Intenta reservar la tarea para despachar un nuevo
+		* evento.</p>
+		*
+		* @param handler
+		*	El manejador a ejecutar.
+		* @param key
+		*	La clave a procesar.
+		*
+		* @return Devuelve <i>true</i> si la tarea se pudo reservar, o
+		*	<i>false</i> si se encontraba ocupada.
+		*/
+
+		boolean acquire(Handler handler, SelectionKey key) {
+
+			if (!BUSY.compareAndSet(this, 0, 1))
+				return false;
+
+			this.handler = handler;
+			this.key = key;
+			return true;
+		}
+
+		@Override
+		public void run() {
+
+			Handler handler = this.handler;
+			SelectionKey key = this.key;
+
+			// La tarea queda libre para el próximo evento:
+			this.handler = null;
+			this.key = null;
+			busy = 0;
+
+			// Un repuesto vuelve a su cola:
+			if (spares != null) spares.offer(this);
+
+			// Ejecutar manejador y reponer claves:
+			handler.handle(key);
+			handler.onResume(key);
+		}
+	}
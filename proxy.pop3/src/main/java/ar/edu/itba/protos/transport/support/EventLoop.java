@@ -0,0 +1,339 @@
+package ar.edu.itba.protos.transport.support;
+
+import java.io.IOException;
+import java.nio.channels.CancelledKeyException;
+import java.nio.channels.ClosedSelectorException;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.util.Iterator;
+import java.util.PriorityQueue;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import ar.edu.itba.protos.transport.idle.IdleStrategy;
+import ar.edu.itba.protos.transport.reactor.Reactor;
+
+/**
+ * <p>Un bucle de selección: posee un único selector y un único
+ * thread, el cual selecciona las claves listas y las despacha
+ * hacia el demultiplexor. Cada canal registrado en el selector
+ * de un bucle pertenece a ese bucle durante toda su vida.</p>
+ *
+ * <p>Los demás threads no deben registrar canales directamente
+ * sobre el selector, sino a través de <b>execute</b>, lo que
+ * garantiza que la registración se realice en el thread del
+ * bucle. Las tareas diferidas (ver <b>schedule</b>) también se
+ * ejecutan en este thread.</p>
+ */
+
+public final class EventLoop implements Runnable {
+
+    // Logger:
+    private static final Logger logger
+    = LoggerFactory.getLogger(EventLoop.class);
+
+    // Nombre del bucle (y de su thread):
+    private final String name;
+
+    // Generador de eventos:
+    private final Selector selector;
+
+    // Estrategia de espera:
+    private final IdleStrategy idle;
+
+    // Demultiplexador de eventos generados:
+    private final Reactor demultiplexor;
+
+    // Watchdog-timer utilizado para cerrar canales inactivos:
+    private final WatchdogTimer watchdog;
+
+    // Repositorio global de claves:
+    private final Synchronizer sync;
+
+    // Tareas pendientes de ejecución en este bucle:
+    private final Queue<Runnable> tasks = new ConcurrentLinkedQueue<>();
+
+    // Tareas diferidas (solo las manipula el thread del bucle):
+    private final Queue<Timer> timers = new PriorityQueue<>();
+
+    // Indica si el bucle debe seguir despachando:
+    private volatile boolean running = true;
+
+    public EventLoop(
+            final String name,
+            final Selector selector,
+            final IdleStrategy idle,
+            final Reactor demultiplexor,
+            final WatchdogTimer watchdog,
+            final Synchronizer sync) {
+
+        this.name = name;
+        this.selector = selector;
+        this.idle = idle;
+        this.demultiplexor = demultiplexor;
+        this.watchdog = watchdog;
+        this.sync = sync;
+    }
+
+    /**
+     * <p>Devuelve el nombre de este bucle.</p>
+     *
+     * @return El nombre del bucle.
+     */
+
+    public String getName() {
+
+        return name;
+    }
+
+    /**
+     * <p>Devuelve el selector de este bucle.</p>
+     *
+     * @return El selector sobre el cual este bucle despacha eventos.
+     */
+
+    public Selector getSelector() {
+
+        return selector;
+    }
+
+    /**
+     * <p>Encola una tarea para que sea ejecutada en el thread de
+     * este bucle, durante su próxima iteración. Si el selector se
+     * encontraba bloqueado, se despierta.</p>
+     *
+     * @param task
+     *	La tarea a ejecutar.
+     */
+
+    public void execute(final Runnable task) {
+
+        tasks.offer(task);
+        sync.wakeup(selector);
+    }
+
+    /**
+     * <p>Programa una tarea para que sea ejecutada en el thread de
+     * este bucle, una vez transcurrido el tiempo especificado. La
+     * espera sobre el selector se acota a la próxima tarea.</p>
+     *
+     * @param task
+     *	La tarea a ejecutar.
+     * @param delay
+     *	El tiempo de espera, en milisegundos.
+     */
+
+    public void schedule(final Runnable task, final long delay) {
+
+        final long due = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(delay);
+        execute(() -> timers.offer(new Timer(due, task)));
+    }
+
+    /**
+     * <p>Solicita que el bucle deje de despachar eventos. Al
+     * finalizar la iteración actual, se cierran todos los canales
+     * del selector, y el selector mismo.</p>
+     */
+
+    public void shutdown() {
+
+        running = false;
+        if (selector.isOpen()) {
+            selector.wakeup();
+        }
+    }
+
+    /**
+     * <p>Comienza a despachar eventos en el thread actual, hasta
+     * que se solicite su cierre mediante <b>shutdown</b>.</p>
+     */
+
+    @Override
+    public void run() {
+
+        // Este thread pasa a ser el dueño del selector:
+        sync.bind(selector, idle, this);
+        watchdog.bind(selector);
+
+        try {
+
+            while (running) {
+
+                // Registraciones y demás tareas encoladas:
+                runTasks();
+
+                // Aplico los cambios de interés pedidos por los workers:
+                sync.flush(selector);
+
+                // Cierro los canales inactivos:
+                final long timeout = Math.min(
+                        watchdog.expire(selector), runTimers());
+
+                /* La estrategia de espera decide si girar en vacío,
+                 ** ceder el procesador, dormir, o bloquearse sobre el
+                 ** selector (como máximo, hasta la próxima expiración).
+                 ** En este último caso, los demás threads lo despiertan
+                 ** al modificar las claves (ver Synchronizer).
+                 */
+                if (0 < idle.select(selector, timeout)) {
+
+                    // Reloj de baja resolución (una vez por iteración):
+                    watchdog.tick();
+                    dispatchSelectedKeys();
+                }
+            }
+        }
+        catch (final IOException
+                | ClosedSelectorException exception) {
+
+            logger.error(Message.UNKNOWN.getMessage(), name);
+        }
+        finally {
+
+            close();
+        }
+    }
+
+    /**
+     * <p>Despacha cada clave seleccionada hacia el demultiplexor,
+     * actualizando el monitor de inactividad.</p>
+     */
+
+    private void dispatchSelectedKeys() {
+
+        final Set<SelectionKey> keys = selector.selectedKeys();
+        final Iterator<SelectionKey> iterator = keys.iterator();
+
+        while (iterator.hasNext()) {
+
+            // Obtengo una clave:
+            final SelectionKey key = iterator.next();
+
+            // Si no es un 'listener', actualizo el watchdog:
+            if (!isListener(key)) {
+                watchdog.update(key);
+            }
+
+            // Solicito que un manejador resuelva el evento:
+            demultiplexor.dispatch(key);
+
+            // Quito la clave despachada:
+            iterator.remove();
+        }
+    }
+
+    /**
+     * <p>Ejecuta todas las tareas encoladas hasta el momento.</p>
+     */
+
+    private void runTasks() {
+
+        Runnable task;
+        while ((task = tasks.poll()) != null) {
+            task.run();
+        }
+    }
+
+    /**
+     * <p>Ejecuta las tareas diferidas que ya vencieron.</p>
+     *
+     * @return El tiempo máximo (en milisegundos) hasta la próxima
+     *	tarea diferida, o <i>Long.MAX_VALUE</i> si no hay ninguna.
+     */
+
+    private long runTimers() {
+
+        final long now = System.nanoTime();
+        Timer timer;
+        while ((timer = timers.peek()) != null && timer.due - now <= 0) {
+
+            timers.poll();
+            timer.task.run();
+        }
+        return timer == null ? Long.MAX_VALUE : 1 + (timer.due - now) / 1000000;
+    }
+
+    /**
+     * <p>Cierra todos los canales del selector, y luego el
+     * selector mismo.</p>
+     */
+
+    private void close() {
+
+        sync.unbind(selector);
+        watchdog.unbind(selector);
+        tasks.clear();
+        timers.clear();
+
+        if (selector.isOpen()) {
+
+            for (final SelectionKey key : selector.keys()) {
+                Server.close(key);
+            }
+
+            try {
+
+                selector.close();
+            }
+            catch (final IOException spurious) {}
+        }
+    }
+
+    /**
+     * <p>Indica si el canal de la clave está activa para el
+     * evento <b>ACCEPT</b>, es decir, que el canal se encuentra
+     * a disposición de conexiones entrantes, tal cual lo
+     * hace un <i>ServerSocketChannel</i> (listener).</p>
+     *
+     * @param key
+     *	La clave para la cual se determinará su funcionalidad.
+     *
+     * @return Devuelve <i>true</i> si la clave representa un
+     *	socket de escucha (<i>ServerSocketChannel</i>).
+     */
+
+    private static boolean isListener(final SelectionKey key) {
+
+        try {
+
+            return 0 != (key.interestOps() & SelectionKey.OP_ACCEPT);
+        }
+        catch (final CancelledKeyException exception) {
+
+            logger.error(
+                    Message.UNEXPECTED_UNPLUG.getMessage(),
+                    Server.tryToResolveAddress(key));
+
+            Server.close(key);
+            return false;
+        }
+    }
+
+    /**
+     * <p>Una tarea diferida, y su vencimiento.</p>
+     */
+
+    private static final class Timer implements Comparable<Timer> {
+
+        // Vencimiento (en nanosegundos, ver System.nanoTime):
+        private final long due;
+        private final Runnable task;
+
+        private Timer(final long due, final Runnable task) {
+
+            this.due = due;
+            this.task = task;
+        }
+
+        @Override
+        public int compareTo(final Timer other) {
+
+            return Long.signum(due - other.due);
+        }
+    }
+}
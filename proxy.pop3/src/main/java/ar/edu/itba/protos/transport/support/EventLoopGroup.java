@@ -0,0 +1,105 @@
+package ar.edu.itba.protos.transport.support;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.google.inject.Singleton;
+
+/**
+ * <p>Conjunto de bucles de selección secundarios (sub-reactores).
+ * El bucle principal (el <i>acceptor</i>) solo atiende los canales
+ * de escucha, y reparte cada nueva conexión entre los bucles de
+ * este grupo, de forma circular (<i>round-robin</i>).</p>
+ *
+ * <p>Si el grupo se encuentra vacío, el servidor trabaja con un
+ * único bucle de selección, el cual atiende todos los canales.</p>
+ *
+ * <p>Esta clase es <b>thread-safe</b>.</p>
+ */
+
+@Singleton
+public final class EventLoopGroup {
+
+    // Los bucles del grupo:
+    private volatile EventLoop[] loops = new EventLoop[0];
+
+    // Los threads de cada bucle:
+    private Thread[] threads = new Thread[0];
+
+    // El próximo bucle a asignar:
+    private final AtomicInteger next = new AtomicInteger();
+
+    /**
+     * <p>Devuelve la cantidad de bucles del grupo.</p>
+     *
+     * @return La cantidad de bucles activos.
+     */
+
+    public int size() {
+
+        return loops.length;
+    }
+
+    /**
+     * <p>Selecciona el bucle al cual asignar una nueva conexión.</p>
+     *
+     * @return El próximo bucle, o <b>null</b> si el grupo está vacío.
+     */
+
+    public EventLoop next() {
+
+        final EventLoop[] loops = this.loops;
+        if (loops.length == 0) {
+            return null;
+        }
+        return loops[(next.getAndIncrement() & Integer.MAX_VALUE) % loops.length];
+    }
+
+    /**
+     * <p>Instala los bucles especificados, y levanta un thread
+     * para cada uno de ellos.</p>
+     *
+     * @param loops
+     *	Los bucles a ejecutar.
+     */
+
+    synchronized void start(final EventLoop[] loops) {
+
+        threads = new Thread[loops.length];
+        for (int i = 0; i < loops.length; ++i) {
+
+            threads[i] = new Thread(loops[i], loops[i].getName());
+            threads[i].start();
+        }
+        this.loops = loops;
+    }
+
+    /**
+     * <p>Detiene todos los bucles del grupo, y espera (de forma
+     * acotada) a que sus threads finalicen.</p>
+     *
+     * @param timeout
+     *	El tiempo máximo de espera por cada thread, en milisegundos.
+     */
+
+    synchronized void shutdown(final long timeout) {
+
+        final EventLoop[] loops = this.loops;
+        this.loops = new EventLoop[0];
+
+        for (final EventLoop loop : loops) {
+            loop.shutdown();
+        }
+
+        try {
+
+            for (final Thread thread : threads) {
+                thread.join(timeout);
+            }
+        }
+        catch (final InterruptedException exception) {
+
+            Thread.currentThread().interrupt();
+        }
+        threads = new Thread[0];
+    }
+}
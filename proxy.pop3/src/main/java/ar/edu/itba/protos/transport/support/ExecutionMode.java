@@ -0,0 +1,66 @@
+package ar.edu.itba.protos.transport.support;
+
+/**
+ * <p>Define dónde se ejecutan los <i>handlers</i> despachados por
+ * el reactor.</p>
+ *
+ * <ul>
+ *	<li><b>POOLED</b>: cada evento se despacha hacia el pool de
+ *	threads del núcleo de procesamiento. La clave se suspende
+ *	(<i>save</i>) antes de despachar el evento, y se repone
+ *	(<i>restore</i>) al finalizar.</li>
+ *	<li><b>PINNED</b>: cada evento se procesa en el mismo thread del
+ *	bucle de selección que lo generó. Debido a que el cliente y su
+ *	<i>upstream</i> se registran en el mismo selector, una sesión
+ *	completa se ejecuta siempre en un único thread, por lo que no es
+ *	necesario suspender las claves.</li>
+ * </ul>
+ */
+
+public enum ExecutionMode {
+
+    POOLED("pooled"),
+    PINNED("pinned");
+
+    // El nombre utilizado por configuración:
+    private final String name;
+
+    private ExecutionMode(final String name) {
+
+        this.name = name;
+    }
+
+    /**
+     * <p>Devuelve el nombre del modo, tal cual se especifica por
+     * configuración.</p>
+     *
+     * @return El nombre del modo de ejecución.
+     */
+
+    public String getName() {
+
+        return name;
+    }
+
+    /**
+     * <p>Obtiene el modo de ejecución a partir de su nombre.</p>
+     *
+     * @param name
+     *	El nombre del modo (sin importar mayúsculas).
+     *
+     * @return El modo de ejecución solicitado.
+     *
+     * @throws IllegalArgumentException
+     *	Si el nombre no se corresponde con ningún modo.
+     */
+
+    public static ExecutionMode forName(final String name) {
+
+        for (final ExecutionMode mode : values()) {
+            if (mode.name.equalsIgnoreCase(name)) {
+                return mode;
+            }
+        }
+        throw new IllegalArgumentException(name);
+    }
+}
@@ -0,0 +1,471 @@
+	package ar.edu.itba.protos.transport.support;
+
+	import java.io.IOException;
+	import java.net.InetAddress;
+	import java.net.InetSocketAddress;
+	import java.nio.ByteBuffer;
+	import java.nio.channels.SelectionKey;
+	import java.nio.channels.SocketChannel;
+	import java.util.ArrayList;
+	import java.util.Collection;
+	import java.util.Collections;
+	import java.util.LinkedHashMap;
+	import java.util.List;
+	import java.util.Map;
+	import java.util.TreeMap;
+	import java.util.concurrent.ConcurrentHashMap;
+	import java.util.concurrent.ConcurrentMap;
+	import java.util.concurrent.atomic.AtomicBoolean;
+	import java.util.function.Supplier;
+
+	import org.slf4j.Logger;
+	import org.slf4j.LoggerFactory;
+
+	import com.google.inject.Inject;
+	import com.google.inject.Singleton;
+
+	import ar.edu.itba.protos.config.Upstream;
+	import ar.edu.itba.protos.transport.reactor.Event;
+
+		/**
+		* <p>Sondeo activo (en segundo plano) de los servidores origen
+		* configurados. Periódicamente, se conecta con cada réplica, lee
+		* su <i>greeting</i> (el cual debe comenzar con <b>+OK</b>), y
+		* envía <b>QUIT</b>. De esta forma, una réplica caída se detecta
+		* antes de que un cliente intente utilizarla.</p>
+		*
+		* <p>Para cada réplica se mantiene la disponibilidad de los
+		* últimos sondeos, y la latencia de su <i>greeting</i> (un
+		* promedio exponencial). Luego de varios sondeos fallidos
+		* consecutivos, la réplica se considera caída, y el
+		* <b>Balancer</b> deja de elegirla hasta que un sondeo tenga
+		* éxito.</p>
+		*
+		* <p>Los nombres se resuelven con el <b>Resolver</b>, las
+		* conexiones se establecen con el <b>Connector</b>, y los
+		* <i>greetings</i> se leen en uno de los bucles de selección
+		* del servidor (ver <b>bind</b>), como cualquier otro canal (el
+		* <i>attachment</i> de cada sondeo intercepta su flujo). Las
+		* rondas y los vencimientos de los sondeos son tareas
+		* diferidas de ese mismo bucle (ver <b>EventLoop.schedule</b>),
+		* por lo que el sondeo no requiere threads propios.</p>
+		*
+		* <p>Esta clase es <b>thread-safe</b>.</p>
+		*/
+
+	@Singleton
+	public final class HealthProber {
+
+		// Logger:
+		private static final Logger logger
+			= LoggerFactory.getLogger(HealthProber.class);
+
+		// Configuración por defecto (en milisegundos):
+		public static final long INTERVAL = 5000;
+		public static final long TIMEOUT = 2000;
+
+		// Sondeos fallidos consecutivos de una réplica caída:
+		private static final int UNHEALTHY = 2;
+
+		// Sondeos que determinan la disponibilidad:
+		private static final int WINDOW = 20;
+
+		// Capacidad máxima del 'greeting':
+		private static final int GREETING_SIZE = 512;
+
+		// El comando enviado luego del 'greeting':
+		private static final byte[] QUIT = "QUIT\r\n".getBytes();
+
+		// Intervalo entre sondeos (cero los deshabilita), y tiempo máximo:
+		private volatile long interval = INTERVAL;
+		private volatile long timeout = TIMEOUT;
+
+		// Las réplicas a sondear:
+		private volatile Supplier<Collection<Upstream>> targets
+			= Collections::emptyList;
+
+		// El estado de cada réplica sondeada:
+		private final ConcurrentMap<String, Health> health
+			= new ConcurrentHashMap<>();
+
+		private final Resolver resolver;
+		private final Connector connector;
+
+		// Repositorio global de claves:
+		private final Synchronizer sync;
+
+		// El bucle de selección que atiende los sondeos:
+		private volatile EventLoop loop = null;
+		private volatile boolean running = true;
+
+		@Inject
+		private HealthProber(final Resolver resolver,
+			final Connector connector, final Synchronizer sync) {
+
+			this.resolver = resolver;
+			this.connector = connector;
+			this.sync = sync;
+		}
+
+		/**
+		* <p>Especifica el intervalo entre sondeos de cada réplica, y
+		* el tiempo máximo de cada sondeo.</p>
+		*
+		* @param interval
+		*	El intervalo entre sondeos (en milisegundos). Cero
+		*	deshabilita el sondeo.
+		* @param timeout
+		*	El tiempo máximo hasta recibir el <i>greeting</i> (en
+		*	milisegundos).
+		*
+		* @return Esta misma instancia.
+		*
+		* @throws IllegalArgumentException
+		*	Si el intervalo es negativo, o si el tiempo máximo no es
+		*	positivo.
+		*/
+
+		public HealthProber set(final long interval, final long timeout) {
+
+			if (interval < 0 || timeout <= 0)
+				throw new IllegalArgumentException();
+
+			this.interval = interval;
+			this.timeout = timeout;
+			return this;
+		}
+
+		/**
+		* <p>Especifica de dónde se obtienen las réplicas a sondear. Se
+		* consultan en cada ronda, por lo que los cambios de
+		* configuración se aplican sin reiniciar el sondeo.</p>
+		*
+		* @param targets
+		*	Las réplicas configuradas.
+		*
+		* @return Esta misma instancia.
+		*/
+
+		public HealthProber setTargets(final Supplier<Collection<Upstream>> targets) {
+
+			this.targets = targets;
+			return this;
+		}
+
+		/**
+		* <p>Indica si la réplica se encuentra disponible. Una réplica
+		* que todavía no se sondeó se considera disponible.</p>
+		*
+		* @param replica
+		*	La réplica (<i>host:port</i>).
+		*
+		* @return Devuelve <i>false</i> si fallaron los últimos
+		*	sondeos de la réplica.
+		*/
+
+		public boolean isHealthy(final String replica) {
+
+			final Health state = health.get(replica);
+			return state == null || state.healthy;
+		}
+
+		/**
+		* <p>Devuelve la latencia del <i>greeting</i> de la réplica.</p>
+		*
+		* @param replica
+		*	La réplica (<i>host:port</i>).
+		*
+		* @return La latencia (en microsegundos), o un valor negativo
+		*	si ningún sondeo tuvo éxito.
+		*/
+
+		public long getLatency(final String replica) {
+
+			final Health state = health.get(replica);
+			return state == null? -1 : state.latency;
+		}
+
+		/**
+		* <p>Especifica el bucle de selección en el cual se realizan los
+		* sondeos, y comienza la primera ronda (si el sondeo está
+		* habilitado, y todavía no comenzó).</p>
+		*
+		* @param loop
+		*	Un bucle de selección secundario, o el principal, si el
+		*	servidor no posee otros.
+		*/
+
+		public synchronized void bind(final EventLoop loop) {
+
+			if (this.loop != null || interval == 0 || !running) return;
+
+			this.loop = loop;
+			loop.execute(this::round);
+		}
+
+		/**
+		* <p>Detiene el sondeo. Los sondeos en curso se cierran junto con
+		* los canales del bucle de selección.</p>
+		*/
+
+		public void shutdown() {
+
+			running = false;
+		}
+
+		/**
+		* <p>Genera un reporte con la disponibilidad y la latencia de
+		* cada réplica, con el mismo formato que el reporte de
+		* métricas.</p>
+		*
+		* @return El reporte del sondeo.
+		*/
+
+		public String summarize() {
+
+			final List<String> lines = new ArrayList<>();
+			lines.add("Health prober:");
+			lines.add("");
+			lines.add("  - policy:      " + (interval == 0? "disabled" : "every "
+				+ interval + " ms") + " (timeout: " + timeout + " ms).");
+
+			final Map<String, Health> sorted = new TreeMap<>(health);
+			for (final Health state : sorted.values()) {
+
+				final int window;
+				final int passed;
+				synchronized (state) {
+
+					window = state.window;
+					passed = Long.bitCount(state.results);
+				}
+
+				lines.add("  - replica:     " + state.replica + ", "
+					+ (state.healthy? "up" : "down") + ", "
+					+ passed + " of " + window + " probes passed, "
+					+ (state.latency < 0? "unknown latency." : state.latency + " us."));
+			}
+			return String.join("\r\n", lines);
+		}
+
+		/**
+		* <p>Inicia una ronda: un sondeo por cada réplica configurada
+		* que no tenga uno en curso, y programa la siguiente. Se olvidan
+		* las réplicas que ya no se encuentran configuradas. Se ejecuta
+		* en el thread del bucle.</p>
+		*/
+
+		private void round() {
+
+			if (!running) return;
+
+			final Map<String, Upstream> replicas = new LinkedHashMap<>();
+			for (final Upstream replica : targets.get())
+				replicas.putIfAbsent(replica.toString(), replica);
+
+			health.keySet().retainAll(replicas.keySet());
+
+			for (final Upstream replica : replicas.values()) {
+
+				final Health state = health
+					.computeIfAbsent(replica.toString(), Health::new);
+
+				if (state.probing) continue;
+				state.probing = true;
+
+				final Probe probe = new Probe(state);
+				loop.schedule(() -> finish(probe, false), timeout);
+
+				resolver.resolve(replica.getHost())
+					.thenCompose(addresses -> {
+
+						final List<InetSocketAddress> sockets = new ArrayList<>();
+						for (final InetAddress address : addresses)
+							sockets.add(new InetSocketAddress(address, replica.getPort()));
+
+						return connector.connect(
+							connector.order(sockets), SocketOptions.DEFAULT
+								.with(replica.getSocketOptions()));
+					})
+					.whenComplete((socket, exception) ->
+						loop.execute(() -> register(probe, socket)));
+			}
+			loop.schedule(this::round, interval);
+		}
+
+		/**
+		* <p>Registra la conexión de un sondeo en el bucle, para leer su
+		* <i>greeting</i>. Una conexión fallida finaliza el sondeo. Se
+		* ejecuta en el thread del bucle.</p>
+		*/
+
+		private void register(final Probe probe, final SocketChannel socket) {
+
+			if (socket == null) {
+
+				finish(probe, false);
+				return;
+			}
+
+			try {
+
+				// El sondeo ya venció (o el servidor se detuvo):
+				if (probe.done.get() || !running) throw new IOException();
+
+				final SelectionKey key
+					= socket.register(loop.getSelector(), 0, probe);
+
+				probe.setDownstream(key);
+				probe.setSynchronizer(sync);
+
+				sync.save(key);
+				sync.enable(key, Event.READ);
+				sync.restore(key);
+			}
+			catch (final IOException exception) {
+
+				try {
+
+					socket.close();
+				}
+				catch (final IOException spurious) {}
+				finish(probe, false);
+			}
+		}
+
+		/**
+		* <p>Registra el resultado de un sondeo (una única vez), y
+		* cierra su conexión.</p>
+		*/
+
+		private void finish(final Probe probe, final boolean success) {
+
+			if (!probe.done.compareAndSet(false, true)) return;
+
+			probe.closeDownstream();
+			probe.health.record(success, (System.nanoTime() - probe.start) / 1000);
+		}
+
+		/**
+		* <p>El estado de una réplica. Cada sondeo lo modifica una única
+		* vez (ver <b>finish</b>), y una réplica no posee más de un
+		* sondeo en curso.</p>
+		*/
+
+		private static final class Health {
+
+			private final String replica;
+
+			// Resultados de los últimos sondeos (un bit por sondeo):
+			private long results = 0;
+			private int window = 0;
+
+			private int failures = 0;
+			private volatile boolean healthy = true;
+			private volatile long latency = -1;
+			private volatile boolean probing = false;
+
+			private Health(final String replica) {
+
+				this.replica = replica;
+			}
+
+			private void record(final boolean success, final long micros) {
+
+				synchronized (this) {
+
+					results = (results << 1 | (success? 1 : 0)) & ((1L << WINDOW) - 1);
+					window = Math.min(WINDOW, window + 1);
+				}
+
+				if (success) {
+
+					failures = 0;
+					latency = latency < 0? micros : (7 * latency + micros) / 8;
+					if (!healthy) logger.info(Message.UPSTREAM_UP.getMessage(), replica);
+					healthy = true;
+				}
+				else if (UNHEALTHY <= ++failures && healthy) {
+
+					healthy = false;
+					logger.warn(Message.UPSTREAM_DOWN.getMessage(), replica, failures);
+				}
+
+				// Habilita el próximo sondeo (luego de publicar el resultado):
+				probing = false;
+			}
+		}
+
+		/**
+		* <p>Un sondeo en curso: el <i>attachment</i> de su conexión, el
+		* cual lee el <i>greeting</i> (a través del <b>ReadHandler</b>).
+		* Una vez completo, envía <b>QUIT</b> (sin esperar la respuesta),
+		* y finaliza el sondeo.</p>
+		*/
+
+		private final class Probe extends Attachment implements Interceptor {
+
+			private final Health health;
+			private final long start = System.nanoTime();
+			private final ByteBuffer buffer = ByteBuffer.allocate(GREETING_SIZE);
+			private final AtomicBoolean done = new AtomicBoolean();
+
+			private Probe(final Health health) {
+
+				this.health = health;
+			}
+
+			@Override
+			public ByteBuffer getInboundBuffer() {
+
+				return buffer;
+			}
+
+			@Override
+			public ByteBuffer getOutboundBuffer() {
+
+				return buffer;
+			}
+
+			@Override
+			public Interceptor getInterceptor() {
+
+				return this;
+			}
+
+			@Override
+			public void consume(final ByteBuffer buffer) {
+
+				// Una selección espuria (no hay nada nuevo):
+				if (!buffer.hasRemaining()) return;
+
+				// El 'greeting' está completo?
+				if (buffer.get(buffer.limit() - 1) != '\n') {
+
+					// Un 'greeting' demasiado extenso es inválido:
+					if (buffer.limit() == buffer.capacity()) finish(this, false);
+					return;
+				}
+
+				final boolean ok = 3 <= buffer.limit()
+					&& buffer.get(0) == '+' && buffer.get(1) == 'O'
+					&& buffer.get(2) == 'K';
+
+				if (ok) {
+
+					try {
+
+						getSocket().write(ByteBuffer.wrap(QUIT));
+					}
+					catch (final IOException spurious) {}
+				}
+				finish(this, ok);
+			}
+
+			@Override
+			public void onUnplug(final Event event) {
+
+				finish(this, false);
+			}
+		}
+	}
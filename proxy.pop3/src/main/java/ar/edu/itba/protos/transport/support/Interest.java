@@ -0,0 +1,175 @@
+	package ar.edu.itba.protos.transport.support;
+
+	import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
+
+		/**
+		* <p>El estado almacenado de una clave: sus opciones de
+		* interés, si se encuentra almacenada en el repositorio, y si
+		* existe una reposición pendiente de ser aplicada por el bucle
+		* de selección.</p>
+		*
+		* <p>Cada <i>attachment</i> posee su propio estado, por lo cual
+		* las modificaciones sobre claves distintas nunca compiten por
+		* un mismo <i>lock</i>. Todas las actualizaciones se realizan
+		* mediante operaciones <b>CAS</b> sobre campos volátiles.</p>
+		*
+		* <p>Esta clase es <b>thread-safe</b>.</p>
+		*/
+
+	final class Interest {
+
+		// Actualizadores atómicos (sin objetos adicionales por clave):
+		private static final AtomicIntegerFieldUpdater<Interest> OPTIONS
+			= AtomicIntegerFieldUpdater.newUpdater(Interest.class, "options");
+
+		private static final AtomicIntegerFieldUpdater<Interest> STATUS
+			= AtomicIntegerFieldUpdater.newUpdater(Interest.class, "status");
+
+		// La clave se encuentra almacenada en el repositorio:
+		private static final int TRACKED = 1;
+
+		// La clave se encuentra encolada en el buzón de su selector:
+		private static final int PENDING = 2;
+
+		// Las opciones de interés almacenadas:
+		private volatile int options;
+
+		// Estado de la clave (TRACKED | PENDING):
+		private volatile int status;
+
+		// La generación del repositorio en la cual se almacenó:
+		private volatile int generation;
+
+		/**
+		* <p>Almacena el estado de la clave, con las opciones
+		* especificadas, y descarta cualquier reposición pendiente.</p>
+		*
+		* @param options
+		*	Las opciones de interés a almacenar.
+		* @param generation
+		*	La generación actual del repositorio.
+		*/
+
+		void track(int options, int generation) {
+
+			this.options = options;
+			this.generation = generation;
+			status = TRACKED;
+		}
+
+		/**
+		* <p>Elimina el estado de la clave del repositorio.</p>
+		*/
+
+		void untrack() {
+
+			status = 0;
+		}
+
+		/**
+		* <p>Indica si el estado se encuentra almacenado en el
+		* repositorio, para la generación especificada.</p>
+		*
+		* @param generation
+		*	La generación actual del repositorio.
+		*
+		* @return Devuelve <i>true</i> si el estado es válido.
+		*/
+
+		boolean isTracked(int generation) {
+
+			return (status & TRACKED) != 0 && this.generation == generation;
+		}
+
+		/**
+		* <p>Devuelve las opciones de interés almacenadas.</p>
+		*
+		* @return La máscara de eventos almacenada.
+		*/
+
+		int getOptions() {
+
+			return options;
+		}
+
+		/**
+		* <p>Reemplaza por completo las opciones almacenadas.</p>
+		*
+		* @param options
+		*	La nueva máscara de eventos.
+		*/
+
+		void setOptions(int options) {
+
+			this.options = options;
+		}
+
+		/**
+		* <p>Habilita los eventos especificados, de forma atómica.</p>
+		*
+		* @param events
+		*	La máscara de eventos a habilitar.
+		*/
+
+		void add(int events) {
+
+			int current;
+			do current = options;
+			while (!OPTIONS.compareAndSet(this, current, current | events));
+		}
+
+		/**
+		* <p>Deshabilita los eventos especificados, de forma atómica.</p>
+		*
+		* @param events
+		*	La máscara de eventos a deshabilitar.
+		*/
+
+		void remove(int events) {
+
+			int current;
+			do current = options;
+			while (!OPTIONS.compareAndSet(this, current, current & ~events));
+		}
+
+		/**
+		* <p>Marca la clave como encolada, si es que no lo estaba.</p>
+		*
+		* @return Devuelve <i>true</i> si el llamador debe encolar la
+		*	clave, o <i>false</i> si ya se encontraba encolada (o si
+		*	no está almacenada en el repositorio).
+		*/
+
+		boolean markPending() {
+
+			int current;
+			do {
+
+				current = status;
+				if (current != TRACKED)
+					return false;
+			}
+			while (!STATUS.compareAndSet(this, current, current | PENDING));
+			return true;
+		}
+
+		/**
+		* <p>Descarta la marca de encolamiento de la clave.</p>
+		*
+		* @return Devuelve <i>true</i> si la clave se encontraba
+		*	encolada, y por lo tanto, su estado debe aplicarse.
+		*/
+
+		boolean clearPending() {
+
+			int current;
+			do {
+
+				current = status;
+				if ((current & PENDING) == 0)
+					return false;
+			}
+			while (!STATUS.compareAndSet(this, current, current & ~PENDING));
+			return true;
+		}
+	}
@@ -58,6 +58,41 @@
 			("La dirección remota no se pudo resolver ({})."),
 		CANNOT_LISTEN
 			("Error de binding. No se pudo escuchar en la dirección {}."),
+		INVALID_IDLE_STRATEGY
+			("Estrategia de espera desconocida ({}). Se utiliza 'blocking'."),
+		INVALID_EXECUTION_MODE
+			("Modo de ejecución desconocido ({}). Se utiliza 'pooled'."),
+		INVALID_BUFFER_SIZES
+			("Capacidades de buffer inválidas ({} a {} bytes)."),
+		INVALID_WATERMARKS
+			("Marcas de contrapresión inválidas (alta {}%, baja {}%)."),
+		INVALID_READ_BUDGET
+			("Presupuesto de lectura inválido ({} lecturas, {} bytes)."),
+		INVALID_ACCEPT_BATCH
+			("Lote de conexiones inválido ({} por evento)."),
+		INVALID_ADMISSION
+			("Control de admisión inválido ({} sesiones, marca baja {}%)."),
+		INVALID_SOCKET_OPTIONS
+			("Opciones de socket inválidas ({})."),
+		INVALID_SOCKET_OPTION
+			("La plataforma no admite la opción {} = {}."),
+		INVALID_UPSTREAM_POOL
+			("Pool de conexiones inválido ({} por servidor, TTL {} ms)."),
+		INVALID_RESOLVER
+			("Caché de DNS inválido (TTL {} ms, negativo {} ms)."),
+		INVALID_CONNECTOR
+			("Conexión en paralelo inválida (intervalo {} ms, timeout {} ms)."),
+		INVALID_CIRCUIT_BREAKER
+			("Circuit breaker inválido (umbral {}, apertura {} ms, greeting {} ms)."),
+		INVALID_HEALTH_PROBER
+			("Sondeo de servidores inválido (intervalo {} ms, timeout {} ms)."),
+
+		/*
+		** Errores asociados a la clase 'BufferPool':
+		*/
+
+		BUFFER_LEAK
+			("Se recuperó un buffer que no fue devuelto al pool ({} bytes)."),
 
 		/*
 		** Errores asociados a la clase 'AcceptHandler':
@@ -81,22 +116,40 @@
 			("El servidor se desconectó abruptamente ({})."),
 
 		/*
-		** Errores asociados a la clase 'ConnectHandler':
+		** Errores asociados a la clase 'ClientAttachment':
 		*/
 
-		CONNECTION_TIMEOUT
-			("El intento de conexión tardó demasiado, y fue cancelado ({})."),
-		CONNECTION_SUCCEED
-			("Se estableció una nueva conexión remota ({})."),
-		PENDING_CONNECTION
-			("La conexión remota ({}), sigue pendiente."),
+		CANNOT_FORWARD
+			("No se pudo conectar con el servidor remoto ({})."),
+		NO_UPSTREAM_AVAILABLE
+			("Ningún servidor remoto disponible ({}), se rechaza la sesión."),
+		GREETING_TIMEOUT
+			("El servidor remoto no envió su greeting a tiempo ({})."),
+		NEGATIVE_GREETING
+			("El servidor remoto rechazó la conexión ({})."),
 
 		/*
-		** Errores asociados a la clase 'ClientAttachment':
+		** Errores asociados a la clase 'CircuitBreaker':
 		*/
 
-		CANNOT_FORWARD
-			("No se pudo conectar con el servidor remoto ({})."),
+		CIRCUIT_OPEN
+			("Se abrió el circuito hacia {} ({} fallos consecutivos)."),
+
+		/*
+		** Errores asociados a la clase 'HealthProber':
+		*/
+
+		UPSTREAM_DOWN
+			("El servidor remoto {} no responde ({} sondeos fallidos)."),
+		UPSTREAM_UP
+			("El servidor remoto {} vuelve a responder."),
+
+		/*
+		** Errores asociados a la clase 'UpstreamPool':
+		*/
+
+		UPSTREAM_POOL_FAILURE
+			("No se pudo precalentar una conexión hacia {}."),
 
 		/*
 		** Error desconocido:
@@ -0,0 +1,129 @@
+	package ar.edu.itba.protos.transport.support;
+
+	import java.util.concurrent.atomic.LongAdder;
+
+	import com.google.inject.Inject;
+	import com.google.inject.Singleton;
+
+		/**
+		* <p>Presupuesto de lectura por evento. Durante un mismo evento
+		* <b>READ</b>, el <b>ReadHandler</b> continúa leyendo (y
+		* reenviando) mientras el canal entregue información, hasta
+		* vaciar el socket, o hasta agotar este presupuesto, expresado
+		* en cantidad de lecturas y en bytes (lo que suceda primero).
+		* Al agotarlo, cede el núcleo de procesamiento, de forma que una
+		* sola sesión con mucho tráfico no demore a las demás.</p>
+		*
+		* <p>Esta clase es <b>thread-safe</b>.</p>
+		*/
+
+	@Singleton
+	public final class ReadBudget {
+
+		// Presupuesto por defecto:
+		public static final int READS = 16;
+		public static final int BYTES = 256 * 1024;
+
+		// Presupuesto actual:
+		private volatile int reads = READS;
+		private volatile int bytes = BYTES;
+
+		// Estadísticas:
+		private final LongAdder wakeups = new LongAdder();
+		private final LongAdder iterations = new LongAdder();
+		private final LongAdder exhausted = new LongAdder();
+
+		@Inject
+		private ReadBudget() {}
+
+		/**
+		* <p>Especifica el presupuesto de cada evento.</p>
+		*
+		* @param reads
+		*	La cantidad máxima de lecturas (al menos una).
+		* @param bytes
+		*	La cantidad máxima de bytes a leer (al menos uno).
+		*
+		* @return Esta misma instancia.
+		*
+		* @throws IllegalArgumentException
+		*	Si el presupuesto no es positivo.
+		*/
+
+		public ReadBudget set(final int reads, final int bytes) {
+
+			if (reads <= 0 || bytes <= 0)
+				throw new IllegalArgumentException();
+
+			this.reads = reads;
+			this.bytes = bytes;
+			return this;
+		}
+
+		public int getReads() {
+
+			return reads;
+		}
+
+		public int getBytes() {
+
+			return bytes;
+		}
+
+		/**
+		* <p>Determina si queda presupuesto para otra lectura.</p>
+		*
+		* @param reads
+		*	Las lecturas realizadas durante este evento.
+		* @param bytes
+		*	Los bytes leídos durante este evento.
+		*
+		* @return Devuelve <i>true</i> si se puede volver a leer.
+		*/
+
+		public boolean allows(final int reads, final long bytes) {
+
+			return reads < this.reads && bytes < this.bytes;
+		}
+
+		/**
+		* <p>Registra el resultado de un evento.</p>
+		*
+		* @param reads
+		*	Las lecturas realizadas durante el evento.
+		* @param exhausted
+		*	Si el evento finalizó por agotar el presupuesto, y no
+		*	por vaciar el socket.
+		*/
+
+		public void log(final int reads, final boolean exhausted) {
+
+			wakeups.increment();
+			iterations.add(reads);
+			if (exhausted) this.exhausted.increment();
+		}
+
+		/**
+		* <p>Genera un reporte con el presupuesto actual, la cantidad
+		* de lecturas por evento, y la cantidad de veces que se agotó
+		* el presupuesto, con el mismo formato que el reporte de
+		* métricas.</p>
+		*
+		* @return El reporte del presupuesto de lectura.
+		*/
+
+		public String summarize() {
+
+			final long events = wakeups.sum();
+			final long loops = iterations.sum();
+
+			return String.join("\r\n", new String[] {
+				"Read budget:",
+				"",
+				"  - budget:      " + reads + " reads, " + bytes + " bytes (per event).",
+				"  - loops:       " + loops + " reads over " + events + " events"
+					+ String.format(" (avg: %.2f).", 0 < events ? (double) loops / events : 0.0),
+				"  - exhausted:   " + exhausted.sum() + " (budget exhausted before draining)."
+			});
+		}
+	}
@@ -0,0 +1,263 @@
+	package ar.edu.itba.protos.transport.support;
+
+	import java.net.InetAddress;
+	import java.net.UnknownHostException;
+	import java.util.Arrays;
+	import java.util.Collections;
+	import java.util.List;
+	import java.util.concurrent.CompletableFuture;
+	import java.util.concurrent.ConcurrentHashMap;
+	import java.util.concurrent.ConcurrentMap;
+	import java.util.concurrent.ExecutorService;
+	import java.util.concurrent.Executors;
+	import java.util.concurrent.RejectedExecutionException;
+	import java.util.concurrent.atomic.AtomicInteger;
+	import java.util.concurrent.atomic.LongAccumulator;
+	import java.util.concurrent.atomic.LongAdder;
+
+	import com.google.inject.Inject;
+	import com.google.inject.Singleton;
+
+		/**
+		* <p>Resolución asincrónica de nombres (DNS) para los servidores
+		* origen, la cual obtiene todas las direcciones de cada nombre
+		* (ver <b>Connector</b>). Las consultas se ejecutan en threads propios, de forma
+		* que un <i>resolver</i> lento no bloquee a los <i>workers</i> del
+		* <b>ThreadingCore</b> (ni a las sesiones encoladas detrás de
+		* ellos).</p>
+		*
+		* <p>Los resultados se almacenan en un caché con dos tiempos de
+		* vida: uno para las resoluciones exitosas, y otro (más corto)
+		* para los fallos. Las consultas simultáneas sobre un mismo
+		* nombre se combinan en una única resolución.</p>
+		*
+		* <p>Esta clase es <b>thread-safe</b>.</p>
+		*/
+
+	@Singleton
+	public final class Resolver {
+
+		// Configuración por defecto (en milisegundos):
+		public static final long TTL = 60000;
+		public static final long NEGATIVE_TTL = 5000;
+
+		// Threads dedicados a la resolución:
+		private static final int THREADS = 2;
+
+		// Tiempos de vida del caché:
+		private volatile long ttl = TTL;
+		private volatile long negativeTTL = NEGATIVE_TTL;
+
+		// Resultados (exitosos o no) de cada nombre:
+		private final ConcurrentMap<String, Entry> cache
+			= new ConcurrentHashMap<>();
+
+		// Resoluciones en curso:
+		private final ConcurrentMap<String, CompletableFuture<List<InetAddress>>> pending
+			= new ConcurrentHashMap<>();
+
+		private final ExecutorService executor;
+
+		// Estadísticas:
+		private final LongAdder hits = new LongAdder();
+		private final LongAdder misses = new LongAdder();
+		private final LongAdder coalesced = new LongAdder();
+		private final LongAdder failures = new LongAdder();
+		private final LongAdder lookups = new LongAdder();
+		private final LongAdder elapsed = new LongAdder();
+		private final LongAccumulator slowest
+			= new LongAccumulator(Math::max, 0);
+
+		@Inject
+		private Resolver() {
+
+			final AtomicInteger threads = new AtomicInteger();
+			executor = Executors.newFixedThreadPool(THREADS, task -> {
+
+				final Thread thread
+					= new Thread(task, "resolver-" + threads.incrementAndGet());
+				thread.setDaemon(true);
+				return thread;
+			});
+		}
+
+		/**
+		* <p>Especifica los tiempos de vida del caché.</p>
+		*
+		* @param ttl
+		*	El tiempo de vida de una resolución exitosa (en
+		*	milisegundos).
+		* @param negativeTTL
+		*	El tiempo de vida de una resolución fallida (en
+		*	milisegundos).
+		*
+		* @return Esta misma instancia.
+		*
+		* @throws IllegalArgumentException
+		*	Si alguno de los tiempos es negativo.
+		*/
+
+		public Resolver set(final long ttl, final long negativeTTL) {
+
+			if (ttl < 0 || negativeTTL < 0)
+				throw new IllegalArgumentException();
+
+			this.ttl = ttl;
+			this.negativeTTL = negativeTTL;
+			return this;
+		}
+
+		/**
+		* <p>Resuelve un nombre de host. Si el resultado se encuentra
+		* en el caché, se devuelve una resolución ya completa; en otro
+		* caso, la consulta se ejecuta en segundo plano (o se combina
+		* con otra en curso), y la resolución se completa desde uno de
+		* los threads del <i>resolver</i>.</p>
+		*
+		* @param host
+		*	El nombre (o la dirección literal) a resolver.
+		*
+		* @return La resolución, la cual se completa con las
+		*	direcciones del host, o en forma excepcional si no pudo
+		*	resolverse.
+		*/
+
+		public CompletableFuture<List<InetAddress>> resolve(final String host) {
+
+			final Entry entry = cache.get(host);
+			if (entry != null) {
+
+				if (System.currentTimeMillis() < entry.expiration) {
+
+					hits.increment();
+					return entry.result;
+				}
+				cache.remove(host, entry);
+			}
+
+			final CompletableFuture<List<InetAddress>> result = new CompletableFuture<>();
+			final CompletableFuture<List<InetAddress>> current
+				= pending.putIfAbsent(host, result);
+
+			if (current != null) {
+
+				coalesced.increment();
+				return current;
+			}
+
+			misses.increment();
+			try {
+
+				executor.execute(() -> lookup(host, result));
+			}
+			catch (final RejectedExecutionException exception) {
+
+				pending.remove(host, result);
+				result.completeExceptionally(exception);
+			}
+			return result;
+		}
+
+		/**
+		* <p>Detiene los threads del <i>resolver</i>.</p>
+		*/
+
+		public void shutdown() {
+
+			executor.shutdownNow();
+		}
+
+		/**
+		* <p>Genera un reporte con la efectividad del caché y la
+		* latencia de las resoluciones, con el mismo formato que el
+		* reporte de métricas.</p>
+		*
+		* @return El reporte del <i>resolver</i>.
+		*/
+
+		public String summarize() {
+
+			final long hits = this.hits.sum();
+			final long requests = hits + misses.sum() + coalesced.sum();
+			final long lookups = this.lookups.sum();
+
+			return String.join("\r\n",
+				"Resolver:",
+				"",
+				"  - cache:       " + cache.size() + " hosts (TTL: " + ttl
+					+ " ms, negative: " + negativeTTL + " ms).",
+				"  - hits:        " + hits + " of " + requests + " requests ("
+					+ (0 < requests? 100 * hits / requests : 0) + "%).",
+				"  - coalesced:   " + coalesced.sum() + " (joined a lookup in progress).",
+				"  - lookups:     " + lookups + " (" + failures.sum() + " failed).",
+				"  - latency:     " + (0 < lookups? elapsed.sum() / lookups / 1000 : 0)
+					+ " us average, " + slowest.get() / 1000 + " us max.");
+		}
+
+		/**
+		* <p>Ejecuta una consulta (bloqueante), almacena el resultado
+		* en el caché, y completa la resolución.</p>
+		*/
+
+		private void lookup(
+			final String host, final CompletableFuture<List<InetAddress>> result) {
+
+			final long start = System.nanoTime();
+			List<InetAddress> addresses = null;
+			Exception failure = null;
+			try {
+
+				addresses = Collections.unmodifiableList(
+					Arrays.asList(InetAddress.getAllByName(host)));
+			}
+			catch (final UnknownHostException
+				| SecurityException exception) {
+
+				failures.increment();
+				failure = exception;
+			}
+
+			final long time = System.nanoTime() - start;
+			lookups.increment();
+			elapsed.add(time);
+			slowest.accumulate(time);
+
+			// Primero el caché, para no perder consultas intermedias:
+			final long now = System.currentTimeMillis();
+			evict(now);
+			cache.put(host, new Entry(result,
+				now + (failure == null? ttl : negativeTTL)));
+			pending.remove(host, result);
+
+			if (failure == null) result.complete(addresses);
+			else result.completeExceptionally(failure);
+		}
+
+		/**
+		* <p>Descarta las entradas vencidas del caché, incluso las de
+		* nombres que no vuelven a consultarse. Se ejecuta en los
+		* threads del <i>resolver</i>, con cada consulta.</p>
+		*/
+
+		private void evict(final long now) {
+
+			cache.values().removeIf(entry -> entry.expiration <= now);
+		}
+
+		/**
+		* <p>Un resultado almacenado en el caché.</p>
+		*/
+
+		private static final class Entry {
+
+			private final CompletableFuture<List<InetAddress>> result;
+			private final long expiration;
+
+			private Entry(
+				final CompletableFuture<List<InetAddress>> result, final long expiration) {
+
+				this.result = result;
+				this.expiration = expiration;
+			}
+		}
+	}
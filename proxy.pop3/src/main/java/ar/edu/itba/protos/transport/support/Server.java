@@ -3,22 +3,24 @@ package ar.edu.itba.protos.transport.support;
 
 import java.io.IOException;
 import java.net.InetSocketAddress;
-import java.nio.channels.CancelledKeyException;
 import java.nio.channels.SelectableChannel;
 import java.nio.channels.SelectionKey;
 import java.nio.channels.Selector;
 import java.nio.channels.ServerSocketChannel;
 import java.nio.channels.SocketChannel;
 import java.util.ArrayList;
-import java.util.Iterator;
 import java.util.List;
 import java.util.Set;
+import java.util.function.Supplier;
 
 import javax.inject.Inject;
+import javax.inject.Singleton;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import ar.edu.itba.protos.transport.idle.BusySpinIdleStrategy;
+import ar.edu.itba.protos.transport.idle.IdleStrategy;
 import ar.edu.itba.protos.transport.reactor.Reactor;
 
 /**
@@ -28,13 +30,22 @@ import ar.edu.itba.protos.transport.reactor.Reactor;
  * despachados hacia un demultiplexor (implementado
  * mediante un reactor). En cada interfaz especificada
  * se asocia una fábrica de <i>attachments</i>.</p>
+ *
+ * <p>El servidor puede operar con un único bucle de selección,
+ * o bien en modo <i>main/sub-reactor</i>: el bucle principal
+ * (<i>acceptor</i>) solo atiende los canales de escucha, y cada
+ * nueva conexión se reparte entre un grupo de bucles secundarios,
+ * cada uno con su propio selector y su propio thread.</p>
  */
 
+@Singleton
 public final class Server {
 
     // TODO: obtener por configuración Pablo!!!
     /**/private static final long TIMEOUT = 500000;
-    /**/private static final long LAZY_INTERVAL_DETECTION = 1000;
+
+    // Tiempo de espera para el cierre de los bucles secundarios:
+    private static final long AWAIT_TIMEOUT = 1000;
 
     // Logger:
     private static final Logger logger
@@ -46,20 +57,51 @@ public final class Server {
     // Watchdog-timer utilizado para cerrar canales inactivos:
     private final WatchdogTimer watchdog;
 
+    // Repositorio global de claves:
+    private final Synchronizer sync;
+
+    // Bucles de selección secundarios:
+    private final EventLoopGroup loops;
+
+    // Control de admisión de cada 'listener':
+    private final Admission admission;
+
+    // Sondeo activo de los servidores origen:
+    private final HealthProber prober;
+
+    // Cola de conexiones pendientes de cada 'listener':
+    private int backlog = 0;
+
+    // Fábrica de estrategias de espera (una por bucle):
+    private Supplier<IdleStrategy> idleFactory = BusySpinIdleStrategy::new;
+
+    // Cantidad de bucles de selección secundarios:
+    private int subReactors = 0;
+
+    // El bucle principal (se ejecuta en el thread de 'dispatch'):
+    private volatile EventLoop acceptor = null;
+
     // Lista de sockets escuchando conexiones entrantes:
     private List<ServerSocketChannel> listeners = null;
 
     // Generador de eventos:
     private Selector selector;
 
-    // Indica si el monitor de inactividad está activo:
-    private volatile boolean monitoring = true;
-
     @Inject
-    public Server(final Reactor demultiplexor, final WatchdogTimer watchdog) {
+    public Server(
+            final Reactor demultiplexor,
+            final WatchdogTimer watchdog,
+            final Synchronizer sync,
+            final EventLoopGroup loops,
+            final Admission admission,
+            final HealthProber prober) {
 
         this.watchdog = watchdog;
         this.demultiplexor = demultiplexor;
+        this.sync = sync;
+        this.loops = loops;
+        this.admission = admission;
+        this.prober = prober;
 
         try {
 
@@ -88,6 +130,84 @@ public final class Server {
         return listeners.size();
     }
 
+    /**
+     * <p>Especifica la estrategia de espera de los bucles de
+     * selección, es decir, qué hacer cuando no hay claves listas
+     * para ser despachadas. Como las estrategias pueden mantener
+     * estado, cada bucle obtiene una instancia propia desde la
+     * fábrica. Debe indicarse antes de comenzar a despachar
+     * eventos.</p>
+     *
+     * @param idleFactory
+     *	La fábrica de estrategias de espera.
+     *
+     * @return El servidor sobre el cual se instaló la estrategia.
+     *
+     * @throws IllegalArgumentException
+     *	Si la fábrica es <i>null</i>.
+     */
+
+    public Server setIdleStrategy(final Supplier<IdleStrategy> idleFactory) {
+
+        if (idleFactory == null) {
+            throw new IllegalArgumentException();
+        }
+
+        this.idleFactory = idleFactory;
+        return this;
+    }
+
+    /**
+     * <p>Especifica la cantidad de bucles de selección secundarios
+     * (sub-reactores) entre los cuales repartir las conexiones
+     * aceptadas. Si es cero, un único bucle atiende todos los
+     * canales. Debe indicarse antes de comenzar a despachar
+     * eventos.</p>
+     *
+     * @param subReactors
+     *	La cantidad de bucles secundarios.
+     *
+     * @return El servidor sobre el cual se configuraron los bucles.
+     *
+     * @throws IllegalArgumentException
+     *	Si la cantidad es negativa.
+     */
+
+    public Server setSubReactors(final int subReactors) {
+
+        if (subReactors < 0) {
+            throw new IllegalArgumentException();
+        }
+
+        this.subReactors = subReactors;
+        return this;
+    }
+
+    /**
+     * <p>Especifica el tamaño de la cola de conexiones pendientes
+     * (<i>backlog</i>) de los <i>listeners</i> que se agreguen a
+     * partir de este momento. Si es cero, se utiliza el tamaño por
+     * defecto de la plataforma.</p>
+     *
+     * @param backlog
+     *	La cantidad de conexiones pendientes de aceptación.
+     *
+     * @return El servidor sobre el cual se configuró la cola.
+     *
+     * @throws IllegalArgumentException
+     *	Si la cantidad es negativa.
+     */
+
+    public Server setBacklog(final int backlog) {
+
+        if (backlog < 0) {
+            throw new IllegalArgumentException();
+        }
+
+        this.backlog = backlog;
+        return this;
+    }
+
     /**
      * <p>Agrega una nueva dirección y puerto de escucha para este
      * servidor. Es importante notar que el nuevo canal de escucha
@@ -107,12 +227,44 @@ public final class Server {
             final InetSocketAddress address,
             final AttachmentFactory factory) {
 
+        return addListener(address, factory, 0);
+    }
+
+    /**
+     * <p>Agrega una nueva dirección de escucha, limitando la
+     * cantidad de sesiones concurrentes que se aceptan en la misma
+     * (ver <b>Admission</b>).</p>
+     *
+     * @param address
+     *	La dirección en la cual escuchar conexiones entrantes.
+     * @param factory
+     *	La fábrica de <i>attachments</i>.
+     * @param maxSessions
+     *	La cantidad máxima de sesiones concurrentes, o cero si no
+     *	hay límite.
+     *
+     * @return El servidor sobre el cual se instalaron las interfaces.
+     */
+
+    public Server addListener(
+            final InetSocketAddress address,
+            final AttachmentFactory factory,
+            final int maxSessions) {
+
         try {
 
             final ServerSocketChannel channel = ServerSocketChannel.open();
             channel.configureBlocking(false);
-            channel.socket().bind(address);
-            channel.register(selector, SelectionKey.OP_ACCEPT, factory);
+
+            // Los canales aceptados heredan el buffer de recepción:
+            if (factory != null) {
+                factory.getSocketOptions().apply(channel);
+            }
+
+            channel.socket().bind(address, backlog);
+            admission.addListener(
+                    channel.register(selector, SelectionKey.OP_ACCEPT, factory),
+                    maxSessions);
             listeners.add(channel);
         }
         catch (final IllegalArgumentException exception) {
@@ -148,10 +300,35 @@ public final class Server {
             final String IP, final int port,
             final AttachmentFactory factory) {
 
+        return addListener(IP, port, factory, 0);
+    }
+
+    /**
+     * En este caso se agrega una nueva dirección de escucha,
+     * limitando además la cantidad de sesiones concurrentes.
+     *
+     * @param IP
+     *	Dirección IP sobre la cual se recibirán conexiones entrantes.
+     * @param port
+     *	Puerto sobre el cual escuchar.
+     * @param factory
+     *	La fábrica de <i>attachments</i>.
+     * @param maxSessions
+     *	La cantidad máxima de sesiones concurrentes, o cero si no
+     *	hay límite.
+     *
+     * @return El servidor sobre el cual se instalaron las interfaces.
+     */
+
+    public Server addListener(
+            final String IP, final int port,
+            final AttachmentFactory factory,
+            final int maxSessions) {
+
         try {
 
             final InetSocketAddress address = new InetSocketAddress(IP, port);
-            return addListener(address, factory);
+            return addListener(address, factory, maxSessions);
         }
         catch (final IllegalArgumentException exception) {
 
@@ -175,39 +352,29 @@ public final class Server {
 
         logger.info(toString());
 
-        // Levanto el monitor de inactividad:
-        runWatchdog();
-
-        while (true) {
-
-            /* En lugar de usar 'select(TIMEOUT)' (o sin timeout),
-             ** utilizamos 'selectNow()' para evitar 'starvation' entre
-             ** los demás threads, ya que las operaciones sobre el
-             ** selector y las claves son bloqueantes.
-             */
-            if (0 < selector.selectNow()) {
-
-                final Set<SelectionKey> keys = selector.selectedKeys();
-                final Iterator<SelectionKey> iterator = keys.iterator();
-
-                while (iterator.hasNext()) {
-
-                    // Obtengo una clave:
-                    final SelectionKey key = iterator.next();
-
-                    // Si no es un 'listener', actualizo el watchdog:
-                    if (!isListener(key)) {
-                        watchdog.update(key);
-                    }
-
-                    // Solicito que un manejador resuelva el evento:
-                    demultiplexor.dispatch(key);
+        // Levanto los bucles secundarios (si hay alguno):
+        final EventLoop[] subLoops = new EventLoop[subReactors];
+        for (int i = 0; i < subReactors; ++i) {
 
-                    // Quito la clave despachada:
-                    iterator.remove();
-                }
-            }
+            subLoops[i] = new EventLoop(
+                    "event-loop-" + i,
+                    Selector.open(),
+                    idleFactory.get(),
+                    demultiplexor, watchdog, sync);
         }
+        loops.start(subLoops);
+
+        // El bucle principal se ejecuta en este mismo thread:
+        acceptor = new EventLoop(
+                "acceptor",
+                selector,
+                idleFactory.get(),
+                demultiplexor, watchdog, sync);
+        admission.bind(acceptor);
+
+        // Los sondeos se leen en un bucle secundario (si hay alguno):
+        prober.bind(0 < subReactors ? subLoops[0] : acceptor);
+        acceptor.run();
     }
 
     /**
@@ -225,11 +392,24 @@ public final class Server {
 
         logger.info(Message.SERVER_SHUTDOWN.getMessage());
 
-        final Set<SelectionKey> keys = selector.keys();
-
         // Cierra el monitoreo de actividades:
         watchdog.removeAll();
-        monitoring = false;
+
+        // Cierra los bucles secundarios (y sus canales):
+        loops.shutdown(AWAIT_TIMEOUT);
+
+        // Detiene el bucle principal, si sigue despachando:
+        if (acceptor != null) {
+            acceptor.shutdown();
+        }
+
+        if (!selector.isOpen()) {
+
+            listeners.clear();
+            return;
+        }
+
+        final Set<SelectionKey> keys = selector.keys();
 
         // Cierra los canales:
         for (final SelectionKey key : keys) {
@@ -249,6 +429,34 @@ public final class Server {
         }
     }
 
+    /**
+     * <p>Genera un reporte con las opciones de socket aplicadas en
+     * cada <i>listener</i> (las cuales se aplican también sobre cada
+     * canal aceptado), con el mismo formato que el reporte de
+     * métricas.</p>
+     *
+     * @return El reporte de los <i>listeners</i>.
+     */
+
+    public String summarizeListeners() {
+
+        final List<String> lines = new ArrayList<>();
+        lines.add("Listeners:");
+        lines.add("");
+
+        for (final ServerSocketChannel listener : listeners) {
+
+            final SelectionKey key = listener.keyFor(selector);
+            final Object factory = key == null ? null : key.attachment();
+            lines.add("  - " + Server.tryToResolveAddress(key) + ": "
+                    + (factory instanceof AttachmentFactory
+                            ? ((AttachmentFactory) factory).getSocketOptions()
+                            : SocketOptions.DEFAULT)
+                    + ", backlog " + (0 < backlog ? backlog : "default") + ".");
+        }
+        return String.join("\r\n", lines);
+    }
+
     /**
      * <p>Genera una cadena que representa el estado del servidor,
      * en la cual se especifican todas las interfaces en las
@@ -291,7 +499,10 @@ public final class Server {
      * <p>Método público para cerrar canales de forma
      * segura. Todas las excepciones son suprimidas, por
      * lo que se deben tomar recaudos necesarios para
-     * determinar el origen de las posibles fallas.</p>
+     * determinar el origen de las posibles fallas. Si el canal
+     * pertenece a una sesión admitida, la misma se descuenta
+     * (ver <b>Admission</b>), y se libera su réplica del servidor
+     * origen (ver <b>Balancer</b>).</p>
      *
      * @param key
      *	La clave a cancelar, cuyo canal asociado se cerrará.
@@ -302,6 +513,12 @@ public final class Server {
         if (key != null) {
 
             key.cancel();
+            final Object attachment = key.attachment();
+            if (attachment instanceof Attachment) {
+                Admission.leave((Attachment) attachment);
+                Balancer.leave((Attachment) attachment);
+            }
+
             final SelectableChannel channel = key.channel();
             try {
 
@@ -344,57 +561,4 @@ public final class Server {
                 | NullPointerException spurious) {}
         return Message.UNKNOWN_ADDRESS.getMessage();
     }
-
-    /**
-     * <p>Indica si el canal de la clave está activa para el
-     * evento <b>ACCEPT</b>, es decir, que el canal se encuentra
-     * a disposición de conexiones entrantes, tal cual lo
-     * hace un <i>ServerSocketChannel</i> (listener).</p>
-     *
-     * @param key
-     *	La clave para la cual se determinará su funcionalidad.
-     *
-     * @return Devuelve <i>true</i> si la clave representa un
-     *	socket de escucha (<i>ServerSocketChannel</i>).
-     */
-
-    private boolean isListener(final SelectionKey key) {
-
-        try {
-
-            return 0 != (key.interestOps() & SelectionKey.OP_ACCEPT);
-        }
-        catch (final CancelledKeyException exception) {
-
-            logger.error(
-                    Message.UNEXPECTED_UNPLUG.getMessage(),
-                    tryToResolveAddress(key));
-
-            close(key);
-            return false;
-        }
-    }
-
-    /**
-     * <p>Separa el monitor de inactividad en un thread
-     * secundario, lo que reduce la latencia en el bucle
-     * principal de selección.</p>
-     */
-
-    private void runWatchdog() {
-
-        new Thread(() -> {
-
-            while (monitoring) {
-
-                // Cierra canales inactivos:
-                watchdog.killLazyActivities();
-                try {
-
-                    Thread.sleep(LAZY_INTERVAL_DETECTION);
-                }
-                catch (final InterruptedException spurious) {}
-            }
-        }).start();
-    }
 }
@@ -0,0 +1,170 @@
+	package ar.edu.itba.protos.transport.support;
+
+	import java.io.IOException;
+	import java.net.SocketOption;
+	import java.net.StandardSocketOptions;
+	import java.nio.channels.NetworkChannel;
+
+	import org.slf4j.Logger;
+	import org.slf4j.LoggerFactory;
+
+		/**
+		* <p>Opciones de socket que se aplican sobre un canal: el
+		* algoritmo de Nagle (<b>TCP_NODELAY</b>), el <i>keep-alive</i>, y
+		* el tamaño de los buffers del kernel. Las opciones sin
+		* especificar (<b>null</b>, o cero en el caso de los buffers)
+		* conservan el valor por defecto de la plataforma.</p>
+		*
+		* <p>Los intercambios cortos (comandos y respuestas POP3) se
+		* benefician de deshabilitar el algoritmo de Nagle, mientras que
+		* las transferencias extensas (<b>RETR</b>) se benefician de buffers
+		* más grandes, por lo que cada extremo se configura por separado.</p>
+		*
+		* <p>Esta clase es inmutable.</p>
+		*/
+
+	public final class SocketOptions {
+
+		// Logger:
+		private static final Logger logger
+			= LoggerFactory.getLogger(SocketOptions.class);
+
+		// Las opciones de la plataforma:
+		public static final SocketOptions DEFAULT
+			= new SocketOptions(null, null, 0, 0);
+
+		private final Boolean noDelay;
+		private final Boolean keepAlive;
+		private final int receiveBuffer;
+		private final int sendBuffer;
+
+		/**
+		* <p>Crea un nuevo conjunto de opciones.</p>
+		*
+		* @param noDelay
+		*	Si se deshabilita el algoritmo de Nagle, o <b>null</b>.
+		* @param keepAlive
+		*	Si se habilita el <i>keep-alive</i>, o <b>null</b>.
+		* @param receiveBuffer
+		*	El tamaño del buffer de recepción (en bytes), o cero.
+		* @param sendBuffer
+		*	El tamaño del buffer de envío (en bytes), o cero.
+		*
+		* @throws IllegalArgumentException
+		*	Si alguno de los tamaños es negativo.
+		*/
+
+		public SocketOptions(
+			Boolean noDelay, Boolean keepAlive,
+			int receiveBuffer, int sendBuffer) {
+
+			if (receiveBuffer < 0 || sendBuffer < 0)
+				throw new IllegalArgumentException();
+
+			this.noDelay = noDelay;
+			this.keepAlive = keepAlive;
+			this.receiveBuffer = receiveBuffer;
+			this.sendBuffer = sendBuffer;
+		}
+
+		public Boolean getNoDelay() {
+
+			return noDelay;
+		}
+
+		public Boolean getKeepAlive() {
+
+			return keepAlive;
+		}
+
+		public int getReceiveBuffer() {
+
+			return receiveBuffer;
+		}
+
+		public int getSendBuffer() {
+
+			return sendBuffer;
+		}
+
+		/**
+		* <p>Combina estas opciones con otras más específicas (por
+		* ejemplo, las de un servidor origen en particular), las
+		* cuales tienen prioridad si se encuentran especificadas.</p>
+		*
+		* @param options
+		*	Las opciones más específicas.
+		*
+		* @return Un nuevo conjunto de opciones.
+		*/
+
+		public SocketOptions with(final SocketOptions options) {
+
+			return new SocketOptions(
+				options.noDelay != null? options.noDelay : noDelay,
+				options.keepAlive != null? options.keepAlive : keepAlive,
+				0 < options.receiveBuffer? options.receiveBuffer : receiveBuffer,
+				0 < options.sendBuffer? options.sendBuffer : sendBuffer);
+		}
+
+		/**
+		* <p>Aplica las opciones especificadas sobre un canal recién
+		* creado (o aceptado). Sobre un canal de escucha, solo se
+		* aplica el buffer de recepción, el cual heredan los canales
+		* aceptados, y debe aplicarse antes del <i>binding</i>. Si la
+		* plataforma no admite alguna opción, la misma se omite.</p>
+		*
+		* @param channel
+		*	El canal a configurar.
+		*/
+
+		public void apply(final NetworkChannel channel) {
+
+			if (channel.supportedOptions().contains(StandardSocketOptions.TCP_NODELAY)) {
+
+				set(channel, StandardSocketOptions.TCP_NODELAY, noDelay);
+				set(channel, StandardSocketOptions.SO_KEEPALIVE, keepAlive);
+				if (0 < sendBuffer)
+					set(channel, StandardSocketOptions.SO_SNDBUF, sendBuffer);
+			}
+			if (0 < receiveBuffer)
+				set(channel, StandardSocketOptions.SO_RCVBUF, receiveBuffer);
+		}
+
+		private static <T> void set(
+			final NetworkChannel channel, final SocketOption<T> option, final T value) {
+
+			if (value == null) return;
+			try {
+
+				channel.setOption(option, value);
+			}
+			catch (final IOException
+				| UnsupportedOperationException exception) {
+
+				logger.warn(
+					Message.INVALID_SOCKET_OPTION.getMessage(),
+					option.name(), value);
+			}
+		}
+
+		@Override
+		public String toString() {
+
+			return "TCP_NODELAY " + toString(noDelay)
+				+ ", SO_KEEPALIVE " + toString(keepAlive)
+				+ ", SO_RCVBUF " + toString(receiveBuffer)
+				+ ", SO_SNDBUF " + toString(sendBuffer);
+		}
+
+		private static String toString(final Boolean value) {
+
+			if (value == null) return "default";
+			return value? "on" : "off";
+		}
+
+		private static String toString(final int size) {
+
+			return 0 < size? size + " bytes" : "default";
+		}
+	}
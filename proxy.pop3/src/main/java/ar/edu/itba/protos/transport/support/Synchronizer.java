@@ -3,14 +3,16 @@
 
 	import java.nio.channels.CancelledKeyException;
 	import java.nio.channels.SelectionKey;
+	import java.nio.channels.Selector;
+	import java.util.Queue;
 	import java.util.concurrent.ConcurrentHashMap;
+	import java.util.concurrent.ConcurrentLinkedQueue;
 	import java.util.concurrent.ConcurrentMap;
 
-	import org.apache.commons.lang3.mutable.MutableInt;
-
 	import com.google.inject.Inject;
 	import com.google.inject.Singleton;
 
+	import ar.edu.itba.protos.transport.idle.IdleStrategy;
 	import ar.edu.itba.protos.transport.reactor.Event;
 
 		/**
@@ -19,20 +21,143 @@
 		* forma sincronizada entre múltiples threads. Este
 		* componente hace las veces de repositorio de claves.</p>
 		*
+		* <p>El estado de cada clave se almacena en su propio
+		* <i>attachment</i> (ver <b>Interest</b>), y se actualiza
+		* mediante operaciones atómicas, por lo cual las claves
+		* distintas nunca compiten por un mismo <i>lock</i>. Solo las
+		* claves cuyo <i>attachment</i> no es un <b>Attachment</b> (por
+		* ejemplo, los sockets de escucha) se almacenan en un mapa
+		* concurrente.</p>
+		*
+		* <p>Las opciones de interés nunca se aplican desde los
+		* <i>workers</i>: cada reposición se encola en el buzón del
+		* selector de la clave, y el bucle de selección dueño de ese
+		* selector aplica todos los cambios pendientes una vez por
+		* iteración (ver <b>flush</b>), colapsando múltiples cambios
+		* sobre una misma clave en una única llamada.</p>
+		*
 		* <p>Esta clase es <b>thread-safe</b>.</p>
 		*/
 
 	@Singleton
 	public final class Synchronizer {
 
-		// El repositorio global de claves:
-		private final ConcurrentMap<SelectionKey, MutableInt> keys;
+		// Estado de las claves sin 'attachment' propio:
+		private final ConcurrentMap<SelectionKey, Interest> keys;
+
+		// Generación actual del repositorio (ver 'desynchronize'):
+		private volatile int generation = 0;
+
+		// Buzones de cada selector (uno por bucle de selección):
+		private final ConcurrentMap<Selector, Mailbox> mailboxes;
 
 		@Inject
 		private Synchronizer() {
 
 			// Solo se instancia una vez:
 			keys = new ConcurrentHashMap<>();
+			mailboxes = new ConcurrentHashMap<>();
+		}
+
+		/**
+		* <p>Asocia un selector con el bucle de selección que lo
+		* atiende. A partir de este momento, las reposiciones de sus
+		* claves solicitadas desde otros threads se encolan hasta que
+		* el bucle las aplique. Este método debe ejecutarse en el
+		* thread del bucle de selección.</p>
+		*
+		* @param selector
+		*	El selector del bucle de selección.
+		* @param idle
+		*	La estrategia de espera del bucle, la cual determina si es
+		*	necesario despertar al selector luego de modificar una clave.
+		*
+		* @throws IllegalArgumentException
+		*	En caso de que el selector o la estrategia sean <i>null</i>.
+		*/
+
+		public void bind(Selector selector, IdleStrategy idle) {
+
+			bind(selector, idle, null);
+		}
+
+		/**
+		* <p>Idéntico a <b>bind(Selector, IdleStrategy)</b>, pero además
+		* registra el bucle de selección, de forma que otros threads le
+		* puedan delegar tareas (ver <b>execute</b>).</p>
+		*
+		* @param selector
+		*	El selector del bucle de selección.
+		* @param idle
+		*	La estrategia de espera del bucle.
+		* @param loop
+		*	El bucle de selección que atiende el selector.
+		*
+		* @throws IllegalArgumentException
+		*	En caso de que el selector o la estrategia sean <i>null</i>.
+		*/
+
+		public void bind(Selector selector, IdleStrategy idle, EventLoop loop) {
+
+			if (selector == null || idle == null)
+				throw new IllegalArgumentException();
+
+			mailboxes.put(selector,
+				new Mailbox(idle, Thread.currentThread(), loop));
+		}
+
+		/**
+		* <p>Desasocia un selector de su bucle de selección. Las
+		* reposiciones pendientes se descartan.</p>
+		*
+		* @param selector
+		*	El selector a desasociar.
+		*/
+
+		public void unbind(Selector selector) {
+
+			if (selector != null)
+				mailboxes.remove(selector);
+		}
+
+		/**
+		* <p>Notifica al bucle de selección que una clave (o un
+		* canal nuevo) fue modificado desde otro thread. Si el
+		* selector se encontraba bloqueado, se despierta.</p>
+		*
+		* @param selector
+		*	El selector a notificar.
+		*/
+
+		public void wakeup(Selector selector) {
+
+			if (selector != null) {
+
+				Mailbox mailbox = mailboxes.get(selector);
+				if (mailbox != null)
+					mailbox.idle.wakeup(selector);
+			}
+		}
+
+		/**
+		* <p>Ejecuta una tarea en el thread del bucle de selección que
+		* atiende el selector (por ejemplo, para registrar un canal en
+		* él). Si el thread actual es el del bucle, o si el selector no
+		* tiene un bucle asociado, la tarea se ejecuta inmediatamente.</p>
+		*
+		* @param selector
+		*	El selector cuyo bucle debe ejecutar la tarea.
+		* @param task
+		*	La tarea a ejecutar.
+		*/
+
+		public void execute(Selector selector, Runnable task) {
+
+			Mailbox mailbox = mailboxes.get(selector);
+
+			if (mailbox == null || mailbox.loop == null
+				|| mailbox.owner == Thread.currentThread()) task.run();
+			else mailbox.loop.execute(task);
 		}
 
 		/**
@@ -48,11 +173,15 @@
 		*	En caso de que la clave sea <i>null</i>.
 		*/
 
-		public synchronized void delete(SelectionKey key) {
+		public void delete(SelectionKey key) {
 
 			if (key == null)
 				throw new IllegalArgumentException();
 
+			Interest interest = find(key);
+			if (interest != null)
+				interest.untrack();
+
 			keys.remove(key);
 		}
 
@@ -62,9 +191,14 @@
 		* todas las claves se pierde para siempre.</p>
 		*/
 
-		public synchronized void desynchronize() {
+		public void desynchronize() {
+
+			// Invalida el estado almacenado en cada 'attachment':
+			++generation;
 
 			keys.clear();
+			for (Mailbox mailbox : mailboxes.values())
+				mailbox.pending.clear();
 		}
 
 		/**
@@ -83,17 +217,14 @@
 		*	En caso de que la clave o el evento sean <i>null</i>.
 		*/
 
-		public synchronized void disable(SelectionKey key, Event event) {
+		public void disable(SelectionKey key, Event event) {
 
 			if (key == null || event == null)
 				throw new IllegalArgumentException();
 
-			MutableInt options = keys.get(key);
-			if (options != null) {
-
-				int oldOptions = options.intValue();
-				options.setValue(oldOptions & (~event.getOptions()));
-			}
+			Interest interest = lookup(key);
+			if (interest != null)
+				interest.remove(event.getOptions());
 		}
 
 		/**
@@ -112,17 +243,14 @@
 		*	En caso de que la clave o el evento sean <i>null</i>.
 		*/
 
-		public synchronized void enable(SelectionKey key, Event event) {
+		public void enable(SelectionKey key, Event event) {
 
 			if (key == null || event == null)
 				throw new IllegalArgumentException();
 
-			MutableInt options = keys.get(key);
-			if (options != null) {
-
-				int oldOptions = options.intValue();
-				options.setValue(oldOptions | event.getOptions());
-			}
+			Interest interest = lookup(key);
+			if (interest != null)
+				interest.add(event.getOptions());
 		}
 
 		/**
@@ -143,27 +271,30 @@
 		*	En caso de que la clave sea <i>null</i>.
 		*/
 
-		public synchronized void enable(SelectionKey key, int options) {
+		public void enable(SelectionKey key, int options) {
 
 			if (key == null)
 				throw new IllegalArgumentException();
 
-			MutableInt oldOptions = keys.get(key);
-
-			if (oldOptions != null)
-				oldOptions.setValue(options);
+			Interest interest = lookup(key);
+			if (interest != null)
+				interest.setOptions(options);
 		}
 
 		/**
-		* <p>Intenta recuperar el estado de la clave almacenado en
+		* <p>Solicita recuperar el estado de la clave almacenado en
 		* el repositorio interno. El estado almacenado puede tanto,
 		* habilitar como deshabilitar eventos, por lo cual el
 		* estado final de la clave puede modificarse por completo.</p>
 		*
-		* <p>En caso de que la clave se encuentre inválida (debido a que
-		* la misma fue cancelada, o que el canal asociado a ella fue
-		* cerrado), el estado no se repone, y la clave se elimina del
-		* repositorio.</p>
+		* <p>El estado no se aplica inmediatamente, sino que la clave
+		* se encola para que el bucle de selección lo aplique durante
+		* su próxima iteración. Si la clave ya estaba encolada, no se
+		* vuelve a encolar (el bucle aplicará el estado más reciente).
+		* Si el selector no es atendido por ningún bucle, o si este
+		* método se ejecuta en el thread del propio bucle (por ejemplo,
+		* en modo <i>pinned</i>), el estado se aplica de inmediato, y
+		* solo si difiere del estado actual de la clave.</p>
 		*
 		* @param key
 		* 	La clave para la cual se repondrá el estado actualizado.
@@ -172,28 +303,32 @@
 		*	En caso de que la clave sea <i>null</i>.
 		*/
 
-		public synchronized void restore(SelectionKey key) {
+		public void restore(SelectionKey key) {
 
 			if (key == null)
 				throw new IllegalArgumentException();
 
-			MutableInt options = keys.get(key);
-			try {
+			Interest interest = lookup(key);
+			if (interest == null)
+				return;
 
-				if (options != null)
-					key.interestOps(options.intValue());
-			}
-			catch (CancelledKeyException exception) {
+			Mailbox mailbox = mailboxes.get(key.selector());
+			if (mailbox == null || mailbox.owner == Thread.currentThread())
+				apply(key, interest);
+
+			else if (interest.markPending()) {
 
-				keys.remove(key);
+				mailbox.pending.offer(key);
+				mailbox.idle.wakeup(key.selector());
 			}
 		}
 
 		/**
 		* <p>Este método es equivalente a la versión de <b>restore</b> que
 		* recibe solo un parámetro (una sola clave). La diferencia radica
-		* en que permite reestablecer el estado de múltiples claves de
-		* forma atómica.</p>
+		* en que permite reestablecer el estado de múltiples claves en
+		* una única llamada. Cada clave se repone de forma
+		* independiente.</p>
 		*
 		* @param keys
 		* 	Las claves para las cuales se repondrá el estado actualizado.
@@ -202,12 +337,8 @@
 		*	En caso de que alguna clave sea <i>null</i>.
 		*/
 
-		public synchronized void restore(SelectionKey... keys) {
+		public void restore(SelectionKey... keys) {
 
-			/* Los métodos 'synchonized' son reentrantes,
-			** por lo tanto no hay problemas en ejecutar un
-			** método sincronizado, dentro de otro.
-			*/
 			for (SelectionKey key : keys)
 				restore(key);
 		}
@@ -215,15 +346,19 @@
 		/**
 		* <p>Intenta almacenar el estado de la clave en el repositorio
 		* interno. Si la clave ya existía en el repositorio, se
-		* actualiza el estado de la misma. Esto permite modificar las
-		* opciones de interés sobre la misma de manera segura, atómica,
-		* y concurrente.</p>
+		* conserva el estado almacenado, ya que el mismo puede incluir
+		* cambios que todavía no fueron aplicados por el bucle de
+		* selección. Esto permite modificar las opciones de interés
+		* sobre la misma de manera segura, atómica, y concurrente.</p>
 		*
 		* <p>Adicionalmente deshabilita todas las opciones de interés
-		* de la clave especificada, lo que impide que la clave sea
-		* seleccionada nuevamente, hasta que alguno de sus eventos sea
-		* rehabilitado, ya sea de forma manual, o a través de una
-		* llamada al método <b>restore</b>.</p>
+		* de la clave especificada (y descarta cualquier reposición
+		* pendiente), lo que impide que la clave sea seleccionada
+		* nuevamente, hasta que alguno de sus eventos sea rehabilitado
+		* a través de una llamada al método <b>restore</b>.</p>
+		*
+		* <p>Este método solo debe ejecutarse en el thread del bucle de
+		* selección.</p>
 		*
 		* <p>En caso de que la clave se encuentre inválida (debido a que
 		* la misma fue cancelada, o que el canal asociado a ella fue
@@ -237,19 +372,164 @@
 		*	En caso de que la clave sea <i>null</i>.
 		*/
 
-		public synchronized void save(SelectionKey key) {
+		public void save(SelectionKey key) {
 
 			if (key == null)
 				throw new IllegalArgumentException();
 
+			Interest interest = find(key);
+			if (interest == null)
+				interest = keys.computeIfAbsent(key, k -> new Interest());
+
 			try {
 
-				keys.put(key, new MutableInt(key.interestOps()));
+				if (interest.isTracked(generation))
+					interest.clearPending();
+				else
+					interest.track(key.interestOps(), generation);
+
 				key.interestOps(0);
 			}
 			catch (CancelledKeyException exception) {
 
-				keys.remove(key);
+				delete(key);
+			}
+		}
+
+		/**
+		* <p>Aplica el estado almacenado de todas las claves cuya
+		* reposición fue solicitada desde la última llamada. Cada
+		* clave recibe una única llamada a <b>interestOps</b>, con
+		* el estado más reciente, sin importar cuántas veces se
+		* haya modificado.</p>
+		*
+		* <p>Este método solo debe ejecutarse en el thread del bucle de
+		* selección dueño del selector, una vez por iteración.</p>
+		*
+		* @param selector
+		*	El selector del bucle de selección.
+		*
+		* @return La cantidad de claves actualizadas.
+		*/
+
+		public int flush(Selector selector) {
+
+			Mailbox mailbox = mailboxes.get(selector);
+			if (mailbox == null)
+				return 0;
+
+			int updated = 0;
+			SelectionKey key;
+
+			while ((key = mailbox.pending.poll()) != null) {
+
+				Interest interest = lookup(key);
+
+				// La clave fue eliminada, suspendida o ya aplicada:
+				if (interest == null || !interest.clearPending())
+					continue;
+
+				if (apply(key, interest))
+					++updated;
+			}
+			return updated;
+		}
+
+		/**
+		* <p>Aplica el estado almacenado sobre la clave, solo si
+		* difiere del estado actual de la misma. Si la clave fue
+		* cancelada, se elimina del repositorio.</p>
+		*
+		* @param key
+		*	La clave a actualizar.
+		* @param interest
+		*	El estado almacenado de la clave.
+		*
+		* @return Devuelve <i>true</i> si la clave sigue siendo válida.
+		*/
+
+		private boolean apply(SelectionKey key, Interest interest) {
+
+			try {
+
+				int options = interest.getOptions();
+				if (key.interestOps() != options)
+					key.interestOps(options);
+				return true;
+			}
+			catch (CancelledKeyException exception) {
+
+				delete(key);
+				return false;
+			}
+		}
+
+		/**
+		* <p>Obtiene el estado de una clave, sin importar si se
+		* encuentra almacenada en el repositorio o no.</p>
+		*
+		* @param key
+		*	La clave a buscar.
+		*
+		* @return El estado de la clave, o <i>null</i> si la clave no
+		*	posee un <i>attachment</i> ni fue almacenada.
+		*/
+
+		private Interest find(SelectionKey key) {
+
+			Object attachment = key.attachment();
+			if (attachment instanceof Attachment)
+				return ((Attachment) attachment).interest;
+
+			return keys.get(key);
+		}
+
+		/**
+		* <p>Obtiene el estado de una clave almacenada en el
+		* repositorio.</p>
+		*
+		* @param key
+		*	La clave a buscar.
+		*
+		* @return El estado de la clave, o <i>null</i> si la clave no
+		*	se encuentra almacenada.
+		*/
+
+		private Interest lookup(SelectionKey key) {
+
+			Interest interest = find(key);
+			if (interest != null && interest.isTracked(generation))
+				return interest;
+
+			return null;
+		}
+
+		/**
+		* <p>El buzón de un selector: las claves cuyo estado debe
+		* aplicarse, la estrategia de espera de su bucle, el thread
+		* que lo atiende, y el bucle mismo.</p>
+		*/
+
+		private static final class Mailbox {
+
+			// Claves cuyo estado debe aplicarse en el selector:
+			private final Queue<SelectionKey> pending
+				= new ConcurrentLinkedQueue<>();
+
+			// Estrategia de espera del bucle de selección:
+			private final IdleStrategy idle;
+
+			// El thread del bucle de selección:
+			private final Thread owner;
+
+			// El bucle de selección (puede ser null):
+			private final EventLoop loop;
+
+			public Mailbox(IdleStrategy idle, Thread owner, EventLoop loop) {
+
+				this.idle = idle;
+				this.owner = owner;
+				this.loop = loop;
 			}
 		}
 	}
@@ -2,8 +2,10 @@
 	package ar.edu.itba.protos.transport.support;
 
 	import java.nio.channels.SelectionKey;
+	import java.util.Queue;
+	import java.util.concurrent.ArrayBlockingQueue;
 	import java.util.concurrent.ExecutorService;
-	import java.util.concurrent.Executors;
+	import java.util.concurrent.ThreadPoolExecutor;
 	import java.util.concurrent.TimeUnit;
 
 	import org.slf4j.Logger;
@@ -33,22 +35,46 @@
 		// Tiempo de espera para cancelar threads:
 		private static final long AWAIT_TIMEOUT = 1000;
 
+		// Capacidad de la cola de tareas pendientes (preasignada):
+		private static final int BACKLOG = 65536;
+
+		// Cantidad de tareas de repuesto (preasignadas):
+		private static final int SPARES = 1024;
+
 		// El repositorio de claves global:
 		private final Synchronizer sync;
 
 		// El pool de workers disponibles:
 		private final ExecutorService pool;
 
+		// Tareas para las claves sin una tarea propia libre:
+		private final Queue<DispatchTask> spares
+			= new ArrayBlockingQueue<>(SPARES);
+
 		// Cantidad de threads disponibles:
 		private int workers = 1;
 
+		// Dónde se ejecutan los handlers:
+		private volatile ExecutionMode mode = ExecutionMode.POOLED;
+
 		@Inject
 		private ThreadingCore(final Synchronizer sync) {
 
 			this.sync = sync;
 
 			workers = Runtime.getRuntime().availableProcessors();
-			pool = Executors.newFixedThreadPool(workers);
+
+			/* Las colas se preasignan, por lo que despachar una tarea no
+			** reserva memoria. Si la cola se llena, el handler se ejecuta
+			** en el thread del bucle de selección (como en modo PINNED).
+			*/
+			pool = new ThreadPoolExecutor(workers, workers,
+				0L, TimeUnit.MILLISECONDS,
+				new ArrayBlockingQueue<>(BACKLOG),
+				new ThreadPoolExecutor.CallerRunsPolicy());
+
+			for (int i = 0; i < SPARES; ++i)
+				spares.offer(new DispatchTask(spares));
 		}
 
 		/**
@@ -65,6 +91,36 @@
 			return workers;
 		}
 
+		/**
+		* <p>Devuelve el modo de ejecución actual.</p>
+		*
+		* @return El modo en el cual se ejecutan los handlers.
+		*/
+
+		public ExecutionMode getExecutionMode() {
+
+			return mode;
+		}
+
+		/**
+		* <p>Especifica el modo de ejecución de los handlers. Debe
+		* indicarse antes de comenzar a despachar eventos.</p>
+		*
+		* @param mode
+		*	El nuevo modo de ejecución.
+		*
+		* @throws IllegalArgumentException
+		*	Si el modo es <i>null</i>.
+		*/
+
+		public void setExecutionMode(ExecutionMode mode) {
+
+			if (mode == null)
+				throw new IllegalArgumentException();
+
+			this.mode = mode;
+		}
+
 		/**
 		* <p> Intenta cerrar por completo el sistema de threads,
 		* bloqueando la suscripción de nuevas tareas y esperando
@@ -102,6 +158,18 @@
 		* recibida. Si no hay un thread disponible el trabajo se
 		* encola hasta que se libere algún worker.</p>
 		*
+		* <p>En modo <b>PINNED</b>, el handler se ejecuta directamente en
+		* el thread actual (el del bucle de selección), sin suspender
+		* la clave ni ejecutar <i>onSubmit</i>. Al finalizar, <i>onResume</i>
+		* aplica de inmediato los cambios de interés, ya que se ejecuta
+		* en el thread dueño del selector.</p>
+		*
+		* <p>Los eventos <b>ACCEPT</b> siempre se ejecutan en el thread
+		* del bucle de selección (el <i>acceptor</i>), sin importar el
+		* modo de ejecución, ya que el <b>AcceptHandler</b> solo acepta
+		* y registra conexiones, lo cual no justifica una tarea en el
+		* pool de workers.</p>
+		*
 		* @param handler
 		*	El manejador del evento, que procesará la clave recibida.
 		* @param key
@@ -110,20 +178,53 @@
 
 		public void submit(Handler handler, SelectionKey key) {
 
+			if (mode == ExecutionMode.PINNED
+				|| 0 != (key.readyOps() & SelectionKey.OP_ACCEPT)) {
+
+				// Ejecutar en el bucle de selección:
+				handler.handle(key);
+				handler.onResume(key);
+				return;
+			}
+
 			// Almacena la clave y suspende sus canales:
 			sync.save(key);
 			handler.onSubmit(key);
 
-			// Despachar una nueva tarea en algún worker:
-			pool.execute(new Runnable() {
+			// Despachar la tarea de la clave en algún worker:
+			pool.execute(taskFor(handler, key));
+		}
 
-				public void run() {
+		/**
+		* <p>Obtiene la tarea con la cual despachar un evento. Si la
+		* clave posee un <i>attachment</i>, se reutiliza su tarea, salvo
+		* que la misma se encuentre ocupada. En ese caso (o si la clave
+		* no posee un <i>attachment</i>), se utiliza una tarea de
+		* repuesto, y solo si se agotaron, una nueva.</p>
+		*
+		* @param handler
+		*	El manejador a ejecutar.
+		* @param key
+		*	La clave a procesar.
+		*
+		* @return Una tarea lista para ser ejecutada.
+		*/
 
-					// Ejecutar manejador y reponer claves:
-					handler.handle(key);
-					handler.onResume(key);
-				}
-			});
+		private Runnable taskFor(Handler handler, SelectionKey key) {
+
+			Object attachment = key.attachment();
+			if (attachment instanceof Attachment) {
+
+				DispatchTask task = ((Attachment) attachment).task;
+				if (task.acquire(handler, key))
+					return task;
+			}
+
+			DispatchTask task = spares.poll();
+			if (task == null) task = new DispatchTask();
+
+			task.acquire(handler, key);
+			return task;
 		}
 
 		/**
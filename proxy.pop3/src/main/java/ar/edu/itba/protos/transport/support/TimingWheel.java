@@ -0,0 +1,285 @@
+	package ar.edu.itba.protos.transport.support;
+
+	import java.nio.channels.SelectionKey;
+
+		/**
+		* <p>Una rueda de tiempo (<i>hashed timing wheel</i>). Cada
+		* ranura agrupa los nodos cuya expiración cae dentro de un
+		* mismo intervalo de <b>resolution</b> milisegundos (módulo la
+		* cantidad de ranuras). Agregar o quitar un nodo es <i>O(1)</i>,
+		* y la expiración se realiza recorriendo únicamente las ranuras
+		* cuyo intervalo ya transcurrió.</p>
+		*
+		* <p>La expiración de un nodo puede modificarse libremente sin
+		* moverlo de ranura: al recorrer una ranura, los nodos cuya
+		* expiración todavía no ocurrió se reubican en la ranura que
+		* les corresponde.</p>
+		*
+		* <p>Esta clase <b>no</b> es <i>thread-safe</i>.</p>
+		*/
+
+	final class TimingWheel {
+
+		/**
+		* <p>Acción a ejecutar sobre cada clave expirada.</p>
+		*/
+
+		@FunctionalInterface
+		interface Expiration {
+
+			public void expire(SelectionKey key);
+		}
+
+		// Las ranuras (cada una es una lista doblemente enlazada):
+		private final Deadline[] buckets;
+
+		// Máscara para obtener la ranura de un intervalo:
+		private final int mask;
+
+		// Duración de cada intervalo (en milisegundos):
+		private final long resolution;
+
+		// El último intervalo recorrido:
+		private long cursor;
+
+		// El primer intervalo con alguna ranura ocupada:
+		private long earliest = Long.MAX_VALUE;
+
+		// Cantidad de nodos en la rueda:
+		private int size = 0;
+
+		/**
+		* <p>Construye una nueva rueda de tiempo.</p>
+		*
+		* @param slots
+		*	Cantidad de ranuras (debe ser una potencia de 2).
+		* @param resolution
+		*	Duración de cada intervalo, en milisegundos.
+		* @param now
+		*	El instante actual, en milisegundos.
+		*
+		* @throws IllegalArgumentException
+		*	Si la cantidad de ranuras no es una potencia de 2, o si
+		*	la resolución no es positiva.
+		*/
+
+		public TimingWheel(int slots, long resolution, long now) {
+
+			if (slots <= 0 || Integer.bitCount(slots) != 1 || resolution <= 0)
+				throw new IllegalArgumentException();
+
+			this.buckets = new Deadline[slots];
+			this.mask = slots - 1;
+			this.resolution = resolution;
+			this.cursor = now / resolution;
+		}
+
+		/**
+		* <p>Devuelve la cantidad de nodos en la rueda.</p>
+		*
+		* @return La cantidad de nodos programados.
+		*/
+
+		public int size() {
+
+			return size;
+		}
+
+		/**
+		* <p>Devuelve el instante a partir del cual es necesario volver
+		* a recorrer la rueda, es decir, el comienzo del primer
+		* intervalo con alguna ranura ocupada.</p>
+		*
+		* @return El instante de la próxima expiración posible, en
+		*	milisegundos, o <i>Long.MAX_VALUE</i> si la rueda está vacía.
+		*/
+
+		public long getNextExpiration() {
+
+			if (size == 0 || earliest == Long.MAX_VALUE)
+				return Long.MAX_VALUE;
+
+			return earliest * resolution;
+		}
+
+		/**
+		* <p>Agrega un nodo a la rueda, en la ranura correspondiente a
+		* su expiración. Si el nodo ya se encontraba en la rueda, este
+		* método no tiene efecto.</p>
+		*
+		* @param deadline
+		*	El nodo a agregar.
+		*/
+
+		public void schedule(Deadline deadline) {
+
+			if (deadline.bucket < 0) {
+
+				link(deadline, cursor);
+				deadline.scheduled = true;
+				++size;
+			}
+		}
+
+		/**
+		* <p>Quita un nodo de la rueda, si es que se encontraba en
+		* ella.</p>
+		*
+		* @param deadline
+		*	El nodo a quitar.
+		*
+		* @return Devuelve <i>true</i> si el nodo se encontraba en la
+		*	rueda.
+		*/
+
+		public boolean cancel(Deadline deadline) {
+
+			if (deadline.bucket < 0)
+				return false;
+
+			unlink(deadline);
+			deadline.scheduled = false;
+			--size;
+			return true;
+		}
+
+		/**
+		* <p>Quita todos los nodos de la rueda, sin expirarlos.</p>
+		*/
+
+		public void clear() {
+
+			for (int i = 0; i < buckets.length; ++i) {
+
+				Deadline node = buckets[i];
+				buckets[i] = null;
+
+				while (node != null) {
+
+					Deadline next = node.next;
+					release(node);
+					node = next;
+				}
+			}
+			size = 0;
+			earliest = Long.MAX_VALUE;
+		}
+
+		/**
+		* <p>Recorre las ranuras cuyo intervalo transcurrió hasta el
+		* instante especificado. Los nodos expirados se quitan de la
+		* rueda, y su clave se entrega a la acción especificada. Los
+		* nodos cuya clave ya no es válida se descartan.</p>
+		*
+		* @param now
+		*	El instante actual, en milisegundos.
+		* @param action
+		*	La acción a ejecutar sobre cada clave expirada.
+		*
+		* @return La cantidad de claves expiradas.
+		*/
+
+		public int expire(long now, Expiration action) {
+
+			long target = now / resolution;
+			long steps = Math.min(target - cursor, buckets.length);
+			int expired = 0;
+
+			for (long tick = cursor + 1; 0 < steps; ++tick, --steps) {
+
+				int index = (int) (tick & mask);
+				Deadline node = buckets[index];
+				buckets[index] = null;
+
+				while (node != null) {
+
+					Deadline next = node.next;
+					node.prev = node.next = null;
+					node.bucket = -1;
+
+					SelectionKey key = node.owner.getDownstream();
+					if (key == null || !key.isValid()) {
+
+						// El canal ya fue cerrado:
+						node.scheduled = false;
+						--size;
+					}
+					else if (node.expiration < now) {
+
+						node.scheduled = false;
+						--size;
+						action.expire(key);
+						++expired;
+					}
+					else link(node, tick);
+
+					node = next;
+				}
+			}
+
+			if (cursor < target)
+				cursor = target;
+
+			earliest = findEarliest();
+			return expired;
+		}
+
+		/**
+		* <p>Busca el primer intervalo posterior al último recorrido,
+		* cuya ranura se encuentre ocupada.</p>
+		*/
+
+		private long findEarliest() {
+
+			if (size != 0)
+				for (long tick = cursor + 1; tick <= cursor + buckets.length; ++tick)
+					if (buckets[(int) (tick & mask)] != null)
+						return tick;
+
+			return Long.MAX_VALUE;
+		}
+
+		/**
+		* <p>Enlaza el nodo en la ranura de su expiración, o en la
+		* ranura siguiente al intervalo especificado, si su expiración
+		* ya fue recorrida.</p>
+		*/
+
+		private void link(Deadline deadline, long after) {
+
+			long tick = Math.max(deadline.expiration / resolution, after + 1);
+			int index = (int) (tick & mask);
+
+			deadline.bucket = index;
+			deadline.prev = null;
+			deadline.next = buckets[index];
+
+			if (buckets[index] != null)
+				buckets[index].prev = deadline;
+
+			buckets[index] = deadline;
+
+			if (tick < earliest)
+				earliest = tick;
+		}
+
+		private void unlink(Deadline deadline) {
+
+			if (deadline.prev != null)
+				deadline.prev.next = deadline.next;
+			else
+				buckets[deadline.bucket] = deadline.next;
+
+			if (deadline.next != null)
+				deadline.next.prev = deadline.prev;
+
+			release(deadline);
+		}
+
+		private static void release(Deadline deadline) {
+
+			deadline.prev = deadline.next = null;
+			deadline.bucket = -1;
+			deadline.scheduled = false;
+		}
+	}
@@ -0,0 +1,545 @@
+	package ar.edu.itba.protos.transport.support;
+
+	import java.io.IOException;
+	import java.net.SocketAddress;
+	import java.nio.ByteBuffer;
+	import java.nio.channels.ClosedSelectorException;
+	import java.nio.channels.SelectionKey;
+	import java.nio.channels.Selector;
+	import java.nio.channels.SocketChannel;
+	import java.nio.channels.UnresolvedAddressException;
+	import java.util.ArrayDeque;
+	import java.util.ArrayList;
+	import java.util.Arrays;
+	import java.util.Deque;
+	import java.util.Iterator;
+	import java.util.List;
+	import java.util.concurrent.ConcurrentHashMap;
+	import java.util.concurrent.ConcurrentMap;
+	import java.util.concurrent.atomic.LongAdder;
+
+	import org.slf4j.Logger;
+	import org.slf4j.LoggerFactory;
+
+	import com.google.inject.Inject;
+	import com.google.inject.Singleton;
+
+		/**
+		* <p>Pool de conexiones precalentadas hacia cada servidor origen.
+		* Para cada dirección que se utilizó al menos una vez, un thread
+		* secundario mantiene abiertas algunas conexiones, ya establecidas
+		* y con el <i>greeting</i> del servidor (<b>+OK ...</b>) leído y
+		* almacenado, de forma que una nueva sesión no deba esperar el
+		* <i>handshake</i> TCP ni el <i>greeting</i>. Cada conexión
+		* entregada se repone en segundo plano.</p>
+		*
+		* <p>Mientras esperan, las conexiones se monitorean: si el
+		* servidor las cierra (o envía algo inesperado) se descartan, y
+		* si superan el tiempo de vida (TTL) se cierran, ya que los
+		* servidores suelen desconectar a los clientes que no se
+		* autentican.</p>
+		*
+		* <p>Esta clase es <b>thread-safe</b>.</p>
+		*/
+
+	@Singleton
+	public final class UpstreamPool {
+
+		// Logger:
+		private static final Logger logger
+			= LoggerFactory.getLogger(UpstreamPool.class);
+
+		// Configuración por defecto:
+		public static final int SIZE = 2;
+		public static final long TTL = 30000;
+
+		// Espera luego de una conexión fallida (en milisegundos):
+		private static final long BACKOFF = 1000;
+
+		// Plazo para conectar y recibir el 'greeting' (en milisegundos):
+		private static final long DEADLINE = 5000;
+
+		// Longitud máxima del 'greeting':
+		private static final int GREETING_SIZE = 512;
+
+		// Conexiones por servidor, y su tiempo de vida:
+		private volatile int size = SIZE;
+		private volatile long ttl = TTL;
+
+		// Los pools de cada servidor origen:
+		private final ConcurrentMap<SocketAddress, Pool> pools
+			= new ConcurrentHashMap<>();
+
+		// Selector y thread del pool (se crean bajo demanda):
+		private Selector selector = null;
+		private Thread thread = null;
+		private volatile boolean running = true;
+
+		// Estadísticas:
+		private final LongAdder hits = new LongAdder();
+		private final LongAdder misses = new LongAdder();
+		private final LongAdder expired = new LongAdder();
+		private final LongAdder dropped = new LongAdder();
+
+		@Inject
+		private UpstreamPool() {}
+
+		/**
+		* <p>Especifica la cantidad de conexiones a mantener por
+		* servidor, y su tiempo de vida.</p>
+		*
+		* @param size
+		*	La cantidad de conexiones por servidor, o cero para
+		*	deshabilitar el pool.
+		* @param ttl
+		*	El tiempo de vida de cada conexión (en milisegundos).
+		*
+		* @return Esta misma instancia.
+		*
+		* @throws IllegalArgumentException
+		*	Si la cantidad es negativa, o si el tiempo no es positivo.
+		*/
+
+		public UpstreamPool set(final int size, final long ttl) {
+
+			if (size < 0 || ttl <= 0)
+				throw new IllegalArgumentException();
+
+			this.size = size;
+			this.ttl = ttl;
+			return this;
+		}
+
+		public int getSize() {
+
+			return size;
+		}
+
+		public long getTTL() {
+
+			return ttl;
+		}
+
+		/**
+		* <p>Obtiene una conexión precalentada hacia el servidor
+		* especificado, si es que hay alguna disponible. En cualquier
+		* caso, el pool de ese servidor se repone en segundo plano. El
+		* canal entregado se encuentra en modo no-bloqueante, y ya no
+		* pertenece al pool.</p>
+		*
+		* @param address
+		*	La dirección del servidor origen.
+		* @param options
+		*	Las opciones de socket de las conexiones hacia ese
+		*	servidor.
+		*
+		* @return Una conexión establecida, o <b>null</b> si no hay
+		*	ninguna disponible.
+		*/
+
+		public Connection acquire(
+			final SocketAddress address, final SocketOptions options) {
+
+			if (size == 0 || !running) return null;
+
+			final Pool pool = pools.computeIfAbsent(
+				address, a -> new Pool(a, options));
+
+			Connection connection = null;
+			synchronized (pool) {
+
+				final long now = System.currentTimeMillis();
+				while (connection == null && !pool.ready.isEmpty()) {
+
+					final Connection candidate = pool.ready.pollFirst();
+					if (now < candidate.expiration) connection = candidate;
+					else discard(candidate, expired);
+				}
+			}
+
+			if (connection != null) {
+
+				connection.key.cancel();
+				hits.increment();
+			}
+			else misses.increment();
+
+			// El thread del pool repone las conexiones:
+			start();
+			return connection;
+		}
+
+		/**
+		* <p>Cierra todas las conexiones del pool, y detiene su
+		* thread.</p>
+		*/
+
+		public synchronized void shutdown() {
+
+			running = false;
+			if (selector != null) selector.wakeup();
+		}
+
+		/**
+		* <p>Genera un reporte con el estado de cada pool, con el
+		* mismo formato que el reporte de métricas.</p>
+		*
+		* @return El reporte del pool de conexiones.
+		*/
+
+		public String summarize() {
+
+			final List<String> lines = new ArrayList<>();
+			lines.add("Upstream pool:");
+			lines.add("");
+			lines.add("  - size:        " + size + " connections per server (TTL: " + ttl + " ms).");
+
+			for (final Pool pool : pools.values())
+				synchronized (pool) {
+					lines.add("  - upstream:    " + pool.address + ", "
+						+ pool.ready.size() + " ready, " + pool.connecting.size() + " connecting.");
+				}
+
+			lines.add("  - hits:        " + hits.sum() + " (warm connection handed over).");
+			lines.add("  - misses:      " + misses.sum() + " (connected on demand).");
+			lines.add("  - expired:     " + expired.sum() + " (TTL reached).");
+			lines.add("  - dropped:     " + dropped.sum() + " (closed or failed while idle).");
+			return String.join("\r\n", lines);
+		}
+
+		/**
+		* <p>Levanta el thread del pool, si todavía no existe.</p>
+		*/
+
+		private synchronized void start() {
+
+			if (thread != null) {
+
+				selector.wakeup();
+				return;
+			}
+
+			try {
+
+				selector = Selector.open();
+				thread = new Thread(this::run, "upstream-pool");
+				thread.setDaemon(true);
+				thread.start();
+			}
+			catch (final IOException exception) {
+
+				logger.error(Message.CANNOT_RAISE.getMessage());
+				running = false;
+			}
+		}
+
+		/**
+		* <p>El bucle del pool: repone las conexiones faltantes, cierra
+		* las que vencieron, y procesa los eventos de las conexiones en
+		* curso, hasta que se detenga el pool.</p>
+		*/
+
+		private void run() {
+
+			try {
+
+				while (running) {
+
+					final long now = System.currentTimeMillis();
+					for (final Pool pool : pools.values())
+						maintain(pool, now);
+
+					selector.select(Math.max(1, Math.min(ttl, BACKOFF)));
+
+					final Iterator<SelectionKey> keys
+						= selector.selectedKeys().iterator();
+
+					while (keys.hasNext()) {
+
+						final SelectionKey key = keys.next();
+						keys.remove();
+						if (key.isValid())
+							process((Connection) key.attachment());
+					}
+				}
+			}
+			catch (final IOException
+				| ClosedSelectorException exception) {
+
+				logger.error(Message.UNKNOWN.getMessage(), "UpstreamPool");
+			}
+			finally {
+
+				close();
+			}
+		}
+
+		/**
+		* <p>Cierra las conexiones vencidas del pool, descarta las que no
+		* recibieron el <i>greeting</i> a tiempo, y abre las que falten
+		* para alcanzar su tamaño.</p>
+		*/
+
+		private void maintain(final Pool pool, final long now) {
+
+			synchronized (pool) {
+
+				final Iterator<Connection> iterator = pool.ready.iterator();
+				while (iterator.hasNext()) {
+
+					final Connection connection = iterator.next();
+					if (connection.expiration <= now) {
+
+						iterator.remove();
+						discard(connection, expired);
+					}
+				}
+
+				// Un servidor que acepta pero nunca saluda:
+				final Iterator<Connection> pending = pool.connecting.iterator();
+				while (pending.hasNext()) {
+
+					final Connection connection = pending.next();
+					if (connection.expiration <= now) {
+
+						logger.debug(
+							Message.UPSTREAM_POOL_FAILURE.getMessage(),
+							pool.address);
+
+						pending.remove();
+						pool.retry = now + BACKOFF;
+						discard(connection, dropped);
+					}
+				}
+
+				while (now >= pool.retry
+					&& pool.ready.size() + pool.connecting.size() < size)
+					if (!open(pool)) pool.retry = now + BACKOFF;
+			}
+		}
+
+		/**
+		* <p>Abre una nueva conexión (no-bloqueante) hacia el servidor
+		* del pool.</p>
+		*/
+
+		private boolean open(final Pool pool) {
+
+			SocketChannel socket = null;
+			try {
+
+				socket = SocketChannel.open();
+				pool.options.apply(socket);
+				socket.configureBlocking(false);
+
+				final Connection connection = new Connection(pool, socket);
+				connection.latency = System.nanoTime();
+				connection.expiration = System.currentTimeMillis() + DEADLINE;
+				final boolean connected = socket.connect(pool.address);
+				connection.key = socket.register(selector,
+					connected? SelectionKey.OP_READ : SelectionKey.OP_CONNECT,
+					connection);
+
+				pool.connecting.addLast(connection);
+				return true;
+			}
+			catch (final UnresolvedAddressException
+				| IOException exception) {
+
+				logger.debug(
+					Message.UPSTREAM_POOL_FAILURE.getMessage(),
+					pool.address);
+
+				if (socket != null) close(socket);
+				return false;
+			}
+		}
+
+		/**
+		* <p>Procesa un evento de una conexión: finaliza la conexión,
+		* lee el <i>greeting</i>, o detecta que el servidor cerró (o
+		* escribió en) una conexión disponible.</p>
+		*/
+
+		private void process(final Connection connection) {
+
+			final Pool pool = connection.pool;
+			synchronized (pool) {
+
+				// Una conexión disponible no debería recibir nada:
+				if (connection.greeting != null) {
+
+					if (pool.ready.remove(connection))
+						discard(connection, dropped);
+					return;
+				}
+
+				try {
+
+					final SocketChannel socket = connection.socket;
+					if (connection.key.isConnectable()) {
+
+						if (socket.finishConnect())
+							connection.key.interestOps(SelectionKey.OP_READ);
+						return;
+					}
+
+					final ByteBuffer buffer = connection.buffer;
+					final int read = socket.read(buffer);
+					if (read < 0 || !buffer.hasRemaining())
+						throw new IOException();
+
+					// Una selección espuria (no hay nada nuevo):
+					if (read == 0) return;
+
+					// El 'greeting' está completo?
+					if (buffer.get(buffer.position() - 1) != '\n')
+						return;
+
+					pool.connecting.remove(connection);
+					connection.greeting
+						= Arrays.copyOf(buffer.array(), buffer.position());
+					connection.latency
+						= (System.nanoTime() - connection.latency) / 1000;
+					connection.buffer = null;
+
+					if (!startsWithOK(connection.greeting)) {
+
+						discard(connection, dropped);
+						return;
+					}
+
+					connection.expiration = System.currentTimeMillis() + ttl;
+					pool.ready.addLast(connection);
+				}
+				catch (final IOException exception) {
+
+					logger.debug(
+						Message.UPSTREAM_POOL_FAILURE.getMessage(),
+						pool.address);
+
+					if (connection.greeting == null) pool.connecting.remove(connection);
+					pool.retry = System.currentTimeMillis() + BACKOFF;
+					discard(connection, dropped);
+				}
+			}
+		}
+
+		private static boolean startsWithOK(final byte[] greeting) {
+
+			return 3 <= greeting.length
+				&& greeting[0] == '+' && greeting[1] == 'O' && greeting[2] == 'K';
+		}
+
+		private static void discard(
+			final Connection connection, final LongAdder counter) {
+
+			counter.increment();
+			connection.key.cancel();
+			close(connection.socket);
+		}
+
+		private static void close(final SocketChannel socket) {
+
+			try {
+
+				socket.close();
+			}
+			catch (final IOException spurious) {}
+		}
+
+		/**
+		* <p>Cierra todas las conexiones y el selector del pool.</p>
+		*/
+
+		private void close() {
+
+			for (final Pool pool : pools.values())
+				synchronized (pool) {
+					for (final Connection connection : pool.ready)
+						close(connection.socket);
+					pool.ready.clear();
+					pool.connecting.clear();
+				}
+
+			for (final SelectionKey key : selector.keys())
+				close((SocketChannel) key.channel());
+
+			try {
+
+				selector.close();
+			}
+			catch (final IOException spurious) {}
+		}
+
+		/**
+		* <p>El pool de un servidor origen.</p>
+		*/
+
+		private static final class Pool {
+
+			private final SocketAddress address;
+			private final SocketOptions options;
+
+			// Conexiones disponibles (las más viejas primero):
+			private final Deque<Connection> ready = new ArrayDeque<>();
+
+			// Conexiones en curso (o esperando el 'greeting'):
+			private final Deque<Connection> connecting = new ArrayDeque<>();
+
+			// No se reintenta conectar antes de este instante:
+			private long retry = 0;
+
+			private Pool(final SocketAddress address, final SocketOptions options) {
+
+				this.address = address;
+				this.options = options;
+			}
+		}
+
+		/**
+		* <p>Una conexión del pool. Una vez entregada, su canal se
+		* encuentra establecido, y su <i>greeting</i> ya fue leído.</p>
+		*/
+
+		public static final class Connection {
+
+			private final Pool pool;
+			private final SocketChannel socket;
+			private SelectionKey key;
+			private ByteBuffer buffer = ByteBuffer.allocate(GREETING_SIZE);
+			private byte[] greeting = null;
+
+			// Plazo del 'greeting' (en curso), o fin del TTL (disponible):
+			private long expiration = 0;
+
+			// Inicio de la conexión, y luego latencia del 'greeting':
+			private long latency = 0;
+
+			private Connection(final Pool pool, final SocketChannel socket) {
+
+				this.pool = pool;
+				this.socket = socket;
+			}
+
+			public SocketChannel getSocket() {
+
+				return socket;
+			}
+
+			public byte[] getGreeting() {
+
+				return greeting;
+			}
+
+			/**
+			* <p>Devuelve la latencia de conexión y <i>greeting</i> con
+			* la cual se estableció esta conexión (en microsegundos).</p>
+			*/
+
+			public long getLatency() {
+
+				return latency;
+			}
+		}
+	}
@@ -2,8 +2,11 @@
 	package ar.edu.itba.protos.transport.support;
 
 	import java.nio.channels.SelectionKey;
-	import java.util.Comparator;
-	import java.util.PriorityQueue;
+	import java.nio.channels.Selector;
+	import java.util.Queue;
+	import java.util.concurrent.ConcurrentHashMap;
+	import java.util.concurrent.ConcurrentLinkedQueue;
+	import java.util.concurrent.ConcurrentMap;
 
 	import org.slf4j.Logger;
 	import org.slf4j.LoggerFactory;
@@ -21,6 +24,19 @@
 		* 
 		* <p>En esta clase, se realizó una implementación
 		* específica para cerrar <i>SocketChannel's</i>.</p>
+		*
+		* <p>La expiración de cada canal se almacena en su propio
+		* <i>attachment</i>, y los canales se agrupan en una rueda de
+		* tiempo (ver <b>TimingWheel</b>) por cada bucle de selección.
+		* Actualizar la actividad de un canal solo modifica su
+		* expiración, utilizando un reloj de baja resolución que los
+		* bucles actualizan una vez por iteración (ver <b>tick</b>),
+		* por lo que no requiere <i>locks</i> ni reservar memoria.</p>
+		*
+		* <p>No existe un thread dedicado: cada bucle de selección
+		* cierra sus propios canales expirados (ver <b>expire</b>), y
+		* limita el tiempo de bloqueo sobre su selector a la próxima
+		* expiración posible.</p>
 		*/
 
 	@Singleton
@@ -30,21 +46,32 @@
 		private static final Logger logger
 			= LoggerFactory.getLogger(WatchdogTimer.class);
 
-		// Cola de actividades (ordenada por inactividad):
-		private final PriorityQueue<Activity> activities
-			= new PriorityQueue<>(
-					Comparator.comparing(Activity::getInactivity));
+		// Cantidad de ranuras de cada rueda de tiempo:
+		private static final int SLOTS = 1024;
+
+		// Duración de cada ranura (en milisegundos):
+		private static final long RESOLUTION = 100;
+
+		// Ruedas de actividades de cada selector (una por bucle):
+		private final ConcurrentMap<Selector, Wheel> wheels;
+
+		// Acción de cierre (se reserva una única vez):
+		private final TimingWheel.Expiration closer = this::close;
 
 		// Repositorio de claves global:
 		private final Synchronizer sync;
 
 		// La constante de inactividad (en milisegundos):
-		private long timeout = Long.MAX_VALUE;
+		private volatile long timeout = Long.MAX_VALUE;
+
+		// Reloj de baja resolución (en milisegundos):
+		private volatile long clock = System.currentTimeMillis();
 
 		@Inject
 		private WatchdogTimer(final Synchronizer sync) {
 
 			this.sync = sync;
+			this.wheels = new ConcurrentHashMap<>();
 		}
 
 		/**
@@ -56,14 +83,16 @@
 		* @return El umbral máximo de inactividad, en milisegundos.
 		*/
 
-		public synchronized long getTimeout() {
+		public long getTimeout() {
 
 			return timeout;
 		}
 
 		/**
 		* <p>Setea el nuevo umbral (timeout) para cerrar canales
-		* inactivos. El valor se debe especificar en milisegundos.</p>
+		* inactivos. El valor se debe especificar en milisegundos.
+		* El nuevo umbral se aplica a partir de la próxima
+		* actualización de cada canal.</p>
 		*
 		* @param timeout
 		*	El nuevo umbral de inactividad en milisegundos.
@@ -72,7 +101,7 @@
 		*	Si el umbral especificado es negativo.
 		*/
 
-		public synchronized void setTimeout(final long timeout) {
+		public void setTimeout(final long timeout) {
 
 			if (timeout < 0)
 				throw new IllegalArgumentException();
@@ -85,49 +114,115 @@
 		}
 
 		/**
-		* <p>Agrega una nueva actividad al <i>watchdog-timer</i>. Es
-		* importante notar que no se verifica que la clave ya
-		* exista en la cola, ya que esto degradaría la complejidad
-		* del algoritmo de <i>O(log n)</i> hacia <i>O(n)</i>.</p>
+		* <p>Asocia una rueda de actividades al selector de un bucle
+		* de selección. Este método debe ejecutarse en el thread del
+		* bucle, el cual pasa a ser el único que la manipula.</p>
+		*
+		* @param selector
+		*	El selector del bucle de selección.
+		*
+		* @throws IllegalArgumentException
+		*	En caso de que el selector sea <i>null</i>.
+		*/
+
+		public void bind(Selector selector) {
+
+			if (selector == null)
+				throw new IllegalArgumentException();
+
+			wheels.put(selector, new Wheel(tick()));
+		}
+
+		/**
+		* <p>Desasocia la rueda de actividades de un selector. Sus
+		* canales dejan de monitorearse.</p>
+		*
+		* @param selector
+		*	El selector a desasociar.
+		*/
+
+		public void unbind(Selector selector) {
+
+			if (selector != null)
+				wheels.remove(selector);
+		}
+
+		/**
+		* <p>Actualiza el reloj de baja resolución utilizado para
+		* calcular las expiraciones. Los bucles de selección llaman
+		* a este método una vez por iteración.</p>
+		*
+		* @return El instante actual, en milisegundos.
+		*/
+
+		public long tick() {
+
+			return clock = System.currentTimeMillis();
+		}
+
+		/**
+		* <p>Agrega una nueva actividad al <i>watchdog-timer</i>. Si la
+		* clave ya se encontraba monitoreada, solo se actualiza su
+		* expiración. Las claves sin <i>attachment</i> no se
+		* monitorean.</p>
 		*
 		* @param key
 		*	La clave a monitorear.
 		*/
 
-		public synchronized void addActivity(SelectionKey key) {
+		public void addActivity(SelectionKey key) {
 
-			if (key != null) {
-
-				long inactivity = System.currentTimeMillis();
-				Activity activity = new Activity(inactivity, key);
-				activities.offer(activity);
-			}
+			update(key);
 		}
 
 		/**
-		* <p>Elimina todas las actividades cuyo tiempo de inactividad
-		* superó la constante de <b>timeout</b>. Además, para cada una
-		* de ellas, cancela su clave asociada, y cierra el canal.</p>
+		* <p>Elimina todas las actividades del selector especificado
+		* cuyo tiempo de inactividad superó la constante de
+		* <b>timeout</b>. Además, para cada una de ellas, cancela su
+		* clave asociada, y cierra el canal.</p>
+		*
+		* <p>Este método solo debe ejecutarse en el thread del bucle de
+		* selección dueño del selector, una vez por iteración.</p>
+		*
+		* @param selector
+		*	El selector del bucle de selección.
+		*
+		* @return El tiempo máximo (en milisegundos) que el bucle
+		*	puede esperar antes de volver a llamar a este método, o
+		*	<i>Long.MAX_VALUE</i> si no hay actividades monitoreadas.
 		*/
 
-		public synchronized void killLazyActivities() {
+		public long expire(Selector selector) {
 
-			long now = System.currentTimeMillis();
-			while (!activities.isEmpty()) {
+			Wheel wheel = wheels.get(selector);
+			if (wheel == null)
+				return Long.MAX_VALUE;
 
-				Activity activity = activities.peek();
-				if (timeout < now - activity.getInactivity()) {
+			if (wheel.cleared) {
 
-					activities.poll();
-					close(activity.getKey());
-				}
-				else break;
+				wheel.cleared = false;
+				wheel.activities.clear();
 			}
+
+			// Actividades agregadas desde otros threads:
+			Deadline deadline;
+			while ((deadline = wheel.inbox.poll()) != null)
+				wheel.activities.schedule(deadline);
+
+			long now = tick();
+			if (wheel.activities.getNextExpiration() <= now)
+				wheel.activities.expire(now, closer);
+
+			long next = wheel.activities.getNextExpiration();
+			return next == Long.MAX_VALUE ? next : next - now;
 		}
 
 		/**
 		* <p>Remueve una clave previamente registrada para
-		* monitoreo de inactividad.</b>
+		* monitoreo de inactividad. Si este método no se ejecuta en
+		* el thread del bucle de selección de la clave, la misma
+		* permanece en la rueda, pero nunca expira (hasta su próxima
+		* actualización).</b>
 		*
 		* @param key
 		*	La clave a remover del monitor de inactividad.
@@ -136,22 +231,30 @@
 		*	monitor, o <i>false</i> sino.
 		*/
 
-		public synchronized boolean removeActivity(SelectionKey key) {
+		public boolean removeActivity(SelectionKey key) {
 
-			if (key != null)
-				return activities.remove(new Activity(0, key));
+			Deadline deadline = deadlineOf(key);
+			if (deadline == null)
+				return false;
 
-			return false;
+			Wheel wheel = wheels.get(key.selector());
+			if (wheel != null && wheel.owner == Thread.currentThread())
+				return wheel.activities.cancel(deadline);
+
+			deadline.expiration = Long.MAX_VALUE;
+			return deadline.scheduled;
 		}
 
 		/**
-		* <p>Vacía la cola de prioridades sin cancelar
-		* las claves registradas, ni cerrar sus canales.</p>
+		* <p>Vacía las ruedas de actividades sin cancelar
+		* las claves registradas, ni cerrar sus canales. Cada
+		* bucle vacía su rueda durante su próxima iteración.</p>
 		*/
 
-		public synchronized void removeAll() {
+		public void removeAll() {
 
-			activities.clear();
+			for (Wheel wheel : wheels.values())
+				wheel.cleared = true;
 		}
 
 		/**
@@ -159,14 +262,65 @@
 		* clave especificada, lo que evita que la misma sea
 		* destruída debido a inactividad.</p>
 		*
+		* <p>Este método es <i>O(1)</i>: si la clave ya se encontraba
+		* monitoreada, solo se modifica su expiración, sin adquirir
+		* ningún <i>lock</i>. Si se ejecuta fuera del thread del bucle
+		* de selección de la clave, la misma se agrega a la rueda
+		* durante la próxima iteración del bucle.</p>
+		*
 		* @param key
 		*	La clave a actualizar en el monitor.
 		*/
 
-		public synchronized void update(SelectionKey key) {
+		public void update(SelectionKey key) {
+
+			Deadline deadline = deadlineOf(key);
+			if (deadline == null)
+				return;
+
+			long timeout = this.timeout;
+			long now = clock;
 
-			removeActivity(key);
-			addActivity(key);
+			deadline.expiration = Long.MAX_VALUE - now < timeout ?
+				Long.MAX_VALUE : now + timeout;
+
+			if (!deadline.scheduled) {
+
+				Wheel wheel = wheels.get(key.selector());
+				if (wheel == null)
+					return;
+
+				if (wheel.owner == Thread.currentThread())
+					wheel.activities.schedule(deadline);
+
+				else {
+
+					deadline.scheduled = true;
+					wheel.inbox.offer(deadline);
+					sync.wakeup(key.selector());
+				}
+			}
+		}
+
+		/**
+		* <p>Obtiene el nodo de expiración de una clave.</p>
+		*
+		* @param key
+		*	La clave a buscar.
+		*
+		* @return El nodo de la clave, o <i>null</i> si la clave no
+		*	posee un <i>attachment</i>.
+		*/
+
+		private static Deadline deadlineOf(SelectionKey key) {
+
+			if (key != null) {
+
+				Object attachment = key.attachment();
+				if (attachment instanceof Attachment)
+					return ((Attachment) attachment).deadline;
+			}
+			return null;
 		}
 
 		/**
@@ -189,50 +343,28 @@
 		}
 
 		/**
-		* <p>El objetivo de esta clase es mantener el estado
-		* de inactividad de las claves registradas.</p>
+		* <p>La rueda de actividades de un bucle de selección, junto
+		* con las actividades agregadas desde otros threads.</p>
 		*/
 
-		private final class Activity {
-
-			// Cantidad de inactividad en milisegundos:
-			private long inactivity;
-
-			// Clave del canal asociado a esta actividad:
-			private SelectionKey key;
-
-			public Activity(long inactivity, SelectionKey key) {
+		private static final class Wheel {
 
-				this.inactivity = inactivity;
-				this.key = key;
-			}
-
-			/*
-			** Getter's
-			*/
+			// Las actividades del bucle:
+			private final TimingWheel activities;
 
-			public long getInactivity() {
+			// Actividades agregadas desde otros threads:
+			private final Queue<Deadline> inbox
+				= new ConcurrentLinkedQueue<>();
 
-				return inactivity;
-			}
+			// El thread del bucle de selección:
+			private final Thread owner = Thread.currentThread();
 
-			public SelectionKey getKey() {
+			// Indica que la rueda debe vaciarse:
+			private volatile boolean cleared = false;
 
-				return key;
-			}
+			public Wheel(long now) {
 
-			@Override
-			public boolean equals(Object obj) {
-
-				/*
-				** Dos actividades son iguales si sus claves
-				** asociadas son iguales. Este método no se
-				** corresponde con las definiciones usuales
-				** por motivos de performance.
-				*/
-				if (obj == null) return false;
-				Activity activity = (Activity) obj;
-				return key.equals(activity.key);
+				this.activities = new TimingWheel(SLOTS, RESOLUTION, now);
 			}
 		}
 	}
@@ -0,0 +1,149 @@
+	package ar.edu.itba.protos.transport.support;
+
+	import java.nio.ByteBuffer;
+	import java.util.concurrent.atomic.LongAdder;
+
+	import com.google.inject.Inject;
+	import com.google.inject.Singleton;
+
+		/**
+		* <p>Control de flujo explícito entre los extremos de un
+		* circuito. Cada buffer compartido (uno por dirección) se
+		* evalúa por separado: cuando la información pendiente de envío
+		* alcanza la marca alta, se suspende la lectura del extremo que
+		* lo llena, y recién se reanuda cuando el otro extremo la
+		* reduce hasta la marca baja. De esta forma, entre un servidor
+		* rápido y un cliente lento, la lectura no alterna entre
+		* detenerse por completo y avanzar a máxima velocidad.</p>
+		*
+		* <p>Las marcas se expresan como porcentajes de la capacidad
+		* del buffer, ya que esta se adapta al tráfico de cada
+		* sesión.</p>
+		*
+		* <p>Esta clase es <b>thread-safe</b>.</p>
+		*/
+
+	@Singleton
+	public final class Watermarks {
+
+		// Marcas por defecto (porcentajes de la capacidad):
+		public static final int HIGH = 75;
+		public static final int LOW = 25;
+
+		// Marcas actuales:
+		private volatile int high = HIGH;
+		private volatile int low = LOW;
+
+		// Estadísticas:
+		private final LongAdder pauses = new LongAdder();
+		private final LongAdder resumes = new LongAdder();
+
+		@Inject
+		private Watermarks() {}
+
+		/**
+		* <p>Especifica las marcas de contrapresión.</p>
+		*
+		* @param high
+		*	La marca alta, como porcentaje de la capacidad del
+		*	buffer (entre 1 y 100).
+		* @param low
+		*	La marca baja, como porcentaje de la capacidad del
+		*	buffer (entre 0 y la marca alta, exclusive).
+		*
+		* @return Esta misma instancia.
+		*
+		* @throws IllegalArgumentException
+		*	Si las marcas están fuera de rango.
+		*/
+
+		public Watermarks set(final int high, final int low) {
+
+			if (high <= 0 || 100 < high || low < 0 || high <= low)
+				throw new IllegalArgumentException();
+
+			this.high = high;
+			this.low = low;
+			return this;
+		}
+
+		public int getHigh() {
+
+			return high;
+		}
+
+		public int getLow() {
+
+			return low;
+		}
+
+		/**
+		* <p>Determina si se debe suspender la lectura del canal, es
+		* decir, si la información pendiente en su buffer de entrada
+		* (en modo escritura) alcanzó la marca alta. Un buffer lleno
+		* siempre alcanza la marca alta.</p>
+		*
+		* @param attachment
+		*	El <i>attachment</i> del canal que acaba de leer.
+		*
+		* @return Devuelve <i>true</i> si el canal debe dejar de leer.
+		*/
+
+		public boolean pause(final Attachment attachment) {
+
+			if (attachment.throttled) return false;
+
+			final ByteBuffer buffer = attachment.getInboundBuffer();
+			if (buffer.hasRemaining()
+				&& 100L * buffer.position() < (long) high * buffer.capacity())
+				return false;
+
+			attachment.throttled = true;
+			pauses.increment();
+			return true;
+		}
+
+		/**
+		* <p>Determina si se debe reanudar la lectura de un canal que
+		* fue suspendido, es decir, si la información pendiente en su
+		* buffer de entrada (en modo escritura) bajó hasta la marca
+		* baja.</p>
+		*
+		* @param attachment
+		*	El <i>attachment</i> del canal suspendido.
+		*
+		* @return Devuelve <i>true</i> si el canal debe volver a leer.
+		*/
+
+		public boolean resume(final Attachment attachment) {
+
+			if (!attachment.throttled) return false;
+
+			final ByteBuffer buffer = attachment.getInboundBuffer();
+			if ((long) low * buffer.capacity() < 100L * buffer.position())
+				return false;
+
+			attachment.throttled = false;
+			resumes.increment();
+			return true;
+		}
+
+		/**
+		* <p>Genera un reporte con las marcas actuales, y la cantidad
+		* de veces que se suspendió y reanudó la lectura, con el
+		* mismo formato que el reporte de métricas.</p>
+		*
+		* @return El reporte de contrapresión.
+		*/
+
+		public String summarize() {
+
+			return String.join("\r\n", new String[] {
+				"Backpressure:",
+				"",
+				"  - watermarks:  high " + high + "%, low " + low + "% (of the buffer).",
+				"  - paused:      " + pauses.sum() + " (high watermark reached).",
+				"  - resumed:     " + resumes.sum() + " (low watermark reached)."
+			});
+		}
+	}
@@ -0,0 +1,40 @@
+package ar.edu.itba.protos;
+
+import java.lang.reflect.Constructor;
+
+/**
+ * <p>Construye los componentes inyectables (cuyos constructores son
+ * privados) sin levantar un <b>Injector</b>, de forma que cada test
+ * elija las dependencias de cada instancia.</p>
+ */
+
+public final class Instances {
+
+    private Instances() {}
+
+    /**
+     * <p>Crea una instancia a través de su constructor declarado.</p>
+     *
+     * @param type
+     *	La clase a instanciar.
+     * @param arguments
+     *	Los parámetros del constructor, como pares (tipo, valor).
+     *
+     * @return La nueva instancia.
+     *
+     * @throws Exception
+     *	Si el constructor no existe, o si falla.
+     */
+
+    public static <T> T create(final Class<T> type, final Object... arguments) throws Exception {
+        final Class<?>[] types = new Class<?>[arguments.length / 2];
+        final Object[] values = new Object[arguments.length / 2];
+        for (int i = 0; i < types.length; ++i) {
+            types[i] = (Class<?>) arguments[2 * i];
+            values[i] = arguments[2 * i + 1];
+        }
+        final Constructor<T> constructor = type.getDeclaredConstructor(types);
+        constructor.setAccessible(true);
+        return constructor.newInstance(values);
+    }
+}
@@ -49,6 +49,14 @@ public class FilterManagerTests {
 		assertTrue(result.getCommand() == Pop3Command.RETR && result.getStatus() == CommandStatus.INCOMPLETE);
 	}
 
+	@Test
+	public void parseTopCommandTest() {
+		String commandToTest = "TOP 1 10\r\n";
+		ByteBuffer buffer = ByteBuffer.wrap(commandToTest.getBytes());
+		ParsedCommand result = parser.filter(buffer);
+		assertTrue(result.getStatus() == CommandStatus.COMPLETE && result.getCommand() == Pop3Command.TOP);
+	}
+
 	@Test
 	public void parseRetrCommandTest() {
 		String commandToTest = "RETR 1\r\n";
@@ -0,0 +1,176 @@
+package ar.edu.itba.protos.transport.buffer;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assume.assumeTrue;
+
+import java.nio.ByteBuffer;
+
+import org.junit.Before;
+import org.junit.Test;
+
+public class BufferPoolTest {
+
+    private static final int[] SIZES = {512, 2048};
+    private static final int SLAB_SIZE = 4096;
+
+    private BufferPool pool;
+
+    @Before
+    public void init() {
+        pool = new BufferPool(SIZES, SLAB_SIZE);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testSizesMustIncrease() {
+        new BufferPool(new int[] {2048, 512}, SLAB_SIZE);
+    }
+
+    @Test
+    public void testBuffersAreBorrowedLazily() {
+        final PooledBuffer buffer = pool.newBuffer(100);
+        assertFalse(buffer.isHeld());
+        assertEquals(0, pool.getBorrowed());
+
+        final ByteBuffer bytes = buffer.get();
+        assertTrue(buffer.isHeld());
+        assertTrue(bytes.isDirect());
+        assertSame(bytes, buffer.get());
+        assertEquals(1, pool.getBorrowed());
+    }
+
+    @Test
+    public void testSmallestSizeClassIsSelected() {
+        assertEquals(512, pool.newBuffer(1).get().capacity());
+        assertEquals(512, pool.newBuffer(512).get().capacity());
+        assertEquals(2048, pool.newBuffer(513).get().capacity());
+        assertEquals(3, pool.getBorrowed());
+    }
+
+    @Test
+    public void testReleasedBuffersAreReused() {
+        final PooledBuffer first = pool.newBuffer(512);
+        final ByteBuffer bytes = first.get();
+        assertTrue(first.release());
+        assertFalse(first.isHeld());
+        assertEquals(0, pool.getBorrowed());
+
+        final PooledBuffer second = pool.newBuffer(512);
+        assertSame(bytes, second.get());
+    }
+
+    @Test
+    public void testOnlyEmptyBuffersAreReleased() {
+        final PooledBuffer buffer = pool.newBuffer(512);
+        buffer.get().put((byte) 1);
+        assertFalse(buffer.release());
+
+        // En modo lectura, con información pendiente:
+        buffer.get().flip();
+        assertFalse(buffer.release());
+        assertEquals(1, pool.getBorrowed());
+
+        buffer.dispose();
+        assertFalse(buffer.isHeld());
+        assertEquals(0, pool.getBorrowed());
+
+        // Los buffers devueltos se entregan vacíos:
+        assertEquals(0, buffer.get().position());
+        assertEquals(512, buffer.get().limit());
+    }
+
+    @Test
+    public void testSlabsAreSplitInBuffers() {
+        final ByteBuffer[] buffers = new ByteBuffer[SLAB_SIZE / 512 + 1];
+        for (int i = 0; i < buffers.length; ++i) {
+            buffers[i] = pool.newBuffer(512).get();
+            for (int j = 0; j < i; ++j) {
+                assertNotSame(buffers[i], buffers[j]);
+            }
+        }
+        assertEquals(buffers.length, pool.getBorrowed());
+        assertTrue(pool.summarize().contains("2 slabs"));
+    }
+
+    @Test
+    public void testOversizedBuffersAreOutOfThePool() {
+        final PooledBuffer buffer = pool.newBuffer(4096);
+        assertEquals(4096, buffer.get().capacity());
+        assertTrue(buffer.get().isDirect());
+        assertEquals(0, pool.getBorrowed());
+
+        buffer.dispose();
+        assertEquals(0, pool.getBorrowed());
+        assertTrue(pool.summarize().contains("oversized:    1"));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testMaximumCannotBeBelowMinimum() {
+        pool.newBuffer(2048, 512);
+    }
+
+    @Test
+    public void testBusySessionsGrowUpToTheMaximum() {
+        final PooledBuffer buffer = pool.newBuffer(512, 2048);
+        assertEquals(512, buffer.get().capacity());
+
+        // La lectura llenó el buffer:
+        buffer.adapt(512, 512);
+        assertEquals(1024, buffer.getSize());
+
+        // El cambio se aplica al volver a obtenerlo:
+        assertEquals(512, buffer.get().capacity());
+        assertTrue(buffer.release());
+        assertEquals(2048, buffer.get().capacity());
+
+        buffer.adapt(2048, 2048);
+        assertEquals(2048, buffer.getSize());
+    }
+
+    @Test
+    public void testQuietSessionsShrinkBackToTheMinimum() {
+        final PooledBuffer buffer = pool.newBuffer(512, 2048);
+        buffer.adapt(512, 512);
+        buffer.adapt(1024, 1024);
+        assertEquals(2048, buffer.getSize());
+
+        // Una lectura normal reinicia la cuenta:
+        for (int i = 0; i < 3; ++i) {
+            buffer.adapt(10, 2048);
+        }
+        buffer.adapt(1500, 2048);
+        assertEquals(2048, buffer.getSize());
+
+        for (int i = 0; i < 4; ++i) {
+            buffer.adapt(10, 2048);
+        }
+        assertEquals(1024, buffer.getSize());
+        for (int i = 0; i < 8; ++i) {
+            buffer.adapt(10, 1024);
+        }
+        assertEquals(512, buffer.getSize());
+    }
+
+    @Test
+    public void testLeakedBuffersAreReclaimed() throws InterruptedException {
+        leak();
+
+        for (int i = 0; i < 50 && pool.getLeaks() == 0; ++i) {
+            System.gc();
+            Thread.sleep(10);
+        }
+
+        // El recolector no garantiza la recolección:
+        assumeTrue(pool.getLeaks() == 1);
+        assertEquals(0, pool.getBorrowed());
+        assertTrue(pool.summarize().contains("leaks:        1"));
+    }
+
+    private void leak() {
+        pool.newBuffer(512).get().put((byte) 1);
+        assertEquals(1, pool.getBorrowed());
+    }
+}
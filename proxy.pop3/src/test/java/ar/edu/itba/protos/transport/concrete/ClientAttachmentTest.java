@@ -0,0 +1,248 @@
+package ar.edu.itba.protos.transport.concrete;
+
+import static ar.edu.itba.protos.Instances.create;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import ar.edu.itba.protos.config.ConfigurationLoader;
+import ar.edu.itba.protos.transport.buffer.BufferPool;
+import ar.edu.itba.protos.transport.support.Attachment;
+import ar.edu.itba.protos.transport.support.Balancer;
+import ar.edu.itba.protos.transport.support.CircuitBreaker;
+import ar.edu.itba.protos.transport.support.Connector;
+import ar.edu.itba.protos.transport.support.HealthProber;
+import ar.edu.itba.protos.transport.support.Message;
+import ar.edu.itba.protos.transport.support.Resolver;
+import ar.edu.itba.protos.transport.support.Synchronizer;
+import ar.edu.itba.protos.transport.support.UpstreamPool;
+
+public class ClientAttachmentTest {
+
+    private static final String BANNER = Message.GREETING_BANNER.getMessage();
+    private static final String CAPABILITIES = "+OK Capability list follows\r\nUSER\r\n.\r\n";
+    private static final String AUTHENTICATE = "-ERR Authenticate first (USER)\r\n";
+
+    private Resolver resolver;
+    private Connector connector;
+    private CircuitBreaker breaker;
+    private ConfigurationLoader configurator;
+    private ClientAttachment client;
+    private Selector selector;
+    private ServerSocketChannel listener;
+    private ServerSocketChannel origin;
+    private SocketChannel mua;
+
+    @Before
+    public void init() throws Exception {
+        resolver = create(Resolver.class);
+        connector = create(Connector.class);
+        breaker = create(CircuitBreaker.class);
+        configurator = new ConfigurationLoader();
+        final HealthProber prober = create(HealthProber.class, Resolver.class, resolver,
+                Connector.class, connector, Synchronizer.class, create(Synchronizer.class));
+        final Balancer balancer = create(Balancer.class, CircuitBreaker.class, breaker,
+                HealthProber.class, prober, Connector.class, connector);
+        final ForwardAttachmentFactory factory = new ForwardAttachmentFactory(
+                create(BufferPool.class, int[].class, new int[] {2048}, int.class, 16384),
+                create(UpstreamPool.class), resolver, connector, balancer, breaker, configurator);
+
+        selector = Selector.open();
+        listener = ServerSocketChannel.open();
+        listener.bind(new InetSocketAddress("127.0.0.1", 0));
+        origin = ServerSocketChannel.open();
+        origin.bind(new InetSocketAddress("127.0.0.1", 0));
+        mua = SocketChannel.open(listener.getLocalAddress());
+        final SocketChannel accepted = listener.accept();
+        accepted.configureBlocking(false);
+
+        client = (ClientAttachment) factory.create();
+        client.setSynchronizer(create(Synchronizer.class));
+        client.setDownstream(accepted.register(selector, 0, client));
+    }
+
+    @After
+    public void close() throws IOException {
+        client.closeUpstream();
+        client.closeDownstream();
+        resolver.shutdown();
+        connector.shutdown();
+        breaker.shutdown();
+        mua.close();
+        origin.close();
+        listener.close();
+        selector.close();
+    }
+
+    @Test(timeout = 5000)
+    public void testAnswersLocallyWhileAuthorizing() throws Exception {
+        receive("CAPA\r\nNOOP\r\nAPOP alice c4c9334bac560ecc979e58001b3e22fb\r\n");
+
+        assertEquals(BANNER + CAPABILITIES + AUTHENTICATE
+                + "-ERR APOP not supported (use USER)\r\n", outbound());
+        assertEquals("", inbound());
+        assertFalse(client.isClosed());
+    }
+
+    @Test(timeout = 5000)
+    public void testClosesAfterSendingTheReplyToQuit() throws Exception {
+        receive("NOOP\r\nQUIT\r\nCAPA\r\n");
+
+        // El resto del flujo se ignora:
+        assertEquals(BANNER + AUTHENTICATE + "+OK Bye\r\n", outbound());
+        assertFalse(client.isClosed());
+
+        send(BANNER.length());
+        assertFalse(client.isClosed());
+        send(AUTHENTICATE.length() + 9);
+        assertTrue(client.isClosed());
+    }
+
+    @Test(timeout = 5000)
+    public void testWaitsForTheRestOfALine() throws Exception {
+        receive("CA");
+        assertEquals(BANNER, outbound());
+
+        receive("PA\r");
+        assertEquals(BANNER, outbound());
+
+        receive("\nNO");
+        assertEquals(BANNER + CAPABILITIES, outbound());
+    }
+
+    @Test(timeout = 5000)
+    public void testRejectsCommandsLongerThanTheLimit() throws Exception {
+        final StringBuilder command = new StringBuilder("CAPA ");
+        while (command.length() < 300) command.append('x');
+
+        // El comando excede el límite antes de completarse:
+        receive(command.toString());
+        receive("xxx\r\nCAPA\r\n");
+        assertEquals(BANNER + AUTHENTICATE + CAPABILITIES, outbound());
+    }
+
+    @Test(timeout = 5000)
+    public void testReplaysUserAndPipelinedCommands() throws Exception {
+        route("CAPA\r\nUSER alice\r\nPASS secret\r\nST");
+
+        // Solo se conserva lo que sigue a USER (a reenviar):
+        assertEquals(BANNER + CAPABILITIES, outbound());
+        assertEquals("USER alice\r\nPASS secret\r\nST", inbound());
+
+        // Ya no se responde localmente:
+        receive("AT\r\nCAPA\r\n");
+        assertEquals("USER alice\r\nPASS secret\r\nSTAT\r\nCAPA\r\n", inbound());
+        assertEquals(BANNER + CAPABILITIES, outbound());
+    }
+
+    @Test(timeout = 5000)
+    public void testStripsTheGreetingAcrossReads() throws Exception {
+        route("USER alice\r\n");
+
+        reply("+OK POP3 ");
+        assertEquals(BANNER, outbound());
+
+        reply("server ready <1896.697170952@dbc.mtview.ca.us>\r\n+OK alice");
+        assertEquals(BANNER + "+OK alice", outbound());
+
+        reply("\r\n");
+        assertEquals(BANNER + "+OK alice\r\n", outbound());
+    }
+
+    @Test(timeout = 5000)
+    public void testRejectsTheSessionOnANegativeGreeting() throws Exception {
+        final SelectionKey upstream = route("USER alice\r\nPASS secret\r\n");
+
+        reply("-ERR maintenance\r\n");
+        final String unavailable = "-ERR [SYS/TEMP] Origin server unavailable\r\n";
+        assertEquals(BANNER + unavailable, outbound());
+        assertFalse(upstream.isValid());
+
+        // El cliente recibe el error antes del cierre:
+        assertFalse(client.isClosed());
+        send(BANNER.length() + unavailable.length());
+        assertTrue(client.isClosed());
+    }
+
+    /**
+     * <p>Simula una lectura del cliente, como el <b>ReadHandler</b>.</p>
+     */
+
+    private void receive(final String data) {
+        consume(client, client.getInboundBuffer(), data);
+    }
+
+    /**
+     * <p>Simula una lectura del 'origin-server', como el
+     * <b>ReadHandler</b> (en el buffer de salida del cliente).</p>
+     */
+
+    private void reply(final String data) {
+        final Attachment server = (Attachment) client.getUpstream().attachment();
+        consume(server, server.getInboundBuffer(), data);
+    }
+
+    private void consume(final Attachment attachment, final ByteBuffer buffer, final String data) {
+        final int position = buffer.position();
+        buffer.put(data.getBytes());
+        buffer.limit(buffer.position());
+        buffer.position(position);
+        attachment.getInterceptor().consume(buffer);
+        buffer.position(buffer.limit());
+        buffer.limit(buffer.capacity());
+    }
+
+    /**
+     * <p>Simula el envío (parcial) de la salida del cliente, como el
+     * <b>WriteHandler</b>.</p>
+     */
+
+    private void send(final int length) {
+        final ByteBuffer buffer = client.getOutboundBuffer();
+        buffer.flip();
+        buffer.position(length);
+        client.hasOutboundData();
+    }
+
+    /**
+     * <p>Identifica al usuario, cuyo 'origin-server' es local, y espera
+     * a que la conexión se registre.</p>
+     */
+
+    private SelectionKey route(final String data) throws Exception {
+        final InetSocketAddress address = (InetSocketAddress) origin.getLocalAddress();
+        configurator.getUserMapping().mapUserToUpstream("alice", "127.0.0.1", address.getPort());
+
+        receive(data);
+        while (client.getUpstream() == null) Thread.sleep(10);
+        return client.getUpstream();
+    }
+
+    private String inbound() {
+        return contents(client.getInboundBuffer());
+    }
+
+    private String outbound() {
+        return contents(client.getOutboundBuffer());
+    }
+
+    private static String contents(final ByteBuffer buffer) {
+        final ByteBuffer data = buffer.duplicate();
+        data.flip();
+        final byte[] bytes = new byte[data.remaining()];
+        data.get(bytes);
+        return new String(bytes);
+    }
+}
@@ -0,0 +1,147 @@
+package ar.edu.itba.protos.transport.concrete;
+
+import static ar.edu.itba.protos.Instances.create;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Pipe;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import ar.edu.itba.protos.transport.buffer.BufferPool;
+import ar.edu.itba.protos.transport.buffer.PooledBuffer;
+import ar.edu.itba.protos.transport.reactor.Event;
+import ar.edu.itba.protos.transport.reactor.Handler;
+import ar.edu.itba.protos.transport.support.Attachment;
+import ar.edu.itba.protos.transport.support.ExecutionMode;
+import ar.edu.itba.protos.transport.support.Synchronizer;
+import ar.edu.itba.protos.transport.support.ThreadingCore;
+
+public class ServerAttachmentTest {
+
+    private ThreadingCore core;
+    private BufferPool pool;
+    private Selector selector;
+    private Pipe clientPipe;
+    private Pipe serverPipe;
+
+    @Before
+    public void init() throws Exception {
+        core = create(ThreadingCore.class, Synchronizer.class, create(Synchronizer.class));
+        core.setExecutionMode(ExecutionMode.POOLED);
+        pool = create(BufferPool.class, int[].class, new int[] {512}, int.class, 4096);
+
+        selector = Selector.open();
+        clientPipe = Pipe.open();
+        serverPipe = Pipe.open();
+        clientPipe.source().configureBlocking(false);
+        serverPipe.source().configureBlocking(false);
+    }
+
+    @After
+    public void close() throws IOException {
+        core.shutdown();
+        clientPipe.source().close();
+        clientPipe.sink().close();
+        serverPipe.source().close();
+        serverPipe.sink().close();
+        selector.close();
+    }
+
+    @Test(timeout = 5000)
+    public void testServerSideDoesNotReleaseClientBuffers() throws Exception {
+        final Session client = new Session(pool);
+        final SelectionKey clientKey = clientPipe.source().register(selector, 0, client);
+        client.setDownstream(clientKey);
+
+        final ServerAttachment server = new ServerAttachment(clientKey);
+        final SelectionKey serverKey = serverPipe.source().register(selector, 0, server);
+        server.setDownstream(serverKey);
+
+        // El cliente utiliza sus buffers (momentáneamente vacíos):
+        final ByteBuffer inbound = client.getInboundBuffer();
+        final ByteBuffer outbound = client.getOutboundBuffer();
+        assertEquals(2, pool.getBorrowed());
+
+        // El evento del 'origin-server' finaliza en otro worker:
+        final Releaser releaser = new Releaser();
+        core.submit(releaser, serverKey);
+        assertTrue(releaser.done.await(1, TimeUnit.SECONDS));
+
+        assertTrue(client.inbound.isHeld());
+        assertTrue(client.outbound.isHeld());
+        assertEquals(2, pool.getBorrowed());
+        assertSame(inbound, client.getInboundBuffer());
+        assertSame(outbound, client.getOutboundBuffer());
+
+        // Solo el handler del cliente los devuelve:
+        client.releaseBuffers();
+        assertEquals(0, pool.getBorrowed());
+    }
+
+    /**
+     * <p>Ejecuta, como cualquier handler, <b>releaseBuffers</b> al
+     * finalizar el evento.</p>
+     */
+
+    private static final class Releaser implements Handler {
+
+        private final CountDownLatch done = new CountDownLatch(1);
+
+        @Override
+        public void handle(final SelectionKey key) {
+            ((Attachment) key.attachment()).releaseBuffers();
+        }
+
+        @Override
+        public void onSubmit(final SelectionKey key) {}
+
+        @Override
+        public void onResume(final SelectionKey key) {
+            done.countDown();
+        }
+    }
+
+    /**
+     * <p>Una sesión de cliente, con buffers del pool.</p>
+     */
+
+    private static final class Session extends Attachment {
+
+        private final PooledBuffer inbound;
+        private final PooledBuffer outbound;
+
+        private Session(final BufferPool pool) {
+            inbound = pool.newBuffer(512);
+            outbound = pool.newBuffer(512);
+        }
+
+        @Override
+        public ByteBuffer getInboundBuffer() {
+            return inbound.get();
+        }
+
+        @Override
+        public ByteBuffer getOutboundBuffer() {
+            return outbound.get();
+        }
+
+        @Override
+        public void releaseBuffers() {
+            inbound.release();
+            outbound.release();
+        }
+
+        @Override
+        public void onUnplug(final Event event) {}
+    }
+}
@@ -0,0 +1,223 @@
+package ar.edu.itba.protos.transport.handler;
+
+import static ar.edu.itba.protos.Instances.create;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.lang.reflect.Method;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import ar.edu.itba.protos.transport.idle.BlockingIdleStrategy;
+import ar.edu.itba.protos.transport.metrics.Metrics;
+import ar.edu.itba.protos.transport.reactor.Event;
+import ar.edu.itba.protos.transport.reactor.Reactor;
+import ar.edu.itba.protos.transport.support.Admission;
+import ar.edu.itba.protos.transport.support.Attachment;
+import ar.edu.itba.protos.transport.support.AttachmentFactory;
+import ar.edu.itba.protos.transport.support.EventLoop;
+import ar.edu.itba.protos.transport.support.EventLoopGroup;
+import ar.edu.itba.protos.transport.support.Synchronizer;
+import ar.edu.itba.protos.transport.support.ThreadingCore;
+import ar.edu.itba.protos.transport.support.WatchdogTimer;
+
+public class AcceptHandlerTest {
+
+    private Synchronizer sync;
+    private WatchdogTimer watchdog;
+    private EventLoopGroup loops;
+    private ThreadingCore core;
+    private AcceptHandler acceptor;
+    private Factory factory;
+    private Selector selector;
+    private ServerSocketChannel listener;
+    private SelectionKey key;
+    private final List<SocketChannel> clients = new ArrayList<>();
+
+    @Before
+    public void init() throws Exception {
+        sync = create(Synchronizer.class);
+        watchdog = create(WatchdogTimer.class, Synchronizer.class, sync);
+        loops = new EventLoopGroup();
+        core = create(ThreadingCore.class, Synchronizer.class, sync);
+        acceptor = create(AcceptHandler.class, Synchronizer.class, sync,
+                WatchdogTimer.class, watchdog, Metrics.class, new Metrics(),
+                EventLoopGroup.class, loops, Admission.class, create(Admission.class));
+
+        factory = new Factory();
+        selector = Selector.open();
+        listener = ServerSocketChannel.open();
+        listener.configureBlocking(false);
+        listener.bind(new InetSocketAddress("127.0.0.1", 0));
+        key = listener.register(selector, SelectionKey.OP_ACCEPT, factory);
+    }
+
+    @After
+    public void close() throws Exception {
+        final Method shutdown = EventLoopGroup.class.getDeclaredMethod("shutdown", long.class);
+        shutdown.setAccessible(true);
+        shutdown.invoke(loops, 1000L);
+        core.shutdown();
+
+        for (final SocketChannel client : clients) {
+            client.close();
+        }
+        for (final SelectionKey key : selector.keys()) {
+            key.channel().close();
+        }
+        selector.close();
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testNonPositiveBatchIsRejected() {
+        acceptor.setBatch(0);
+    }
+
+    @Test(timeout = 5000)
+    public void testAcceptsAtMostOneBatchPerEvent() throws Exception {
+        connect(5);
+        acceptor.setBatch(2);
+
+        accept();
+        assertEquals(2, factory.created.size());
+        accept();
+        assertEquals(4, factory.created.size());
+
+        // El último lote vacía la cola del 'listener':
+        accept();
+        assertEquals(5, factory.created.size());
+        accept();
+        assertEquals(5, factory.created.size());
+
+        // Sin bucles secundarios, el 'listener' atiende a los clientes:
+        for (final Attachment attachment : factory.created) {
+            assertSame(selector, attachment.getDownstream().selector());
+            assertEquals(SelectionKey.OP_READ, attachment.getDownstream().interestOps());
+        }
+        assertEquals(SelectionKey.OP_ACCEPT, key.interestOps());
+    }
+
+    @Test(timeout = 5000)
+    public void testFailureDropsOnlyThatConnection() throws Exception {
+        connect(3);
+        factory.failing = 1;
+
+        accept();
+        assertEquals(2, factory.created.size());
+        for (final Attachment attachment : factory.created) {
+            assertTrue(attachment.getDownstream().isValid());
+        }
+
+        // Solo se cerró el segundo cliente:
+        assertEquals(-1, clients.get(1).read(ByteBuffer.allocate(1)));
+        assertEquals(3, selector.keys().size());
+    }
+
+    @Test(timeout = 5000)
+    public void testBatchIsSpreadAcrossLoops() throws Exception {
+        final EventLoop[] group = {loop("sub-reactor-0"), loop("sub-reactor-1")};
+        final Method start = EventLoopGroup.class.getDeclaredMethod("start", EventLoop[].class);
+        start.setAccessible(true);
+        start.invoke(loops, (Object) group);
+
+        connect(4);
+        accept();
+        assertEquals(4, factory.created.size());
+
+        // Cada bucle registra su lote antes de ejecutar esta tarea:
+        final CountDownLatch registered = new CountDownLatch(group.length);
+        for (final EventLoop loop : group) {
+            loop.execute(registered::countDown);
+        }
+        assertTrue(registered.await(1, TimeUnit.SECONDS));
+
+        // Los clientes se reparten de forma circular:
+        for (int i = 0; i < factory.created.size(); ++i) {
+            final SelectionKey downstream = factory.created.get(i).getDownstream();
+            assertSame(group[i % group.length].getSelector(), downstream.selector());
+            assertTrue(downstream.isValid());
+        }
+        assertEquals(1, selector.keys().size());
+    }
+
+    /**
+     * <p>Ejecuta el <i>handler</i> sobre el <i>listener</i>, como el
+     * <b>ThreadingCore</b> (suspendiéndolo durante el evento).</p>
+     */
+
+    private void accept() {
+        sync.save(key);
+        acceptor.handle(key);
+    }
+
+    /**
+     * <p>Establece varias conexiones, las cuales quedan en la cola
+     * del <i>listener</i> hasta que se acepten.</p>
+     */
+
+    private void connect(final int count) throws IOException {
+        for (int i = 0; i < count; ++i) {
+            clients.add(SocketChannel.open(listener.getLocalAddress()));
+        }
+    }
+
+    private EventLoop loop(final String name) throws Exception {
+        final Reactor reactor = create(Reactor.class, ThreadingCore.class, core);
+        return new EventLoop(name, Selector.open(), new BlockingIdleStrategy(100),
+                reactor, watchdog, sync);
+    }
+
+    /**
+     * <p>Fabrica <i>attachments</i> vacíos, y falla en la creación
+     * indicada (contando desde cero).</p>
+     */
+
+    private static final class Factory implements AttachmentFactory {
+
+        private final List<Attachment> created = new ArrayList<>();
+        private int failing = -1;
+        private int calls = 0;
+
+        @Override
+        public Attachment create() {
+            if (calls++ == failing) {
+                throw new IllegalStateException();
+            }
+            final Attachment attachment = new Empty();
+            created.add(attachment);
+            return attachment;
+        }
+    }
+
+    private static final class Empty extends Attachment {
+
+        private final ByteBuffer buffer = ByteBuffer.allocate(0);
+
+        @Override
+        public ByteBuffer getInboundBuffer() {
+            return buffer;
+        }
+
+        @Override
+        public ByteBuffer getOutboundBuffer() {
+            return buffer;
+        }
+
+        @Override
+        public void onUnplug(final Event event) {}
+    }
+}
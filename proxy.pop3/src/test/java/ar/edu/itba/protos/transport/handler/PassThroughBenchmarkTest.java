@@ -0,0 +1,247 @@
+package ar.edu.itba.protos.transport.handler;
+
+import static ar.edu.itba.protos.Instances.create;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import ar.edu.itba.protos.protocol.pop3.Pop3FilterManager;
+import ar.edu.itba.protos.transport.metrics.Metrics;
+import ar.edu.itba.protos.transport.reactor.Event;
+import ar.edu.itba.protos.transport.support.Attachment;
+import ar.edu.itba.protos.transport.support.Interceptor;
+import ar.edu.itba.protos.transport.support.ReadBudget;
+import ar.edu.itba.protos.transport.support.Synchronizer;
+import ar.edu.itba.protos.transport.support.Watermarks;
+
+/**
+ * <p>Benchmark de throughput: un flujo atraviesa el <b>ReadHandler</b>
+ * desde un socket hacia otro, pasando por el interceptor (con el
+ * parser de comandos POP3), o en modo <i>pass-through</i>.</p>
+ */
+
+public class PassThroughBenchmarkTest {
+
+    private static final Logger logger
+    = LoggerFactory.getLogger(PassThroughBenchmarkTest.class);
+
+    private static final int BUFFER_SIZE = 8192;
+    private static final long WARMUP = 8L * 1024 * 1024;
+    private static final long TOTAL = 32L * 1024 * 1024;
+
+    private ReadHandler reader;
+    private WriteHandler writer;
+    private Selector selector;
+    private ServerSocketChannel listener;
+    private SocketChannel[] channels;
+
+    @Before
+    public void init() throws Exception {
+        final Synchronizer sync = create(Synchronizer.class);
+        final Metrics metrics = new Metrics();
+        final Watermarks watermarks = create(Watermarks.class);
+        writer = create(WriteHandler.class,
+                Synchronizer.class, sync, Metrics.class, metrics, Watermarks.class, watermarks);
+        reader = create(ReadHandler.class, Synchronizer.class, sync, Metrics.class, metrics,
+                WriteHandler.class, writer, Watermarks.class, watermarks,
+                ReadBudget.class, create(ReadBudget.class));
+
+        selector = Selector.open();
+        listener = ServerSocketChannel.open();
+        listener.bind(new InetSocketAddress("127.0.0.1", 0));
+        channels = new SocketChannel[4];
+    }
+
+    @After
+    public void close() throws IOException {
+        for (final SocketChannel channel : channels) {
+            if (channel != null) {
+                channel.close();
+            }
+        }
+        listener.close();
+        selector.close();
+    }
+
+    @Test(timeout = 60000)
+    public void testThroughput() throws Exception {
+        // Calentamiento:
+        relay(false, WARMUP);
+        relay(true, WARMUP);
+
+        final long intercepted = relay(false, TOTAL);
+        final long passThrough = relay(true, TOTAL);
+
+        logger.info("Throughput del ReadHandler: interceptado = {} MB/s, pass-through = {} MB/s.",
+                throughput(intercepted), throughput(passThrough));
+    }
+
+    private long relay(final boolean passThrough, final long total) throws Exception {
+        close();
+        init();
+
+        // Cliente -> (proxy: downstream) ... (proxy: upstream) -> servidor:
+        final SocketChannel client = channels[0] = SocketChannel.open(listener.getLocalAddress());
+        final SocketChannel downstream = channels[1] = listener.accept();
+        final SocketChannel upstream = channels[2] = SocketChannel.open(listener.getLocalAddress());
+        final SocketChannel server = channels[3] = listener.accept();
+
+        downstream.configureBlocking(false);
+        upstream.configureBlocking(false);
+
+        final ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+        final Relay inbound = new Relay(buffer, passThrough);
+        final Relay outbound = new Relay(buffer, passThrough);
+
+        final SelectionKey source = downstream.register(selector, 0, inbound);
+        final SelectionKey target = upstream.register(selector, 0, outbound);
+        inbound.setDownstream(source);
+        inbound.setUpstream(target);
+        outbound.setDownstream(target);
+        outbound.setUpstream(source);
+
+        final AtomicLong received = new AtomicLong();
+        final Thread producer = new Thread(() -> produce(client, total));
+        final Thread consumer = new Thread(() -> consume(server, received, total));
+        producer.start();
+        consumer.start();
+
+        final long begin = System.nanoTime();
+        while (received.get() < total) {
+            reader.handle(source);
+            while (!writer.flush(target)) {
+                Thread.yield();
+            }
+        }
+        final long elapsed = System.nanoTime() - begin;
+
+        producer.join();
+        consumer.join();
+
+        assertEquals(total, received.get());
+        if (passThrough) {
+            assertEquals(0, inbound.intercepted);
+        } else {
+            assertTrue(0 < inbound.intercepted);
+        }
+        return elapsed;
+    }
+
+    private static long throughput(final long elapsed) {
+        return TOTAL * 1000000000L / (elapsed * 1024 * 1024);
+    }
+
+    private static void produce(final SocketChannel client, final long total) {
+        final byte[] line = "+OK 120 octets of a message that is being retrieved\r\n".getBytes();
+        final ByteBuffer chunk = ByteBuffer.allocate(BUFFER_SIZE);
+        try {
+            long sent = 0;
+            while (sent < total) {
+                chunk.clear();
+                while (chunk.remaining() >= line.length) {
+                    chunk.put(line);
+                }
+                chunk.flip();
+                chunk.limit((int) Math.min(chunk.limit(), total - sent));
+                sent += chunk.remaining();
+                while (chunk.hasRemaining()) {
+                    client.write(chunk);
+                }
+            }
+        } catch (final IOException exception) {
+            logger.warn("Falló el productor.", exception);
+        }
+    }
+
+    private static void consume(final SocketChannel server, final AtomicLong received, final long total) {
+        final ByteBuffer chunk = ByteBuffer.allocateDirect(BUFFER_SIZE);
+        try {
+            while (received.get() < total) {
+                final int read = server.read(chunk);
+                if (read < 0) {
+                    break;
+                }
+                received.addAndGet(read);
+                chunk.clear();
+            }
+        } catch (final IOException exception) {
+            logger.warn("Falló el consumidor.", exception);
+        }
+    }
+
+    /**
+     * <p>Ambos extremos comparten el mismo buffer, el cual vuelve a
+     * modo escritura luego de cada envío (como el <i>attachment</i>
+     * de eco).</p>
+     */
+
+    private static final class Relay extends Attachment implements Interceptor {
+
+        private static final Pop3FilterManager commands = new Pop3FilterManager();
+
+        private final ByteBuffer buffer;
+        private final boolean passThrough;
+        private long intercepted = 0;
+
+        public Relay(final ByteBuffer buffer, final boolean passThrough) {
+            this.buffer = buffer;
+            this.passThrough = passThrough;
+        }
+
+        @Override
+        public ByteBuffer getInboundBuffer() {
+            return buffer;
+        }
+
+        @Override
+        public ByteBuffer getOutboundBuffer() {
+            return buffer;
+        }
+
+        @Override
+        public boolean hasOutboundData() {
+            final boolean hasData = super.hasOutboundData();
+            buffer.compact();
+            return hasData;
+        }
+
+        @Override
+        public boolean isPassThrough() {
+            return passThrough;
+        }
+
+        @Override
+        public Interceptor getInterceptor() {
+            return this;
+        }
+
+        @Override
+        public void consume(final ByteBuffer buffer) {
+            ++intercepted;
+            while (buffer.hasRemaining()) {
+                final int position = buffer.position();
+                commands.filter(buffer);
+                if (buffer.position() == position) {
+                    break;
+                }
+            }
+        }
+
+        @Override
+        public void onUnplug(final Event event) {}
+    }
+}
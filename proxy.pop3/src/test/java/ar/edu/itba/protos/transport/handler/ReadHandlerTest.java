@@ -0,0 +1,323 @@
+package ar.edu.itba.protos.transport.handler;
+
+import static ar.edu.itba.protos.Instances.create;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.StandardSocketOptions;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import ar.edu.itba.protos.transport.metrics.Metrics;
+import ar.edu.itba.protos.transport.reactor.Event;
+import ar.edu.itba.protos.transport.reactor.Handler;
+import ar.edu.itba.protos.transport.support.Attachment;
+import ar.edu.itba.protos.transport.support.ReadBudget;
+import ar.edu.itba.protos.transport.support.Synchronizer;
+import ar.edu.itba.protos.transport.support.Watermarks;
+
+public class ReadHandlerTest {
+
+    private static final int BUFFER_SIZE = 512;
+    private static final int TOTAL = 16 * 1024;
+
+    private ReadHandler reader;
+    private WriteHandler writer;
+    private ReadBudget budget;
+    private Metrics metrics;
+    private Synchronizer sync;
+    private Selector selector;
+    private ServerSocketChannel listener;
+    private SocketChannel client;
+    private SocketChannel server;
+
+    @Before
+    public void init() throws Exception {
+        final Watermarks watermarks = create(Watermarks.class);
+        sync = create(Synchronizer.class);
+        metrics = new Metrics();
+        budget = create(ReadBudget.class);
+        writer = create(WriteHandler.class, Synchronizer.class, sync,
+                Metrics.class, metrics, Watermarks.class, watermarks);
+        reader = create(ReadHandler.class, Synchronizer.class, sync, Metrics.class, metrics,
+                WriteHandler.class, writer, Watermarks.class, watermarks,
+                ReadBudget.class, budget);
+
+        selector = Selector.open();
+        listener = ServerSocketChannel.open();
+        listener.bind(new InetSocketAddress("127.0.0.1", 0));
+        client = SocketChannel.open(listener.getLocalAddress());
+        server = listener.accept();
+        server.configureBlocking(false);
+    }
+
+    @After
+    public void close() throws IOException {
+        client.close();
+        server.close();
+        listener.close();
+        selector.close();
+    }
+
+    @Test(timeout = 5000)
+    public void testReadsUntilTheBudgetIsExhausted() throws Exception {
+        final Discard discard = send();
+
+        budget.set(4, TOTAL);
+        reader.handle(discard.getDownstream());
+        assertEquals(4 * BUFFER_SIZE, (long) metrics.bytesTransfered(discard));
+        assertTrue(budget.summarize().contains("exhausted:   1"));
+
+        // Con presupuesto suficiente, se vacía el socket:
+        budget.set(TOTAL, TOTAL);
+        reader.handle(discard.getDownstream());
+        assertEquals(TOTAL, (long) metrics.bytesTransfered(discard));
+        assertTrue(budget.summarize().contains("exhausted:   1"));
+    }
+
+    @Test(timeout = 5000)
+    public void testForwardsWithinTheReadEvent() throws Exception {
+        try (final ServerSocketChannel origin = ServerSocketChannel.open()) {
+            final Relay relay = relay(origin);
+            final byte [] command = "USER alice\r\nPASS secret\r\n"
+                    .getBytes(StandardCharsets.US_ASCII);
+
+            client.write(ByteBuffer.wrap(command));
+            selector.select(1000);
+            dispatch(reader, relay.getDownstream());
+
+            // El 'origin-server' lo recibe sin esperar un evento WRITE:
+            assertArrayEquals(command, receive(relay.origin, command.length));
+            assertEquals(0, relay.getUpstream().interestOps() & SelectionKey.OP_WRITE);
+            assertEquals(SelectionKey.OP_READ, relay.getDownstream().interestOps());
+            assertEquals(0, relay.inbound.position());
+            relay.origin.close();
+        }
+    }
+
+    @Test(timeout = 5000)
+    public void testPartialWriteFallsBackToWriteEvent() throws Exception {
+        try (final ServerSocketChannel origin = ServerSocketChannel.open()) {
+            final Relay relay = relay(origin);
+            final SelectionKey upstream = relay.getUpstream();
+            final long filler = fill((SocketChannel) upstream.channel());
+
+            final byte [] data = new byte[BUFFER_SIZE / 2];
+            Arrays.fill(data, (byte) 'x');
+            client.write(ByteBuffer.wrap(data));
+            selector.select(1000);
+            dispatch(reader, relay.getDownstream());
+
+            // El kernel no aceptó nada: el resto lo envía el 'WriteHandler':
+            assertEquals(SelectionKey.OP_WRITE, upstream.interestOps());
+            assertEquals(data.length, relay.inbound.position());
+
+            receive(relay.origin, filler);
+            while (upstream.interestOps() != 0) {
+                dispatch(writer, upstream);
+                Thread.sleep(10);
+            }
+            assertArrayEquals(data, receive(relay.origin, data.length));
+            assertEquals(0, relay.inbound.position());
+            relay.origin.close();
+        }
+    }
+
+    /**
+     * <p>Ejecuta el <i>handler</i> sobre la clave, como el
+     * <b>ThreadingCore</b> (suspendiéndola durante el evento).</p>
+     */
+
+    private void dispatch(final Handler handler, final SelectionKey key) {
+        sync.save(key);
+        handler.onSubmit(key);
+        handler.handle(key);
+        handler.onResume(key);
+    }
+
+    /**
+     * <p>Conecta el cliente con un 'origin-server' local, a través de
+     * una sesión en modo <i>pass-through</i>. El 'origin-server' no lee
+     * hasta que el test lo decida, y sus buffers son pequeños.</p>
+     */
+
+    private Relay relay(final ServerSocketChannel origin) throws IOException {
+        origin.setOption(StandardSocketOptions.SO_RCVBUF, 4096);
+        origin.bind(new InetSocketAddress("127.0.0.1", 0));
+
+        final SocketChannel upstream = SocketChannel.open();
+        upstream.setOption(StandardSocketOptions.SO_SNDBUF, 4096);
+        upstream.connect(origin.getLocalAddress());
+        upstream.configureBlocking(false);
+
+        final Relay relay = new Relay(origin.accept());
+        final Peer peer = new Peer(relay);
+        relay.setDownstream(server.register(selector, SelectionKey.OP_READ, relay));
+        peer.setDownstream(upstream.register(selector, 0, peer));
+        relay.setUpstream(peer.getDownstream());
+        peer.setUpstream(relay.getDownstream());
+        return relay;
+    }
+
+    /**
+     * <p>Escribe en el canal hasta que el kernel deja de aceptar
+     * información.</p>
+     */
+
+    private static long fill(final SocketChannel socket) throws Exception {
+        final ByteBuffer filler = ByteBuffer.allocate(TOTAL);
+        long total = 0;
+
+        // Una segunda pasada, por si el kernel liberó espacio:
+        for (int i = 0; i < 2; ++i) {
+            int written;
+            do {
+                filler.clear();
+                written = socket.write(filler);
+                total += written;
+            } while (0 < written);
+            Thread.sleep(50);
+        }
+        return total;
+    }
+
+    private static byte [] receive(final SocketChannel socket, final long length)
+            throws IOException {
+        final ByteBuffer buffer = ByteBuffer.allocate((int) length);
+        while (buffer.hasRemaining()) {
+            if (socket.read(buffer) < 0) {
+                throw new IOException();
+            }
+        }
+        return buffer.array();
+    }
+
+    private Discard send() throws Exception {
+        final Discard discard = new Discard();
+        discard.setDownstream(server.register(selector, SelectionKey.OP_READ, discard));
+
+        client.write(ByteBuffer.allocate(TOTAL));
+        selector.select(1000);
+
+        // Espero a que llegue todo el flujo:
+        Thread.sleep(100);
+        return discard;
+    }
+
+    /**
+     * <p>El extremo del cliente de una sesión en modo
+     * <i>pass-through</i>: lo que recibe se reenvía por el
+     * <i>upstream</i>.</p>
+     */
+
+    private static final class Relay extends Attachment {
+
+        private final ByteBuffer inbound = ByteBuffer.allocate(BUFFER_SIZE);
+        private final ByteBuffer outbound = ByteBuffer.allocate(BUFFER_SIZE);
+
+        // El 'origin-server' (bloqueante):
+        private final SocketChannel origin;
+
+        private Relay(final SocketChannel origin) {
+            this.origin = origin;
+        }
+
+        @Override
+        public ByteBuffer getInboundBuffer() {
+            return inbound;
+        }
+
+        @Override
+        public ByteBuffer getOutboundBuffer() {
+            return outbound;
+        }
+
+        @Override
+        public boolean isPassThrough() {
+            return true;
+        }
+
+        @Override
+        public void onUnplug(final Event event) {}
+    }
+
+    /**
+     * <p>El extremo del 'origin-server', el cual comparte los buffers
+     * del cliente (como el <b>ServerAttachment</b>).</p>
+     */
+
+    private static final class Peer extends Attachment {
+
+        private final Relay relay;
+
+        private Peer(final Relay relay) {
+            this.relay = relay;
+        }
+
+        @Override
+        public ByteBuffer getInboundBuffer() {
+            return relay.outbound;
+        }
+
+        @Override
+        public ByteBuffer getOutboundBuffer() {
+            return relay.inbound;
+        }
+
+        @Override
+        public boolean hasOutboundData() {
+            // Luego de cada envío, el buffer vuelve a modo escritura:
+            final ByteBuffer buffer = getOutboundBuffer();
+            final boolean hasData = buffer.hasRemaining();
+            buffer.compact();
+            return hasData;
+        }
+
+        @Override
+        public void onUnplug(final Event event) {}
+    }
+
+    /**
+     * <p>Descarta todo lo que recibe, sin reenviarlo.</p>
+     */
+
+    private static final class Discard extends Attachment {
+
+        private final ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+
+        @Override
+        public ByteBuffer getInboundBuffer() {
+            return buffer;
+        }
+
+        @Override
+        public ByteBuffer getOutboundBuffer() {
+            return buffer;
+        }
+
+        @Override
+        public void onRead(final int read, final int space) {
+            buffer.clear();
+        }
+
+        @Override
+        public boolean isPassThrough() {
+            return true;
+        }
+
+        @Override
+        public void onUnplug(final Event event) {}
+    }
+}
@@ -0,0 +1,123 @@
+package ar.edu.itba.protos.transport.handler;
+
+import static ar.edu.itba.protos.Instances.create;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.Deque;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import ar.edu.itba.protos.transport.metrics.Metrics;
+import ar.edu.itba.protos.transport.reactor.Event;
+import ar.edu.itba.protos.transport.support.Attachment;
+import ar.edu.itba.protos.transport.support.Synchronizer;
+import ar.edu.itba.protos.transport.support.Watermarks;
+
+public class WriteHandlerTest {
+
+    private WriteHandler writer;
+    private Selector selector;
+    private ServerSocketChannel listener;
+    private SocketChannel client;
+    private SocketChannel server;
+
+    @Before
+    public void init() throws Exception {
+        final Synchronizer sync = create(Synchronizer.class);
+        writer = create(WriteHandler.class, Synchronizer.class, sync,
+                Metrics.class, new Metrics(), Watermarks.class, create(Watermarks.class));
+
+        selector = Selector.open();
+        listener = ServerSocketChannel.open();
+        listener.bind(new InetSocketAddress("127.0.0.1", 0));
+        client = SocketChannel.open(listener.getLocalAddress());
+        server = listener.accept();
+        server.configureBlocking(false);
+    }
+
+    @After
+    public void close() throws IOException {
+        client.close();
+        server.close();
+        listener.close();
+        selector.close();
+    }
+
+    @Test(timeout = 5000)
+    public void testQueuedBuffersAreGathered() throws IOException {
+        final Queue queue = new Queue();
+        queue.setDownstream(server.register(selector, 0, queue));
+        queue.enqueue("+OK first\r\n");
+        queue.enqueue("");
+        queue.enqueue("+OK second\r\n");
+        queue.enqueue("+OK third\r\n");
+
+        // Una sola escritura envía todas las respuestas:
+        assertTrue(writer.flush(queue.getDownstream()));
+        assertEquals(0, queue.calls);
+
+        final byte [] expected = "+OK first\r\n+OK second\r\n+OK third\r\n"
+                .getBytes(StandardCharsets.US_ASCII);
+        final ByteBuffer received = ByteBuffer.allocate(expected.length);
+        while (received.hasRemaining()) {
+            client.read(received);
+        }
+        assertArrayEquals(expected, received.array());
+        assertTrue(queue.results.isEmpty());
+    }
+
+    /**
+     * <p>Encola respuestas, al igual que el <i>attachment</i> de
+     * administración.</p>
+     */
+
+    private static final class Queue extends Attachment {
+
+        private final Deque<ByteBuffer> results = new ArrayDeque<>();
+        private int calls = 0;
+
+        public void enqueue(final String result) {
+            results.add(ByteBuffer.wrap(result.getBytes(StandardCharsets.US_ASCII)));
+        }
+
+        @Override
+        public ByteBuffer getInboundBuffer() {
+            return ByteBuffer.allocate(0);
+        }
+
+        @Override
+        public ByteBuffer getOutboundBuffer() {
+            ++calls;
+            return ByteBuffer.allocate(0);
+        }
+
+        @Override
+        public ByteBuffer[] getOutboundBuffers() {
+            return results.toArray(new ByteBuffer[results.size()]);
+        }
+
+        @Override
+        public boolean hasOutboundData() {
+            while (!results.isEmpty() && !results.peek().hasRemaining()) {
+                results.pop();
+            }
+            return !results.isEmpty();
+        }
+
+        @Override
+        public void onUnplug(final Event event) {}
+    }
+}
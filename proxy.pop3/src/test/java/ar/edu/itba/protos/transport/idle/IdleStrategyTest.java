@@ -0,0 +1,64 @@
+package ar.edu.itba.protos.transport.idle;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.nio.channels.Selector;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class IdleStrategyTest {
+
+    private Selector selector;
+
+    @Before
+    public void openSelector() throws IOException {
+        selector = Selector.open();
+    }
+
+    @After
+    public void closeSelector() throws IOException {
+        selector.close();
+    }
+
+    @Test
+    public void testAllStrategiesCanBeBuiltByName() {
+        assertTrue(IdleStrategy.forName("busy-spin", 0) instanceof BusySpinIdleStrategy);
+        assertTrue(IdleStrategy.forName("yield", 0) instanceof YieldingIdleStrategy);
+        assertTrue(IdleStrategy.forName("BACKOFF", 0) instanceof BackoffIdleStrategy);
+        assertTrue(IdleStrategy.forName("blocking", 10) instanceof BlockingIdleStrategy);
+        assertTrue(IdleStrategy.forName(null, 10) instanceof BlockingIdleStrategy);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testUnknownStrategyIsRejected() {
+        IdleStrategy.forName("sleepy", 0);
+    }
+
+    @Test
+    public void testEmptySelectorReturnsNoKeys() throws IOException {
+        for (final String name : new String[] { "busy-spin", "yield", "backoff", "blocking" }) {
+            final IdleStrategy idle = IdleStrategy.forName(name, 1);
+            for (int i = 0; i < 200; ++i) {
+                assertEquals(0, idle.select(selector));
+            }
+        }
+    }
+
+    @Test(timeout = 5000)
+    public void testWakeupUnblocksTheSelector() throws IOException {
+        final IdleStrategy idle = new BlockingIdleStrategy(0);
+        idle.wakeup(selector);
+        assertEquals(0, idle.select(selector));
+    }
+
+    @Test(timeout = 5000)
+    public void testBlockingIsBoundedByTheDeadline() throws IOException {
+        final IdleStrategy idle = new BlockingIdleStrategy(0);
+        assertEquals(0, idle.select(selector, 10));
+        assertEquals(0, idle.select(selector, 0));
+    }
+}
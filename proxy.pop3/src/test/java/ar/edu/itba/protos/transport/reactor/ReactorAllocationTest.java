@@ -0,0 +1,177 @@
+package ar.edu.itba.protos.transport.reactor;
+
+import static ar.edu.itba.protos.Instances.create;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assume.assumeTrue;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.nio.ByteBuffer;
+import java.nio.channels.Pipe;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import ar.edu.itba.protos.transport.support.Attachment;
+import ar.edu.itba.protos.transport.support.ExecutionMode;
+import ar.edu.itba.protos.transport.support.Synchronizer;
+import ar.edu.itba.protos.transport.support.ThreadingCore;
+
+public class ReactorAllocationTest {
+
+    private static final int WARMUP = 50000;
+    private static final int EVENTS = 100000;
+
+    private ThreadingCore core;
+    private Reactor reactor;
+    private Selector selector;
+    private Pipe pipe;
+    private SelectionKey key;
+
+    @Before
+    public void init() throws Exception {
+        final Synchronizer sync = create(Synchronizer.class);
+        core = create(ThreadingCore.class, Synchronizer.class, sync);
+        core.setExecutionMode(ExecutionMode.PINNED);
+        reactor = create(Reactor.class, ThreadingCore.class, core);
+
+        selector = Selector.open();
+        pipe = Pipe.open();
+        pipe.source().configureBlocking(false);
+        key = pipe.source().register(selector, SelectionKey.OP_READ);
+
+        // La clave queda lista para lectura:
+        pipe.sink().write(ByteBuffer.wrap(new byte[] {1}));
+        assertEquals(1, selector.select(1000));
+    }
+
+    @After
+    public void close() throws IOException {
+        core.shutdown();
+        pipe.source().close();
+        pipe.sink().close();
+        selector.close();
+    }
+
+    @Test
+    public void testDispatchSelectsTheFirstReadyEvent() {
+        final CountingHandler reader = new CountingHandler();
+        final CountingHandler writer = new CountingHandler();
+        reactor.add(reader, Event.READ).add(writer, Event.WRITE);
+
+        reactor.dispatch(key);
+        assertEquals(1, reader.count);
+        assertEquals(0, writer.count);
+
+        reactor.remove(reader);
+        reactor.dispatch(key);
+        assertEquals(1, reader.count);
+        assertEquals(0, writer.count);
+    }
+
+    @Test
+    public void testDispatchDoesNotAllocate() {
+        final com.sun.management.ThreadMXBean threads = allocationCounter();
+
+        final CountingHandler handler = new CountingHandler();
+        reactor.add(handler, Event.READ);
+
+        for (int i = 0; i < WARMUP; ++i) {
+            reactor.dispatch(key);
+        }
+
+        final long id = Thread.currentThread().getId();
+        final long before = threads.getThreadAllocatedBytes(id);
+        for (int i = 0; i < EVENTS; ++i) {
+            reactor.dispatch(key);
+        }
+        final long allocated = threads.getThreadAllocatedBytes(id) - before;
+
+        assertEquals(WARMUP + EVENTS, handler.count);
+        assertTrue("Bytes reservados: " + allocated, allocated / EVENTS == 0);
+    }
+
+    @Test
+    public void testPooledDispatchDoesNotAllocate() {
+        final com.sun.management.ThreadMXBean threads = allocationCounter();
+        core.setExecutionMode(ExecutionMode.POOLED);
+
+        final CountingHandler handler = new CountingHandler();
+        reactor.add(handler, Event.READ);
+
+        // Con la tarea del 'attachment', y luego con las de repuesto:
+        key.attach(new Session());
+        assertPooledDispatchDoesNotAllocate(threads, handler);
+        key.attach(null);
+        assertPooledDispatchDoesNotAllocate(threads, handler);
+    }
+
+    private void assertPooledDispatchDoesNotAllocate(
+            final com.sun.management.ThreadMXBean threads, final CountingHandler handler) {
+        final int start = handler.count;
+        for (int i = 1; i <= WARMUP; ++i) {
+            dispatchAndWait(handler, start + i);
+        }
+
+        final long id = Thread.currentThread().getId();
+        final long before = threads.getThreadAllocatedBytes(id);
+        for (int i = 1; i <= EVENTS; ++i) {
+            dispatchAndWait(handler, start + WARMUP + i);
+        }
+        final long allocated = threads.getThreadAllocatedBytes(id) - before;
+        assertTrue("Bytes reservados: " + allocated, allocated / EVENTS == 0);
+    }
+
+    private void dispatchAndWait(final CountingHandler handler, final int count) {
+        reactor.dispatch(key);
+        while (handler.count != count) {
+            // El evento se procesa en un worker.
+        }
+    }
+
+    private static com.sun.management.ThreadMXBean allocationCounter() {
+        final java.lang.management.ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        assumeTrue(bean instanceof com.sun.management.ThreadMXBean);
+
+        final com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) bean;
+        assumeTrue(threads.isThreadAllocatedMemorySupported());
+        threads.setThreadAllocatedMemoryEnabled(true);
+        return threads;
+    }
+
+    private static final class Session extends Attachment {
+
+        @Override
+        public ByteBuffer getInboundBuffer() {
+            return null;
+        }
+
+        @Override
+        public ByteBuffer getOutboundBuffer() {
+            return null;
+        }
+
+        @Override
+        public void onUnplug(final Event event) {}
+    }
+
+    private static final class CountingHandler implements Handler {
+
+        private volatile int count = 0;
+
+        @Override
+        public void handle(final SelectionKey key) {
+            ++count;
+        }
+
+        @Override
+        public void onSubmit(final SelectionKey key) {}
+
+        @Override
+        public void onResume(final SelectionKey key) {}
+    }
+}
@@ -0,0 +1,106 @@
+package ar.edu.itba.protos.transport.support;
+
+import static ar.edu.itba.protos.Instances.create;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import ar.edu.itba.protos.transport.idle.BlockingIdleStrategy;
+import ar.edu.itba.protos.transport.reactor.Event;
+
+public class AdmissionTest {
+
+    private Admission admission;
+    private Selector selector;
+    private ServerSocketChannel listener;
+    private SelectionKey key;
+
+    @Before
+    public void init() throws Exception {
+        admission = create(Admission.class).set(0, 50);
+
+        selector = Selector.open();
+        listener = ServerSocketChannel.open();
+        listener.configureBlocking(false);
+        listener.bind(new InetSocketAddress("127.0.0.1", 0));
+        key = listener.register(selector, SelectionKey.OP_ACCEPT);
+
+        admission.addListener(key, 2);
+        admission.bind(new EventLoop("test", selector, new BlockingIdleStrategy(0),
+                null, null, create(Synchronizer.class)));
+    }
+
+    @After
+    public void close() throws IOException {
+        listener.close();
+        selector.close();
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testLowMustBeAPercentage() {
+        admission.set(10, 0);
+    }
+
+    @Test
+    public void testListenerIsPausedAtTheLimit() {
+        admission.enter(key, new NullAttachment());
+        assertTrue(admission.admits(key));
+        admission.enter(key, new NullAttachment());
+
+        assertFalse(admission.admits(key));
+        assertEquals(0, key.interestOps());
+        assertTrue(admission.summarize().contains("2 of 2 (paused)."));
+    }
+
+    @Test
+    public void testListenerResumesAtTheLowWatermark() {
+        final Attachment first = new NullAttachment();
+        final Attachment second = new NullAttachment();
+        admission.enter(key, first);
+        admission.enter(key, second);
+        assertFalse(admission.admits(key));
+
+        Admission.leave(first);
+        assertTrue(admission.summarize().contains("1 of 2."));
+        assertTrue(admission.admits(key));
+
+        // Cada sesión se descuenta una única vez:
+        Admission.leave(first);
+        assertEquals(1, admission.getSessions());
+    }
+
+    @Test
+    public void testGlobalLimit() {
+        admission.set(1, 100);
+        admission.enter(key, new NullAttachment());
+        assertFalse(admission.admits(key));
+        assertTrue(admission.summarize().contains("1 of 1 (resume at 100%)."));
+    }
+
+    private static final class NullAttachment extends Attachment {
+
+        @Override
+        public ByteBuffer getInboundBuffer() {
+            return null;
+        }
+
+        @Override
+        public ByteBuffer getOutboundBuffer() {
+            return null;
+        }
+
+        @Override
+        public void onUnplug(final Event event) {}
+    }
+}
@@ -0,0 +1,127 @@
+package ar.edu.itba.protos.transport.support;
+
+import static ar.edu.itba.protos.Instances.create;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import ar.edu.itba.protos.config.BalancingPolicy;
+import ar.edu.itba.protos.config.Upstream;
+import ar.edu.itba.protos.config.UpstreamGroup;
+import ar.edu.itba.protos.transport.reactor.Event;
+
+public class BalancerTest {
+
+    private Connector connector;
+    private Balancer balancer;
+
+    @Before
+    public void init() throws Exception {
+        connector = create(Connector.class);
+        final HealthProber prober = create(HealthProber.class, Resolver.class, create(Resolver.class),
+                Connector.class, connector, Synchronizer.class, create(Synchronizer.class));
+        balancer = create(Balancer.class, CircuitBreaker.class, create(CircuitBreaker.class),
+                HealthProber.class, prober, Connector.class, connector);
+    }
+
+    @Test
+    public void testPoolIsParsed() {
+        final UpstreamGroup group = UpstreamGroup.parse("a:110@3", "[::1]:995", "least-sessions");
+
+        assertEquals(BalancingPolicy.LEAST_SESSIONS, group.getPolicy());
+        assertEquals(3, group.getReplicas().get(0).getWeight());
+        assertEquals("::1", group.getReplicas().get(1).getHost());
+        assertEquals(995, group.getReplicas().get(1).getPort());
+        assertEquals("a:110@3, ::1:995 (least-sessions)", group.toString());
+
+        // Un único servidor conserva el formato original:
+        assertEquals("a:110", UpstreamGroup.parse("a:110").toString());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testInvalidWeightIsRejected() {
+        UpstreamGroup.parse("a:110@0");
+    }
+
+    @Test
+    public void testLeastSessionsFollowsWeights() {
+        final UpstreamGroup group = UpstreamGroup.parse("a:110@2", "b:110", "least-sessions");
+
+        int heavy = 0;
+        for (int i = 0; i < 6; ++i) {
+            if ("a".equals(balancer.acquire(group, new NullAttachment()).getHost())) {
+                ++heavy;
+            }
+        }
+        assertEquals(4, heavy);
+    }
+
+    @Test
+    public void testFastestReplicaIsPreferred() {
+        final UpstreamGroup group = UpstreamGroup.parse("slow:110", "fast:110", "latency");
+        measure(group, "slow", 50000);
+        measure(group, "fast", 1000);
+
+        for (int i = 0; i < 10; ++i) {
+            assertEquals("fast", balancer.acquire(group, new NullAttachment()).getHost());
+        }
+        assertTrue(balancer.summarize().contains("fast:110, 10 active"));
+    }
+
+    @Test
+    public void testClosedSessionsAreReleased() {
+        final UpstreamGroup group = UpstreamGroup.of(new Upstream("a", 110));
+        final Attachment attachment = new NullAttachment();
+
+        balancer.acquire(group, attachment);
+        Balancer.leave(attachment);
+        Balancer.leave(attachment);
+        assertTrue(balancer.summarize().contains("a:110, 0 active, 1 sessions"));
+    }
+
+    @Test
+    public void testFailurePenaltyFollowsConnectorTimeout() {
+        final UpstreamGroup group = UpstreamGroup.of(new Upstream("a", 110));
+        final Attachment attachment = new NullAttachment();
+        connector.set(Connector.STAGGER, 2000);
+
+        balancer.acquire(group, attachment);
+        balancer.fail(attachment);
+        assertTrue(balancer.summarize().contains("a:110, 1 active, 1 sessions, 1 failed, 2000000 us."));
+    }
+
+    // Ocupa réplicas hasta medir la latencia de la indicada, y las libera:
+    private void measure(final UpstreamGroup group, final String host, final long micros) {
+        final List<Attachment> sessions = new ArrayList<>();
+        Attachment attachment;
+        do {
+            attachment = new NullAttachment();
+            sessions.add(attachment);
+        } while (!host.equals(balancer.acquire(group, attachment).getHost()));
+
+        balancer.record(attachment, micros);
+        sessions.forEach(Balancer::leave);
+    }
+
+    private static final class NullAttachment extends Attachment {
+
+        @Override
+        public ByteBuffer getInboundBuffer() {
+            return null;
+        }
+
+        @Override
+        public ByteBuffer getOutboundBuffer() {
+            return null;
+        }
+
+        @Override
+        public void onUnplug(final Event event) {}
+    }
+}
@@ -0,0 +1,108 @@
+package ar.edu.itba.protos.transport.support;
+
+import static ar.edu.itba.protos.Instances.create;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.nio.ByteBuffer;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import ar.edu.itba.protos.config.UpstreamGroup;
+import ar.edu.itba.protos.transport.reactor.Event;
+
+public class CircuitBreakerTest {
+
+    private CircuitBreaker breaker;
+    private Balancer balancer;
+
+    @Before
+    public void init() throws Exception {
+        // Dos fallos abren el circuito durante 100 ms:
+        breaker = create(CircuitBreaker.class).set(2, 100, 1000);
+        final Connector connector = create(Connector.class);
+        final HealthProber prober = create(HealthProber.class, Resolver.class, create(Resolver.class),
+                Connector.class, connector, Synchronizer.class, create(Synchronizer.class));
+        balancer = create(Balancer.class, CircuitBreaker.class, breaker, HealthProber.class, prober,
+                Connector.class, connector);
+    }
+
+    @After
+    public void close() {
+        breaker.shutdown();
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testNonPositiveThresholdIsRejected() {
+        breaker.set(0, 100, 1000);
+    }
+
+    @Test
+    public void testConsecutiveFailuresOpenTheCircuit() {
+        breaker.failure("a:110");
+        breaker.success("a:110");
+        breaker.failure("a:110");
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.getState("a:110"));
+
+        breaker.failure("a:110");
+        assertEquals(CircuitBreaker.State.OPEN, breaker.getState("a:110"));
+        assertFalse(breaker.allow("a:110"));
+        assertTrue(breaker.summarize().contains("a:110, open (1 trips)."));
+    }
+
+    @Test
+    public void testHalfOpenCircuitAdmitsASingleProbe() throws Exception {
+        breaker.failure("a:110");
+        breaker.failure("a:110");
+        Thread.sleep(150);
+
+        assertTrue(breaker.allow("a:110"));
+        assertEquals(CircuitBreaker.State.HALF_OPEN, breaker.getState("a:110"));
+        assertFalse(breaker.allow("a:110"));
+
+        // Un fallo de la prueba vuelve a abrir el circuito:
+        breaker.failure("a:110");
+        assertEquals(CircuitBreaker.State.OPEN, breaker.getState("a:110"));
+        Thread.sleep(150);
+
+        assertTrue(breaker.allow("a:110"));
+        breaker.success("a:110");
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.getState("a:110"));
+    }
+
+    @Test
+    public void testOpenReplicasAreSkipped() {
+        final UpstreamGroup group = UpstreamGroup.parse("a:110", "b:110");
+        breaker.failure("a:110");
+        breaker.failure("a:110");
+
+        for (int i = 0; i < 4; ++i) {
+            assertEquals("b", balancer.acquire(group, new NullAttachment()).getHost());
+        }
+
+        breaker.failure("b:110");
+        breaker.failure("b:110");
+        assertNull(balancer.acquire(group, new NullAttachment()));
+        assertTrue(breaker.summarize().contains("rejected:    1 "));
+    }
+
+    private static final class NullAttachment extends Attachment {
+
+        @Override
+        public ByteBuffer getInboundBuffer() {
+            return null;
+        }
+
+        @Override
+        public ByteBuffer getOutboundBuffer() {
+            return null;
+        }
+
+        @Override
+        public void onUnplug(final Event event) {}
+    }
+}
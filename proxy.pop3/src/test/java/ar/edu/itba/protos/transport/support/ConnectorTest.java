@@ -0,0 +1,102 @@
+package ar.edu.itba.protos.transport.support;
+
+import static ar.edu.itba.protos.Instances.create;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class ConnectorTest {
+
+    private Connector connector;
+    private ServerSocketChannel origin;
+    private InetSocketAddress good;
+    private InetSocketAddress refused;
+
+    @Before
+    public void init() throws Exception {
+        // Un intervalo extenso: solo un rechazo adelanta el siguiente intento.
+        connector = create(Connector.class).set(5000, 10000);
+
+        origin = ServerSocketChannel.open();
+        origin.bind(new InetSocketAddress("127.0.0.1", 0));
+        good = (InetSocketAddress) origin.getLocalAddress();
+
+        final ServerSocketChannel closed = ServerSocketChannel.open();
+        closed.bind(new InetSocketAddress("127.0.0.1", 0));
+        refused = (InetSocketAddress) closed.getLocalAddress();
+        closed.close();
+    }
+
+    @After
+    public void close() throws IOException {
+        connector.shutdown();
+        origin.close();
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testNonPositiveTimeoutIsRejected() {
+        connector.set(250, 0);
+    }
+
+    @Test(timeout = 4000)
+    public void testRefusedAddressFallsBack() throws Exception {
+        final SocketChannel socket = connector
+                .connect(Arrays.asList(refused, good), SocketOptions.DEFAULT).get();
+
+        assertTrue(socket.isConnected());
+        assertFalse(socket.isBlocking());
+        assertEquals(good, socket.getRemoteAddress());
+        socket.close();
+        assertTrue(connector.summarize().contains("fallbacks:   1 "));
+
+        // La siguiente sesión intenta primero la dirección más rápida:
+        assertEquals(Arrays.asList(good, refused), connector.order(Arrays.asList(refused, good)));
+    }
+
+    @Test(timeout = 4000)
+    public void testRaceFailsWhenNoAddressAnswers() throws Exception {
+        final CompletableFuture<SocketChannel> socket = connector
+                .connect(Arrays.asList(refused), SocketOptions.DEFAULT);
+        try {
+            socket.get();
+        } catch (final ExecutionException exception) {
+            // Esperado.
+        }
+        assertTrue(socket.isCompletedExceptionally());
+        assertTrue(connector.summarize().contains("failures:    1 "));
+    }
+
+    @Test(timeout = 4000)
+    public void testExpiredLatenciesAreForgotten() throws Exception {
+        connector.set(5000, 10000, 0);
+        connector.connect(Arrays.asList(refused, good), SocketOptions.DEFAULT).get().close();
+
+        // Sin memoria, ambas direcciones vuelven a ser desconocidas:
+        assertEquals(Arrays.asList(refused, good), connector.order(Arrays.asList(refused, good)));
+        assertFalse(connector.summarize().contains("address:"));
+    }
+
+    @Test
+    public void testUnknownAddressesAlternateFamilies() throws Exception {
+        final InetSocketAddress v6a = new InetSocketAddress(InetAddress.getByName("::1"), 1);
+        final InetSocketAddress v6b = new InetSocketAddress(InetAddress.getByName("::1"), 2);
+        final InetSocketAddress v4a = new InetSocketAddress(InetAddress.getByName("127.0.0.1"), 3);
+
+        final List<InetSocketAddress> ordered = connector.order(Arrays.asList(v6a, v6b, v4a));
+        assertEquals(Arrays.asList(v6a, v4a, v6b), ordered);
+    }
+}
@@ -0,0 +1,177 @@
+package ar.edu.itba.protos.transport.support;
+
+import static ar.edu.itba.protos.Instances.create;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import ar.edu.itba.protos.config.Upstream;
+import ar.edu.itba.protos.config.UpstreamGroup;
+import ar.edu.itba.protos.transport.handler.ReadHandler;
+import ar.edu.itba.protos.transport.handler.WriteHandler;
+import ar.edu.itba.protos.transport.idle.BlockingIdleStrategy;
+import ar.edu.itba.protos.transport.metrics.Metrics;
+import ar.edu.itba.protos.transport.reactor.Event;
+import ar.edu.itba.protos.transport.reactor.Reactor;
+
+public class HealthProberTest {
+
+    private Resolver resolver;
+    private Connector connector;
+    private HealthProber prober;
+    private ThreadingCore core;
+    private EventLoop loop;
+    private Thread thread;
+    private ServerSocketChannel origin;
+    private ServerSocketChannel silent;
+    private Upstream good;
+    private Upstream mute;
+    private Upstream refused;
+
+    @Before
+    public void init() throws Exception {
+        final Synchronizer sync = create(Synchronizer.class);
+        resolver = create(Resolver.class);
+        connector = create(Connector.class);
+        prober = create(HealthProber.class, Resolver.class, resolver, Connector.class, connector,
+                Synchronizer.class, sync);
+
+        // Un bucle de selección, con el 'handler' de lectura del servidor:
+        final Metrics metrics = new Metrics();
+        final Watermarks watermarks = create(Watermarks.class);
+        core = create(ThreadingCore.class, Synchronizer.class, sync);
+        final Reactor reactor = create(Reactor.class, ThreadingCore.class, core);
+        reactor.add(create(ReadHandler.class, Synchronizer.class, sync, Metrics.class, metrics,
+                WriteHandler.class, create(WriteHandler.class, Synchronizer.class, sync,
+                        Metrics.class, metrics, Watermarks.class, watermarks),
+                Watermarks.class, watermarks, ReadBudget.class, create(ReadBudget.class)), Event.READ);
+        loop = new EventLoop("event-loop-0", Selector.open(), new BlockingIdleStrategy(100), reactor,
+                create(WatchdogTimer.class, Synchronizer.class, sync), sync);
+        thread = new Thread(loop, loop.getName());
+        thread.start();
+
+        // Un servidor origen que envía su 'greeting' a cada conexión:
+        origin = ServerSocketChannel.open();
+        origin.bind(new InetSocketAddress("127.0.0.1", 0));
+        good = new Upstream("127.0.0.1", ((InetSocketAddress) origin.getLocalAddress()).getPort());
+        final Thread thread = new Thread(() -> {
+            try {
+                while (true) {
+                    try (SocketChannel socket = origin.accept()) {
+                        socket.write(ByteBuffer.wrap("+OK ready\r\n".getBytes(StandardCharsets.US_ASCII)));
+                        socket.read(ByteBuffer.allocate(64));
+                    }
+                }
+            } catch (final IOException exception) {
+                // El servidor se cerró.
+            }
+        });
+        thread.setDaemon(true);
+        thread.start();
+
+        // Acepta conexiones (en su cola), pero nunca envía su 'greeting':
+        silent = ServerSocketChannel.open();
+        silent.bind(new InetSocketAddress("127.0.0.1", 0));
+        mute = new Upstream("127.0.0.1", ((InetSocketAddress) silent.getLocalAddress()).getPort());
+
+        final ServerSocketChannel closed = ServerSocketChannel.open();
+        closed.bind(new InetSocketAddress("127.0.0.1", 0));
+        refused = new Upstream("127.0.0.1", ((InetSocketAddress) closed.getLocalAddress()).getPort());
+        closed.close();
+    }
+
+    @After
+    public void close() throws Exception {
+        prober.shutdown();
+        loop.shutdown();
+        thread.join(1000);
+        core.shutdown();
+        connector.shutdown();
+        resolver.shutdown();
+        origin.close();
+        silent.close();
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testNegativeIntervalIsRejected() {
+        prober.set(-1, 2000);
+    }
+
+    @Test
+    public void testUnprobedReplicaIsHealthy() {
+        assertTrue(prober.isHealthy(refused.toString()));
+        assertEquals(-1, prober.getLatency(refused.toString()));
+    }
+
+    @Test(timeout = 5000)
+    public void testProbesTrackAvailability() throws Exception {
+        prober.set(50, 500).setTargets(() -> Arrays.asList(good, refused)).bind(loop);
+
+        while (prober.isHealthy(refused.toString()) || prober.getLatency(good.toString()) < 0) {
+            Thread.sleep(20);
+        }
+
+        assertTrue(prober.isHealthy(good.toString()));
+        assertFalse(prober.isHealthy(refused.toString()));
+        assertTrue(prober.summarize().contains(good + ", up"));
+        assertTrue(prober.summarize().contains(refused + ", down, 0 of"));
+    }
+
+    @Test(timeout = 5000)
+    public void testUnhealthyReplicaIsSkipped() throws Exception {
+        final Balancer balancer = create(Balancer.class, CircuitBreaker.class, create(CircuitBreaker.class),
+                HealthProber.class, prober, Connector.class, connector);
+        prober.set(50, 500).setTargets(() -> Arrays.asList(good, refused)).bind(loop);
+
+        while (prober.isHealthy(refused.toString())) {
+            Thread.sleep(20);
+        }
+
+        final UpstreamGroup group = UpstreamGroup.of(refused, good);
+        for (int i = 0; i < 10; ++i) {
+            assertEquals(good, balancer.acquire(group, new NullAttachment()));
+        }
+    }
+
+    @Test(timeout = 5000)
+    public void testSilentReplicaTimesOut() throws Exception {
+        prober.set(50, 200).setTargets(() -> Arrays.asList(mute)).bind(loop);
+
+        while (prober.isHealthy(mute.toString())) {
+            Thread.sleep(20);
+        }
+
+        // Cada sondeo vence en el bucle (sin un thread propio):
+        assertTrue(prober.summarize().contains(mute + ", down, 0 of"));
+        assertEquals(-1, prober.getLatency(mute.toString()));
+    }
+
+    private static final class NullAttachment extends Attachment {
+
+        @Override
+        public ByteBuffer getInboundBuffer() {
+            return null;
+        }
+
+        @Override
+        public ByteBuffer getOutboundBuffer() {
+            return null;
+        }
+
+        @Override
+        public void onUnplug(final Event event) {}
+    }
+}
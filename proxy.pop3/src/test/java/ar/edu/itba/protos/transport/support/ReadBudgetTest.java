@@ -0,0 +1,45 @@
+package ar.edu.itba.protos.transport.support;
+
+import static ar.edu.itba.protos.Instances.create;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Before;
+import org.junit.Test;
+
+public class ReadBudgetTest {
+
+    private ReadBudget budget;
+
+    @Before
+    public void init() throws Exception {
+        budget = create(ReadBudget.class).set(4, 1000);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testReadsMustBePositive() {
+        budget.set(0, 1000);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testBytesMustBePositive() {
+        budget.set(4, 0);
+    }
+
+    @Test
+    public void testWhicheverLimitIsReachedFirst() {
+        assertTrue(budget.allows(3, 999));
+        assertFalse(budget.allows(4, 10));
+        assertFalse(budget.allows(1, 1000));
+    }
+
+    @Test
+    public void testLoopsAreReported() {
+        budget.log(4, true);
+        budget.log(2, false);
+
+        final String summary = budget.summarize();
+        assertTrue(summary.contains("6 reads over 2 events (avg: 3.00)."));
+        assertTrue(summary.contains("exhausted:   1"));
+    }
+}
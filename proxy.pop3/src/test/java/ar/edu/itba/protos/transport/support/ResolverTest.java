@@ -0,0 +1,87 @@
+package ar.edu.itba.protos.transport.support;
+
+import static ar.edu.itba.protos.Instances.create;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class ResolverTest {
+
+    // Una dirección IPv6 mal formada falla sin consultar al DNS:
+    private static final String INVALID = "[1::2";
+
+    private Resolver resolver;
+
+    @Before
+    public void init() throws Exception {
+        resolver = create(Resolver.class);
+    }
+
+    @After
+    public void close() {
+        resolver.shutdown();
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testNegativeTTLIsRejected() {
+        resolver.set(-1, 1000);
+    }
+
+    @Test(timeout = 5000)
+    public void testResolutionIsCached() throws Exception {
+        final CompletableFuture<List<InetAddress>> first = resolver.resolve("127.0.0.1");
+        assertEquals(Arrays.asList(InetAddress.getByName("127.0.0.1")), first.get());
+
+        // La segunda resolución ya se encuentra completa:
+        final CompletableFuture<List<InetAddress>> second = resolver.resolve("127.0.0.1");
+        assertTrue(second.isDone());
+        assertSame(first, second);
+        assertTrue(resolver.summarize().contains("1 of 2 requests (50%)"));
+    }
+
+    @Test(timeout = 5000)
+    public void testFailuresAreCached() throws Exception {
+        final CompletableFuture<List<InetAddress>> first = resolver.resolve(INVALID);
+        try {
+            first.get();
+        } catch (final ExecutionException exception) {
+            assertTrue(exception.getCause() instanceof UnknownHostException);
+        }
+        assertTrue(first.isCompletedExceptionally());
+        assertSame(first, resolver.resolve(INVALID));
+    }
+
+    @Test(timeout = 5000)
+    public void testExpiredEntriesAreResolvedAgain() throws Exception {
+        resolver.set(0, 0);
+        final CompletableFuture<List<InetAddress>> first = resolver.resolve("127.0.0.1");
+        first.get();
+        assertNotSame(first, resolver.resolve("127.0.0.1"));
+    }
+
+    @Test(timeout = 5000)
+    public void testExpiredEntriesAreEvicted() throws Exception {
+        resolver.set(0, 0);
+        resolver.resolve("127.0.0.1").get();
+        assertTrue(resolver.summarize().contains("cache:       1 hosts"));
+
+        // La siguiente consulta descarta la entrada vencida de otro nombre:
+        try {
+            resolver.resolve(INVALID).get();
+        } catch (final ExecutionException exception) {
+        }
+        assertTrue(resolver.summarize().contains("cache:       1 hosts"));
+    }
+}
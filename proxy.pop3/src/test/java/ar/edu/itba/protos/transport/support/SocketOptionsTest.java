@@ -0,0 +1,44 @@
+package ar.edu.itba.protos.transport.support;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.net.StandardSocketOptions;
+import java.nio.channels.SocketChannel;
+
+import org.junit.Test;
+
+public class SocketOptionsTest {
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testBuffersCannotBeNegative() {
+        new SocketOptions(null, null, -1, 0);
+    }
+
+    @Test
+    public void testOptionsAreApplied() throws IOException {
+        try (final SocketChannel channel = SocketChannel.open()) {
+            new SocketOptions(true, true, 0, 0).apply(channel);
+            assertTrue(channel.getOption(StandardSocketOptions.TCP_NODELAY));
+            assertTrue(channel.getOption(StandardSocketOptions.SO_KEEPALIVE));
+
+            new SocketOptions(false, null, 0, 0).apply(channel);
+            assertEquals(false, channel.getOption(StandardSocketOptions.TCP_NODELAY));
+            assertTrue(channel.getOption(StandardSocketOptions.SO_KEEPALIVE));
+        }
+    }
+
+    @Test
+    public void testSpecificOptionsTakePrecedence() {
+        final SocketOptions options = new SocketOptions(true, null, 65536, 0)
+                .with(new SocketOptions(false, true, 0, 8192));
+
+        assertEquals(false, options.getNoDelay());
+        assertEquals(true, options.getKeepAlive());
+        assertEquals(65536, options.getReceiveBuffer());
+        assertEquals(8192, options.getSendBuffer());
+        assertEquals("TCP_NODELAY off, SO_KEEPALIVE on, SO_RCVBUF 65536 bytes, SO_SNDBUF 8192 bytes",
+                options.toString());
+    }
+}
@@ -0,0 +1,223 @@
+package ar.edu.itba.protos.transport.support;
+
+import static ar.edu.itba.protos.Instances.create;
+import static org.junit.Assert.assertEquals;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.CancelledKeyException;
+import java.nio.channels.Pipe;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CountDownLatch;
+
+import org.apache.commons.lang3.mutable.MutableInt;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import ar.edu.itba.protos.transport.idle.BusySpinIdleStrategy;
+import ar.edu.itba.protos.transport.reactor.Event;
+
+/**
+ * <p>Benchmark de contención: 64 workers modifican cada uno su
+ * propia clave, utilizando el repositorio anterior (un único
+ * monitor global) y el actual (estado por clave, sin locks).</p>
+ */
+
+public class SynchronizerContentionTest {
+
+    private static final Logger logger
+    = LoggerFactory.getLogger(SynchronizerContentionTest.class);
+
+    private static final int WORKERS = 64;
+    private static final int ITERATIONS = 20000;
+
+    private Synchronizer sync;
+    private Selector selector;
+    private Pipe[] pipes;
+    private SelectionKey[] keys;
+
+    @Before
+    public void init() throws Exception {
+        sync = create(Synchronizer.class);
+
+        selector = Selector.open();
+        pipes = new Pipe[WORKERS];
+        keys = new SelectionKey[WORKERS];
+        for (int i = 0; i < WORKERS; ++i) {
+            pipes[i] = Pipe.open();
+            pipes[i].source().configureBlocking(false);
+            keys[i] = pipes[i].source().register(selector, SelectionKey.OP_READ, new NullAttachment());
+        }
+
+        // El selector pertenece a otro thread (como un bucle de selección):
+        final Thread owner = new Thread(() -> sync.bind(selector, new BusySpinIdleStrategy()));
+        owner.start();
+        owner.join();
+    }
+
+    @After
+    public void close() throws IOException {
+        for (final Pipe pipe : pipes) {
+            pipe.source().close();
+            pipe.sink().close();
+        }
+        selector.close();
+    }
+
+    @Test
+    public void testContention() throws InterruptedException {
+        final MonitorSynchronizer monitor = new MonitorSynchronizer();
+
+        // Calentamiento:
+        run(new Lockless(sync));
+        run(monitor);
+
+        final long lockless = run(new Lockless(sync));
+        final long locked = run(monitor);
+
+        logger.info("Contención con {} workers: monitor global = {} ns/op, por clave = {} ns/op.",
+                WORKERS, locked / (WORKERS * ITERATIONS), lockless / (WORKERS * ITERATIONS));
+
+        // Las reposiciones se colapsan en una por clave:
+        assertEquals(WORKERS, sync.flush(selector));
+        for (final SelectionKey key : keys) {
+            assertEquals(SelectionKey.OP_READ, key.interestOps());
+        }
+    }
+
+    private long run(final Repository repository) throws InterruptedException {
+        final CountDownLatch start = new CountDownLatch(1);
+        final Thread[] threads = new Thread[WORKERS];
+
+        for (int i = 0; i < WORKERS; ++i) {
+            final SelectionKey key = keys[i];
+            threads[i] = new Thread(() -> {
+                try {
+                    start.await();
+                } catch (final InterruptedException exception) {
+                    return;
+                }
+                repository.save(key);
+                for (int j = 0; j < ITERATIONS; ++j) {
+                    repository.enable(key, Event.WRITE);
+                    repository.disable(key, Event.WRITE);
+                    repository.restore(key);
+                }
+            });
+            threads[i].start();
+        }
+
+        final long begin = System.nanoTime();
+        start.countDown();
+        for (final Thread thread : threads) {
+            thread.join();
+        }
+        return System.nanoTime() - begin;
+    }
+
+    private interface Repository {
+        void save(SelectionKey key);
+        void enable(SelectionKey key, Event event);
+        void disable(SelectionKey key, Event event);
+        void restore(SelectionKey key);
+    }
+
+    private static final class Lockless implements Repository {
+
+        private final Synchronizer sync;
+
+        public Lockless(final Synchronizer sync) {
+            this.sync = sync;
+        }
+
+        @Override
+        public void save(final SelectionKey key) {
+            sync.save(key);
+        }
+
+        @Override
+        public void enable(final SelectionKey key, final Event event) {
+            sync.enable(key, event);
+        }
+
+        @Override
+        public void disable(final SelectionKey key, final Event event) {
+            sync.disable(key, event);
+        }
+
+        @Override
+        public void restore(final SelectionKey key) {
+            sync.restore(key);
+        }
+    }
+
+    /**
+     * <p>La implementación anterior del repositorio: todos los
+     * métodos se sincronizan sobre un único monitor.</p>
+     */
+
+    private static final class MonitorSynchronizer implements Repository {
+
+        private final ConcurrentMap<SelectionKey, MutableInt> keys = new ConcurrentHashMap<>();
+
+        @Override
+        public synchronized void save(final SelectionKey key) {
+            try {
+                keys.put(key, new MutableInt(key.interestOps()));
+                key.interestOps(0);
+            } catch (final CancelledKeyException exception) {
+                keys.remove(key);
+            }
+        }
+
+        @Override
+        public synchronized void enable(final SelectionKey key, final Event event) {
+            final MutableInt options = keys.get(key);
+            if (options != null) {
+                options.setValue(options.intValue() | event.getOptions());
+            }
+        }
+
+        @Override
+        public synchronized void disable(final SelectionKey key, final Event event) {
+            final MutableInt options = keys.get(key);
+            if (options != null) {
+                options.setValue(options.intValue() & ~event.getOptions());
+            }
+        }
+
+        @Override
+        public synchronized void restore(final SelectionKey key) {
+            final MutableInt options = keys.get(key);
+            try {
+                if (options != null) {
+                    key.interestOps(options.intValue());
+                }
+            } catch (final CancelledKeyException exception) {
+                keys.remove(key);
+            }
+        }
+    }
+
+    private static final class NullAttachment extends Attachment {
+
+        @Override
+        public ByteBuffer getInboundBuffer() {
+            return null;
+        }
+
+        @Override
+        public ByteBuffer getOutboundBuffer() {
+            return null;
+        }
+
+        @Override
+        public void onUnplug(final Event event) {}
+    }
+}
@@ -0,0 +1,116 @@
+package ar.edu.itba.protos.transport.support;
+
+import static ar.edu.itba.protos.Instances.create;
+import static org.junit.Assert.assertEquals;
+
+import java.io.IOException;
+import java.nio.channels.Pipe;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import ar.edu.itba.protos.transport.idle.BusySpinIdleStrategy;
+import ar.edu.itba.protos.transport.reactor.Event;
+
+public class SynchronizerTest {
+
+    private Synchronizer sync;
+    private Selector selector;
+    private Pipe pipe;
+    private SelectionKey key;
+
+    @Before
+    public void init() throws Exception {
+        sync = create(Synchronizer.class);
+
+        selector = Selector.open();
+        pipe = Pipe.open();
+        pipe.source().configureBlocking(false);
+        key = pipe.source().register(selector, SelectionKey.OP_READ);
+        bindOnAnotherThread();
+    }
+
+    private void bindOnAnotherThread() throws InterruptedException {
+        final Thread owner = new Thread(() -> sync.bind(selector, new BusySpinIdleStrategy()));
+        owner.start();
+        owner.join();
+    }
+
+    @After
+    public void close() throws IOException {
+        pipe.source().close();
+        pipe.sink().close();
+        selector.close();
+    }
+
+    @Test
+    public void testSaveSuspendsTheKey() {
+        sync.save(key);
+        assertEquals(0, key.interestOps());
+    }
+
+    @Test
+    public void testRestoreIsAppliedOnFlush() {
+        sync.save(key);
+        sync.restore(key);
+        assertEquals(0, key.interestOps());
+        assertEquals(1, sync.flush(selector));
+        assertEquals(SelectionKey.OP_READ, key.interestOps());
+    }
+
+    @Test
+    public void testChangesAreCoalesced() {
+        sync.save(key);
+        sync.disable(key, Event.READ);
+        sync.restore(key);
+        sync.enable(key, Event.READ);
+        sync.restore(key);
+        sync.restore(key, key);
+        assertEquals(1, sync.flush(selector));
+        assertEquals(SelectionKey.OP_READ, key.interestOps());
+        assertEquals(0, sync.flush(selector));
+    }
+
+    @Test
+    public void testSaveDiscardsPendingRestores() {
+        sync.save(key);
+        sync.restore(key);
+        sync.save(key);
+        assertEquals(0, sync.flush(selector));
+        assertEquals(0, key.interestOps());
+        sync.restore(key);
+        assertEquals(1, sync.flush(selector));
+        assertEquals(SelectionKey.OP_READ, key.interestOps());
+    }
+
+    @Test
+    public void testDeletedKeysAreIgnored() {
+        sync.save(key);
+        sync.restore(key);
+        sync.delete(key);
+        assertEquals(0, sync.flush(selector));
+        assertEquals(0, key.interestOps());
+    }
+
+    @Test
+    public void testUnboundSelectorsAreRestoredImmediately() {
+        sync.unbind(selector);
+        sync.save(key);
+        sync.restore(key);
+        assertEquals(SelectionKey.OP_READ, key.interestOps());
+        assertEquals(0, sync.flush(selector));
+    }
+
+    @Test
+    public void testOwnerThreadRestoresImmediately() {
+        sync.bind(selector, new BusySpinIdleStrategy());
+        sync.save(key);
+        assertEquals(0, key.interestOps());
+        sync.restore(key);
+        assertEquals(SelectionKey.OP_READ, key.interestOps());
+        assertEquals(0, sync.flush(selector));
+    }
+}
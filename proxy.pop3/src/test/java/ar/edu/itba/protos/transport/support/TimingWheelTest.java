@@ -0,0 +1,130 @@
+package ar.edu.itba.protos.transport.support;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Pipe;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import ar.edu.itba.protos.transport.reactor.Event;
+
+public class TimingWheelTest {
+
+    private static final long RESOLUTION = 100;
+
+    private final List<SelectionKey> expired = new ArrayList<>();
+    private TimingWheel wheel;
+    private Selector selector;
+    private Pipe pipe;
+    private Attachment attachment;
+
+    @Before
+    public void init() throws IOException {
+        wheel = new TimingWheel(8, RESOLUTION, 0);
+        selector = Selector.open();
+        pipe = Pipe.open();
+        pipe.source().configureBlocking(false);
+        attachment = new NullAttachment();
+        attachment.setDownstream(pipe.source().register(selector, SelectionKey.OP_READ, attachment));
+    }
+
+    @After
+    public void close() throws IOException {
+        pipe.source().close();
+        pipe.sink().close();
+        selector.close();
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testSlotsMustBeAPowerOfTwo() {
+        new TimingWheel(6, RESOLUTION, 0);
+    }
+
+    @Test
+    public void testExpiration() {
+        attachment.deadline.expiration = 250;
+        wheel.schedule(attachment.deadline);
+        assertTrue(attachment.deadline.scheduled);
+        assertEquals(1, wheel.size());
+
+        assertEquals(0, wheel.expire(200, expired::add));
+        assertEquals(1, wheel.expire(300, expired::add));
+        assertSame(attachment.getDownstream(), expired.get(0));
+        assertFalse(attachment.deadline.scheduled);
+        assertEquals(0, wheel.size());
+    }
+
+    @Test
+    public void testRefreshedDeadlinesAreRescheduled() {
+        attachment.deadline.expiration = 250;
+        wheel.schedule(attachment.deadline);
+
+        // Más allá de una vuelta completa de la rueda:
+        attachment.deadline.expiration = 2000;
+        assertEquals(0, wheel.expire(300, expired::add));
+        assertEquals(0, wheel.expire(1200, expired::add));
+        assertEquals(1, wheel.size());
+        assertEquals(1, wheel.expire(2100, expired::add));
+    }
+
+    @Test
+    public void testNextExpiration() {
+        assertEquals(Long.MAX_VALUE, wheel.getNextExpiration());
+        attachment.deadline.expiration = 250;
+        wheel.schedule(attachment.deadline);
+        assertEquals(200, wheel.getNextExpiration());
+
+        // La ranura se recorre, pero la clave todavía no expiró:
+        assertEquals(0, wheel.expire(200, expired::add));
+        assertEquals(300, wheel.getNextExpiration());
+        assertEquals(1, wheel.expire(300, expired::add));
+        assertEquals(Long.MAX_VALUE, wheel.getNextExpiration());
+    }
+
+    @Test
+    public void testCancel() {
+        attachment.deadline.expiration = 250;
+        wheel.schedule(attachment.deadline);
+        assertTrue(wheel.cancel(attachment.deadline));
+        assertFalse(wheel.cancel(attachment.deadline));
+        assertEquals(0, wheel.expire(1000, expired::add));
+        assertEquals(0, wheel.size());
+    }
+
+    @Test
+    public void testClosedChannelsAreDiscarded() {
+        attachment.deadline.expiration = 250;
+        wheel.schedule(attachment.deadline);
+        attachment.getDownstream().cancel();
+        assertEquals(0, wheel.expire(1000, expired::add));
+        assertEquals(0, wheel.size());
+        assertFalse(attachment.deadline.scheduled);
+    }
+
+    private static final class NullAttachment extends Attachment {
+
+        @Override
+        public ByteBuffer getInboundBuffer() {
+            return null;
+        }
+
+        @Override
+        public ByteBuffer getOutboundBuffer() {
+            return null;
+        }
+
+        @Override
+        public void onUnplug(final Event event) {}
+    }
+}
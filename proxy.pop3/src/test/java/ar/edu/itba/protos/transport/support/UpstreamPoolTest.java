@@ -0,0 +1,158 @@
+package ar.edu.itba.protos.transport.support;
+
+import static ar.edu.itba.protos.Instances.create;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.SocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class UpstreamPoolTest {
+
+    private static final byte [] GREETING = "+OK POP3 ready\r\n".getBytes(StandardCharsets.US_ASCII);
+
+    private UpstreamPool pool;
+    private ServerSocketChannel origin;
+    private SocketAddress address;
+    private final List<SocketChannel> accepted = new CopyOnWriteArrayList<>();
+
+    @Before
+    public void init() throws Exception {
+        pool = create(UpstreamPool.class);
+        origin = ServerSocketChannel.open();
+        origin.bind(new InetSocketAddress("127.0.0.1", 0));
+        address = origin.getLocalAddress();
+
+        // Un servidor origen que envía su 'greeting' a cada conexión:
+        final Thread server = new Thread(() -> {
+            try {
+                while (true) {
+                    final SocketChannel socket = origin.accept();
+                    socket.write(ByteBuffer.wrap(GREETING));
+                    accepted.add(socket);
+                }
+            } catch (final IOException exception) {
+                // El test terminó.
+            }
+        });
+        server.setDaemon(true);
+        server.start();
+    }
+
+    @After
+    public void close() throws IOException {
+        pool.shutdown();
+        origin.close();
+        for (final SocketChannel socket : accepted) {
+            socket.close();
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testNegativeSizeIsRejected() {
+        pool.set(-1, 1000);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testNonPositiveTTLIsRejected() {
+        pool.set(1, 0);
+    }
+
+    @Test(timeout = 5000)
+    public void testDisabledPoolDoesNotConnect() throws InterruptedException {
+        pool.set(0, 1000);
+        assertNull(pool.acquire(address, SocketOptions.DEFAULT));
+        Thread.sleep(200);
+        assertTrue(accepted.isEmpty());
+    }
+
+    @Test(timeout = 5000)
+    public void testWarmConnectionIsHandedOver() throws Exception {
+        pool.set(2, 10000);
+
+        // La primera sesión no encuentra conexiones disponibles:
+        assertNull(pool.acquire(address, SocketOptions.DEFAULT));
+
+        final UpstreamPool.Connection connection = await();
+        assertArrayEquals(GREETING, connection.getGreeting());
+        assertTrue(connection.getSocket().isConnected());
+        assertFalse(connection.getSocket().isBlocking());
+        connection.getSocket().close();
+
+        // El pool se repone en segundo plano:
+        while (accepted.size() < 3) {
+            Thread.sleep(10);
+        }
+        assertEquals(3, accepted.size());
+    }
+
+    @Test(timeout = 5000)
+    public void testExpiredConnectionsAreReplaced() throws Exception {
+        pool.set(1, 100);
+        assertNull(pool.acquire(address, SocketOptions.DEFAULT));
+
+        // La conexión vence, y se abre otra en su lugar:
+        while (accepted.size() < 2) {
+            Thread.sleep(10);
+        }
+        assertFalse(pool.summarize().contains("expired:     0 "));
+    }
+
+    @Test(timeout = 5000)
+    public void testClosedConnectionsAreDropped() throws Exception {
+        pool.set(1, 10000);
+        assertNull(pool.acquire(address, SocketOptions.DEFAULT));
+        while (accepted.isEmpty()) {
+            Thread.sleep(10);
+        }
+
+        // El servidor cierra la conexión mientras espera en el pool:
+        accepted.get(0).close();
+        while (accepted.size() < 2) {
+            Thread.sleep(10);
+        }
+
+        final UpstreamPool.Connection connection = await();
+        assertArrayEquals(GREETING, connection.getGreeting());
+        connection.getSocket().close();
+    }
+
+    @Test(timeout = 10000)
+    public void testSilentConnectionsAreDropped() throws Exception {
+        pool.set(1, 10000);
+
+        // Un servidor que acepta (en el 'backlog'), pero nunca saluda:
+        try (ServerSocketChannel silent = ServerSocketChannel.open()) {
+            silent.bind(new InetSocketAddress("127.0.0.1", 0));
+            assertNull(pool.acquire(silent.getLocalAddress(), SocketOptions.DEFAULT));
+
+            // Vencido el plazo, la conexión deja de contarse en curso:
+            while (pool.summarize().contains("dropped:     0 ")) {
+                Thread.sleep(50);
+            }
+            assertTrue(pool.summarize().contains("0 ready, 0 connecting."));
+        }
+    }
+
+    private UpstreamPool.Connection await() throws InterruptedException {
+        UpstreamPool.Connection connection;
+        while ((connection = pool.acquire(address, SocketOptions.DEFAULT)) == null) {
+            Thread.sleep(10);
+        }
+        return connection;
+    }
+}
@@ -0,0 +1,92 @@
+package ar.edu.itba.protos.transport.support;
+
+import static ar.edu.itba.protos.Instances.create;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.nio.ByteBuffer;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import ar.edu.itba.protos.transport.reactor.Event;
+
+public class WatermarksTest {
+
+    private Watermarks watermarks;
+    private BufferAttachment attachment;
+
+    @Before
+    public void init() throws Exception {
+        watermarks = create(Watermarks.class).set(75, 25);
+        attachment = new BufferAttachment(100);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testLowMustBeBelowHigh() {
+        watermarks.set(50, 50);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testHighCannotExceedTheCapacity() {
+        watermarks.set(101, 25);
+    }
+
+    @Test
+    public void testPauseAtTheHighWatermark() {
+        attachment.buffer.position(74);
+        assertFalse(watermarks.pause(attachment));
+
+        attachment.buffer.position(75);
+        assertTrue(watermarks.pause(attachment));
+
+        // Ya se encuentra suspendido:
+        assertFalse(watermarks.pause(attachment));
+    }
+
+    @Test
+    public void testResumeAtTheLowWatermark() {
+        attachment.buffer.position(80);
+        assertFalse(watermarks.resume(attachment));
+        assertTrue(watermarks.pause(attachment));
+
+        // Entre ambas marcas, la lectura sigue suspendida:
+        attachment.buffer.position(50);
+        assertFalse(watermarks.resume(attachment));
+
+        attachment.buffer.position(25);
+        assertTrue(watermarks.resume(attachment));
+        assertFalse(watermarks.resume(attachment));
+        assertTrue(watermarks.summarize().contains("paused:      1"));
+        assertTrue(watermarks.summarize().contains("resumed:     1"));
+    }
+
+    @Test
+    public void testFullBuffersAlwaysPause() {
+        watermarks.set(100, 0);
+        attachment.buffer.position(100);
+        assertTrue(watermarks.pause(attachment));
+    }
+
+    private static final class BufferAttachment extends Attachment {
+
+        private final ByteBuffer buffer;
+
+        public BufferAttachment(final int capacity) {
+            buffer = ByteBuffer.allocate(capacity);
+        }
+
+        @Override
+        public ByteBuffer getInboundBuffer() {
+            return buffer;
+        }
+
+        @Override
+        public ByteBuffer getOutboundBuffer() {
+            return buffer;
+        }
+
+        @Override
+        public void onUnplug(final Event event) {}
+    }
+}